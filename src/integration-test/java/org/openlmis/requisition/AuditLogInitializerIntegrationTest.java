@@ -52,6 +52,8 @@ import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.context.ApplicationContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 
 @Transactional
@@ -85,6 +87,9 @@ public class AuditLogInitializerIntegrationTest {
   @Autowired
   private ApplicationContext applicationContext;
 
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
   @PersistenceContext
   private EntityManager entityManager;
 
@@ -103,8 +108,7 @@ public class AuditLogInitializerIntegrationTest {
 
     assertThat(snapshots, hasSize(0));
 
-    AuditLogInitializer auditLogInitializer = new AuditLogInitializer(applicationContext, javers);
-    auditLogInitializer.run();
+    createAuditLogInitializer().run();
 
     snapshots = javers.findSnapshots(jqlQuery.build());
 
@@ -122,6 +126,37 @@ public class AuditLogInitializerIntegrationTest {
     assertThat(instanceId.getTypeName(), is("Requisition"));
   }
 
+  @Test
+  public void shouldNotCreateSecondSnapshot() {
+    // given
+    UUID requisitionId = UUID.randomUUID();
+
+    AvailableRequisitionColumn availableRequisitionColumn = addAvailableRequisitionColumn();
+    RequisitionTemplate requisitionTemplate = addRequisitionTemplate(availableRequisitionColumn);
+    addRequisition(requisitionId, requisitionTemplate.getId());
+
+    AuditLogInitializer auditLogInitializer = createAuditLogInitializer();
+    auditLogInitializer.run();
+
+    // when
+    auditLogInitializer.run();
+
+    // then
+    QueryBuilder jqlQuery = QueryBuilder.byInstanceId(requisitionId, Requisition.class);
+    assertThat(javers.findSnapshots(jqlQuery.build()), hasSize(1));
+  }
+
+  private AuditLogInitializer createAuditLogInitializer() {
+    // data of the test transaction is not visible to workers, so this thread creates snapshots
+    AuditLogInitializer auditLogInitializer =
+        new AuditLogInitializer(applicationContext, javers, transactionManager);
+    ReflectionTestUtils.setField(auditLogInitializer, "batchSize", 2);
+    ReflectionTestUtils.setField(auditLogInitializer, "workers", 1);
+    ReflectionTestUtils.setField(auditLogInitializer, "startAfter", "");
+
+    return auditLogInitializer;
+  }
+
   private AvailableRequisitionColumn addAvailableRequisitionColumn() {
     AvailableRequisitionColumn availableRequisitionColumn =
         new AvailableRequisitionColumnDataBuilder()
@@ -27,7 +27,9 @@ import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.isIn;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -45,6 +47,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -62,6 +65,7 @@ import org.openlmis.requisition.domain.RequisitionTemplateColumn;
 import org.openlmis.requisition.domain.RequisitionTemplateColumnDataBuilder;
 import org.openlmis.requisition.domain.RequisitionTemplateDataBuilder;
 import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionCompletion;
 import org.openlmis.requisition.domain.requisition.RequisitionDataBuilder;
 import org.openlmis.requisition.domain.requisition.RequisitionLineItem;
 import org.openlmis.requisition.domain.requisition.RequisitionLineItemDataBuilder;
@@ -77,6 +81,8 @@ import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
 import org.openlmis.requisition.testutils.AvailableRequisitionColumnDataBuilder;
 import org.openlmis.requisition.testutils.DefaultRequisitionSearchParamsDataBuilder;
 import org.openlmis.requisition.testutils.StatusChangeDataBuilder;
+import org.openlmis.requisition.utils.CursorPageable;
+import org.openlmis.requisition.utils.CursorSlice;
 import org.openlmis.requisition.utils.Pagination;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -363,6 +369,144 @@ public class RequisitionRepositoryIntegrationTest
     });
   }
 
+  @Test
+  public void shouldSearchRequisitionCompletionsWithFirstApprovedDate() {
+    // given
+    UUID programId = UUID.randomUUID();
+    UUID periodId = UUID.randomUUID();
+    UUID approvedFacilityId = UUID.randomUUID();
+    UUID initiatedFacilityId = UUID.randomUUID();
+
+    Requisition approved = generateInstance(approvedFacilityId, programId, periodId);
+    approved.setEmergency(false);
+    approved.setStatus(APPROVED);
+    approved.getStatusChanges().add(new StatusChangeDataBuilder()
+        .withRequisition(approved)
+        .withStatus(APPROVED)
+        .buildAsNew());
+    approved.getStatusChanges().add(new StatusChangeDataBuilder()
+        .withRequisition(approved)
+        .withStatus(APPROVED)
+        .buildAsNew());
+    repository.save(approved);
+
+    Requisition initiated = generateInstance(initiatedFacilityId, programId, periodId);
+    initiated.setEmergency(false);
+    repository.save(initiated);
+
+    Requisition emergency = generateInstance(approvedFacilityId, programId, periodId);
+    emergency.setEmergency(true);
+    repository.save(emergency);
+
+    repository.save(generateInstance(approvedFacilityId, UUID.randomUUID(), periodId));
+
+    entityManager.flush();
+
+    // when
+    List<RequisitionCompletion> completions = repository.searchRequisitionCompletions(
+        programId, singleton(periodId), asList(approvedFacilityId, initiatedFacilityId));
+
+    // then
+    assertThat(completions, hasSize(2));
+
+    Map<UUID, RequisitionCompletion> byRequisition = completions
+        .stream()
+        .collect(Collectors.toMap(RequisitionCompletion::getRequisitionId, item -> item));
+
+    RequisitionCompletion approvedCompletion = byRequisition.get(approved.getId());
+    assertEquals(periodId, approvedCompletion.getPeriodId());
+    assertEquals(approvedFacilityId, approvedCompletion.getFacilityId());
+    assertNotNull(approvedCompletion.getApprovedDate());
+
+    RequisitionCompletion initiatedCompletion = byRequisition.get(initiated.getId());
+    assertEquals(initiatedFacilityId, initiatedCompletion.getFacilityId());
+    assertThat(initiatedCompletion.getApprovedDate(), is(nullValue()));
+  }
+
+  @Test
+  public void shouldReturnNoRequisitionCompletionsForEmptyFacilities() {
+    Requisition requisition = requisitions.get(0);
+
+    List<RequisitionCompletion> completions = repository.searchRequisitionCompletions(
+        requisition.getProgramId(), singleton(requisition.getProcessingPeriodId()), emptySet());
+
+    assertThat(completions, hasSize(0));
+  }
+
+  @Test
+  public void shouldSearchFacilitiesWithoutRequisitionsInGivenStatuses() {
+    // given
+    UUID programId = UUID.randomUUID();
+    UUID periodId = UUID.randomUUID();
+    UUID approvedFacilityId = UUID.randomUUID();
+    UUID initiatedFacilityId = UUID.randomUUID();
+    UUID emptyFacilityId = UUID.randomUUID();
+
+    Requisition approved = generateInstance(approvedFacilityId, programId, periodId);
+    approved.setStatus(APPROVED);
+    repository.save(approved);
+
+    repository.save(generateInstance(initiatedFacilityId, programId, periodId));
+    repository.save(generateInstance(emptyFacilityId, UUID.randomUUID(), periodId));
+
+    entityManager.flush();
+
+    // when
+    List<UUID> facilityIds = repository.searchFacilitiesWithoutRequisitions(
+        asList(approvedFacilityId, initiatedFacilityId, emptyFacilityId), programId, periodId,
+        EnumSet.of(APPROVED, RELEASED), emptyList(), emptySet());
+
+    // then
+    assertThat(facilityIds, hasSize(2));
+    assertThat(facilityIds, hasItem(initiatedFacilityId));
+    assertThat(facilityIds, hasItem(emptyFacilityId));
+  }
+
+  @Test
+  public void shouldReturnNoFacilitiesWithoutRequisitionsForEmptyFacilities() {
+    Requisition requisition = requisitions.get(0);
+
+    List<UUID> facilityIds = repository.searchFacilitiesWithoutRequisitions(emptySet(),
+        requisition.getProgramId(), requisition.getProcessingPeriodId(), EnumSet.of(APPROVED),
+        emptyList(), emptySet());
+
+    assertThat(facilityIds, hasSize(0));
+  }
+
+  @Test
+  public void shouldSearchFacilitiesWithoutRequisitionsVisibleToUser() {
+    // given
+    UUID programId = UUID.randomUUID();
+    UUID periodId = UUID.randomUUID();
+    UUID visibleFacilityId = UUID.randomUUID();
+    UUID pairFacilityId = UUID.randomUUID();
+    UUID hiddenFacilityId = UUID.randomUUID();
+
+    Requisition visible = generateInstance(visibleFacilityId, programId, periodId);
+    Requisition pair = generateInstance(pairFacilityId, programId, periodId);
+    Requisition hidden = generateInstance(hiddenFacilityId, programId, periodId);
+    asList(visible, pair, hidden).forEach(requisition -> {
+      requisition.setStatus(APPROVED);
+      repository.save(requisition);
+    });
+
+    entityManager.flush();
+
+    List<String> permissionStrings = singletonList(
+        "REQUISITION_VIEW|" + visibleFacilityId + "|" + programId);
+    Set<Pair<UUID, UUID>> programNodePairs = singleton(
+        new ImmutablePair<>(programId, pair.getSupervisoryNodeId()));
+
+    // when
+    List<UUID> facilityIds = repository.searchFacilitiesWithoutRequisitions(
+        asList(visibleFacilityId, pairFacilityId, hiddenFacilityId), programId, periodId,
+        EnumSet.of(APPROVED), permissionStrings, programNodePairs);
+
+    // then
+    assertThat(facilityIds, hasSize(1));
+    assertThat(facilityIds, hasItem(hiddenFacilityId));
+  }
+
   @Test
   public void searchShouldExcludeRequisitionsWithNoMatchingPermissionStrings() {
     // given
@@ -951,6 +1095,119 @@ public class RequisitionRepositoryIntegrationTest
         .compareTo(receivedRequisitions.get(1).getCreatedDate()) > 0);
   }
 
+  @Test
+  public void shouldSearchRequisitionHeadersWithStatusChanges() {
+    Requisition requisition = requisitions.get(2);
+    requisition.setExtraData(Collections.singletonMap("key", "value"));
+    repository.saveAndFlush(requisition);
+    entityManager.clear();
+
+    RequisitionSearchParams searchParams = new DefaultRequisitionSearchParamsDataBuilder()
+        .withFacility(requisition.getFacilityId())
+        .withProgram(requisition.getProgramId())
+        .build();
+
+    List<Requisition> receivedRequisitions = repository
+        .searchRequisitionHeaders(searchParams, userPermissionStrings, programNodePairs,
+            pageRequest)
+        .getContent();
+
+    assertThat(receivedRequisitions, hasSize(1));
+
+    Requisition header = receivedRequisitions.get(0);
+    assertEquals(requisition.getId(), header.getId());
+    assertEquals(requisition.getStatus(), header.getStatus());
+    assertEquals(requisition.getEmergency(), header.getEmergency());
+    assertEquals(requisition.getFacilityId(), header.getFacilityId());
+    assertEquals(requisition.getProgramId(), header.getProgramId());
+    assertEquals(requisition.getProcessingPeriodId(), header.getProcessingPeriodId());
+    assertEquals(requisition.getSupervisoryNodeId(), header.getSupervisoryNodeId());
+    assertEquals(requisition.getExtraData(), header.getExtraData());
+    assertThat(header.getRequisitionLineItems(), is(nullValue()));
+    assertThat(header.getStatusChanges(), hasSize(1));
+    assertThat(header.getStatusChanges().get(0).getStatus(), is(INITIATED));
+    assertThat(header.getStatusChanges().get(0).getCreatedDate(), is(notNullValue()));
+  }
+
+  @Test
+  public void searchRequisitionHeadersShouldUseSortAndPagination() {
+    pageRequest = new PageRequest(0, 2, Sort.Direction.DESC, "createdDate");
+
+    Page<Requisition> page = repository.searchRequisitionHeaders(
+        new DefaultRequisitionSearchParamsDataBuilder().build(),
+        userPermissionStrings, programNodePairs, pageRequest);
+
+    assertEquals(5, page.getTotalElements());
+    assertThat(page.getContent(), hasSize(2));
+    assertTrue(page.getContent().get(0).getCreatedDate()
+        .compareTo(page.getContent().get(1).getCreatedDate()) >= 0);
+  }
+
+  @Test
+  public void searchRequisitionHeadersByCursorShouldReturnAllRequisitionsPageByPage() {
+    RequisitionSearchParams searchParams = new DefaultRequisitionSearchParamsDataBuilder().build();
+    List<Requisition> found = new ArrayList<>();
+    String cursor = "";
+    int pages = 0;
+
+    while (null != cursor) {
+      CursorSlice<Requisition> slice = repository.searchRequisitionHeaders(searchParams,
+          userPermissionStrings, programNodePairs,
+          CursorPageable.of(cursor, new PageRequest(0, 2)));
+
+      assertThat(slice.getNumberOfElements(), is(lessThanOrEqualTo(2)));
+      found.addAll(slice.getContent());
+      cursor = slice.getNextCursor();
+      pages++;
+    }
+
+    assertThat(pages, is(3));
+    assertThat(found.stream().map(Requisition::getId).collect(Collectors.toSet()),
+        is(requisitions.stream().map(Requisition::getId).collect(Collectors.toSet())));
+
+    for (int i = 1; i < found.size(); ++i) {
+      assertFalse(found.get(i).getCreatedDate().isBefore(found.get(i - 1).getCreatedDate()));
+    }
+  }
+
+  @Test
+  public void searchByProgramSupervisoryNodePairsAndCursorShouldNotCountRequisitions() {
+    // given
+    UUID programId = UUID.randomUUID();
+    UUID supervisoryNodeId = UUID.randomUUID();
+
+    for (Requisition requisition : requisitions.subList(0, 3)) {
+      requisition.setProgramId(programId);
+      requisition.setSupervisoryNodeId(supervisoryNodeId);
+      requisition.setStatus(RequisitionStatus.AUTHORIZED);
+      requisition
+          .getStatusChanges()
+          .add(new StatusChangeDataBuilder()
+              .forAuthorizedRequisition(requisition)
+              .buildAsNew());
+      saveAndFlushWithDelay(requisition);
+    }
+
+    Set<Pair<UUID, UUID>> programNodePairs =
+        singleton(new ImmutablePair<>(programId, supervisoryNodeId));
+
+    // when
+    CursorSlice<Requisition> first = repository
+        .searchApprovableRequisitionsByProgramSupervisoryNodePairs(programNodePairs,
+            CursorPageable.of("", new PageRequest(0, 2)));
+    CursorSlice<Requisition> second = repository
+        .searchApprovableRequisitionsByProgramSupervisoryNodePairs(programNodePairs,
+            CursorPageable.of(first.getNextCursor(), new PageRequest(0, 2)));
+
+    // then
+    assertThat(first.getContent(), hasSize(2));
+    assertThat(first.getNextCursor(), is(notNullValue()));
+    assertThat(first.getContent().get(0).getStatusChanges(), is(notNullValue()));
+    assertThat(second.getContent(), hasSize(1));
+    assertThat(second.getNextCursor(), is(nullValue()));
+    assertThat(second.getContent().get(0).getId(), is(requisitions.get(2).getId()));
+  }
+
   @Test(expected = PersistenceException.class)
   public void shouldNotAllowMultipleReasonsOfTheSameTypeInSingleLineItem() {
     UUID reasonId = UUID.randomUUID();
@@ -1043,6 +1300,28 @@ public class RequisitionRepositoryIntegrationTest
     assertTrue(requisitionIds.contains(requisition1.getId()));
   }
 
+  @Test
+  public void shouldFilterApprovedRequisitionsByManyProgramAndSupervisoryNodePairs() {
+    Requisition requisition1 = generateRequisition(RequisitionStatus.APPROVED);
+    Requisition requisition2 = generateRequisition(RequisitionStatus.APPROVED);
+    generateRequisition(RequisitionStatus.APPROVED);
+
+    Set<Pair<UUID, UUID>> programSupervisoryNode = new HashSet<>();
+    for (int i = 0; i < 300; ++i) {
+      programSupervisoryNode.add(Pair.of(UUID.randomUUID(), UUID.randomUUID()));
+    }
+    programSupervisoryNode.add(
+        Pair.of(requisition1.getProgramId(), requisition1.getSupervisoryNodeId()));
+    programSupervisoryNode.add(Pair.of(null, requisition2.getSupervisoryNodeId()));
+
+    Page<Requisition> requisitions = repository.searchApprovedRequisitions(
+        null, programSupervisoryNode, createPageable(10, 0));
+
+    assertEquals(2, requisitions.getTotalElements());
+    assertThat(requisitions, hasItem(hasProperty("id", is(requisition1.getId()))));
+    assertThat(requisitions, hasItem(hasProperty("id", is(requisition2.getId()))));
+  }
+
   @Test
   public void shouldReturnEmptyPageWhenNoRequisitionsWithGivenParametersFound() {
     Requisition requisition1 = generateRequisition(RequisitionStatus.APPROVED);
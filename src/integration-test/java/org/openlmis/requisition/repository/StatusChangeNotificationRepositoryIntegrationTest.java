@@ -0,0 +1,124 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.repository;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import javax.persistence.EntityManager;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlmis.requisition.domain.RequisitionTemplate;
+import org.openlmis.requisition.domain.RequisitionTemplateDataBuilder;
+import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionDataBuilder;
+import org.openlmis.requisition.domain.requisition.StatusChangeNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class StatusChangeNotificationRepositoryIntegrationTest
+    extends BaseCrudRepositoryIntegrationTest<StatusChangeNotification> {
+
+  @Autowired
+  StatusChangeNotificationRepository repository;
+
+  @Autowired
+  RequisitionRepository requisitionRepository;
+
+  @Autowired
+  RequisitionTemplateRepository requisitionTemplateRepository;
+
+  @Autowired
+  EntityManager entityManager;
+
+  private Requisition requisition;
+
+  StatusChangeNotificationRepository getRepository() {
+    return repository;
+  }
+
+  StatusChangeNotification generateInstance() {
+    return generateInstance(ZonedDateTime.now().minusMinutes(1));
+  }
+
+  @Before
+  public void setUp() {
+    RequisitionTemplate template = requisitionTemplateRepository
+        .save(new RequisitionTemplateDataBuilder().build());
+
+    requisition = requisitionRepository.save(new RequisitionDataBuilder()
+        .withNumberOfMonthsInPeriod(3)
+        .withTemplate(template)
+        .buildAsNew());
+  }
+
+  @Test
+  public void shouldFindDueEntriesOldestFirst() {
+    StatusChangeNotification newer = repository
+        .save(generateInstance(ZonedDateTime.now().minusMinutes(1)));
+    StatusChangeNotification older = repository
+        .save(generateInstance(ZonedDateTime.now().minusMinutes(2)));
+    repository.save(generateInstance(ZonedDateTime.now().plusHours(1)));
+    repository.save(generateInstance(null));
+    entityManager.flush();
+
+    List<StatusChangeNotification> found = repository.findDueForUpdate(10);
+
+    assertThat(found, contains(older, newer));
+  }
+
+  @Test
+  public void shouldLimitNumberOfDueEntries() {
+    repository.save(generateInstance());
+    repository.save(generateInstance());
+    entityManager.flush();
+
+    assertThat(repository.findDueForUpdate(1).size(), is(1));
+  }
+
+  @Test
+  public void shouldDeleteEntriesWithGivenIds() {
+    StatusChangeNotification first = repository.save(generateInstance());
+    StatusChangeNotification second = repository.save(generateInstance());
+    StatusChangeNotification third = repository.save(generateInstance());
+    entityManager.flush();
+
+    repository.deleteByIdIn(Arrays.asList(first.getId(), second.getId()));
+    entityManager.clear();
+
+    assertThat(repository.exists(first.getId()), is(false));
+    assertThat(repository.exists(second.getId()), is(false));
+    assertThat(repository.exists(third.getId()), is(true));
+  }
+
+  @Test
+  public void shouldCountOnlyEntriesThatWillBeSent() {
+    repository.save(generateInstance());
+    repository.save(generateInstance(ZonedDateTime.now().plusHours(1)));
+    repository.save(generateInstance(null));
+
+    assertThat(repository.countByNextAttemptDateNotNull(), is(2L));
+  }
+
+  private StatusChangeNotification generateInstance(ZonedDateTime nextAttemptDate) {
+    return StatusChangeNotification
+        .newStatusChangeNotification(requisition, Locale.ENGLISH, nextAttemptDate);
+  }
+}
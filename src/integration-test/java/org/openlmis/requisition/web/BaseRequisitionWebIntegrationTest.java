@@ -58,6 +58,9 @@ import org.openlmis.requisition.dto.VersionIdentityDto;
 import org.openlmis.requisition.dto.stockmanagement.StockEventDto;
 import org.openlmis.requisition.exception.ValidationMessageException;
 import org.openlmis.requisition.i18n.MessageKeys;
+import org.openlmis.requisition.service.ApprovalDigest;
+import org.openlmis.requisition.service.DeliveredNotifications;
+import org.openlmis.requisition.service.ReferenceDataMemo;
 import org.openlmis.requisition.testutils.ApprovedProductDtoDataBuilder;
 import org.openlmis.requisition.testutils.DtoGenerator;
 import org.openlmis.requisition.testutils.FacilityDtoDataBuilder;
@@ -157,7 +160,8 @@ public abstract class BaseRequisitionWebIntegrationTest extends BaseWebIntegrati
     given(statusMessageRepository.save(any(StatusMessage.class))).willReturn(null);
 
     doNothing().when(requisitionStatusProcessor)
-        .statusChange(any(Requisition.class), any(Locale.class));
+        .statusChange(any(Requisition.class), any(Locale.class), any(ReferenceDataMemo.class),
+            any(ApprovalDigest.class), any(DeliveredNotifications.class));
     doNothing().when(facilitySupportsProgramHelper)
         .checkIfFacilitySupportsProgram(any(UUID.class), any(UUID.class));
     doNothing().when(facilitySupportsProgramHelper)
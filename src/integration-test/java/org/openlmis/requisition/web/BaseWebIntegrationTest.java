@@ -72,6 +72,7 @@ import org.openlmis.requisition.service.PermissionService;
 import org.openlmis.requisition.service.RequisitionService;
 import org.openlmis.requisition.service.RequisitionStatusProcessor;
 import org.openlmis.requisition.service.RequisitionTemplateService;
+import org.openlmis.requisition.service.StatusChangeNotificationService;
 import org.openlmis.requisition.service.referencedata.ApprovedProductReferenceDataService;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
 import org.openlmis.requisition.service.referencedata.FacilityTypeApprovedProductReferenceDataService;
@@ -176,6 +177,9 @@ public abstract class BaseWebIntegrationTest {
   @MockBean
   RequisitionStatusProcessor requisitionStatusProcessor;
 
+  @MockBean
+  StatusChangeNotificationService statusChangeNotificationService;
+
   @MockBean
   DatePhysicalStockCountCompletedEnabledPredicate predicate;
 
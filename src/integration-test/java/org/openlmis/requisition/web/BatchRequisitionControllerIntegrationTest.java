@@ -31,6 +31,7 @@ import static org.mockito.Matchers.anyMap;
 import static org.mockito.Matchers.anySet;
 import static org.mockito.Matchers.anySetOf;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.same;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
@@ -39,6 +40,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.atLeastOnce;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_NO_FOLLOWING_PERMISSION;
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_STOCK_EVENT_SUBMISSION_FAILED;
 import static org.openlmis.requisition.service.PermissionService.REQUISITION_APPROVE;
 import static org.openlmis.requisition.service.PermissionService.REQUISITION_VIEW;
 
@@ -76,6 +78,7 @@ import org.openlmis.requisition.dto.ReleasableRequisitionBatchDto;
 import org.openlmis.requisition.dto.ReleasableRequisitionDto;
 import org.openlmis.requisition.dto.UserDto;
 import org.openlmis.requisition.dto.VersionIdentityDto;
+import org.openlmis.requisition.dto.stockmanagement.StockEventDto;
 import org.openlmis.requisition.errorhandling.ValidationResult;
 import org.openlmis.requisition.exception.ValidationMessageException;
 import org.openlmis.requisition.i18n.MessageKeys;
@@ -308,6 +311,40 @@ public class BatchRequisitionControllerIntegrationTest extends BaseRequisitionWe
         "some-key");
   }
 
+  @Test
+  public void shouldHaveErrorIfStockEventCannotBeSubmitted() throws IOException {
+    requisitions = mockRequisitionValidatonsAndStubRepository();
+
+    StockEventDto failingEvent = new StockEventDto();
+    doReturn(failingEvent)
+        .when(stockEventBuilder)
+        .fromRequisition(eq(requisitions.get(0)), any(), anyMap());
+    doThrow(new IllegalStateException("connection refused"))
+        .when(stockEventStockManagementService)
+        .submit(same(failingEvent));
+
+    String jsonString = post(APPROVE_ALL, requisitionIds)
+        .then()
+        .statusCode(400)
+        .extract()
+        .asString();
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+
+    JsonNode json = objectMapper.readTree(jsonString);
+    ArrayNode requisitionErrors = (ArrayNode) json.get("requisitionErrors");
+
+    assertThat(requisitionErrors.size(), equalTo(1));
+    assertThat(requisitionErrors.get(0).get("requisitionId").asText(),
+        equalTo(requisitions.get(0).getId().toString()));
+    assertThat(requisitionErrors.get(0).get("errorMessage").get("messageKey").asText(),
+        equalTo(ERROR_STOCK_EVENT_SUBMISSION_FAILED));
+
+    // the requisition was approved even though the stock event failed
+    List<UUID> retrieved = getIds((ArrayNode) json.get("requisitionDtos"));
+    assertThat(retrieved, hasItems(requisitionIds.toArray(new UUID[requisitionIds.size()])));
+  }
+
   // PUT /api/requisitions?saveAll
 
   @Test
@@ -39,6 +39,7 @@ import org.openlmis.requisition.dto.JasperTemplateDto;
 import org.openlmis.requisition.errorhandling.ValidationResult;
 import org.openlmis.requisition.exception.JasperReportViewException;
 import org.openlmis.requisition.repository.JasperTemplateRepository;
+import org.openlmis.requisition.service.JasperReportCache;
 import org.openlmis.requisition.service.JasperReportsViewService;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.core.io.ClassPathResource;
@@ -60,6 +61,9 @@ public class JasperTemplateControllerIntegrationTest extends BaseWebIntegrationT
   @MockBean
   private JasperReportsViewService jasperReportsViewService;
 
+  @MockBean
+  private JasperReportCache jasperReportCache;
+
   @Before
   public void setUp() {
     mockUserAuthenticated();
@@ -135,6 +139,7 @@ public class JasperTemplateControllerIntegrationTest extends BaseWebIntegrationT
 
     // then
     verify(jasperTemplateRepository, atLeastOnce()).delete(eq(template));
+    verify(jasperReportCache).evict(template.getId());
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
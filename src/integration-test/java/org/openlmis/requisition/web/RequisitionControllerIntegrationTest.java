@@ -23,6 +23,7 @@ import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
@@ -47,6 +48,7 @@ import static org.mockito.Mockito.when;
 import static org.openlmis.requisition.domain.requisition.Requisition.REQUISITION_LINE_ITEMS;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_DUPLICATE_STATUS_CHANGE;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_INCORRECT_VALUE;
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_INVALID_CURSOR_FORMAT;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_NO_PERMISSION_TO_APPROVE_REQUISITION;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_PERIOD_END_DATE_WRONG;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_PROGRAM_NOT_FOUND;
@@ -98,6 +100,7 @@ import org.openlmis.requisition.errorhandling.ValidationResult;
 import org.openlmis.requisition.exception.ValidationMessageException;
 import org.openlmis.requisition.i18n.MessageKeys;
 import org.openlmis.requisition.i18n.MessageService;
+import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
 import org.openlmis.requisition.service.DataRetrievalException;
 import org.openlmis.requisition.service.PageDto;
 import org.openlmis.requisition.service.PermissionService;
@@ -107,6 +110,8 @@ import org.openlmis.requisition.testutils.FacilityDtoDataBuilder;
 import org.openlmis.requisition.testutils.OrderableDtoDataBuilder;
 import org.openlmis.requisition.testutils.ProgramDtoDataBuilder;
 import org.openlmis.requisition.testutils.ReleasableRequisitionDtoDataBuilder;
+import org.openlmis.requisition.utils.CursorPageable;
+import org.openlmis.requisition.utils.CursorSlice;
 import org.openlmis.requisition.utils.DateHelper;
 import org.openlmis.requisition.utils.Message;
 import org.openlmis.requisition.utils.Pagination;
@@ -223,6 +228,56 @@ public class RequisitionControllerIntegrationTest extends BaseRequisitionWebInte
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
+  @Test
+  public void shouldNotReturnChosenRequisitionIfItWasNotModified() {
+    // given
+    Requisition requisition = generateRequisition(RequisitionStatus.INITIATED);
+    doReturn(ValidationResult.success())
+        .when(permissionService).canViewRequisition(requisition);
+
+    // when
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .header(HttpHeaders.IF_NONE_MATCH, "W/1")
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .pathParam("id", requisition.getId())
+        .when()
+        .get(ID_URL)
+        .then()
+        .statusCode(304)
+        .header(HttpHeaders.ETAG, "W/1");
+
+    // then
+    verify(orderableReferenceDataService, never())
+        .findByIdentities(anySetOf(VersionEntityReference.class));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldReturnChosenRequisitionIfItWasModified() {
+    // given
+    mockFacility();
+    Requisition requisition = generateRequisition(RequisitionStatus.INITIATED);
+    doReturn(ValidationResult.success())
+        .when(permissionService).canViewRequisition(requisition);
+
+    // when
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .header(HttpHeaders.IF_NONE_MATCH, "W/0")
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .pathParam("id", requisition.getId())
+        .when()
+        .get(ID_URL)
+        .then()
+        .statusCode(200)
+        .header(HttpHeaders.ETAG, "W/1")
+        .body("id", is(requisition.getId().toString()));
+
+    // then
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   @Test
   public void shouldNotGetChosenRequisitionWhenUserHasNoRightForView() {
     // given
@@ -427,7 +482,7 @@ public class RequisitionControllerIntegrationTest extends BaseRequisitionWebInte
 
     Requisition requisition = generateRequisition();
 
-    given(requisitionService.searchRequisitions(eq(params), any(Pageable.class)))
+    given(requisitionService.searchRequisitionHeaders(eq(params), any(Pageable.class)))
         .willReturn(Pagination.getPage(singletonList(requisition), FIRST_PAGE));
 
     // when
@@ -454,6 +509,52 @@ public class RequisitionControllerIntegrationTest extends BaseRequisitionWebInte
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
+  @Test
+  public void shouldSearchRequisitionsByCursor() {
+    // given
+    QueryRequisitionSearchParams params = new QueryRequisitionSearchParams(
+        new LinkedMultiValueMap<>());
+    CursorPageable pageable = CursorPageable.of("", new PageRequest(0, 10));
+
+    given(requisitionService.searchRequisitionHeaders(eq(params), eq(pageable)))
+        .willReturn(new CursorSlice<>(generateRequisitions(RequisitionStatus.INITIATED),
+            pageable, null));
+
+    // when
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .queryParam(CursorPageable.CURSOR, "")
+        .queryParam(SIZE, 10)
+        .when()
+        .get(SEARCH_URL)
+        .then()
+        .statusCode(200)
+        .body("content.size()", is(1))
+        .body("last", is(true))
+        .body("nextCursor", is(nullValue()));
+
+    // then
+    verify(requisitionService, never())
+        .searchRequisitionHeaders(any(RequisitionSearchParams.class), any(Pageable.class));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldReturnBadRequestIfSearchCursorHasWrongFormat() {
+    // when
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .queryParam(CursorPageable.CURSOR, "not-a-cursor")
+        .when()
+        .get(SEARCH_URL)
+        .then()
+        .statusCode(400)
+        .body("messageKey", is(ERROR_INVALID_CURSOR_FORMAT));
+
+    // then
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   @Test
   public void shouldFindRequisitionsByMultipleStatuses() {
     // given
@@ -468,7 +569,7 @@ public class RequisitionControllerIntegrationTest extends BaseRequisitionWebInte
     List<Requisition> requisitions = generateRequisitions(submittedStatus, authorizedStatus);
 
     given(requisitionService
-        .searchRequisitions(eq(params), any(Pageable.class)))
+        .searchRequisitionHeaders(eq(params), any(Pageable.class)))
         .willReturn(Pagination.getPage(requisitions, FIRST_PAGE));
 
     // when
@@ -1817,6 +1918,36 @@ public class RequisitionControllerIntegrationTest extends BaseRequisitionWebInte
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
+  @Test
+  public void shouldGetRequisitionsForApprovalByCursor() {
+    // given
+    Requisition requisition = generateRequisition(RequisitionStatus.AUTHORIZED);
+    String cursor = CursorPageable.toCursor(requisition.getCreatedDate(), requisition.getId());
+    CursorPageable pageable = CursorPageable.of(cursor, new PageRequest(0, 1));
+
+    given(requisitionService.getRequisitionsForApproval(eq(user), eq(null), eq(pageable)))
+        .willReturn(new CursorSlice<>(singletonList(requisition), pageable, "next"));
+
+    // when
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .queryParam(CursorPageable.CURSOR, cursor)
+        .queryParam(SIZE, 1)
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .when()
+        .get(REQ_FOR_APPROVAL_URL)
+        .then()
+        .statusCode(200)
+        .body("content.size()", is(1))
+        .body("nextCursor", is("next"))
+        .body("totalElements", is(nullValue()));
+
+    // then
+    verify(requisitionService, never())
+        .getRequisitionsForApproval(any(UserDto.class), any(UUID.class), any(Pageable.class));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   @Test
   public void shouldGetRequisitionsForApprovalForSpecificUserAndProgram() {
     // given
@@ -48,6 +48,7 @@ import org.openlmis.requisition.dto.RequisitionTemplateDto;
 import org.openlmis.requisition.errorhandling.ValidationResult;
 import org.openlmis.requisition.i18n.MessageKeys;
 import org.openlmis.requisition.repository.RequisitionTemplateRepository;
+import org.openlmis.requisition.service.JasperReportCache;
 import org.openlmis.requisition.validate.RequisitionTemplateDtoValidator;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
@@ -70,6 +71,9 @@ public class RequisitionTemplateControllerIntegrationTest extends BaseWebIntegra
   @MockBean
   private RequisitionTemplateDtoValidator requisitionTemplateDtoValidator;
 
+  @MockBean
+  private JasperReportCache jasperReportCache;
+
   @SpyBean
   private RequisitionTemplateDtoBuilder dtoBuilder;
 
@@ -292,6 +296,7 @@ public class RequisitionTemplateControllerIntegrationTest extends BaseWebIntegra
     assertEquals(newTemplate.getNumberOfPeriodsToAverage(), result.getNumberOfPeriodsToAverage());
     assertEquals(newTemplateDto.getName(), result.getName());
     verify(requisitionTemplateRepository, never()).saveAndFlush(any(RequisitionTemplate.class));
+    verify(jasperReportCache).evict(template.getId());
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
@@ -408,6 +413,7 @@ public class RequisitionTemplateControllerIntegrationTest extends BaseWebIntegra
 
     // then
     verify(requisitionTemplateRepository, atLeastOnce()).delete(template);
+    verify(jasperReportCache).evict(template.getId());
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
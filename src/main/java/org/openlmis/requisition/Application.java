@@ -34,6 +34,7 @@ import org.javers.spring.jpa.TransactionalJaversBuilder;
 import org.openlmis.requisition.domain.BaseEntity;
 import org.openlmis.requisition.i18n.ExposedMessageSourceImpl;
 import org.openlmis.requisition.security.UserNameProvider;
+import org.openlmis.requisition.service.RemoteCallExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -220,6 +221,53 @@ public class Application {
     return redisTemplate;
   }
 
+  /**
+   * Creates the executor used to call other services concurrently while processing a single
+   * request, for example while initiating a requisition.
+   */
+  @Bean
+  public RemoteCallExecutor remoteCallExecutor(
+      @Value("${remoteCalls.executor.poolSize}") int poolSize,
+      @Value("${remoteCalls.executor.queueCapacity}") int queueCapacity) {
+    return new RemoteCallExecutor("remote-call", poolSize, queueCapacity);
+  }
+
+  /**
+   * Creates the executor used to send stock events to the stock management service. It is
+   * separate from the remote call executor, so big batch approvals do not slow down other
+   * requests.
+   */
+  @Bean
+  public RemoteCallExecutor stockEventExecutor(
+      @Value("${stockEvents.executor.poolSize}") int poolSize,
+      @Value("${stockEvents.executor.queueCapacity}") int queueCapacity) {
+    return new RemoteCallExecutor("stock-event", poolSize, queueCapacity);
+  }
+
+  /**
+   * Creates the executor used to send requests that were split into several URIs because of the
+   * max URL length. It is separate from the remote call executor, because split requests are
+   * often sent by tasks running on the remote call executor, which would wait for themselves.
+   */
+  @Bean
+  public RemoteCallExecutor splitRequestExecutor(
+      @Value("${splitRequests.executor.poolSize}") int poolSize,
+      @Value("${splitRequests.executor.queueCapacity}") int queueCapacity) {
+    return new RemoteCallExecutor("split-request", poolSize, queueCapacity);
+  }
+
+  /**
+   * Creates the executor used to send notifications about requisition status changes. The pool
+   * limits how many requisitions are notified about at the same time, so a slow notification
+   * service does not take threads used to handle requests.
+   */
+  @Bean
+  public RemoteCallExecutor statusChangeNotificationExecutor(
+      @Value("${statusChangeNotifications.executor.poolSize}") int poolSize,
+      @Value("${statusChangeNotifications.executor.queueCapacity}") int queueCapacity) {
+    return new RemoteCallExecutor("status-change-notification", poolSize, queueCapacity);
+  }
+
   @Bean
   public LocalValidatorFactoryBean validator() {
     return new LocalValidatorFactoryBean();
@@ -15,35 +15,43 @@
 
 package org.openlmis.requisition;
 
-import static org.openlmis.requisition.utils.Pagination.DEFAULT_PAGE_NUMBER;
-
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.StringUtils;
 import org.javers.core.Javers;
-import org.javers.core.metamodel.object.CdoSnapshot;
-import org.javers.repository.jql.QueryBuilder;
 import org.javers.spring.annotation.JaversSpringDataAuditable;
-import org.openlmis.requisition.domain.BaseEntity;
-import org.openlmis.requisition.i18n.MessageKeys;
 import org.openlmis.requisition.repository.BaseAuditableRepository;
+import org.openlmis.requisition.service.RemoteCallExecutor;
 import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.annotation.Order;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * AuditLogInitializer runs after its associated Spring application has loaded.
  * It examines each domain object in the database and registers them with JaVers
  * if they haven't already been so. This is, in part, a fix for
  * <a href="https://github.com/javers/javers/issues/214">this issue</a>.
+ *
+ * <p>Ids of domain objects without snapshots are found in batches sorted by id. Snapshots of
+ * each batch are committed in a single transaction, and batches are processed concurrently by
+ * the configured number of workers. The id of the last batch that was finished, together with
+ * all batches before it, is logged as a checkpoint, so a run that was stopped can be resumed
+ * after it.
  */
 
 @Component
@@ -52,13 +60,31 @@ import org.springframework.stereotype.Component;
 public class AuditLogInitializer implements CommandLineRunner {
   private static final XLogger LOGGER = XLoggerFactory.getXLogger(AuditLogInitializer.class);
 
+  static final String AUTHOR = "System: AuditLogInitializer";
+  static final UUID FIRST_ID = new UUID(0, 0);
+
   private ApplicationContext applicationContext;
   private Javers javers;
+  private TransactionTemplate transactionTemplate;
+
+  @Value("${auditLogInitializer.batchSize}")
+  private int batchSize;
 
+  @Value("${auditLogInitializer.workers}")
+  private int workers;
+
+  @Value("${auditLogInitializer.startAfter}")
+  private String startAfter;
+
+  /**
+   * Creates a new instance of the initializer.
+   */
   @Autowired
-  public AuditLogInitializer(ApplicationContext applicationContext, Javers javers) {
+  public AuditLogInitializer(ApplicationContext applicationContext, Javers javers,
+      PlatformTransactionManager transactionManager) {
     this.applicationContext = applicationContext;
     this.javers = javers;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
   }
 
   /**
@@ -81,9 +107,9 @@ public class AuditLogInitializer implements CommandLineRunner {
       Object bean = entry.getValue();
       profiler.start("CREATE_SNAPSHOTS_OF_" + beanName);
       if (bean instanceof BaseAuditableRepository) {
-        createSnapshots((BaseAuditableRepository<?, ?>) bean);
+        createSnapshots(beanName, (BaseAuditableRepository<?, ?>) bean);
       } else {
-        LOGGER.warn("The repository should implement findAllWithoutSnapshots method"
+        LOGGER.warn("The repository should implement findIdsWithoutSnapshots method"
             + "from BaseAuditableRepository with appropriate query");
       }
     }
@@ -92,36 +118,106 @@ public class AuditLogInitializer implements CommandLineRunner {
     LOGGER.exit();
   }
 
-  protected void createSnapshots(BaseAuditableRepository<?, ?> repository) {
-    Pageable pageable = new PageRequest(DEFAULT_PAGE_NUMBER, 2000);
+  protected void createSnapshots(String name, BaseAuditableRepository<?, ?> repository) {
+    UUID lastId = StringUtils.isBlank(startAfter) ? FIRST_ID : UUID.fromString(startAfter);
+    Progress progress = new Progress(name, lastId);
+    RemoteCallExecutor executor = workers > 1
+        ? new RemoteCallExecutor("audit-log-init", workers, workers)
+        : null;
+
+    LOGGER.info("Creating snapshots of {} after {} with {} worker(s)", name, lastId, workers);
+
+    try {
+      Deque<Batch> batches = new ArrayDeque<>();
+      List<UUID> ids = findIds(repository, lastId);
+
+      while (!ids.isEmpty()) {
+        Batch batch = new Batch(ids);
+        batch.future = null == executor
+            ? CompletableFuture.completedFuture(createBatchSnapshots(repository, ids))
+            : executor.supplyAsync("audit-log-init-" + batch.lastId,
+                () -> createBatchSnapshots(repository, batch.ids));
+        batches.add(batch);
+
+        while (batches.size() > workers) {
+          progress.finished(batches.poll());
+        }
+
+        ids = findIds(repository, batch.lastId);
+      }
+
+      while (!batches.isEmpty()) {
+        progress.finished(batches.poll());
+      }
+    } catch (RuntimeException exp) {
+      LOGGER.error("Could not create snapshots of {}, resume after {}", name, progress.checkpoint);
+      throw exp;
+    } finally {
+      if (null != executor) {
+        executor.shutdown();
+      }
+    }
+
+    LOGGER.info("Finished creating snapshots of {}", name);
+  }
+
+  private List<UUID> findIds(BaseAuditableRepository<?, ?> repository, UUID lastId) {
+    List<String> values = repository.findIdsWithoutSnapshots(lastId, batchSize);
+    List<UUID> ids = new ArrayList<>(values.size());
 
-    while (true) {
-      Page<?> page = repository.findAllWithoutSnapshots(pageable);
+    for (String value : values) {
+      ids.add(UUID.fromString(value));
+    }
 
-      if (!page.hasContent()) {
-        break;
+    return ids;
+  }
+
+  @SuppressWarnings("unchecked")
+  private int createBatchSnapshots(BaseAuditableRepository<?, ?> repository, List<UUID> ids) {
+    BaseAuditableRepository<?, UUID> uuidRepository =
+        (BaseAuditableRepository<?, UUID>) repository;
+
+    return transactionTemplate.execute(status -> {
+      int count = 0;
+
+      for (Object entity : uuidRepository.findAll(ids)) {
+        javers.commit(AUTHOR, entity);
+        ++count;
       }
 
-      page.forEach(this::createSnapshot);
+      return count;
+    });
+  }
 
-      pageable = pageable.next();
+  private static final class Batch {
+    private final List<UUID> ids;
+    private final UUID lastId;
+    private CompletableFuture<Integer> future;
+
+    Batch(List<UUID> ids) {
+      this.ids = ids;
+      this.lastId = ids.get(ids.size() - 1);
     }
   }
 
-  private void createSnapshot(Object object) {
-    //...check whether there exists a snapshot for it in the audit log.
-    // Note that we don't care about checking for logged changes, per se,
-    // and thus use findSnapshots() rather than findChanges()
-    BaseEntity baseEntity = (BaseEntity) object;
+  private static final class Progress {
+    private final String name;
+    private final long started = System.nanoTime();
+    private UUID checkpoint;
+    private long count;
+
+    Progress(String name, UUID checkpoint) {
+      this.name = name;
+      this.checkpoint = checkpoint;
+    }
 
-    QueryBuilder jqlQuery = QueryBuilder.byInstanceId(baseEntity.getId(), object.getClass());
-    List<CdoSnapshot> snapshots = javers.findSnapshots(jqlQuery.build());
+    void finished(Batch batch) {
+      count += RemoteCallExecutor.join(batch.future);
+      checkpoint = batch.lastId;
 
-    if (snapshots.isEmpty()) {
-      javers.commit("System: AuditLogInitializer", baseEntity);
-    } else {
-      LOGGER.info(MessageKeys.ERROR_JAVERS_EXISTING_ENTRY,
-          baseEntity.getClass(), baseEntity.getId());
+      long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+      LOGGER.info("Created {} snapshots of {} in {} ms ({} per second), checkpoint: {}",
+          count, name, millis, count * 1000 / millis, checkpoint);
     }
   }
 }
@@ -35,7 +35,6 @@ public class TestDataInitializer implements CommandLineRunner {
   private static final XLogger XLOGGER = XLoggerFactory.getXLogger(TestDataInitializer.class);
 
   private static final String DEMO_DATA_PATH = "classpath:db/demo-data/";
-  private static final String DB_MIGRATION_PATH = "classpath:db/migration/";
 
   private static final String FILE_EXTENSION = ".csv";
 
@@ -114,8 +113,7 @@ public class TestDataInitializer implements CommandLineRunner {
   @Value(value = DEMO_DATA_PATH + DB_SCHEMA + TEMPLATE_PARAMETERS + FILE_EXTENSION)
   private Resource templateParametersResource;
 
-  @Value(value = DB_MIGRATION_PATH
-      + "20170822230153657__generate_requisition_permission_strings.sql")
+  @Value(value = DEMO_DATA_PATH + "generate_requisition_permission_strings.sql")
   private Resource generateRequisitionPermissionStringsResource;
 
   private JdbcTemplate template;
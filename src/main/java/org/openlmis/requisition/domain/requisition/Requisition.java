@@ -498,6 +498,11 @@ public class Requisition extends BaseTimestampedEntity {
     this.requisitionLineItems = new ArrayList<>();
 
     if (isNotTrue(emergency)) {
+      Map<UUID, StockCardRangeSummaryDto> summaries =
+          groupStockCardRangeSummaries(stockCardRangeSummaries);
+      Map<UUID, StockCardRangeSummaryDto> summariesToAverage =
+          groupStockCardRangeSummaries(stockCardRangeSummariesToAverage);
+
       for (ApprovedProductDto product : fullSupplyProducts) {
         UUID orderableId = product.getOrderable().getId();
 
@@ -510,10 +515,8 @@ public class Requisition extends BaseTimestampedEntity {
         lineItem.setStockOnHand(stockData.getStockOnHand(orderableId));
         lineItem.setBeginningBalance(stockData.getBeginningBalance(orderableId));
 
-        StockCardRangeSummaryDto summary = findStockCardRangeSummary(
-            stockCardRangeSummaries, lineItem.getOrderable().getId());
-        StockCardRangeSummaryDto summaryToAverage = findStockCardRangeSummary(
-            stockCardRangeSummariesToAverage, lineItem.getOrderable().getId());
+        StockCardRangeSummaryDto summary = summaries.get(orderableId);
+        StockCardRangeSummaryDto summaryToAverage = summariesToAverage.get(orderableId);
 
         lineItem.calculateAndSetStockBasedTotalReceivedQuantity(template, summary);
         lineItem.calculateAndSetStockBasedTotalStockoutDays(summary, numberOfMonthsInPeriod);
@@ -1083,14 +1086,20 @@ public class Requisition extends BaseTimestampedEntity {
       requisitionLineItems = new ArrayList<>();
     }
 
-    List<RequisitionLineItem> updatedList = new ArrayList<>();
+    Map<UUID, RequisitionLineItem> existingLineItems = new HashMap<>();
+
+    for (RequisitionLineItem line : requisitionLineItems) {
+      if (null != line.getId()) {
+        existingLineItems.putIfAbsent(line.getId(), line);
+      }
+    }
+
+    List<RequisitionLineItem> updatedList = new ArrayList<>(newLineItems.size());
 
     for (RequisitionLineItem item : newLineItems) {
-      RequisitionLineItem existing = requisitionLineItems
-          .stream()
-          .filter(l -> l.getId().equals(item.getId()))
-          .findFirst()
-          .orElse(null);
+      RequisitionLineItem existing = null == item.getId()
+          ? null
+          : existingLineItems.get(item.getId());
 
       if (null == existing) {
         item.setRequisition(this);
@@ -1106,13 +1115,15 @@ public class Requisition extends BaseTimestampedEntity {
     requisitionLineItems.addAll(updatedList);
   }
 
-  private StockCardRangeSummaryDto findStockCardRangeSummary(
-      List<StockCardRangeSummaryDto> stockCardRangeSummaryDtos, UUID orderableId) {
-    return stockCardRangeSummaryDtos
-        .stream()
-        .filter(range -> range.getOrderable().getId().equals(orderableId))
-        .findFirst()
-        .orElse(null);
+  private Map<UUID, StockCardRangeSummaryDto> groupStockCardRangeSummaries(
+      List<StockCardRangeSummaryDto> stockCardRangeSummaryDtos) {
+    Map<UUID, StockCardRangeSummaryDto> summaries = new HashMap<>();
+
+    for (StockCardRangeSummaryDto summary : stockCardRangeSummaryDtos) {
+      summaries.putIfAbsent(summary.getOrderable().getId(), summary);
+    }
+
+    return summaries;
   }
 
   public Map<String, Object> getExtraData() {
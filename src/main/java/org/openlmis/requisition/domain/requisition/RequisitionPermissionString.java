@@ -15,6 +15,9 @@
 
 package org.openlmis.requisition.domain.requisition;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
 import java.util.Objects;
 import java.util.UUID;
 import javax.persistence.CascadeType;
@@ -23,16 +26,15 @@ import javax.persistence.Entity;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.openlmis.requisition.domain.BaseEntity;
+import org.springframework.util.DigestUtils;
 
 @Entity
 @Table(name = "requisition_permission_strings")
 @NoArgsConstructor
-@AllArgsConstructor
 public class RequisitionPermissionString extends BaseEntity {
 
   @ManyToOne(cascade = {CascadeType.REFRESH})
@@ -43,9 +45,25 @@ public class RequisitionPermissionString extends BaseEntity {
 
   @Column(columnDefinition = TEXT_COLUMN_DEFINITION, nullable = false)
   @Getter
-  @Setter
   private String permissionString;
 
+  @Column(nullable = false)
+  @Getter
+  private UUID permissionStringHash;
+
+  /**
+   * Creates a new permission string of the given requisition.
+   *
+   * @param requisition      requisition associated with permission string
+   * @param permissionString permission string, for example
+   *                         {@code REQUISITION_VIEW|facilityId|programId}
+   */
+  public RequisitionPermissionString(Requisition requisition, String permissionString) {
+    this.requisition = requisition;
+    this.permissionString = permissionString;
+    this.permissionStringHash = hash(permissionString);
+  }
+
   /**
    * Convenience constructor to create permission string based on a set of values, which all must
    * not be null.
@@ -64,4 +82,24 @@ public class RequisitionPermissionString extends BaseEntity {
     return new RequisitionPermissionString(requisition,
         String.join("|", rightName, facilityId.toString(), programId.toString()));
   }
+
+  /**
+   * Returns the hash of the given permission string. Permission strings are matched by their
+   * hashes, because a fixed size uuid is compared much faster than a long text value. The hash
+   * is the MD5 digest of the string, so it is equal to {@code md5(permissionstring)::uuid}
+   * computed by the database.
+   *
+   * @param permissionString permission string, for example
+   *                         {@code REQUISITION_VIEW|facilityId|programId}
+   * @return hash of the permission string
+   */
+  public static UUID hash(String permissionString) {
+    ByteBuffer digest = ByteBuffer.wrap(DigestUtils.md5Digest(permissionString.getBytes(UTF_8)));
+    return new UUID(digest.getLong(), digest.getLong());
+  }
+
+  public void setPermissionString(String permissionString) {
+    this.permissionString = permissionString;
+    this.permissionStringHash = hash(permissionString);
+  }
 }
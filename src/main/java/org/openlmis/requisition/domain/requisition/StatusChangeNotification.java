@@ -0,0 +1,156 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.domain.requisition;
+
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.annotations.Type;
+import org.openlmis.requisition.domain.BaseTimestampedEntity;
+
+/**
+ * Notifications that have to be sent because a requisition changed its status. Entries are
+ * saved in the same transaction as the status change, so they are not lost if the service is
+ * stopped before they are sent, and removed once the notifications have been sent. The status
+ * and supervisory node of the requisition are kept, so an entry can be recognized as outdated
+ * if the requisition changed its status again before the entry was sent. Notifications that were
+ * delivered before an attempt failed are kept, so they are not sent again by the next attempt.
+ */
+@Entity
+@Table(name = "status_change_notifications")
+@NoArgsConstructor
+public class StatusChangeNotification extends BaseTimestampedEntity {
+
+  private static final String DELIVERED_TO_SEPARATOR = ",";
+
+  @Column(nullable = false)
+  @Type(type = UUID_TYPE)
+  @Getter
+  private UUID requisitionId;
+
+  @Column(nullable = false)
+  @Enumerated(EnumType.STRING)
+  @Getter
+  private RequisitionStatus status;
+
+  @Type(type = UUID_TYPE)
+  @Getter
+  private UUID supervisoryNodeId;
+
+  @Column(nullable = false)
+  private String locale;
+
+  @Column(nullable = false)
+  @Getter
+  private int attempts;
+
+  @Column(columnDefinition = "timestamp with time zone")
+  @Getter
+  @Setter
+  private ZonedDateTime nextAttemptDate;
+
+  @Column(columnDefinition = TEXT_COLUMN_DEFINITION)
+  @Getter
+  private String lastError;
+
+  @Column(columnDefinition = TEXT_COLUMN_DEFINITION)
+  private String deliveredTo;
+
+  private StatusChangeNotification(Requisition requisition, Locale locale,
+      ZonedDateTime nextAttemptDate) {
+    this.requisitionId = Objects.requireNonNull(requisition.getId());
+    this.status = Objects.requireNonNull(requisition.getStatus());
+    this.supervisoryNodeId = requisition.getSupervisoryNodeId();
+    this.locale = Objects.requireNonNull(locale).toLanguageTag();
+    this.nextAttemptDate = nextAttemptDate;
+  }
+
+  public static StatusChangeNotification newStatusChangeNotification(Requisition requisition,
+      Locale locale, ZonedDateTime nextAttemptDate) {
+    return new StatusChangeNotification(requisition, locale, nextAttemptDate);
+  }
+
+  public Locale getLocale() {
+    return Locale.forLanguageTag(locale);
+  }
+
+  /**
+   * Checks if the given requisition changed its status or supervisory node after this entry was
+   * created. Notifications of such entries would describe a status the requisition no longer
+   * has.
+   *
+   * @param requisition the current state of the requisition
+   * @return true if this entry is outdated; otherwise false
+   */
+  public boolean isOutdated(Requisition requisition) {
+    return status != requisition.getStatus()
+        || !Objects.equals(supervisoryNodeId, requisition.getSupervisoryNodeId());
+  }
+
+  /**
+   * Checks if the given entry notifies about the same status change of the same requisition.
+   *
+   * @param other the entry to compare with
+   * @return true if both entries would send the same notifications; otherwise false
+   */
+  public boolean isDuplicateOf(StatusChangeNotification other) {
+    return requisitionId.equals(other.requisitionId)
+        && status == other.status
+        && Objects.equals(supervisoryNodeId, other.supervisoryNodeId);
+  }
+
+  /**
+   * Returns keys of notifications that were delivered by previous attempts.
+   */
+  public Set<String> getDeliveredTo() {
+    return StringUtils.isEmpty(deliveredTo)
+        ? Collections.emptySet()
+        : new TreeSet<>(Arrays.asList(deliveredTo.split(DELIVERED_TO_SEPARATOR)));
+  }
+
+  /**
+   * Records a failed attempt to send the notifications.
+   *
+   * @param error           description of the failure
+   * @param nextAttemptDate when the next attempt should be made, {@code null} if the entry
+   *                        should not be sent anymore
+   * @param deliveredTo     keys of notifications that have been delivered so far
+   */
+  public void attemptFailed(String error, ZonedDateTime nextAttemptDate,
+      Collection<String> deliveredTo) {
+    this.attempts++;
+    this.lastError = error;
+    this.nextAttemptDate = nextAttemptDate;
+    this.deliveredTo = deliveredTo.isEmpty()
+        ? null
+        : String.join(DELIVERED_TO_SEPARATOR, new TreeSet<>(deliveredTo));
+  }
+}
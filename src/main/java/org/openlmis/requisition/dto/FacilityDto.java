@@ -36,6 +36,32 @@ public class FacilityDto extends MinimalFacilityDto {
   private List<SupportedProgramDto> supportedPrograms;
   private FacilityOperatorDto operator;
 
+  /**
+   * Creates a copy of the given facility. Nested objects, like the geographic zone, are shared
+   * with the given facility.
+   *
+   * @param facility facility to copy
+   * @return new instance of facility
+   */
+  public static FacilityDto newInstance(FacilityDto facility) {
+    FacilityDto copy = new FacilityDto();
+    copy.setId(facility.getId());
+    copy.setCode(facility.getCode());
+    copy.setName(facility.getName());
+    copy.setActive(facility.getActive());
+    copy.setGeographicZone(facility.getGeographicZone());
+    copy.setType(facility.getType());
+    copy.setDescription(facility.getDescription());
+    copy.setGoLiveDate(facility.getGoLiveDate());
+    copy.setGoDownDate(facility.getGoDownDate());
+    copy.setComment(facility.getComment());
+    copy.setEnabled(facility.getEnabled());
+    copy.setOpenLmisAccessible(facility.getOpenLmisAccessible());
+    copy.setSupportedPrograms(facility.getSupportedPrograms());
+    copy.setOperator(facility.getOperator());
+    return copy;
+  }
+
   /**
    * Get zone with given level number by traversing up geographicZone hierarchy if needed.
    * @return zone of the facility with given level number.
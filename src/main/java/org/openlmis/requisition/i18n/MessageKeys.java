@@ -270,6 +270,8 @@ public abstract class MessageKeys {
       ERROR_PREFIX + ".validation.invalidBooleanFormat";
   public static final String ERROR_INVALID_UUID_FORMAT =
       ERROR_PREFIX + ".validation.invalidUuidFormat";
+  public static final String ERROR_INVALID_CURSOR_FORMAT =
+      ERROR_PREFIX + ".validation.invalidCursorFormat";
   public static final String ERROR_REQUISITION_DUPLICATION =
       ERROR_PREFIX + ".duplication";
   public static final String ERROR_REQUISITION_DUPLICATION_WITH_NODE =
@@ -293,6 +295,14 @@ public abstract class MessageKeys {
       = "requisition.email.actionRequired.content";
   public static final String REQUISITION_SMS_ACTION_REQUIRED_CONTENT
       = "requisition.sms.actionRequired.content";
+  public static final String REQUISITION_EMAIL_ACTION_REQUIRED_DIGEST_SUBJECT
+      = "requisition.email.actionRequired.digest.subject";
+  public static final String REQUISITION_EMAIL_ACTION_REQUIRED_DIGEST_CONTENT
+      = "requisition.email.actionRequired.digest.content";
+  public static final String REQUISITION_EMAIL_ACTION_REQUIRED_DIGEST_ITEM
+      = "requisition.email.actionRequired.digest.item";
+  public static final String REQUISITION_SMS_ACTION_REQUIRED_DIGEST_CONTENT
+      = "requisition.sms.actionRequired.digest.content";
   public static final String REQUISITION_EMAIL_REQUISITION_APPROVED_SUBJECT
       = "requisition.email.requisitionApproved.subject";
   public static final String REQUISITION_EMAIL_REQUISITION_APPROVED_CONTENT
@@ -305,6 +315,8 @@ public abstract class MessageKeys {
 
   public static final String ERROR_SERVICE_REQUIRED = ERROR_PREFIX + ".service.required";
   public static final String ERROR_SERVICE_OCCURED = ERROR_PREFIX + ".service.errorOccured";
+  public static final String ERROR_STOCK_EVENT_SUBMISSION_FAILED =
+      ERROR_PREFIX + ".stockEvent.submissionFailed";
 
   public static final String LINE_ITEM_SUPPLIED_BY_OTHER_PARTNER =
       SERVICE_PREFIX + ".lineItem.suppliedByOtherPartner";
@@ -16,8 +16,8 @@
 package org.openlmis.requisition.repository;
 
 import java.io.Serializable;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import java.util.List;
+import java.util.UUID;
 import org.springframework.data.repository.NoRepositoryBean;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
@@ -31,7 +31,13 @@ public interface BaseAuditableRepository<T, I extends Serializable>
     extends PagingAndSortingRepository<T, I> {
 
   /**
-   * Returns a {@link Page} of entities which there are no Javers logs created for.
+   * Returns ids of entities which there are no Javers logs created for. Ids are sorted and only
+   * ids greater than the given id are returned, so the next ids can be found by passing the
+   * last id of the previous result.
+   *
+   * @param lastId the last id of the previous result
+   * @param limit  the max number of returned ids
+   * @return ids of entities without Javers logs, as text
    */
-  Page<T> findAllWithoutSnapshots(Pageable pageable);
+  List<String> findIdsWithoutSnapshots(UUID lastId, int limit);
 }
@@ -20,8 +20,6 @@ import java.util.UUID;
 import org.javers.spring.annotation.JaversSpringDataAuditable;
 import org.openlmis.requisition.domain.requisition.Requisition;
 import org.openlmis.requisition.repository.custom.RequisitionRepositoryCustom;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -39,22 +37,24 @@ public interface RequisitionRepository extends
   List<Requisition> readDistinctByIdIn(Iterable<UUID> ids);
 
   @Query(value = "SELECT\n"
-      + "    r.*\n"
+      + "    CAST(r.id AS varchar)\n"
       + "FROM\n"
       + "    requisition.requisitions r\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    r.id > :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            requisition.requisitions r\n"
-      + "            INNER JOIN requisition.jv_global_id g "
-      + "ON CAST(r.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN requisition.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            requisition.jv_global_id g\n"
+      + "            INNER JOIN requisition.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(r.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ORDER BY ?#{#pageable}",
+      + "ORDER BY r.id\n"
+      + "LIMIT :limit",
       nativeQuery = true)
-  Page<Requisition> findAllWithoutSnapshots(Pageable pageable);
+  List<String> findIdsWithoutSnapshots(@Param("lastId") UUID lastId, @Param("limit") int limit);
 
   @Query(value = "SELECT CASE WHEN count(r) > 0 THEN true ELSE false END"
       + " FROM requisition.requisitions r"
@@ -0,0 +1,54 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.openlmis.requisition.domain.requisition.StatusChangeNotification;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+
+public interface StatusChangeNotificationRepository
+    extends PagingAndSortingRepository<StatusChangeNotification, UUID> {
+
+  /**
+   * Finds the oldest entries that should be sent now and locks them until the end of the
+   * current transaction. Entries locked by other transactions are skipped, so several instances
+   * of the service never take the same entries.
+   *
+   * @param limit max number of entries
+   * @return entries that should be sent, oldest first
+   */
+  @Query(value = "SELECT n.*"
+      + " FROM requisition.status_change_notifications n"
+      + " WHERE n.nextAttemptDate <= now()"
+      + " ORDER BY n.nextAttemptDate, n.createdDate"
+      + " LIMIT :limit"
+      + " FOR UPDATE SKIP LOCKED",
+      nativeQuery = true)
+  List<StatusChangeNotification> findDueForUpdate(@Param("limit") int limit);
+
+  @Modifying
+  @Query("DELETE FROM StatusChangeNotification n WHERE n.id IN :ids")
+  void deleteByIdIn(@Param("ids") Collection<UUID> ids);
+
+  StatusChangeNotification findFirstByNextAttemptDateNotNullOrderByCreatedDateAsc();
+
+  long countByNextAttemptDateNotNull();
+}
@@ -15,12 +15,17 @@
 
 package org.openlmis.requisition.repository.custom;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import org.apache.commons.lang3.tuple.Pair;
 import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionCompletion;
 import org.openlmis.requisition.domain.requisition.RequisitionPeriod;
+import org.openlmis.requisition.domain.requisition.RequisitionStatus;
+import org.openlmis.requisition.utils.CursorPageable;
+import org.openlmis.requisition.utils.CursorSlice;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -33,12 +38,30 @@ public interface RequisitionRepositoryCustom {
   List<Requisition> searchRequisitions(UUID processingPeriod,
       UUID facility, UUID program, Boolean emergency);
 
+  Page<Requisition> searchRequisitionHeaders(RequisitionSearchParams params,
+      List<String> userPermissionStrings, Set<Pair<UUID, UUID>> programNodePairs,
+      Pageable pageable);
+
+  CursorSlice<Requisition> searchRequisitionHeaders(RequisitionSearchParams params,
+      List<String> userPermissionStrings, Set<Pair<UUID, UUID>> programNodePairs,
+      CursorPageable pageable);
+
   List<RequisitionPeriod> searchRequisitionIdAndStatusPairs(UUID facility, UUID program,
       Boolean emergency);
 
+  List<RequisitionCompletion> searchRequisitionCompletions(UUID program,
+      Collection<UUID> processingPeriods, Collection<UUID> facilities);
+
+  List<UUID> searchFacilitiesWithoutRequisitions(Collection<UUID> facilities, UUID program,
+      UUID processingPeriod, Set<RequisitionStatus> statuses, List<String> userPermissionStrings,
+      Set<Pair<UUID, UUID>> programNodePairs);
+
   Page<Requisition> searchApprovedRequisitions(UUID facilityId,
       Set<Pair<UUID, UUID>> programSupervisoryNodePair, Pageable pageable);
 
   Page<Requisition> searchApprovableRequisitionsByProgramSupervisoryNodePairs(
       Set<Pair<UUID, UUID>> programNodePairs, Pageable pageable);
+
+  CursorSlice<Requisition> searchApprovableRequisitionsByProgramSupervisoryNodePairs(
+      Set<Pair<UUID, UUID>> programNodePairs, CursorPageable pageable);
 }
@@ -16,11 +16,14 @@
 package org.openlmis.requisition.repository.custom.impl;
 
 import static java.util.stream.Collectors.toList;
+import static org.apache.commons.collections4.CollectionUtils.isEmpty;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -30,7 +33,6 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
-import javax.persistence.Query;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Expression;
@@ -41,15 +43,18 @@ import javax.persistence.criteria.Order;
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
 import javax.persistence.criteria.Subquery;
 import org.apache.commons.lang3.tuple.Pair;
 import org.hibernate.SQLQuery;
 import org.hibernate.type.BooleanType;
 import org.hibernate.type.LongType;
 import org.hibernate.type.PostgresUUIDType;
+import org.hibernate.type.StringType;
 import org.hibernate.type.ZonedDateTimeType;
 import org.openlmis.requisition.domain.BaseEntity;
 import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionCompletion;
 import org.openlmis.requisition.domain.requisition.RequisitionPeriod;
 import org.openlmis.requisition.domain.requisition.RequisitionPermissionString;
 import org.openlmis.requisition.domain.requisition.RequisitionStatus;
@@ -57,6 +62,8 @@ import org.openlmis.requisition.domain.requisition.StatusChange;
 import org.openlmis.requisition.repository.StatusChangeRepository;
 import org.openlmis.requisition.repository.custom.RequisitionRepositoryCustom;
 import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
+import org.openlmis.requisition.utils.CursorPageable;
+import org.openlmis.requisition.utils.CursorSlice;
 import org.openlmis.requisition.utils.Pagination;
 import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
@@ -90,6 +97,33 @@ public class RequisitionRepositoryImpl
   private static final String SELECT_COUNT_APPROVED_SQL = "SELECT DISTINCT COUNT(*)"
       + FROM;
 
+  private static final String WITH_FACILITY = " AND r.facilityid = :facilityId";
+
+  // null program or supervisory node id in a pair matches any value
+  private static final String PROGRAM_AND_NODE_MATCH = "EXISTS ("
+      + "   SELECT 1"
+      + "   FROM unnest(CAST(:programIds AS uuid[]), CAST(:supervisoryNodeIds AS uuid[]))"
+      + "     AS p(programid, supervisorynodeid)"
+      + "   WHERE (p.programid IS NULL OR r.programid = p.programid)"
+      + "   AND (p.supervisorynodeid IS NULL OR r.supervisorynodeid = p.supervisorynodeid))";
+
+  private static final String WITH_PROGRAM_AND_NODE = " AND " + PROGRAM_AND_NODE_MATCH;
+
+  private static final String PERMISSION_STRING_MATCH = "EXISTS ("
+      + "   SELECT 1 FROM requisition.requisition_permission_strings ps"
+      + "   WHERE ps.requisitionid = r.id"
+      + "   AND ps.permissionstringhash = ANY(CAST(:permissionStringHashes AS uuid[])))";
+
+  private static final String SEARCH_FACILITIES_WITHOUT_REQUISITIONS_SQL = "SELECT"
+      + " f.id AS facility_id"
+      + " FROM unnest(CAST(:facilityIds AS uuid[])) AS f(id)"
+      + " WHERE NOT EXISTS ("
+      + "   SELECT 1 FROM requisition.requisitions r"
+      + "   WHERE r.facilityid = f.id"
+      + "   AND r.programid = :programId"
+      + "   AND r.processingperiodid = :processingPeriodId"
+      + "   AND r.status IN (:statuses)";
+
   private static final String FACILITY_ID = "facilityId";
   private static final String PROGRAM_ID = "programId";
   private static final String EMERGENCY = "emergency";
@@ -99,6 +133,15 @@ public class RequisitionRepositoryImpl
   private static final String SUPERVISORY_NODE_ID = "supervisoryNodeId";
   private static final String AUTHORIZED_DATE = "authorizedDate";
   private static final String MODIFIED_DATE = "modifiedDate";
+  private static final String ID = "id";
+  private static final String REPORT_ONLY = "reportOnly";
+  private static final String EXTRA_DATA = "extraData";
+  private static final String REQUISITION = "requisition";
+  private static final String AUTHOR_ID = "authorId";
+
+  // keeps the number of bind parameters of a single query far below the JDBC driver limit
+  private static final int FACILITY_IDS_CHUNK_SIZE = 1000;
+  private static final int REQUISITION_IDS_CHUNK_SIZE = 1000;
 
   @PersistenceContext
   private EntityManager entityManager;
@@ -168,6 +211,120 @@ public class RequisitionRepositoryImpl
     return entityManager.createQuery(query).getResultList();
   }
 
+  /**
+   * Method returns headers of all Requisitions with matched parameters. Only the columns used by
+   * basic requisitions are selected and the status changes of the whole page are retrieved with
+   * a single query, so line items, templates and other associations are never loaded. Returned
+   * requisitions are not managed by the entity manager and must not be saved.
+   *
+   * @param params It contains parameters which have to be matched by requisition.
+   * @param userPermissionStrings Permission strings of current user.
+   * @param programNodePairs program / supervisoryNode pairs
+   * @return Page of Requisition headers with matched parameters.
+   */
+  @Override
+  public Page<Requisition> searchRequisitionHeaders(RequisitionSearchParams params,
+      List<String> userPermissionStrings, Set<Pair<UUID, UUID>> programNodePairs,
+      Pageable pageable) {
+    XLOGGER.entry(params, pageable);
+
+    Profiler profiler = new Profiler("SEARCH_REQUISITION_HEADERS");
+    profiler.setLogger(XLOGGER);
+
+    CriteriaBuilder builder = getCriteriaBuilder();
+
+    profiler.start("EXECUTE_COUNT_QUERY");
+    CriteriaQuery<Long> countQuery = builder.createQuery(Long.class);
+    countQuery = prepareQuery(builder, countQuery, params,
+        userPermissionStrings, programNodePairs, true, pageable);
+
+    Long count = countEntities(countQuery);
+
+    if (isZeroEntities(count)) {
+      Page<Requisition> page = Pagination.getPage(Collections.emptyList(), pageable, count);
+
+      XLOGGER.exit(page);
+      profiler.stop().log();
+
+      return page;
+    }
+
+    profiler.start("EXECUTE_HEADER_QUERY");
+    CriteriaQuery<Object[]> headerQuery = builder.createQuery(Object[].class);
+    headerQuery = prepareQuery(builder, headerQuery, params,
+        userPermissionStrings, programNodePairs, false, pageable);
+    selectHeaderColumns(headerQuery);
+
+    Pair<Integer, Integer> maxAndFirst = PageableUtil.querysMaxAndFirstResult(pageable);
+    List<Requisition> requisitions = entityManager.createQuery(headerQuery)
+        .setMaxResults(maxAndFirst.getLeft())
+        .setFirstResult(maxAndFirst.getRight())
+        .getResultList()
+        .stream()
+        .map(this::toRequisitionHeader)
+        .collect(toList());
+
+    profiler.start("GET_STATUS_CHANGES_BY_REQ_IDS");
+    addStatusChangeHeaders(requisitions);
+
+    profiler.start("CREATE_RESULT_PAGE");
+    Page<Requisition> page = Pagination.getPage(requisitions, pageable, count);
+
+    XLOGGER.exit(page);
+    profiler.stop().log();
+
+    return page;
+  }
+
+  /**
+   * Method returns headers of Requisitions with matched parameters that were created after (or
+   * before, in descending order) the requisition pointed by the cursor. Unlike the offset based
+   * search, matching requisitions are not counted.
+   *
+   * @param params It contains parameters which have to be matched by requisition.
+   * @param userPermissionStrings Permission strings of current user.
+   * @param programNodePairs program / supervisoryNode pairs
+   * @param pageable position and size of the page
+   * @return Slice of Requisition headers with matched parameters.
+   */
+  @Override
+  public CursorSlice<Requisition> searchRequisitionHeaders(RequisitionSearchParams params,
+      List<String> userPermissionStrings, Set<Pair<UUID, UUID>> programNodePairs,
+      CursorPageable pageable) {
+    XLOGGER.entry(params, pageable);
+
+    Profiler profiler = new Profiler("SEARCH_REQUISITION_HEADERS_BY_CURSOR");
+    profiler.setLogger(XLOGGER);
+
+    CriteriaBuilder builder = getCriteriaBuilder();
+
+    profiler.start("EXECUTE_HEADER_QUERY");
+    CriteriaQuery<Object[]> headerQuery = builder.createQuery(Object[].class);
+    headerQuery = prepareQuery(builder, headerQuery, params,
+        userPermissionStrings, programNodePairs, false, null);
+    addCursor(builder, headerQuery, pageable);
+    selectHeaderColumns(headerQuery);
+
+    List<Requisition> requisitions = entityManager.createQuery(headerQuery)
+        .setMaxResults(getCursorMaxResults(pageable))
+        .getResultList()
+        .stream()
+        .map(this::toRequisitionHeader)
+        .collect(toList());
+
+    profiler.start("CREATE_RESULT_SLICE");
+    CursorSlice<Requisition> slice = toCursorSlice(requisitions, pageable);
+
+    profiler.start("GET_STATUS_CHANGES_BY_REQ_IDS");
+    addStatusChangeHeaders(slice.getContent());
+
+    XLOGGER.exit(slice);
+    profiler.stop().log();
+
+    return slice;
+  }
+
+
   /**
    * Method returns all ids and statues of requisitions with matched parameters.
    *
@@ -203,6 +360,124 @@ public class RequisitionRepositoryImpl
     return requisitionIdStatusList;
   }
 
+  /**
+   * Method returns a completion entry for each standard (non-emergency) requisition of the given
+   * program that was created for any of the given periods and facilities. Each entry contains the
+   * date of the first approval of the requisition, or {@code null} if it was never approved.
+   * Facilities are queried in chunks so the number of database round trips does not depend on
+   * the number of facilities or periods.
+   *
+   * @param program           Program of searched requisitions.
+   * @param processingPeriods Processing periods of searched requisitions.
+   * @param facilities        Facilities of searched requisitions.
+   * @return List of requisition completions with matched parameters.
+   */
+  @Override
+  public List<RequisitionCompletion> searchRequisitionCompletions(UUID program,
+      Collection<UUID> processingPeriods, Collection<UUID> facilities) {
+    XLOGGER.entry(program, processingPeriods, facilities);
+
+    if (isEmpty(processingPeriods) || isEmpty(facilities)) {
+      XLOGGER.exit(Collections.emptyList());
+      return Collections.emptyList();
+    }
+
+    Profiler profiler = new Profiler("SEARCH_REQUISITION_COMPLETIONS");
+    profiler.setLogger(XLOGGER);
+
+    List<RequisitionCompletion> completions = new ArrayList<>();
+    List<List<UUID>> chunks = Lists.partition(new ArrayList<>(facilities),
+        FACILITY_IDS_CHUNK_SIZE);
+
+    for (List<UUID> chunk : chunks) {
+      profiler.start("EXECUTE_QUERY_FOR_FACILITIES_CHUNK");
+      completions.addAll(entityManager
+          .createQuery(prepareCompletionQuery(program, processingPeriods, chunk))
+          .getResultList());
+    }
+
+    XLOGGER.exit(completions);
+    profiler.stop().log();
+    return completions;
+  }
+
+  /**
+   * Method returns ids of those facilities from the given collection that do not have any
+   * requisition for the given program and period in one of the given statuses. The check is done
+   * with a single anti-join query; facility ids are bound as one array parameter. Like in
+   * {@link #searchRequisitions(RequisitionSearchParams, List, Set, Pageable)}, only requisitions
+   * matching any of the permission strings or program / supervisoryNode pairs are taken into
+   * account, unless both of them are empty.
+   *
+   * @param facilities            Facilities that should be checked.
+   * @param program               Program of searched requisitions.
+   * @param processingPeriod      Processing period of searched requisitions.
+   * @param statuses              Statuses of searched requisitions.
+   * @param userPermissionStrings Permission strings of current user.
+   * @param programNodePairs      program / supervisoryNode pairs
+   * @return List of ids of facilities without matching requisitions.
+   */
+  @Override
+  public List<UUID> searchFacilitiesWithoutRequisitions(Collection<UUID> facilities,
+      UUID program, UUID processingPeriod, Set<RequisitionStatus> statuses,
+      List<String> userPermissionStrings, Set<Pair<UUID, UUID>> programNodePairs) {
+    XLOGGER.entry(facilities, program, processingPeriod, statuses, userPermissionStrings,
+        programNodePairs);
+
+    if (isEmpty(facilities)) {
+      XLOGGER.exit(Collections.emptyList());
+      return Collections.emptyList();
+    }
+
+    List<String> permissionMatches = new ArrayList<>();
+    if (isNotEmpty(userPermissionStrings)) {
+      permissionMatches.add(PERMISSION_STRING_MATCH);
+    }
+    if (isNotEmpty(programNodePairs)) {
+      permissionMatches.add(PROGRAM_AND_NODE_MATCH);
+    }
+
+    StringBuilder builder = new StringBuilder(SEARCH_FACILITIES_WITHOUT_REQUISITIONS_SQL);
+    if (!permissionMatches.isEmpty()) {
+      builder.append(" AND (").append(String.join(" OR ", permissionMatches)).append(')');
+    }
+    builder.append(')');
+
+    List<String> statusNames = statuses
+        .stream()
+        .map(RequisitionStatus::name)
+        .collect(toList());
+
+    SQLQuery query = entityManager
+        .createNativeQuery(builder.toString())
+        .unwrap(SQLQuery.class);
+    query.setParameter("facilityIds", toArrayLiteral(facilities), StringType.INSTANCE);
+    query.setParameter(PROGRAM_ID, program, PostgresUUIDType.INSTANCE);
+    query.setParameter(PROCESSING_PERIOD_ID, processingPeriod, PostgresUUIDType.INSTANCE);
+    query.setParameterList("statuses", statusNames, StringType.INSTANCE);
+
+    if (isNotEmpty(userPermissionStrings)) {
+      Set<UUID> permissionStringHashes = userPermissionStrings
+          .stream()
+          .map(RequisitionPermissionString::hash)
+          .collect(Collectors.toSet());
+      query.setParameter("permissionStringHashes", toArrayLiteral(permissionStringHashes),
+          StringType.INSTANCE);
+    }
+    if (isNotEmpty(programNodePairs)) {
+      setProgramAndNodeParameters(query, programNodePairs);
+    }
+
+    query.addScalar("facility_id", PostgresUUIDType.INSTANCE);
+
+    // hibernate returns a list of values if only one scalar is defined
+    @SuppressWarnings("unchecked")
+    List<UUID> facilityIds = Collections.checkedList(query.list(), UUID.class);
+
+    XLOGGER.exit(facilityIds);
+    return facilityIds;
+  }
+
   /**
    * Get approved requisitions matching all of provided parameters.
    * Empty list is returned if:
@@ -219,14 +494,14 @@ public class RequisitionRepositoryImpl
       Set<Pair<UUID, UUID>> programSupervisoryNode, Pageable pageable) {
     XLOGGER.entry(facilityId, programSupervisoryNode, pageable);
 
-    Query countQuery = createQuery(facilityId, programSupervisoryNode, true, pageable);
-    Long count = (Long) countQuery.getSingleResult();
+    SQLQuery countQuery = createQuery(facilityId, programSupervisoryNode, true, pageable);
+    Long count = (Long) countQuery.uniqueResult();
 
     if (count == 0) {
       return Pagination.getPage(Collections.emptyList(), pageable, 0);
     }
 
-    Query searchQuery = createQuery(facilityId, programSupervisoryNode, false, pageable);
+    SQLQuery searchQuery = createQuery(facilityId, programSupervisoryNode, false, pageable);
     addScalars(searchQuery);
 
     // hibernate always returns a list of array of objects
@@ -234,7 +509,7 @@ public class RequisitionRepositoryImpl
     List<Object[]> list = Collections.checkedList(searchQuery
             .setFirstResult(pageable.getOffset())
             .setMaxResults(pageable.getPageSize())
-            .getResultList(),
+            .list(),
             Object[].class);
 
     List<Requisition> requisitions = list.stream().map(this::toRequisition)
@@ -292,24 +567,8 @@ public class RequisitionRepositoryImpl
         .setFirstResult(maxAndFirst.getRight())
         .getResultList();
 
-    profiler.start("GET_REQUISITIONS_IDS");
-    Set<UUID> requisitionIds = requisitions
-        .stream()
-        .map(BaseEntity::getId)
-        .collect(Collectors.toSet());
-
     profiler.start("GET_STATUS_CHANGES_BY_REQ_IDS");
-    Map<UUID, List<StatusChange>> allStatusChanges = statusChangeRepository
-        .findByRequisitionIdIn(requisitionIds)
-        .stream()
-        .collect(Collectors.groupingBy(status -> status.getRequisition().getId()));
-
-    profiler.start("MATCH_REQ_WITH_STATUS_CHANGES");
-    requisitions
-        .forEach(requisition -> {
-          List<StatusChange> statusChanges = allStatusChanges.get(requisition.getId());
-          requisition.setStatusChanges(statusChanges);
-        });
+    addStatusChanges(requisitions);
 
     profiler.start("CREATE_RESULT_PAGE");
     Page<Requisition> page = Pagination.getPage(requisitions, pageable, count);
@@ -320,6 +579,46 @@ public class RequisitionRepositoryImpl
     return page;
   }
 
+  /**
+   * Get approvable requisitions for specified program and supervisoryNode pairs that were
+   * created after (or before, in descending order) the requisition pointed by the cursor.
+   * Unlike the offset based search, matching requisitions are not counted.
+   *
+   * @param programNodePairs program / supervisoryNode pairs
+   * @param pageable position and size of the page
+   * @return Slice of approvable requisitions.
+   */
+  @Override
+  public CursorSlice<Requisition> searchApprovableRequisitionsByProgramSupervisoryNodePairs(
+      Set<Pair<UUID, UUID>> programNodePairs, CursorPageable pageable) {
+    XLOGGER.entry(programNodePairs, pageable);
+
+    Profiler profiler = new Profiler("SEARCH_APPROBABLE_REQ_BY_PROGRAM_SUP_NODE_PAIRS_AND_CURSOR");
+    profiler.setLogger(XLOGGER);
+
+    CriteriaBuilder builder = getCriteriaBuilder();
+
+    profiler.start("EXECUTE_MAIN_QUERY");
+    CriteriaQuery<Requisition> query = builder.createQuery(Requisition.class);
+    query = prepareApprovableQuery(builder, query, programNodePairs, false, null);
+    addCursor(builder, query, pageable);
+
+    List<Requisition> requisitions = entityManager.createQuery(query)
+        .setMaxResults(getCursorMaxResults(pageable))
+        .getResultList();
+
+    profiler.start("CREATE_RESULT_SLICE");
+    CursorSlice<Requisition> slice = toCursorSlice(requisitions, pageable);
+
+    profiler.start("GET_STATUS_CHANGES_BY_REQ_IDS");
+    addStatusChanges(slice.getContent());
+
+    XLOGGER.exit(slice);
+    profiler.stop().log();
+
+    return slice;
+  }
+
   private <T> CriteriaQuery<T> prepareQuery(CriteriaBuilder builder, CriteriaQuery<T> query,
       RequisitionSearchParams params, List<String> userPermissionStrings,
       Set<Pair<UUID, UUID>> programNodePairs, boolean count, Pageable pageable) {
@@ -368,6 +667,126 @@ public class RequisitionRepositoryImpl
     return query;
   }
 
+  private void addCursor(CriteriaBuilder builder, CriteriaQuery<?> query,
+      CursorPageable pageable) {
+    Root<?> root = query.getRoots().iterator().next();
+    Path<ZonedDateTime> createdDate = root.get(CREATED_DATE);
+    Path<UUID> id = root.get(ID);
+
+    if (!pageable.isFirst()) {
+      Predicate after = pageable.isAscending()
+          ? builder.or(
+              builder.greaterThan(createdDate, pageable.getCreatedDate()),
+              builder.and(
+                  builder.equal(createdDate, pageable.getCreatedDate()),
+                  builder.greaterThan(id, pageable.getId())))
+          : builder.or(
+              builder.lessThan(createdDate, pageable.getCreatedDate()),
+              builder.and(
+                  builder.equal(createdDate, pageable.getCreatedDate()),
+                  builder.lessThan(id, pageable.getId())));
+
+      query.where(builder.and(query.getRestriction(), after));
+    }
+
+    query.orderBy(pageable.isAscending()
+        ? Lists.newArrayList(builder.asc(createdDate), builder.asc(id))
+        : Lists.newArrayList(builder.desc(createdDate), builder.desc(id)));
+  }
+
+  private int getCursorMaxResults(CursorPageable pageable) {
+    // one more requisition is retrieved to check if there is a next page
+    return pageable.getPageSize() < Pagination.NO_PAGINATION
+        ? pageable.getPageSize() + 1
+        : Pagination.NO_PAGINATION;
+  }
+
+  private CursorSlice<Requisition> toCursorSlice(List<Requisition> requisitions,
+      CursorPageable pageable) {
+    if (requisitions.size() <= pageable.getPageSize()) {
+      return new CursorSlice<>(requisitions, pageable, null);
+    }
+
+    List<Requisition> content = requisitions.subList(0, pageable.getPageSize());
+    Requisition last = content.get(content.size() - 1);
+
+    return new CursorSlice<>(content, pageable,
+        CursorPageable.toCursor(last.getCreatedDate(), last.getId()));
+  }
+
+  private void addStatusChanges(List<Requisition> requisitions) {
+    Set<UUID> requisitionIds = requisitions
+        .stream()
+        .map(BaseEntity::getId)
+        .collect(Collectors.toSet());
+
+    if (requisitionIds.isEmpty()) {
+      return;
+    }
+
+    Map<UUID, List<StatusChange>> allStatusChanges = statusChangeRepository
+        .findByRequisitionIdIn(requisitionIds)
+        .stream()
+        .collect(Collectors.groupingBy(status -> status.getRequisition().getId()));
+
+    requisitions
+        .forEach(requisition -> {
+          List<StatusChange> statusChanges = allStatusChanges.get(requisition.getId());
+          requisition.setStatusChanges(statusChanges);
+        });
+  }
+
+  private void selectHeaderColumns(CriteriaQuery<Object[]> query) {
+    Root<?> root = query.getRoots().iterator().next();
+
+    List<Selection<?>> selections = new ArrayList<>();
+    selections.add(root.get(ID));
+    selections.add(root.get(CREATED_DATE));
+    selections.add(root.get(MODIFIED_DATE));
+    selections.add(root.get(STATUS));
+    selections.add(root.get(EMERGENCY));
+    selections.add(root.get(REPORT_ONLY));
+    selections.add(root.get(FACILITY_ID));
+    selections.add(root.get(PROGRAM_ID));
+    selections.add(root.get(PROCESSING_PERIOD_ID));
+    selections.add(root.get(SUPERVISORY_NODE_ID));
+    selections.add(root.get(EXTRA_DATA).get(EXTRA_DATA));
+
+    // the query is distinct so all sort expressions have to be in the select list
+    query.getOrderList().forEach(order -> selections.add(order.getExpression()));
+
+    query.multiselect(selections);
+  }
+
+  private void addStatusChangeHeaders(List<Requisition> requisitions) {
+    Map<UUID, Requisition> requisitionsById = requisitions
+        .stream()
+        .collect(Collectors.toMap(BaseEntity::getId, requisition -> requisition));
+
+    List<List<UUID>> chunks = Lists.partition(new ArrayList<>(requisitionsById.keySet()),
+        REQUISITION_IDS_CHUNK_SIZE);
+
+    for (List<UUID> chunk : chunks) {
+      CriteriaBuilder builder = getCriteriaBuilder();
+      CriteriaQuery<Object[]> query = builder.createQuery(Object[].class);
+      Root<StatusChange> root = query.from(StatusChange.class);
+      Path<UUID> requisitionId = root.get(REQUISITION).get(ID);
+
+      query.multiselect(requisitionId, root.get(STATUS), root.get(AUTHOR_ID),
+          root.get(CREATED_DATE));
+      query.where(requisitionId.in(chunk));
+
+      for (Object[] values : entityManager.createQuery(query).getResultList()) {
+        StatusChange statusChange = new StatusChange();
+        statusChange.setStatus((RequisitionStatus) values[1]);
+        statusChange.setAuthorId((UUID) values[2]);
+        statusChange.setCreatedDate((ZonedDateTime) values[3]);
+
+        requisitionsById.get(values[0]).getStatusChanges().add(statusChange);
+      }
+    }
+  }
+
   private Predicate createPermissionPredicate(CriteriaBuilder builder, Root<Requisition> root,
       Predicate predicate, List<String> userPermissionStrings,
       Set<Pair<UUID, UUID>> programNodePairs) {
@@ -395,9 +814,13 @@ public class RequisitionRepositoryImpl
       List<String> userPermissionStrings) {
     Join<Requisition, RequisitionPermissionString> permissionStringJoin = root
         .join("permissionStrings");
-    Expression<String> permissionStringExp = permissionStringJoin.get("permissionString");
+    Expression<UUID> permissionStringHashExp = permissionStringJoin.get("permissionStringHash");
+    Set<UUID> userPermissionStringHashes = userPermissionStrings
+        .stream()
+        .map(RequisitionPermissionString::hash)
+        .collect(Collectors.toSet());
 
-    return permissionStringExp.in(userPermissionStrings);
+    return permissionStringHashExp.in(userPermissionStringHashes);
   }
 
   private <T> CriteriaQuery<T> prepareApprovableQuery(CriteriaBuilder builder,
@@ -446,6 +869,32 @@ public class RequisitionRepositoryImpl
     return query.where(predicate);
   }
 
+  private CriteriaQuery<RequisitionCompletion> prepareCompletionQuery(UUID program,
+      Collection<UUID> processingPeriods, Collection<UUID> facilities) {
+    CriteriaBuilder builder = getCriteriaBuilder();
+
+    CriteriaQuery<RequisitionCompletion> query = builder.createQuery(RequisitionCompletion.class);
+    Root<Requisition> root = query.from(Requisition.class);
+
+    ListJoin<Requisition, StatusChange> statusChanges = root
+        .joinList(Requisition.STATUS_CHANGES, JoinType.LEFT);
+    statusChanges.on(builder.equal(statusChanges.get(STATUS), RequisitionStatus.APPROVED));
+
+    query.multiselect(root.get("id"), root.get(PROCESSING_PERIOD_ID), root.get(FACILITY_ID),
+        builder.least(statusChanges.<ZonedDateTime>get(CREATED_DATE)));
+
+    Predicate predicate = builder.conjunction();
+    predicate = addEqualFilter(predicate, builder, root, PROGRAM_ID, program);
+    predicate = addEqualFilter(predicate, builder, root, EMERGENCY, false);
+    predicate = addInFilter(predicate, builder, root, PROCESSING_PERIOD_ID, processingPeriods);
+    predicate = addInFilter(predicate, builder, root, FACILITY_ID, facilities);
+
+    query.where(predicate);
+    query.groupBy(root.get("id"), root.get(PROCESSING_PERIOD_ID), root.get(FACILITY_ID));
+
+    return query;
+  }
+
   private Predicate createProgramNodePairPredicate(CriteriaBuilder builder,
       Root<Requisition> root, Set<Pair<UUID, UUID>> programNodePairs) {
     Predicate[] combinedPredicates = new Predicate[programNodePairs.size()];
@@ -496,21 +945,16 @@ public class RequisitionRepositoryImpl
     return query.orderBy(orders);
   }
 
-  private Query createQuery(UUID facilityId, Set<Pair<UUID, UUID>> programSupervisoryNode,
+  private SQLQuery createQuery(UUID facilityId, Set<Pair<UUID, UUID>> programSupervisoryNode,
       Boolean count, Pageable pageable) {
     StringBuilder builder =
         new StringBuilder(count ? SELECT_COUNT_APPROVED_SQL : SEARCH_APPROVED_SQL);
 
     if (null != facilityId) {
-      builder.append(String.format(" AND r.facilityid = '%s'", facilityId));
+      builder.append(WITH_FACILITY);
     }
     if (isNotEmpty(programSupervisoryNode)) {
-      builder.append(" AND (");
-      List<String> programAndSupervisoryNodeConditions = programSupervisoryNode.stream()
-          .map(this::createQueryForProgramAndNode)
-          .collect(toList());
-      builder.append(Joiner.on(" OR ").join(programAndSupervisoryNodeConditions));
-      builder.append(')');
+      builder.append(WITH_PROGRAM_AND_NODE);
     }
 
     if (!count && pageable.getSort() != null) {
@@ -518,7 +962,16 @@ public class RequisitionRepositoryImpl
       builder.append(getOrderPredicate(pageable));
     }
 
-    Query query = entityManager.createNativeQuery(builder.toString());
+    SQLQuery query = entityManager
+        .createNativeQuery(builder.toString())
+        .unwrap(SQLQuery.class);
+
+    if (null != facilityId) {
+      query.setParameter(FACILITY_ID, facilityId, PostgresUUIDType.INSTANCE);
+    }
+    if (isNotEmpty(programSupervisoryNode)) {
+      setProgramAndNodeParameters(query, programSupervisoryNode);
+    }
 
     if (count) {
       addScalarsForCount(query);
@@ -527,8 +980,21 @@ public class RequisitionRepositoryImpl
     return query;
   }
 
-  private void addScalars(Query query) {
-    SQLQuery sql = query.unwrap(SQLQuery.class);
+  private void setProgramAndNodeParameters(SQLQuery query,
+      Set<Pair<UUID, UUID>> programSupervisoryNode) {
+    List<UUID> programIds = new ArrayList<>(programSupervisoryNode.size());
+    List<UUID> supervisoryNodeIds = new ArrayList<>(programSupervisoryNode.size());
+    programSupervisoryNode.forEach(pair -> {
+      programIds.add(pair.getLeft());
+      supervisoryNodeIds.add(pair.getRight());
+    });
+
+    query.setParameter("programIds", toArrayLiteral(programIds), StringType.INSTANCE);
+    query.setParameter("supervisoryNodeIds", toArrayLiteral(supervisoryNodeIds),
+        StringType.INSTANCE);
+  }
+
+  private void addScalars(SQLQuery sql) {
     sql.addScalar("req_id", PostgresUUIDType.INSTANCE);
     sql.addScalar("req_emergency", BooleanType.INSTANCE);
     sql.addScalar("facility_id", PostgresUUIDType.INSTANCE);
@@ -538,8 +1004,7 @@ public class RequisitionRepositoryImpl
     sql.addScalar("approved_date", ZonedDateTimeType.INSTANCE);
   }
 
-  private void addScalarsForCount(Query query) {
-    SQLQuery sql = query.unwrap(SQLQuery.class);
+  private void addScalarsForCount(SQLQuery sql) {
     sql.addScalar("count", LongType.INSTANCE);
   }
 
@@ -561,6 +1026,33 @@ public class RequisitionRepositoryImpl
     return requisition;
   }
 
+  @SuppressWarnings("unchecked")
+  private Requisition toRequisitionHeader(Object[] values) {
+    Requisition requisition = new Requisition();
+
+    requisition.setId((UUID) values[0]);
+    requisition.setCreatedDate((ZonedDateTime) values[1]);
+    requisition.setModifiedDate((ZonedDateTime) values[2]);
+    requisition.setStatus((RequisitionStatus) values[3]);
+    requisition.setEmergency((Boolean) values[4]);
+    requisition.setReportOnly((Boolean) values[5]);
+    requisition.setFacilityId((UUID) values[6]);
+    requisition.setProgramId((UUID) values[7]);
+    requisition.setProcessingPeriodId((UUID) values[8]);
+    requisition.setSupervisoryNodeId((UUID) values[9]);
+    requisition.setExtraData((Map<String, Object>) values[10]);
+    requisition.setStatusChanges(new ArrayList<>());
+
+    return requisition;
+  }
+
+  private String toArrayLiteral(Collection<UUID> values) {
+    return values
+        .stream()
+        .map(value -> null == value ? "NULL" : value.toString())
+        .collect(Collectors.joining(",", "{", "}"));
+  }
+
   private String getOrderPredicate(Pageable pageable) {
     List<String> orderPredicate = new ArrayList<>();
     List<String> sql = new ArrayList<>();
@@ -579,19 +1071,4 @@ public class RequisitionRepositoryImpl
 
     return Joiner.on(' ').join(sql);
   }
-
-  private String createQueryForProgramAndNode(Pair<UUID, UUID> programSupervisoryNode) {
-    UUID programId = programSupervisoryNode.getLeft();
-    UUID supervisoryNodeId = programSupervisoryNode.getRight();
-
-    if (null != programId && null != supervisoryNodeId) {
-      return String.format("(r.programId = '%s' AND r.supervisoryNodeId = '%s')",
-          programId, supervisoryNodeId);
-    } else if (null != programId) {
-      return String.format("r.programId = '%s'", programId);
-    } else if (null != supervisoryNodeId) {
-      return String.format("r.supervisoryNodeId = '%s'", supervisoryNodeId);
-    }
-    return "";
-  }
 }
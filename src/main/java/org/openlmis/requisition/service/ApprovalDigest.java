@@ -0,0 +1,111 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import org.apache.commons.lang3.tuple.Pair;
+import org.openlmis.requisition.dto.UserDto;
+
+/**
+ * Collects requisitions that are ready for review by each approver, so a user who can approve
+ * several requisitions whose status changed at the same time, for example during a batch
+ * approval, gets one notification that lists all of them. Users who can approve requisitions
+ * of a supervisory node and program are resolved once per digest. Each recipient keeps the
+ * {@link DeliveredNotifications} of the status changes its notification is about, so the
+ * delivery can be recorded for all of them once the notification is sent.
+ *
+ * <p>The digest is safe to use from several threads.
+ */
+public final class ApprovalDigest {
+
+  private final Map<Pair<UUID, UUID>, Collection<UserDto>> approvers = new ConcurrentHashMap<>();
+  private final Map<Pair<UUID, Locale>, Recipient> recipients = new LinkedHashMap<>();
+
+  /**
+   * Returns users who can approve requisitions of the given supervisory node and program. The
+   * loader is called only once for each supervisory node and program.
+   *
+   * @param supervisoryNodeId id of the supervisory node
+   * @param programId         id of the program
+   * @param loader            retrieves the users from the other service
+   * @return users who can approve the requisitions
+   */
+  public Collection<UserDto> getApprovers(UUID supervisoryNodeId, UUID programId,
+      BiFunction<UUID, UUID, Collection<UserDto>> loader) {
+    return approvers.computeIfAbsent(Pair.of(supervisoryNodeId, programId),
+        key -> loader.apply(supervisoryNodeId, programId));
+  }
+
+  /**
+   * Adds a requisition to the notification of the given approver.
+   *
+   * @param approver    user who can approve the requisition
+   * @param locale      locale of the notification
+   * @param requisition values describing the requisition in the notification
+   * @param delivered   notifications of the status change of the requisition
+   */
+  public synchronized void add(UserDto approver, Locale locale, Map<String, String> requisition,
+      DeliveredNotifications delivered) {
+    Recipient recipient = recipients
+        .computeIfAbsent(Pair.of(approver.getId(), locale), key -> new Recipient(approver, locale));
+    recipient.requisitions.add(requisition);
+    recipient.delivered.add(delivered);
+  }
+
+  /**
+   * Returns approvers with the requisitions they can review, in the order they were added.
+   */
+  public synchronized List<Recipient> getRecipients() {
+    return new ArrayList<>(recipients.values());
+  }
+
+  public static final class Recipient {
+    private final UserDto user;
+    private final Locale locale;
+    private final List<Map<String, String>> requisitions = new ArrayList<>();
+    private final List<DeliveredNotifications> delivered = new ArrayList<>();
+
+    Recipient(UserDto user, Locale locale) {
+      this.user = user;
+      this.locale = locale;
+    }
+
+    public UserDto getUser() {
+      return user;
+    }
+
+    public Locale getLocale() {
+      return locale;
+    }
+
+    public List<Map<String, String>> getRequisitions() {
+      return Collections.unmodifiableList(requisitions);
+    }
+
+    public List<DeliveredNotifications> getDelivered() {
+      return Collections.unmodifiableList(delivered);
+    }
+  }
+}
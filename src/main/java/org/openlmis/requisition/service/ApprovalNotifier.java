@@ -16,18 +16,24 @@
 package org.openlmis.requisition.service;
 
 import static org.openlmis.requisition.i18n.MessageKeys.REQUISITION_EMAIL_ACTION_REQUIRED_CONTENT;
+import static org.openlmis.requisition.i18n.MessageKeys.REQUISITION_EMAIL_ACTION_REQUIRED_DIGEST_CONTENT;
+import static org.openlmis.requisition.i18n.MessageKeys.REQUISITION_EMAIL_ACTION_REQUIRED_DIGEST_ITEM;
+import static org.openlmis.requisition.i18n.MessageKeys.REQUISITION_EMAIL_ACTION_REQUIRED_DIGEST_SUBJECT;
 import static org.openlmis.requisition.i18n.MessageKeys.REQUISITION_EMAIL_ACTION_REQUIRED_SUBJECT;
 import static org.openlmis.requisition.i18n.MessageKeys.REQUISITION_SMS_ACTION_REQUIRED_CONTENT;
+import static org.openlmis.requisition.i18n.MessageKeys.REQUISITION_SMS_ACTION_REQUIRED_DIGEST_CONTENT;
 
 import java.text.MessageFormat;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import org.apache.commons.lang.text.StrSubstitutor;
 import org.openlmis.requisition.domain.requisition.Requisition;
 import org.openlmis.requisition.domain.requisition.RequisitionStatus;
@@ -80,18 +86,55 @@ public class ApprovalNotifier extends BaseNotifier {
   private String publicUrl;
 
   /**
-   * Notify requisition's creator that it was converted to order.
+   * Notify each approver in the digest. An approver of a single requisition gets the same
+   * notification as if the requisition was approved alone; an approver of several requisitions
+   * gets one notification that lists all of them. When an approver is notified, the delivery is
+   * recorded for each status change the notification is about. A failure to notify one approver
+   * does not stop notifications of other approvers; it is returned, so the status changes can
+   * be sent again.
    *
-   * @param requisition requisition that was converted
+   * @param digest requisitions that are ready for review by each approver
+   * @return approvers that could not be notified with the reason of the failure
    */
-  public void notifyApprovers(Requisition requisition, Locale locale) {
-    Collection<UserDto> approvers = getApprovers(requisition);
-    String reqType = getMessage(getEmergencyKey(requisition), locale);
-    ProcessingPeriodDto period =
-        periodReferenceDataService.findOne(requisition.getProcessingPeriodId());
-    ProgramDto program = programReferenceDataService.findOne(requisition.getProgramId());
-    FacilityDto facility = facilityReferenceDataService.findOne(requisition.getFacilityId());
+  public Map<ApprovalDigest.Recipient, RuntimeException> notifyApprovers(
+      ApprovalDigest digest) {
+    Map<ApprovalDigest.Recipient, RuntimeException> failures = new LinkedHashMap<>();
+
+    for (ApprovalDigest.Recipient recipient : digest.getRecipients()) {
+      List<Map<String, String>> requisitions = recipient.getRequisitions();
+
+      try {
+        if (requisitions.size() == 1) {
+          notifyApprover(recipient, requisitions.get(0));
+        } else {
+          notifyApproverWithDigest(recipient, requisitions);
+        }
+
+        recipient.getDelivered()
+            .forEach(delivered -> delivered.add(recipient.getUser(), NOTIFICATION_TAG));
+      } catch (RuntimeException exp) {
+        LOGGER.debug("Could not notify approver {} about {} requisition(s)",
+            recipient.getUser().getId(), requisitions.size(), exp);
+        failures.put(recipient, exp);
+      }
+    }
+
+    return failures;
+  }
 
+  /**
+   * Adds the requisition to the digest of each user that can approve it. Users who can approve
+   * requisitions of the same supervisory node and program are retrieved once per digest. Users
+   * who have already been notified about the status change are skipped.
+   *
+   * @param requisition requisition that should be approved
+   * @param locale      locale of the notifications
+   * @param memo        reference data resolved while processing the status change
+   * @param digest      digest the requisition should be added to
+   * @param delivered   notifications of the status change that have already been delivered
+   */
+  public void addToDigest(Requisition requisition, Locale locale, ReferenceDataMemo memo,
+      ApprovalDigest digest, DeliveredNotifications delivered) {
     List<StatusChange> statusChanges = requisition.getStatusChanges();
     if (statusChanges == null) {
       LOGGER.warn("Could not find requisition audit data to notify for convert to order.");
@@ -107,9 +150,15 @@ public class ApprovalNotifier extends BaseNotifier {
     }
     ZonedDateTime submittedDate = submitAuditEntry.get().getCreatedDate();
 
-    String subject = getMessage(REQUISITION_EMAIL_ACTION_REQUIRED_SUBJECT, locale);
-    String emailContent = getMessage(REQUISITION_EMAIL_ACTION_REQUIRED_CONTENT, locale);
-    String smsContent = getMessage(REQUISITION_SMS_ACTION_REQUIRED_CONTENT, locale);
+    Collection<UserDto> approvers = digest.getApprovers(requisition.getSupervisoryNodeId(),
+        requisition.getProgramId(), (nodeId, programId) -> findApprovers(nodeId, programId, memo));
+    String reqType = getMessage(getEmergencyKey(requisition), locale);
+    ProcessingPeriodDto period = memo.get(ProcessingPeriodDto.class,
+        requisition.getProcessingPeriodId(), periodReferenceDataService::findOne);
+    ProgramDto program = memo.get(ProgramDto.class, requisition.getProgramId(),
+        programReferenceDataService::findOne);
+    FacilityDto facility = memo.get(FacilityDto.class, requisition.getFacilityId(),
+        facilityReferenceDataService::findOne);
 
     DateTimeFormatter dateTimeFormatter = getDateTimeFormatter();
 
@@ -118,13 +167,50 @@ public class ApprovalNotifier extends BaseNotifier {
     Map<String, String> valuesMap =
         getValuesMap(reqType, period, program, facility, submittedDate, dateTimeFormatter, url);
 
+    for (UserDto approver : approvers) {
+      if (!delivered.contains(approver, NOTIFICATION_TAG)) {
+        digest.add(approver, locale, valuesMap, delivered);
+      }
+    }
+  }
+
+  private void notifyApprover(ApprovalDigest.Recipient recipient,
+      Map<String, String> requisition) {
+    Locale locale = recipient.getLocale();
+    String subject = getMessage(REQUISITION_EMAIL_ACTION_REQUIRED_SUBJECT, locale);
+    String emailContent = getMessage(REQUISITION_EMAIL_ACTION_REQUIRED_CONTENT, locale);
+    String smsContent = getMessage(REQUISITION_SMS_ACTION_REQUIRED_CONTENT, locale);
+
+    Map<String, String> valuesMap = new HashMap<>(requisition);
+    valuesMap.put("approver", recipient.getUser().getUsername());
     StrSubstitutor sub = new StrSubstitutor(valuesMap);
 
-    for (UserDto approver : approvers) {
-      valuesMap.put("approver", approver.getUsername());
-      notificationService.notify(approver, subject,
-          sub.replace(emailContent), sub.replace(smsContent), NOTIFICATION_TAG);
+    notificationService.notify(recipient.getUser(), subject,
+        sub.replace(emailContent), sub.replace(smsContent), NOTIFICATION_TAG);
+  }
+
+  private void notifyApproverWithDigest(ApprovalDigest.Recipient recipient,
+      List<Map<String, String>> requisitions) {
+    Locale locale = recipient.getLocale();
+    String emailItem = getMessage(REQUISITION_EMAIL_ACTION_REQUIRED_DIGEST_ITEM, locale);
+
+    StringBuilder items = new StringBuilder();
+    for (Map<String, String> requisition : requisitions) {
+      items.append(StrSubstitutor.replace(emailItem, requisition)).append('\n');
     }
+
+    Map<String, String> valuesMap = new HashMap<>();
+    valuesMap.put("approver", recipient.getUser().getUsername());
+    valuesMap.put("count", String.valueOf(requisitions.size()));
+    valuesMap.put("requisitions", items.toString());
+    StrSubstitutor sub = new StrSubstitutor(valuesMap);
+
+    String subject = getMessage(REQUISITION_EMAIL_ACTION_REQUIRED_DIGEST_SUBJECT, locale);
+    String emailContent = getMessage(REQUISITION_EMAIL_ACTION_REQUIRED_DIGEST_CONTENT, locale);
+    String smsContent = getMessage(REQUISITION_SMS_ACTION_REQUIRED_DIGEST_CONTENT, locale);
+
+    notificationService.notify(recipient.getUser(), sub.replace(subject),
+        sub.replace(emailContent), sub.replace(smsContent), NOTIFICATION_TAG);
   }
 
   private Map<String, String> getValuesMap(String reqType, ProcessingPeriodDto period,
@@ -141,9 +227,11 @@ public class ApprovalNotifier extends BaseNotifier {
     return valuesMap;
   }
 
-  private Collection<UserDto> getApprovers(Requisition requisition) {
-    RightDto right = rightReferenceDataService.findRight(PermissionService.REQUISITION_APPROVE);
+  private Collection<UserDto> findApprovers(UUID supervisoryNodeId, UUID programId,
+      ReferenceDataMemo memo) {
+    RightDto right = memo.get(RightDto.class, PermissionService.REQUISITION_APPROVE,
+        rightReferenceDataService::findRight);
     return supervisingUsersReferenceDataService
-        .findAll(requisition.getSupervisoryNodeId(), right.getId(), requisition.getProgramId());
+        .findAll(supervisoryNodeId, right.getId(), programId);
   }
 }
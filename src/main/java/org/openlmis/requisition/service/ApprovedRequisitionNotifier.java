@@ -32,6 +32,9 @@ import org.apache.commons.lang.text.StrSubstitutor;
 import org.openlmis.requisition.domain.BaseTimestampedEntity;
 import org.openlmis.requisition.domain.requisition.Requisition;
 import org.openlmis.requisition.domain.requisition.RequisitionStatus;
+import org.openlmis.requisition.dto.FacilityDto;
+import org.openlmis.requisition.dto.ProcessingPeriodDto;
+import org.openlmis.requisition.dto.ProgramDto;
 import org.openlmis.requisition.dto.UserDto;
 import org.openlmis.requisition.service.notification.NotificationService;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
@@ -75,11 +78,15 @@ public class ApprovedRequisitionNotifier extends BaseNotifier {
 
   /**
    * Notifies all the clerks that the requisition has been approved and is ready to be converted to
-   * order.
+   * order. Reference data is resolved through the given memo. Clerks who already got the
+   * notification are skipped.
    *
    * @param requisition  the requisition to notify the clerks for
+   * @param memo         reference data resolved while processing the status change
+   * @param delivered    notifications of the status change that have already been delivered
    */
-  public void notifyClerks(Requisition requisition, Locale locale) {
+  public void notifyClerks(Requisition requisition, Locale locale, ReferenceDataMemo memo,
+      DeliveredNotifications delivered) {
     String subject = getMessage(REQUISITION_EMAIL_REQUISITION_APPROVED_SUBJECT, locale);
     String emailContent = getMessage(REQUISITION_EMAIL_REQUISITION_APPROVED_CONTENT, locale);
     String smsContent = getMessage(REQUISITION_SMS_REQUISITION_APPROVED_CONTENT, locale);
@@ -87,16 +94,18 @@ public class ApprovedRequisitionNotifier extends BaseNotifier {
     Map<String, String> messageParams = new HashMap<>();
     messageParams.put("requisitionType", getRequisitionType(requisition, locale));
     messageParams.put("finalApprovalDate", getFinalApprovalDate(requisition));
-    messageParams.put("facility", getFacilityName(requisition));
+    messageParams.put("facility", getFacilityName(requisition, memo));
     messageParams.put("url", getConvertToOrderUrl());
-    messageParams.put("program", getProgram(requisition));
-    messageParams.put("period", getPeriod(requisition));
+    messageParams.put("program", getProgram(requisition, memo));
+    messageParams.put("period", getPeriod(requisition, memo));
 
     for (UserDto user : getClerks(requisition)) {
       messageParams.put("user", user.getUsername());
-      notificationService.notify(user, subject,
-          new StrSubstitutor(messageParams).replace(emailContent),
-          new StrSubstitutor(messageParams).replace(smsContent), NOTIFICATION_TAG);
+      String email = new StrSubstitutor(messageParams).replace(emailContent);
+      String sms = new StrSubstitutor(messageParams).replace(smsContent);
+
+      delivered.send(user, NOTIFICATION_TAG,
+          () -> notificationService.notify(user, subject, email, sms, NOTIFICATION_TAG));
     }
   }
 
@@ -120,16 +129,23 @@ public class ApprovedRequisitionNotifier extends BaseNotifier {
     return approvedDate.format(getDateTimeFormatter());
   }
 
-  private String getFacilityName(Requisition requisition) {
-    return facilityReferenceDataService.findOne(requisition.getFacilityId()).getName();
+  private String getFacilityName(Requisition requisition, ReferenceDataMemo memo) {
+    return memo
+        .get(FacilityDto.class, requisition.getFacilityId(), facilityReferenceDataService::findOne)
+        .getName();
   }
 
-  private String getProgram(Requisition requisition) {
-    return programReferenceDataService.findOne(requisition.getProgramId()).getName();
+  private String getProgram(Requisition requisition, ReferenceDataMemo memo) {
+    return memo
+        .get(ProgramDto.class, requisition.getProgramId(), programReferenceDataService::findOne)
+        .getName();
   }
 
-  private String getPeriod(Requisition requisition) {
-    return periodReferenceDataService.findOne(requisition.getProcessingPeriodId()).getName();
+  private String getPeriod(Requisition requisition, ReferenceDataMemo memo) {
+    return memo
+        .get(ProcessingPeriodDto.class, requisition.getProcessingPeriodId(),
+            periodReferenceDataService::findOne)
+        .getName();
   }
 
   private Set<UserDto> getClerks(Requisition requisition) {
@@ -19,6 +19,7 @@ import static org.openlmis.requisition.utils.RequestHelper.createUri;
 
 import java.util.Map;
 import org.apache.commons.codec.binary.Base64;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
@@ -33,6 +34,7 @@ import org.springframework.web.client.RestTemplate;
 @Service
 public class AuthService {
   private static final String ACCESS_TOKEN = "access_token";
+  private static final String SERVICE_NAME = "Auth";
 
   @Value("${auth.server.clientId}")
   private String clientId;
@@ -73,6 +75,11 @@ public class AuthService {
     return ((Map<String, String>) response.getBody()).get(ACCESS_TOKEN);
   }
 
+  @Autowired
+  public void setRestClientFactory(RestClientFactory restClientFactory) {
+    this.restTemplate = restClientFactory.getRestClient(SERVICE_NAME);
+  }
+
   @CacheEvict(cacheNames = "token", allEntries = true)
   public void clearTokenCache() {
     // Intentionally blank
@@ -25,6 +25,8 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.openlmis.requisition.dto.ResultDto;
@@ -36,6 +38,7 @@ import org.openlmis.requisition.utils.RequestHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.data.domain.Page;
@@ -58,6 +61,11 @@ public abstract class BaseCommunicationService<T> {
   @Value("${request.maxUrlLength}")
   private int maxUrlLength;
 
+  @Value("${splitRequests.parallelism}")
+  private int splitRequestParallelism;
+
+  private RemoteCallExecutor splitRequestExecutor;
+
   protected abstract String getServiceUrl();
 
   protected abstract String getUrl();
@@ -125,6 +133,31 @@ public abstract class BaseCommunicationService<T> {
     }
   }
 
+  protected <P> ServiceResponse<P> tryFindOne(String resourceUrl, Class<P> type, String etag) {
+    String url = getServiceUrl() + getUrl() + resourceUrl;
+
+    try {
+      ResponseEntity<P> response = runWithTokenRetry(() -> restTemplate.exchange(
+          createUri(url, RequestParameters.init()),
+          HttpMethod.GET,
+          createEntity(addAuthHeader(RequestHeaders.init().setIfNoneMatch(etag))),
+          type));
+
+      if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+        return new ServiceResponse<>(null, response.getHeaders(), false);
+      }
+
+      return new ServiceResponse<>(response.getBody(), response.getHeaders(), true);
+    } catch (HttpStatusCodeException ex) {
+      if (HttpStatus.NOT_FOUND == ex.getStatusCode()) {
+        logger.warn("{} with url {} does not exist", getResultClass().getSimpleName(), url);
+        return new ServiceResponse<>(null, ex.getResponseHeaders(), true);
+      }
+
+      throw buildDataRetrievalException(ex);
+    }
+  }
+
   public List<T> findAll() {
     return findAll("");
   }
@@ -251,11 +284,8 @@ public abstract class BaseCommunicationService<T> {
                                                 Class<E[]> type) {
     HttpEntity<Object> entity = RequestHelper
         .createEntity(payload, authService.obtainAccessToken());
-    List<E[]> arrays = new ArrayList<>();
-
-    for (URI uri : RequestHelper.splitRequest(url, parameters, maxUrlLength)) {
-      arrays.add(restTemplate.exchange(uri, method, entity, type).getBody());
-    }
+    List<E[]> arrays = exchangeAll(RequestHelper.splitRequest(url, parameters, maxUrlLength),
+        uri -> restTemplate.exchange(uri, method, entity, type).getBody());
 
     E[] body = Merger
         .ofArrays(arrays)
@@ -274,11 +304,9 @@ public abstract class BaseCommunicationService<T> {
         .createEntity(payload, authService.obtainAccessToken());
     ParameterizedTypeReference<PageDto<E>> parameterizedType =
         new DynamicPageTypeReference<>(type);
-    List<PageDto<E>> pages = new ArrayList<>();
-
-    for (URI uri : RequestHelper.splitRequest(url, parameters, maxUrlLength)) {
-      pages.add(restTemplate.exchange(uri, method, entity, parameterizedType).getBody());
-    }
+    List<PageDto<E>> pages = exchangeAll(
+        RequestHelper.splitRequest(url, parameters, maxUrlLength),
+        uri -> restTemplate.exchange(uri, method, entity, parameterizedType).getBody());
 
     PageDto<E> body = Merger
         .ofPages(pages)
@@ -288,6 +316,42 @@ public abstract class BaseCommunicationService<T> {
     return new ResponseEntity<>(body, HttpStatus.OK);
   }
 
+  /**
+   * Sends a request for each of the given URIs and returns the responses in the order of URIs.
+   * If the request was split into several URIs, at most {@code splitRequests.parallelism}
+   * requests are sent at the same time. The exception thrown for the first failed URI is
+   * rethrown, the same way as if the requests were sent one by one.
+   */
+  private <E> List<E> exchangeAll(URI[] uris, Function<URI, E> exchange) {
+    int parallelism = Math.min(splitRequestParallelism, uris.length);
+
+    if (null == splitRequestExecutor || parallelism <= 1) {
+      return Stream.of(uris).map(exchange).collect(Collectors.toList());
+    }
+
+    List<CompletableFuture<E>> futures = new ArrayList<>(uris.length);
+    List<E> responses = new ArrayList<>(uris.length);
+
+    for (int i = 0; i < parallelism; ++i) {
+      futures.add(submitExchange(uris[i], exchange));
+    }
+
+    for (int i = 0; i < uris.length; ++i) {
+      responses.add(RemoteCallExecutor.join(futures.get(i)));
+
+      if (futures.size() < uris.length) {
+        futures.add(submitExchange(uris[futures.size()], exchange));
+      }
+    }
+
+    return responses;
+  }
+
+  private <E> CompletableFuture<E> submitExchange(URI uri, Function<URI, E> exchange) {
+    return splitRequestExecutor.supplyAsync(getServiceName() + " " + uri.getPath(),
+        () -> exchange.apply(uri));
+  }
+
   protected <P> ResponseEntity<P> runWithTokenRetry(HttpTask<P> task) {
     try {
       return task.run();
@@ -354,6 +418,17 @@ public abstract class BaseCommunicationService<T> {
     this.authService = authService;
   }
 
+  @Autowired
+  public void setRestClientFactory(RestClientFactory restClientFactory) {
+    this.restTemplate = restClientFactory.getRestClient(getServiceName());
+  }
+
+  @Autowired
+  public void setSplitRequestExecutor(
+      @Qualifier("splitRequestExecutor") RemoteCallExecutor splitRequestExecutor) {
+    this.splitRequestExecutor = splitRequestExecutor;
+  }
+
   void setRestTemplate(RestOperations template) {
     this.restTemplate = template;
   }
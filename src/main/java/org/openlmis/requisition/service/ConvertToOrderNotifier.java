@@ -56,14 +56,19 @@ public class ConvertToOrderNotifier extends BaseNotifier {
   private UserReferenceDataService userReferenceDataService;
 
   /**
-   * Notify requisition's creator that it was converted to order.
-   *  @param requisition requisition that was converted
+   * Notify requisition's creator that it was converted to order. Reference data is resolved
+   * through the given memo. The creator is skipped if they already got the notification.
    *
+   * @param requisition requisition that was converted
+   * @param memo        reference data resolved while processing the status change
+   * @param delivered   notifications of the status change that have already been delivered
    */
-  public void notifyConvertToOrder(Requisition requisition, Locale locale) {
-    ProgramDto program = programReferenceDataService.findOne(requisition.getProgramId());
-    ProcessingPeriodDto period = periodReferenceDataService.findOne(
-        requisition.getProcessingPeriodId());
+  public void notifyConvertToOrder(Requisition requisition, Locale locale,
+      ReferenceDataMemo memo, DeliveredNotifications delivered) {
+    ProgramDto program = memo.get(ProgramDto.class, requisition.getProgramId(),
+        programReferenceDataService::findOne);
+    ProcessingPeriodDto period = memo.get(ProcessingPeriodDto.class,
+        requisition.getProcessingPeriodId(), periodReferenceDataService::findOne);
 
     List<StatusChange> statusChanges = requisition.getStatusChanges();
     if (statusChanges == null) {
@@ -79,7 +84,8 @@ public class ConvertToOrderNotifier extends BaseNotifier {
       return;
     }
 
-    UserDto initiator = userReferenceDataService.findOne(initiateAuditEntry.get().getAuthorId());
+    UserDto initiator = memo.get(UserDto.class, initiateAuditEntry.get().getAuthorId(),
+        userReferenceDataService::findOne);
 
     String subject = getMessage(REQUISITION_EMAIL_CONVERT_TO_ORDER_SUBJECT, locale);
     String emailContent = getMessage(REQUISITION_EMAIL_CONVERT_TO_ORDER_CONTENT, locale,
@@ -87,6 +93,7 @@ public class ConvertToOrderNotifier extends BaseNotifier {
     String smsContent = getMessage(REQUISITION_SMS_CONVERT_TO_ORDER_CONTENT, locale,
         program.getName(), period.getName());
 
-    notificationService.notify(initiator, subject, emailContent, smsContent, NOTIFICATION_TAG);
+    delivered.send(initiator, NOTIFICATION_TAG, () -> notificationService
+        .notify(initiator, subject, emailContent, smsContent, NOTIFICATION_TAG));
   }
 }
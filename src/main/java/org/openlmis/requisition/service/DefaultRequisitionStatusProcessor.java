@@ -18,12 +18,17 @@ package org.openlmis.requisition.service;
 import java.util.Locale;
 import org.openlmis.requisition.domain.requisition.Requisition;
 import org.openlmis.requisition.domain.requisition.RequisitionStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 public class DefaultRequisitionStatusProcessor implements RequisitionStatusProcessor {
 
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(DefaultRequisitionStatusProcessor.class);
+
   @Autowired
   private ConvertToOrderNotifier convertToOrderNotifier;
 
@@ -37,24 +42,37 @@ public class DefaultRequisitionStatusProcessor implements RequisitionStatusProce
   private ApprovedRequisitionNotifier approvedRequisitionNotifier;
 
   /**
-   * Process requisition status change.
+   * Process requisition status change. Approvers are added to the given digest instead of
+   * being notified. Notifications that have already been delivered are skipped.
    * @param requisition a requisition that has just changed its status
+   * @param memo        reference data resolved while processing the status change
+   * @param digest      requisitions that are ready for review by each approver
+   * @param delivered   notifications of the status change that have already been delivered
    */
   @Override
-  public void statusChange(Requisition requisition, Locale locale) {
+  public void statusChange(Requisition requisition, Locale locale, ReferenceDataMemo memo,
+      ApprovalDigest digest, DeliveredNotifications delivered) {
+    final long lookups = memo.getLookupCount();
+    final long remoteCalls = memo.getRemoteCallCount();
+
     if (requisition.getStatus() == RequisitionStatus.RELEASED) {
-      convertToOrderNotifier.notifyConvertToOrder(requisition, locale);
+      convertToOrderNotifier.notifyConvertToOrder(requisition, locale, memo, delivered);
     } else if (!requisition.isPreAuthorize()) {
-      requisitionStatusNotifier.notifyStatusChanged(requisition, locale);
+      requisitionStatusNotifier.notifyStatusChanged(requisition, locale, memo, delivered);
     }
 
     if (requisition.isApprovable()) {
-      approvalNotifier.notifyApprovers(requisition, locale);
+      approvalNotifier.addToDigest(requisition, locale, memo, digest, delivered);
     }
 
     if (requisition.getStatus() == RequisitionStatus.APPROVED) {
-      approvedRequisitionNotifier.notifyClerks(requisition, locale);
+      approvedRequisitionNotifier.notifyClerks(requisition, locale, memo, delivered);
     }
+
+    LOGGER.debug("Status change of requisition {}: {} reference data lookups, {} remote calls, "
+            + "{} remote calls saved since start", requisition.getId(),
+        memo.getLookupCount() - lookups, memo.getRemoteCallCount() - remoteCalls,
+        ReferenceDataMemo.getTotalSavedCallCount());
   }
 
 }
@@ -0,0 +1,86 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.openlmis.requisition.dto.UserDto;
+
+/**
+ * Remembers which users have already been sent the notifications of a single status change.
+ * When the notifications are sent again because one of them failed, users who already got
+ * theirs are skipped, so nobody gets the same notification twice. A notification is identified
+ * by its tag and the id of the user it was sent to.
+ *
+ * <p>The object is safe to use from several threads.
+ */
+public final class DeliveredNotifications {
+
+  private static final char SEPARATOR = '|';
+
+  private final Set<String> keys = ConcurrentHashMap.newKeySet();
+
+  public DeliveredNotifications() {
+  }
+
+  public DeliveredNotifications(Collection<String> keys) {
+    this.keys.addAll(keys);
+  }
+
+  /**
+   * Sends a notification with the given tag to the given user, unless the user has already got
+   * it. The user is remembered only if the notification was sent without an error.
+   *
+   * @param user         receiver of the notification
+   * @param tag          tag of the notification
+   * @param notification sends the notification
+   */
+  public void send(UserDto user, String tag, Runnable notification) {
+    if (!contains(user, tag)) {
+      notification.run();
+      add(user, tag);
+    }
+  }
+
+  /**
+   * Checks if a notification with the given tag has already been sent to the given user.
+   */
+  public boolean contains(UserDto user, String tag) {
+    return keys.contains(getKey(user, tag));
+  }
+
+  /**
+   * Remembers that a notification with the given tag has been sent to the given user.
+   */
+  public void add(UserDto user, String tag) {
+    keys.add(getKey(user, tag));
+  }
+
+  /**
+   * Returns keys of all notifications that have been sent, so they can be stored and passed to
+   * a new instance when the notifications are sent again.
+   */
+  public Set<String> getKeys() {
+    return Collections.unmodifiableSet(new HashSet<>(keys));
+  }
+
+  private String getKey(UserDto user, String tag) {
+    return tag + SEPARATOR + user.getId();
+  }
+}
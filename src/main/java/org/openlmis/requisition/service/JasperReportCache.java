@@ -0,0 +1,126 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import net.sf.jasperreports.engine.JasperReport;
+import org.apache.commons.lang3.tuple.Pair;
+import org.openlmis.requisition.domain.JasperTemplate;
+import org.openlmis.requisition.exception.JasperReportViewException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Keeps compiled jasper reports in memory so they do not have to be compiled or deserialized on
+ * every print. Entries are identified by the template id and a hash of the template content, so
+ * a changed template is never served from a stale entry. When the cache is full the least
+ * recently used report is evicted.
+ */
+@Component
+public class JasperReportCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JasperReportCache.class);
+
+  private final Map<Pair<String, String>, JasperReport> reports;
+
+  /**
+   * Creates a new cache that keeps at most the given number of compiled reports.
+   *
+   * @param maxSize max number of compiled reports in the cache
+   */
+  public JasperReportCache(@Value("${reports.cache.maxSize}") int maxSize) {
+    this.reports = new LinkedHashMap<Pair<String, String>, JasperReport>(16, 0.75f, true) {
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Pair<String, String>, JasperReport> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Returns the compiled report for the given jasper template. The loader is called only if the
+   * report for the current content of the template is not cached yet.
+   *
+   * @param template jasper template that should be compiled
+   * @param loader   loads the compiled report if it is not in the cache
+   * @return compiled jasper report
+   * @throws JasperReportViewException if the loader was not able to load the report
+   */
+  public JasperReport get(JasperTemplate template, Loader loader)
+      throws JasperReportViewException {
+    return get(template.getId().toString(), DigestUtils.md5DigestAsHex(template.getData()),
+        loader);
+  }
+
+  /**
+   * Returns the compiled report with the given id and version. The loader is called only if the
+   * report is not cached yet.
+   *
+   * @param id      identifier of the report, for example a template id or resource path
+   * @param version version of the report content, for example a hash of the template data
+   * @param loader  loads the compiled report if it is not in the cache
+   * @return compiled jasper report
+   * @throws JasperReportViewException if the loader was not able to load the report
+   */
+  public JasperReport get(String id, String version, Loader loader)
+      throws JasperReportViewException {
+    Pair<String, String> key = Pair.of(id, version);
+
+    synchronized (reports) {
+      JasperReport report = reports.get(key);
+
+      if (null != report) {
+        return report;
+      }
+    }
+
+    // compilation can take a while so it is done outside of the lock; in the worst case
+    // the same report is compiled twice by concurrent requests
+    LOGGER.debug("Compiled report {} in version {} not found in cache", id, version);
+    JasperReport report = loader.load();
+
+    synchronized (reports) {
+      reports.put(key, report);
+    }
+
+    return report;
+  }
+
+  /**
+   * Removes all versions of the report related to the given template.
+   *
+   * @param templateId id of the jasper template
+   */
+  public void evict(UUID templateId) {
+    String id = templateId.toString();
+
+    synchronized (reports) {
+      reports.keySet().removeIf(key -> id.equals(key.getLeft()));
+    }
+  }
+
+  @FunctionalInterface
+  public interface Loader {
+
+    JasperReport load() throws JasperReportViewException;
+  }
+}
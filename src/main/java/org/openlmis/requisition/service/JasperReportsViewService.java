@@ -15,23 +15,17 @@
 
 package org.openlmis.requisition.service;
 
-import static java.io.File.createTempFile;
 import static net.sf.jasperreports.engine.export.JRHtmlExporterParameter.IS_USING_IMAGES_TO_ALIGN;
-import static org.apache.commons.io.FileUtils.writeByteArrayToFile;
 import static org.openlmis.requisition.dto.TimelinessReportFacilityDto.DISTRICT_LEVEL;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_CLASS_NOT_FOUND;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_IO;
-import static org.openlmis.requisition.i18n.MessageKeys.ERROR_JASPER_FILE_CREATION;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_JASPER_FILE_FORMAT;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_REPORTING_TEMPLATE_PARAMETER_INVALID;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.text.NumberFormat;
@@ -72,20 +66,16 @@ import org.openlmis.requisition.dto.RequisitionReportDto;
 import org.openlmis.requisition.dto.TimelinessReportFacilityDto;
 import org.openlmis.requisition.exception.JasperReportViewException;
 import org.openlmis.requisition.exception.ValidationMessageException;
-import org.openlmis.requisition.repository.custom.DefaultRequisitionSearchParams;
-import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
 import org.openlmis.requisition.service.referencedata.GeographicZoneReferenceDataService;
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
 import org.openlmis.requisition.service.referencedata.ProgramReferenceDataService;
 import org.openlmis.requisition.utils.Message;
-import org.openlmis.requisition.utils.Pagination;
 import org.openlmis.requisition.utils.ReportUtils;
 import org.openlmis.requisition.web.ReportingRateReportDtoBuilder;
 import org.openlmis.requisition.web.RequisitionReportDtoBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.context.support.WebApplicationContextUtils;
@@ -123,6 +113,9 @@ public class JasperReportsViewService {
   @Autowired
   private ReportingRateReportDtoBuilder reportingRateReportDtoBuilder;
 
+  @Autowired
+  private JasperReportCache jasperReportCache;
+
   @Value("${dateFormat}")
   private String dateFormat;
 
@@ -150,9 +143,9 @@ public class JasperReportsViewService {
    */
   public JasperReportsMultiFormatView getJasperReportsView(
       JasperTemplate jasperTemplate, HttpServletRequest request) throws JasperReportViewException {
-    JasperReportsMultiFormatView jasperView = new JasperReportsMultiFormatView();
+    JasperReportsMultiFormatView jasperView =
+        createJasperMultiFormatView(getCompiledReport(jasperTemplate));
     setExportParams(jasperView);
-    jasperView.setUrl(getReportUrlForReportData(jasperTemplate));
     jasperView.setJdbcDataSource(replicationDataSource);
 
     if (getApplicationContext(request) != null) {
@@ -172,9 +165,9 @@ public class JasperReportsViewService {
   public JasperReportsMultiFormatView getReportingRateJasperReportsView(
       JasperTemplate jasperTemplate, HttpServletRequest request, Map<String, Object> params)
       throws JasperReportViewException {
-    JasperReportsMultiFormatView jasperView = createJasperMultiFormatView();
+    JasperReportsMultiFormatView jasperView =
+        createJasperMultiFormatView(getCompiledReport(jasperTemplate));
     setExportParams(jasperView);
-    jasperView.setUrl(getReportUrlForReportData(jasperTemplate));
 
     UUID programId = (UUID) processParameter(params, "Program", true, UUID.class);
     ProgramDto program = programReferenceDataService.findOne(programId);
@@ -220,7 +213,7 @@ public class JasperReportsViewService {
     RequisitionTemplate template = requisition.getTemplate();
 
     Map<String, Object> params = ReportUtils.createParametersMap();
-    params.put("subreport", createCustomizedRequisitionLineSubreport(template,
+    params.put("subreport", getCompiledRequisitionLineSubreport(template,
         requisition.getStatus()));
     params.put(DATASOURCE, Collections.singletonList(reportDto));
     params.put("template", template);
@@ -229,9 +222,9 @@ public class JasperReportsViewService {
     params.put("currencyDecimalFormat",
         NumberFormat.getCurrencyInstance(getLocaleFromService()));
 
-    JasperReportsMultiFormatView jasperView = new JasperReportsMultiFormatView();
+    JasperReportsMultiFormatView jasperView =
+        createJasperMultiFormatView(getCompiledRequisitionReport());
     setExportParams(jasperView);
-    setCustomizedJasperTemplateForRequisitionReport(jasperView);
 
     if (getApplicationContext(request) != null) {
       jasperView.setApplicationContext(getApplicationContext(request));
@@ -270,21 +263,32 @@ public class JasperReportsViewService {
     return new ModelAndView(jasperView, parameters);
   }
 
-  private JasperDesign createCustomizedRequisitionLineSubreport(RequisitionTemplate template,
-                                                                RequisitionStatus requisitionStatus)
-      throws JasperReportViewException {
+  /**
+   * Get compiled requisition line subreport customized for the given template and status. The
+   * subreport only depends on the columns that are printed, so it is compiled once per template
+   * version and column layout and then reused.
+   */
+  private JasperReport getCompiledRequisitionLineSubreport(RequisitionTemplate template,
+      RequisitionStatus requisitionStatus) throws JasperReportViewException {
+    Map<String, RequisitionTemplateColumn> columns =
+        ReportUtils.getSortedTemplateColumnsForPrint(template.viewColumns(), requisitionStatus);
+    String version = template.getModifiedDate() + ":" + String.join(",", columns.keySet());
+
+    return jasperReportCache.get(template.getId().toString(), version,
+        () -> compileRequisitionLineSubreport(columns));
+  }
+
+  private JasperReport compileRequisitionLineSubreport(
+      Map<String, RequisitionTemplateColumn> columns) throws JasperReportViewException {
     try (InputStream inputStream = getClass().getResourceAsStream(REQUISITION_LINE_REPORT_DIR)) {
       JasperDesign design = JRXmlLoader.load(inputStream);
       JRBand detail = design.getDetailSection().getBands()[0];
       JRBand header = design.getColumnHeader();
 
-      Map<String, RequisitionTemplateColumn> columns =
-          ReportUtils.getSortedTemplateColumnsForPrint(template.viewColumns(), requisitionStatus);
-
       ReportUtils.customizeBandWithTemplateFields(detail, columns, design.getPageWidth(), 9);
       ReportUtils.customizeBandWithTemplateFields(header, columns, design.getPageWidth(), 9);
 
-      return design;
+      return compileReport(design);
     } catch (IOException err) {
       throw new JasperReportViewException(err, ERROR_IO, err.getMessage());
     } catch (JRException err) {
@@ -292,20 +296,14 @@ public class JasperReportsViewService {
     }
   }
 
-  private void setCustomizedJasperTemplateForRequisitionReport(
-      JasperReportsMultiFormatView jasperView) throws JasperReportViewException {
-    try (InputStream inputStream = getClass().getResourceAsStream(REQUISITION_REPORT_DIR)) {
-      File reportTempFile = createTempFile("requisitionReport_temp", ".jasper");
-      JasperReport report = JasperCompileManager.compileReport(inputStream);
-
-      ByteArrayOutputStream bos = createByteArrayOutputStream();
-      try (ObjectOutputStream out = createObjectOutputStream(bos)) {
-
-        out.writeObject(report);
-        writeByteArrayToFile(reportTempFile, bos.toByteArray());
+  private JasperReport getCompiledRequisitionReport() throws JasperReportViewException {
+    return jasperReportCache.get(REQUISITION_REPORT_DIR, REQUISITION_REPORT_DIR,
+        this::compileRequisitionReport);
+  }
 
-        jasperView.setUrl(reportTempFile.toURI().toURL().toString());
-      }
+  private JasperReport compileRequisitionReport() throws JasperReportViewException {
+    try (InputStream inputStream = getClass().getResourceAsStream(REQUISITION_REPORT_DIR)) {
+      return compileReport(JRXmlLoader.load(inputStream));
     } catch (IOException err) {
       throw new JasperReportViewException(err, ERROR_IO, err.getMessage());
     } catch (JRException err) {
@@ -331,33 +329,20 @@ public class JasperReportsViewService {
   }
 
   /**
-   * Create ".jasper" file with byte array from Template.
+   * Get compiled report for the given template. The stored template data is deserialized only
+   * if the report is not in the cache yet.
    *
-   * @return Url to ".jasper" file.
+   * @return compiled jasper report.
    */
-  private String getReportUrlForReportData(JasperTemplate jasperTemplate)
+  private JasperReport getCompiledReport(JasperTemplate jasperTemplate)
       throws JasperReportViewException {
-    File tmpFile;
-
-    try {
-      tmpFile = createTempFile(jasperTemplate.getName() + "_temp", ".jasper");
-    } catch (IOException exp) {
-      throw new JasperReportViewException(
-          exp, ERROR_JASPER_FILE_CREATION
-      );
-    }
+    return jasperReportCache.get(jasperTemplate, () -> readReport(jasperTemplate));
+  }
 
+  private JasperReport readReport(JasperTemplate jasperTemplate)
+      throws JasperReportViewException {
     try (ObjectInputStream inputStream = createObjectInputStream(jasperTemplate)) {
-      JasperReport jasperReport = readReportData(inputStream);
-
-      try (ByteArrayOutputStream bos = createByteArrayOutputStream();
-           ObjectOutputStream out = createObjectOutputStream(bos)) {
-
-        out.writeObject(jasperReport);
-        writeByteArrayToFile(tmpFile, bos.toByteArray());
-
-        return tmpFile.toURI().toURL().toString();
-      }
+      return readReportData(inputStream);
     } catch (IOException exp) {
       throw new JasperReportViewException(exp, ERROR_IO, exp.getMessage());
     } catch (ClassNotFoundException exp) {
@@ -378,27 +363,21 @@ public class JasperReportsViewService {
       facilities.addAll(facilityReferenceDataService.findAll());
     }
 
-    List<TimelinessReportFacilityDto> facilitiesMissingRnR = new ArrayList<>();
+    Map<UUID, MinimalFacilityDto> activeFacilities = facilities
+        .stream()
+        .filter(MinimalFacilityDto::getActive)
+        .collect(Collectors.toMap(MinimalFacilityDto::getId, facility -> facility,
+            (first, second) -> first));
+
     // find active facilities that are missing R&R
-    for (MinimalFacilityDto facility : facilities) {
-      if (facility.getActive()) {
-        RequisitionSearchParams params = new DefaultRequisitionSearchParams(
-            facility.getId(), program.getId(), processingPeriod.getId(),
-            null, null, null, null, null, null, validStatuses);
-
-        PageRequest pageRequest = new PageRequest(Pagination.DEFAULT_PAGE_NUMBER,
-            Pagination.NO_PAGINATION);
-
-        List<Requisition> requisitions = requisitionService
-            .searchRequisitions(params, pageRequest)
-            .getContent();
-
-        if (requisitions.isEmpty()) {
-          TimelinessReportFacilityDto timelinessFacility = new TimelinessReportFacilityDto();
-          facility.export(timelinessFacility);
-          facilitiesMissingRnR.add(timelinessFacility);
-        }
-      }
+    List<UUID> facilityIdsMissingRnR = requisitionService.searchFacilitiesWithoutRequisitions(
+        activeFacilities.keySet(), program.getId(), processingPeriod.getId(), validStatuses);
+
+    List<TimelinessReportFacilityDto> facilitiesMissingRnR = new ArrayList<>();
+    for (UUID facilityId : facilityIdsMissingRnR) {
+      TimelinessReportFacilityDto timelinessFacility = new TimelinessReportFacilityDto();
+      activeFacilities.get(facilityId).export(timelinessFacility);
+      facilitiesMissingRnR.add(timelinessFacility);
     }
 
     // sort alphabetically by district and then facility name
@@ -443,22 +422,17 @@ public class JasperReportsViewService {
     return decimalFormat;
   }
 
-  protected ByteArrayOutputStream createByteArrayOutputStream() {
-    return new ByteArrayOutputStream();
-  }
-
-  protected ObjectOutputStream createObjectOutputStream(ByteArrayOutputStream bos)
-      throws IOException {
-    return new ObjectOutputStream(bos);
-  }
-
   protected ObjectInputStream createObjectInputStream(JasperTemplate jasperTemplate)
       throws IOException {
     return new ObjectInputStream(new ByteArrayInputStream(jasperTemplate.getData()));
   }
 
-  protected JasperReportsMultiFormatView createJasperMultiFormatView() {
-    return new JasperReportsMultiFormatView();
+  protected JasperReportsMultiFormatView createJasperMultiFormatView(JasperReport report) {
+    return new CompiledJasperReportsMultiFormatView(report);
+  }
+
+  protected JasperReport compileReport(JasperDesign design) throws JRException {
+    return JasperCompileManager.compileReport(design);
   }
 
   protected JasperReport readReportData(ObjectInputStream objectInputStream)
@@ -469,4 +443,20 @@ public class JasperReportsViewService {
   protected Locale getLocaleFromService() {
     return new Locale(defaultLocale, currencyLocale);
   }
+
+  /**
+   * Jasper view that renders an already compiled report instead of loading it from an url.
+   */
+  static class CompiledJasperReportsMultiFormatView extends JasperReportsMultiFormatView {
+    private final JasperReport report;
+
+    CompiledJasperReportsMultiFormatView(JasperReport report) {
+      this.report = report;
+    }
+
+    @Override
+    protected JasperReport getReport() {
+      return report;
+    }
+  }
 }
@@ -26,10 +26,12 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import org.openlmis.requisition.domain.requisition.Requisition;
 import org.openlmis.requisition.domain.requisition.RequisitionPeriod;
 import org.openlmis.requisition.domain.requisition.RequisitionStatus;
 import org.openlmis.requisition.dto.ProcessingPeriodDto;
@@ -126,11 +128,6 @@ public class PeriodService {
     List<RequisitionPeriod> requisitionIdStatusList = requisitionRepository
         .searchRequisitionIdAndStatusPairs(facility, program, emergency);
 
-    profiler.start("BUILD_REQUISITION_PERIOD_DTOS");
-    List<RequisitionPeriodDto> periodDtos = periods.stream()
-        .map(RequisitionPeriodDto::newInstance)
-        .collect(Collectors.toList());
-
     List<RequisitionPeriodDto> requisitionPeriods = new ArrayList<>();
     if (emergency) {
       profiler.start("GET_PERIODS_FOR_EMERGENCY_REQUISITIONS");
@@ -150,34 +147,42 @@ public class PeriodService {
           })
       );
     } else {
-      requisitionPeriods.addAll(periodDtos);
+      profiler.start("BUILD_REQUISITION_PERIOD_DTOS");
+      requisitionPeriods.addAll(getRegularRequisitionPeriods(periods, requisitionIdStatusList));
+    }
 
-      profiler.start("GET_POSTAUTHORIZE_PERIODS_FOR_REGULAR_REQUISITIONS");
-      List<RequisitionPeriod> postAuthorizeRequisitionsPeriods = requisitionIdStatusList.stream()
-          .filter(requisitionPeriod ->  !requisitionPeriod.getRequisitionStatus().isPreAuthorize())
-          .collect(Collectors.toList());
+    profiler.stop().log();
+    return requisitionPeriods;
+  }
 
-      profiler.start("REMOVE_POSTAUTHORIZE_PERIODS_FROM_REQUISITION_PERIODS");
-      postAuthorizeRequisitionsPeriods.forEach(postAuthorizeRequisitionPeriod -> requisitionPeriods
-            .stream()
-            .filter(period -> period.getId().equals(postAuthorizeRequisitionPeriod.getPeriodId()))
-            .findFirst()
-            .ifPresent(requisitionPeriods::remove)
-      );
+  /*
+   returns periods without a regular requisition or with regular requisitions that were not
+   authorized yet, together with the id and status of the first of them
+   */
+  private List<RequisitionPeriodDto> getRegularRequisitionPeriods(
+      Collection<ProcessingPeriodDto> periods, List<RequisitionPeriod> requisitionIdStatusList) {
+    Map<UUID, RequisitionPeriod> periodIndex = indexByPeriodId(requisitionIdStatusList);
+    Set<UUID> postAuthorizePeriodIds = requisitionIdStatusList.stream()
+        .filter(requisitionPeriod -> !requisitionPeriod.getRequisitionStatus().isPreAuthorize())
+        .map(RequisitionPeriod::getPeriodId)
+        .collect(Collectors.toSet());
+    List<RequisitionPeriodDto> requisitionPeriods = new ArrayList<>(periods.size());
+
+    for (ProcessingPeriodDto period : periods) {
+      if (postAuthorizePeriodIds.contains(period.getId())) {
+        continue;
+      }
 
-      profiler.start("SET_REQUISITION_ID_AND_STATUS_FOR_REQUISITION_PERIODS");
-      requisitionPeriods.forEach(requisitionPeriodDto -> requisitionIdStatusList
-          .stream()
-          .filter(requisitionPeriod ->
-              requisitionPeriod.getPeriodId().equals(requisitionPeriodDto.getId()))
-          .findFirst()
-          .ifPresent(requisitionPeriod -> setRequisitionPeriodStatusAndId(
-              requisitionPeriodDto, requisitionPeriod)
-          )
-      );
+      RequisitionPeriodDto requisitionPeriodDto = RequisitionPeriodDto.newInstance(period);
+      RequisitionPeriod requisitionPeriod = periodIndex.get(period.getId());
+
+      if (null != requisitionPeriod) {
+        setRequisitionPeriodStatusAndId(requisitionPeriodDto, requisitionPeriod);
+      }
+
+      requisitionPeriods.add(requisitionPeriodDto);
     }
 
-    profiler.stop().log();
     return requisitionPeriods;
   }
 
@@ -286,16 +291,17 @@ public class PeriodService {
     ProcessingPeriodDto result = null;
     Collection<ProcessingPeriodDto> periods = searchByProgramAndFacility(programId, facilityId);
 
-    if (periods != null) {
+    if (periods != null && !periods.isEmpty()) {
+      Map<UUID, RequisitionPeriod> requisitionPeriods = indexByPeriodId(requisitionRepository
+          .searchRequisitionIdAndStatusPairs(facilityId, programId, false));
       RequisitionStatus previousStatus = null;
 
       for (ProcessingPeriodDto dto : periods) {
         // There is always maximum one regular requisition for given period, facility and program
-        List<Requisition> requisitions = requisitionRepository.searchRequisitions(
-            dto.getId(), facilityId, programId, false);
+        RequisitionPeriod requisitionPeriod = requisitionPeriods.get(dto.getId());
 
-        if (!requisitions.isEmpty()) {
-          previousStatus = requisitions.get(0).getStatus();
+        if (null != requisitionPeriod) {
+          previousStatus = requisitionPeriod.getRequisitionStatus();
         } else {
           if (null != previousStatus && previousStatus.isPreAuthorize()) {
             throw new ValidationMessageException(new Message(ERROR_FINISH_PROVIOUS_REQUISITION));
@@ -310,6 +316,14 @@ public class PeriodService {
     return result;
   }
 
+  private Map<UUID, RequisitionPeriod> indexByPeriodId(List<RequisitionPeriod> requisitionPeriods) {
+    Map<UUID, RequisitionPeriod> index = new HashMap<>();
+    requisitionPeriods.forEach(requisitionPeriod ->
+        index.putIfAbsent(requisitionPeriod.getPeriodId(), requisitionPeriod));
+
+    return index;
+  }
+
   private void setRequisitionPeriodStatusAndId(RequisitionPeriodDto requisitionPeriodDto,
       RequisitionPeriod requisitionPeriod) {
     requisitionPeriodDto.setRequisitionId(requisitionPeriod.getRequisitionId());
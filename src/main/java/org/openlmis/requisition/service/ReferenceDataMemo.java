@@ -0,0 +1,118 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Remembers reference data resolved while processing a single unit of work, for example a
+ * requisition status change and the notifications sent because of it. Each resource is
+ * retrieved at most once, no matter how many notifiers need it. Resources already retrieved by
+ * the caller can be added before the memo is passed on, so they are not retrieved again.
+ *
+ * <p>The memo is safe to use from several threads, so it can be passed to asynchronous tasks.
+ * It should not outlive the unit of work, because resources in it are never refreshed.
+ */
+public final class ReferenceDataMemo {
+
+  private static final LongAdder TOTAL_LOOKUPS = new LongAdder();
+  private static final LongAdder TOTAL_REMOTE_CALLS = new LongAdder();
+
+  private final Map<Pair<Class<?>, Object>, Object> values = new ConcurrentHashMap<>();
+
+  private final LongAdder lookups = new LongAdder();
+  private final LongAdder remoteCalls = new LongAdder();
+
+  /**
+   * Adds the given resource to this memo. Nothing is added if the key or the resource is
+   * {@code null}.
+   *
+   * @param type  type of the resource
+   * @param key   key of the resource, usually its id
+   * @param value the resource
+   * @param <V>   type of the resource
+   * @return this memo
+   */
+  public <V> ReferenceDataMemo put(Class<V> type, Object key, V value) {
+    if (null != key && null != value) {
+      values.put(Pair.of(type, key), value);
+    }
+
+    return this;
+  }
+
+  /**
+   * Returns the resource with the given type and key. The loader is called only if the resource
+   * is not in this memo yet. Lookups without a key are passed to the loader and not remembered.
+   *
+   * @param type   type of the resource
+   * @param key    key of the resource, usually its id
+   * @param loader retrieves the resource from the other service
+   * @param <K>    type of the key
+   * @param <V>    type of the resource
+   * @return the resource or {@code null} if the loader did not find it
+   */
+  public <K, V> V get(Class<V> type, K key, Function<K, V> loader) {
+    Objects.requireNonNull(loader);
+
+    if (null == key) {
+      return loader.apply(null);
+    }
+
+    lookups.increment();
+    TOTAL_LOOKUPS.increment();
+
+    Object value = values.computeIfAbsent(Pair.of(type, key), pair -> {
+      remoteCalls.increment();
+      TOTAL_REMOTE_CALLS.increment();
+      return loader.apply(key);
+    });
+
+    return type.cast(value);
+  }
+
+  public long getLookupCount() {
+    return lookups.sum();
+  }
+
+  public long getRemoteCallCount() {
+    return remoteCalls.sum();
+  }
+
+  /**
+   * Returns the number of lookups that were answered without calling the other service.
+   */
+  public long getSavedCallCount() {
+    return lookups.sum() - remoteCalls.sum();
+  }
+
+  /**
+   * Returns the number of lookups that were answered without calling the other service, summed
+   * over all memos created since the service was started.
+   */
+  public static long getTotalSavedCallCount() {
+    return TOTAL_LOOKUPS.sum() - TOTAL_REMOTE_CALLS.sum();
+  }
+
+  public static long getTotalRemoteCallCount() {
+    return TOTAL_REMOTE_CALLS.sum();
+  }
+}
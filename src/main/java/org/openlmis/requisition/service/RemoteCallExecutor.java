@@ -0,0 +1,241 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+
+/**
+ * Runs independent calls to other services concurrently on a bounded thread pool. The security
+ * and locale context of the caller are available to the submitted tasks. If the pool and its
+ * queue are full, the task is executed by the calling thread, which slows down the caller
+ * instead of creating more threads. Once the executor is shut down, new calls fail with
+ * {@link RejectedExecutionException}.
+ */
+public class RemoteCallExecutor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RemoteCallExecutor.class);
+
+  private final String name;
+  private final ThreadPoolExecutor executor;
+
+  private final LongAdder completedCalls = new LongAdder();
+  private final LongAdder failedCalls = new LongAdder();
+  private final LongAdder totalCallTime = new LongAdder();
+
+  /**
+   * Creates a new executor with the given number of threads and queue capacity.
+   *
+   * @param name          name of the executor, used as prefix of thread names and in logs
+   * @param poolSize      max number of concurrently executed calls
+   * @param queueCapacity max number of calls waiting for a free thread
+   */
+  public RemoteCallExecutor(String name, int poolSize, int queueCapacity) {
+    this.name = name;
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), new RemoteCallThreadFactory(name),
+        new CallerRunsUnlessShutdownPolicy());
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Executes the given call asynchronously.
+   *
+   * @param callName name of the call, used for logging
+   * @param supplier the call that should be executed
+   * @param <T>      type of the call result
+   * @return a future that will be completed with the result of the call
+   */
+  public <T> CompletableFuture<T> supplyAsync(String callName, Supplier<T> supplier) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    LocaleContext localeContext = LocaleContextHolder.getLocaleContext();
+    long submitted = System.nanoTime();
+
+    Runnable task = () -> {
+      long started = System.nanoTime();
+      LocaleContext previousLocaleContext = LocaleContextHolder.getLocaleContext();
+      LocaleContextHolder.setLocaleContext(localeContext);
+
+      T result = null;
+      Throwable failure = null;
+
+      try {
+        result = supplier.get();
+      } catch (Throwable exp) {
+        // errors must complete the future as well, otherwise callers would wait forever
+        failure = exp;
+      } finally {
+        LocaleContextHolder.setLocaleContext(previousLocaleContext);
+      }
+
+      long callTime = System.nanoTime() - started;
+      completedCalls.increment();
+      totalCallTime.add(callTime);
+      LOGGER.debug("{}: call {} waited {} ms in queue and took {} ms", name, callName,
+          TimeUnit.NANOSECONDS.toMillis(started - submitted),
+          TimeUnit.NANOSECONDS.toMillis(callTime));
+
+      if (null == failure) {
+        future.complete(result);
+      } else {
+        failedCalls.increment();
+        future.completeExceptionally(failure);
+      }
+    };
+
+    try {
+      executor.execute(new DelegatingSecurityContextRunnable(task));
+    } catch (RejectedExecutionException exp) {
+      LOGGER.warn("{}: call {} rejected, the executor is shut down", name, callName);
+      failedCalls.increment();
+      future.completeExceptionally(exp);
+      return future;
+    }
+
+    LOGGER.debug("{}: submitted call {}, in flight: {}, queued: {}", name, callName,
+        getInFlightCount(), getQueueSize());
+
+    return future;
+  }
+
+  /**
+   * Executes the given call asynchronously.
+   *
+   * @param callName name of the call, used for logging
+   * @param runnable the call that should be executed
+   * @return a future that will be completed when the call is done
+   */
+  public CompletableFuture<Void> runAsync(String callName, Runnable runnable) {
+    return supplyAsync(callName, () -> {
+      runnable.run();
+      return null;
+    });
+  }
+
+  /**
+   * Returns the number of calls that are waiting for a free thread.
+   */
+  public int getQueueSize() {
+    return executor.getQueue().size();
+  }
+
+  /**
+   * Returns the approximate number of calls that are being executed.
+   */
+  public int getInFlightCount() {
+    return executor.getActiveCount();
+  }
+
+  public long getCompletedCount() {
+    return completedCalls.sum();
+  }
+
+  public long getFailedCount() {
+    return failedCalls.sum();
+  }
+
+  /**
+   * Returns the average execution time of completed calls in milliseconds.
+   */
+  public long getAverageCallTime() {
+    long completed = completedCalls.sum();
+    return completed == 0
+        ? 0
+        : TimeUnit.NANOSECONDS.toMillis(totalCallTime.sum() / completed);
+  }
+
+  /**
+   * Waits for the result of the given future. Exceptions and errors thrown by the call are
+   * rethrown without the {@link CompletionException} wrapper, so they are handled the same way as
+   * if the call was made synchronously.
+   *
+   * @param future future returned by {@link #supplyAsync(String, Supplier)}
+   * @param <T>    type of the call result
+   * @return result of the call
+   */
+  public static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException exp) {
+      if (exp.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exp.getCause();
+      }
+      if (exp.getCause() instanceof Error) {
+        throw (Error) exp.getCause();
+      }
+
+      throw exp;
+    }
+  }
+
+  /**
+   * Stops accepting new calls. Calls that were already submitted are still executed; calls
+   * submitted later fail with {@link RejectedExecutionException}.
+   */
+  @PreDestroy
+  public void shutdown() {
+    LOGGER.info("{}: shutting down, completed calls: {}, failed calls: {}", name,
+        getCompletedCount(), getFailedCount());
+    executor.shutdown();
+  }
+
+  /**
+   * Runs rejected tasks in the calling thread while the executor is running. Once it is shut
+   * down the task is rejected, so its future can be completed exceptionally instead of never.
+   */
+  private static final class CallerRunsUnlessShutdownPolicy implements RejectedExecutionHandler {
+
+    @Override
+    public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+      if (executor.isShutdown()) {
+        throw new RejectedExecutionException("Executor has been shut down");
+      }
+
+      task.run();
+    }
+  }
+
+  private static final class RemoteCallThreadFactory implements ThreadFactory {
+    private final AtomicInteger counter = new AtomicInteger();
+    private final String prefix;
+
+    RemoteCallThreadFactory(String prefix) {
+      this.prefix = prefix;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
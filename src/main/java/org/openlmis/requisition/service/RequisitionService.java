@@ -34,17 +34,23 @@ import static org.openlmis.requisition.i18n.MessageKeys.ERROR_REQUISITION_NOT_FO
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_REQUISITION_WAS_SPLIT;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_VALIDATION_CANNOT_CONVERT_WITHOUT_APPROVED_QTY;
 import static org.openlmis.requisition.service.PermissionService.ORDERS_EDIT;
+import static org.openlmis.requisition.service.PermissionService.REQUISITION_VIEW;
+import static org.openlmis.requisition.service.RemoteCallExecutor.join;
 
 import com.google.common.collect.Sets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.openlmis.requisition.domain.RequisitionTemplate;
@@ -76,6 +82,7 @@ import org.openlmis.requisition.exception.ValidationMessageException;
 import org.openlmis.requisition.i18n.MessageKeys;
 import org.openlmis.requisition.repository.RequisitionRepository;
 import org.openlmis.requisition.repository.StatusMessageRepository;
+import org.openlmis.requisition.repository.custom.DefaultRequisitionSearchParams;
 import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
 import org.openlmis.requisition.service.fulfillment.OrderFulfillmentService;
 import org.openlmis.requisition.service.referencedata.ApproveProductsAggregator;
@@ -87,8 +94,11 @@ import org.openlmis.requisition.service.referencedata.SupplyLineReferenceDataSer
 import org.openlmis.requisition.service.referencedata.UserFulfillmentFacilitiesReferenceDataService;
 import org.openlmis.requisition.service.referencedata.UserRoleAssignmentsReferenceDataService;
 import org.openlmis.requisition.service.stockmanagement.StockCardRangeSummaryStockManagementService;
+import org.openlmis.requisition.service.stockmanagement.StockOnHandRetriever;
 import org.openlmis.requisition.service.stockmanagement.StockOnHandRetrieverBuilderFactory;
 import org.openlmis.requisition.utils.AuthenticationHelper;
+import org.openlmis.requisition.utils.CursorPageable;
+import org.openlmis.requisition.utils.CursorSlice;
 import org.openlmis.requisition.utils.Message;
 import org.openlmis.requisition.utils.Pagination;
 import org.openlmis.requisition.web.OrderDtoBuilder;
@@ -97,6 +107,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -138,7 +149,7 @@ public class RequisitionService {
   private RightReferenceDataService rightReferenceDataService;
 
   @Autowired
-  private RequisitionStatusProcessor requisitionStatusProcessor;
+  private StatusChangeNotificationService statusChangeNotificationService;
 
   @Autowired
   private ProofOfDeliveryService proofOfDeliveryService;
@@ -161,6 +172,10 @@ public class RequisitionService {
   @Autowired
   private SupplyLineReferenceDataService supplyLineReferenceDataService;
 
+  @Autowired
+  @Qualifier("remoteCallExecutor")
+  private RemoteCallExecutor remoteCallExecutor;
+
   /**
    * Initiated given requisition if possible.
    *
@@ -195,80 +210,110 @@ public class RequisitionService {
       numberOfPreviousPeriodsToAverage--;
     }
 
-    profiler.start("FIND_STOCK_ON_HANDS");
-    Map<UUID, Integer> orderableSoh = stockOnHandRetrieverBuilderFactory
+    profiler.start("START_REMOTE_CALLS");
+    StockOnHandRetriever stockOnHandRetriever = stockOnHandRetrieverBuilderFactory
         .getInstance(requisitionTemplate, RequisitionLineItem.STOCK_ON_HAND)
         .forProgram(program.getId())
         .forFacility(facility.getId())
         .forProducts(approvedProducts)
         .asOfDate(period.getEndDate())
-        .build()
-        .get();
+        .build();
+    final CompletableFuture<Map<UUID, Integer>> orderableSohFuture = remoteCallExecutor
+        .supplyAsync("FIND_STOCK_ON_HANDS", stockOnHandRetriever);
 
-    profiler.start("FIND_BEGINNING_BALANCES");
-    Map<UUID, Integer> orderableBeginning = stockOnHandRetrieverBuilderFactory
+    StockOnHandRetriever beginningBalanceRetriever = stockOnHandRetrieverBuilderFactory
         .getInstance(requisitionTemplate, RequisitionLineItem.BEGINNING_BALANCE)
         .forProgram(program.getId())
         .forFacility(facility.getId())
         .forProducts(approvedProducts)
         .asOfDate(period.getStartDate().minusDays(1))
-        .build()
-        .get();
-
-    final StockData stockData = new StockData(orderableSoh, orderableBeginning);
-
-    profiler.start("FIND_IDEAL_STOCK_AMOUNTS");
-    final Map<UUID, Integer> idealStockAmounts = idealStockAmountReferenceDataService
-        .search(requisition.getFacilityId(), requisition.getProcessingPeriodId())
-        .stream()
-        .collect(toMap(isa -> isa.getCommodityType().getId(), IdealStockAmountDto::getAmount));
+        .build();
+    final CompletableFuture<Map<UUID, Integer>> orderableBeginningFuture = remoteCallExecutor
+        .supplyAsync("FIND_BEGINNING_BALANCES", beginningBalanceRetriever);
+
+    final CompletableFuture<Map<UUID, Integer>> idealStockAmountsFuture = remoteCallExecutor
+        .supplyAsync("FIND_IDEAL_STOCK_AMOUNTS", () -> idealStockAmountReferenceDataService
+            .search(requisition.getFacilityId(), requisition.getProcessingPeriodId())
+            .stream()
+            .collect(toMap(isa -> isa.getCommodityType().getId(), IdealStockAmountDto::getAmount)));
+
+    final CompletableFuture<UserDto> currentUserFuture = remoteCallExecutor
+        .supplyAsync("GET_CURRENT_USER", authenticationHelper::getCurrentUser);
+
+    CompletableFuture<List<StockCardRangeSummaryDto>> stockCardRangeSummariesFuture = null;
+    CompletableFuture<Pair<List<ProcessingPeriodDto>, List<StockCardRangeSummaryDto>>>
+        previousPeriodsFuture = null;
+    if (requisitionTemplate.isPopulateStockOnHandFromStockCards()) {
+      Set<VersionIdentityDto> orderableIdentities = approvedProducts.getOrderableIdentities();
+      int periodsToAverage = numberOfPreviousPeriodsToAverage;
+
+      stockCardRangeSummariesFuture = remoteCallExecutor
+          .supplyAsync("FIND_STOCK_CARD_RANGE_SUMMARIES", () ->
+              stockCardRangeSummaryStockManagementService
+                  .search(program.getId(), facility.getId(), orderableIdentities, null,
+                      period.getStartDate(), period.getEndDate()));
+
+      previousPeriodsFuture = remoteCallExecutor
+          .supplyAsync("GET_PREVIOUS_PERIODS_WITH_STOCK_CARD_RANGE_SUMMARIES", () ->
+              findPreviousPeriodsWithStockCardRangeSummaries(program, facility, period,
+                  periodsToAverage, orderableIdentities));
+    }
 
     profiler.start("GET_PREV_REQUISITIONS_FOR_AVERAGING");
     List<Requisition> previousRequisitions =
         getRecentRegularRequisitions(requisition, Math.max(numberOfPreviousPeriodsToAverage, 1));
 
+    profiler.start("START_GET_POD");
+    CompletableFuture<ProofOfDeliveryDto> podFuture = null;
+
+    if (!emergency && !isEmpty(previousRequisitions)) {
+      Requisition previousRequisition = previousRequisitions.get(0);
+      podFuture = remoteCallExecutor
+          .supplyAsync("GET_POD", () -> proofOfDeliveryService.get(previousRequisition));
+    }
+
+    profiler.start("JOIN_STOCK_ON_HANDS");
+    Map<UUID, Integer> orderableSoh = join(orderableSohFuture);
+
+    profiler.start("JOIN_BEGINNING_BALANCES");
+    Map<UUID, Integer> orderableBeginning = join(orderableBeginningFuture);
+
+    final StockData stockData = new StockData(orderableSoh, orderableBeginning);
+
+    profiler.start("JOIN_IDEAL_STOCK_AMOUNTS");
+    final Map<UUID, Integer> idealStockAmounts = join(idealStockAmountsFuture);
+
     List<StockCardRangeSummaryDto> stockCardRangeSummaryDtos = null;
     List<StockCardRangeSummaryDto> stockCardRangeSummariesToAverage = null;
     List<ProcessingPeriodDto> previousPeriods = null;
     if (requisitionTemplate.isPopulateStockOnHandFromStockCards()) {
-      stockCardRangeSummaryDtos =
-          stockCardRangeSummaryStockManagementService
-              .search(program.getId(), facility.getId(),
-                  approvedProducts.getOrderableIdentities(), null,
-                  period.getStartDate(), period.getEndDate());
-
-      profiler.start("GET_PREVIOUS_PERIODS");
-      previousPeriods = periodService
-          .findPreviousPeriods(period, numberOfPreviousPeriodsToAverage);
-
-      profiler.start("FIND_IDEAL_STOCK_AMOUNTS_FOR_AVERAGE");
-      if (previousPeriods.size() > 1) {
-        stockCardRangeSummariesToAverage =
-            stockCardRangeSummaryStockManagementService
-                .search(program.getId(), facility.getId(),
-                    approvedProducts.getOrderableIdentities(), null,
-                    previousPeriods.get(previousPeriods.size() - 1).getStartDate(),
-                    period.getEndDate());
-      } else {
-        stockCardRangeSummariesToAverage = stockCardRangeSummaryDtos;
-      }
+      profiler.start("JOIN_STOCK_CARD_RANGE_SUMMARIES");
+      stockCardRangeSummaryDtos = join(stockCardRangeSummariesFuture);
+
+      profiler.start("JOIN_PREVIOUS_PERIODS_WITH_STOCK_CARD_RANGE_SUMMARIES");
+      Pair<List<ProcessingPeriodDto>, List<StockCardRangeSummaryDto>> previousPeriodsWithSummaries =
+          join(previousPeriodsFuture);
+
+      previousPeriods = previousPeriodsWithSummaries.getLeft();
+      stockCardRangeSummariesToAverage = null == previousPeriodsWithSummaries.getRight()
+          ? stockCardRangeSummaryDtos
+          : previousPeriodsWithSummaries.getRight();
 
       previousPeriods.add(period);
     } else if (numberOfPreviousPeriodsToAverage > previousRequisitions.size()) {
       numberOfPreviousPeriodsToAverage = previousRequisitions.size();
     }
 
-    profiler.start("GET_POD");
-    ProofOfDeliveryDto pod = null;
+    profiler.start("JOIN_POD");
+    ProofOfDeliveryDto pod = null == podFuture ? null : join(podFuture);
 
-    if (!emergency && !isEmpty(previousRequisitions)) {
-      pod = proofOfDeliveryService.get(previousRequisitions.get(0));
-    }
+    profiler.start("JOIN_CURRENT_USER");
+    UUID currentUserId = join(currentUserFuture).getId();
 
     profiler.start("INITIATE");
     requisition.initiate(requisitionTemplate, approvedProducts.getFullSupplyProducts(),
         previousRequisitions, numberOfPreviousPeriodsToAverage, pod, idealStockAmounts,
-        authenticationHelper.getCurrentUser().getId(), stockData, stockCardRangeSummaryDtos,
+        currentUserId, stockData, stockCardRangeSummaryDtos,
         stockCardRangeSummariesToAverage, previousPeriods);
 
     profiler.start("SET_AVAILABLE_PRODUCTS");
@@ -288,6 +333,29 @@ public class RequisitionService {
     return requisition;
   }
 
+  /**
+   * Finds previous periods and, if there is more than one, stock card range summaries for the
+   * whole averaging range. The right side of the pair is null if the range summaries of the
+   * current period should be used.
+   */
+  private Pair<List<ProcessingPeriodDto>, List<StockCardRangeSummaryDto>>
+      findPreviousPeriodsWithStockCardRangeSummaries(ProgramDto program, FacilityDto facility,
+      ProcessingPeriodDto period, int numberOfPreviousPeriodsToAverage,
+      Set<VersionIdentityDto> orderableIdentities) {
+    List<ProcessingPeriodDto> previousPeriods = periodService
+        .findPreviousPeriods(period, numberOfPreviousPeriodsToAverage);
+
+    List<StockCardRangeSummaryDto> stockCardRangeSummariesToAverage = null;
+    if (previousPeriods.size() > 1) {
+      stockCardRangeSummariesToAverage = stockCardRangeSummaryStockManagementService
+          .search(program.getId(), facility.getId(), orderableIdentities, null,
+              previousPeriods.get(previousPeriods.size() - 1).getStartDate(),
+              period.getEndDate());
+    }
+
+    return new ImmutablePair<>(previousPeriods, stockCardRangeSummariesToAverage);
+  }
+
   /**
    * Delete given Requisition if possible.
    *
@@ -339,10 +407,42 @@ public class RequisitionService {
     }
   }
 
+  /**
+   * Finds headers of requisitions matching all of the provided parameters. Returned requisitions
+   * contain only data needed to build basic requisitions, without line items and template.
+   */
+  public Page<Requisition> searchRequisitionHeaders(RequisitionSearchParams params,
+      Pageable pageable) {
+    return searchRequisitions(params,
+        (permissionStrings, programNodePairs) -> requisitionRepository
+            .searchRequisitionHeaders(params, permissionStrings, programNodePairs, pageable),
+        () -> Pagination.getPage(Collections.emptyList(), pageable));
+  }
+
+  /**
+   * Finds headers of requisitions matching all of the provided parameters, starting after the
+   * requisition pointed by the cursor. Matching requisitions are not counted.
+   */
+  public CursorSlice<Requisition> searchRequisitionHeaders(RequisitionSearchParams params,
+      CursorPageable pageable) {
+    return searchRequisitions(params,
+        (permissionStrings, programNodePairs) -> requisitionRepository
+            .searchRequisitionHeaders(params, permissionStrings, programNodePairs, pageable),
+        () -> new CursorSlice<>(Collections.emptyList(), pageable, null));
+  }
+
   /**
    * Finds requisitions matching all of the provided parameters.
    */
   public Page<Requisition> searchRequisitions(RequisitionSearchParams params, Pageable pageable) {
+    return searchRequisitions(params,
+        (permissionStrings, programNodePairs) -> requisitionRepository
+            .searchRequisitions(params, permissionStrings, programNodePairs, pageable),
+        () -> Pagination.getPage(Collections.emptyList(), pageable));
+  }
+
+  private <S> S searchRequisitions(RequisitionSearchParams params,
+      BiFunction<List<String>, Set<Pair<UUID, UUID>>, S> search, Supplier<S> empty) {
     Profiler profiler = new Profiler("REQUISITION_SERVICE_SEARCH");
     profiler.setLogger(LOGGER);
     UserDto user = authenticationHelper.getCurrentUser();
@@ -355,6 +455,7 @@ public class RequisitionService {
 
       permissionStrings = handler.get()
           .stream()
+          .filter(item -> REQUISITION_VIEW.equals(item.getRightName()))
           .map(PermissionStringDto::toString)
           .collect(toList());
 
@@ -373,18 +474,34 @@ public class RequisitionService {
 
       if (permissionStrings.isEmpty() && programNodePairs.isEmpty()) {
         profiler.stop().log();
-        return Pagination.getPage(Collections.emptyList(), pageable);
+        return empty.get();
       }
     }
 
     profiler.start("REPOSITORY_SEARCH");
-    Page<Requisition> results = requisitionRepository
-        .searchRequisitions(params, permissionStrings, programNodePairs, pageable);
+    S results = search.apply(permissionStrings, programNodePairs);
 
     profiler.stop().log();
     return results;
   }
 
+  /**
+   * Finds those of the given facilities that have no requisition for the given program and
+   * period in one of the given statuses. Only requisitions the current user can view are taken
+   * into account.
+   */
+  public List<UUID> searchFacilitiesWithoutRequisitions(Collection<UUID> facilities,
+      UUID program, UUID processingPeriod, Set<RequisitionStatus> statuses) {
+    RequisitionSearchParams params = new DefaultRequisitionSearchParams(null, program,
+        processingPeriod, null, null, null, null, null, null, statuses);
+
+    return searchRequisitions(params,
+        (permissionStrings, programNodePairs) -> requisitionRepository
+            .searchFacilitiesWithoutRequisitions(facilities, program, processingPeriod, statuses,
+                permissionStrings, programNodePairs),
+        () -> new ArrayList<>(facilities));
+  }
+
   /**
    * Get requisitions to approve for the specified user.
    */
@@ -398,14 +515,7 @@ public class RequisitionService {
 
     if (!CollectionUtils.isEmpty(user.getRoleAssignments())) {
       profiler.start("GET_PROGRAM_AND_NODE_IDS_FROM_ROLE_ASSIGNMENTS");
-      Set<Pair<UUID, UUID>> programNodePairs = user
-          .getRoleAssignments()
-          .stream()
-          .filter(item -> Objects.nonNull(item.getSupervisoryNodeId()))
-          .filter(item -> Objects.nonNull(item.getProgramId()))
-          .filter(item -> null == programId || programId.equals(item.getProgramId()))
-          .map(item -> new ImmutablePair<>(item.getProgramId(), item.getSupervisoryNodeId()))
-          .collect(toSet());
+      Set<Pair<UUID, UUID>> programNodePairs = getProgramNodePairs(user, programId);
 
       profiler.start("REQUISITION_REPOSITORY_SEARCH_APPROVABLE_BY_PAIRS");
       requisitionsForApproval = requisitionRepository
@@ -416,6 +526,42 @@ public class RequisitionService {
     return requisitionsForApproval;
   }
 
+  /**
+   * Get requisitions to approve for the specified user, starting after the requisition pointed
+   * by the cursor. Requisitions to approve are not counted.
+   */
+  public CursorSlice<Requisition> getRequisitionsForApproval(UserDto user, UUID programId,
+      CursorPageable pageable) {
+    Profiler profiler = new Profiler("REQUISITION_SERVICE_GET_FOR_APPROVAL_BY_CURSOR");
+    profiler.setLogger(LOGGER);
+
+    CursorSlice<Requisition> requisitionsForApproval = new CursorSlice<>(
+        Collections.emptyList(), pageable, null);
+
+    if (!CollectionUtils.isEmpty(user.getRoleAssignments())) {
+      profiler.start("GET_PROGRAM_AND_NODE_IDS_FROM_ROLE_ASSIGNMENTS");
+      Set<Pair<UUID, UUID>> programNodePairs = getProgramNodePairs(user, programId);
+
+      profiler.start("REQUISITION_REPOSITORY_SEARCH_APPROVABLE_BY_PAIRS");
+      requisitionsForApproval = requisitionRepository
+          .searchApprovableRequisitionsByProgramSupervisoryNodePairs(programNodePairs, pageable);
+    }
+
+    profiler.stop().log();
+    return requisitionsForApproval;
+  }
+
+  private Set<Pair<UUID, UUID>> getProgramNodePairs(UserDto user, UUID programId) {
+    return user
+        .getRoleAssignments()
+        .stream()
+        .filter(item -> Objects.nonNull(item.getSupervisoryNodeId()))
+        .filter(item -> Objects.nonNull(item.getProgramId()))
+        .filter(item -> null == programId || programId.equals(item.getProgramId()))
+        .map(item -> new ImmutablePair<>(item.getProgramId(), item.getSupervisoryNodeId()))
+        .collect(toSet());
+  }
+
   /**
    * Performs several validation checks to ensure that the given requisition can be approved.
    * It makes sure that the user has got rights to approve the requisition, that the requisition
@@ -509,6 +655,9 @@ public class RequisitionService {
         .collect(toSet());
 
     profiler.start("RELEASE");
+    // requisitions with the same program and supervisory node share their supply lines
+    Map<Pair<UUID, UUID>, Set<UUID>> validFacilitiesBySupplyLine = new HashMap<>();
+
     for (ReleasableRequisitionDto convertToOrderDto : convertToOrderDtos) {
       UUID requisitionId = convertToOrderDto.getRequisitionId();
       Requisition loadedRequisition = requisitionRepository.findOne(requisitionId);
@@ -516,10 +665,12 @@ public class RequisitionService {
       loadedRequisition.release(authenticationHelper.getCurrentUser().getId());
 
       UUID facilityId = convertToOrderDto.getSupplyingDepotId();
-      Set<UUID> validFacilities = requisitionForConvertBuilder
-          .getAvailableSupplyingDepots(requisitionId).stream()
-          .filter(f -> userFacilities.contains(f.getId())).map(FacilityDto::getId)
-          .collect(toSet());
+      Set<UUID> validFacilities = validFacilitiesBySupplyLine.computeIfAbsent(
+          Pair.of(loadedRequisition.getProgramId(), loadedRequisition.getSupervisoryNodeId()),
+          key -> requisitionForConvertBuilder
+              .getAvailableSupplyingDepots(requisitionId).stream()
+              .filter(f -> userFacilities.contains(f.getId())).map(FacilityDto::getId)
+              .collect(toSet()));
 
       if (validFacilities.contains(facilityId)) {
         loadedRequisition.setSupplyingFacilityId(facilityId);
@@ -641,16 +792,16 @@ public class RequisitionService {
     profiler.start("RELEASE_REQUISITIONS_AS_ORDER");
     List<Requisition> releasedRequisitions = releaseRequisitionsAsOrder(list, user);
 
-    profiler.start("BUILD_ORDER_DTOS_AND_SAVE_REQUISITION");
+    profiler.start("BUILD_ORDER_DTOS");
     List<OrderDto> orders = new ArrayList<>();
     for (Requisition requisition : releasedRequisitions) {
       OrderDto order = orderDtoBuilder.build(requisition, user);
       orders.add(order);
-
-      requisitionRepository.save(requisition);
-      requisitionStatusProcessor.statusChange(requisition, LocaleContextHolder.getLocale());
     }
 
+    profiler.start("SAVE_REQUISITIONS");
+    saveReleasedRequisitions(releasedRequisitions);
+
     profiler.start("CREATE_ORDER_IN_FULFILLMENT");
     orderFulfillmentService.create(orders);
 
@@ -668,14 +819,25 @@ public class RequisitionService {
     profiler.start("RELEASE_REQUISITIONS_WITHOUT_ORDER");
     List<Requisition> releasedRequisitions = releaseRequisitionsWithoutOrder(list);
 
-    for (Requisition requisition : releasedRequisitions) {
-      requisitionRepository.save(requisition);
-      requisitionStatusProcessor.statusChange(requisition, LocaleContextHolder.getLocale());
-    }
+    profiler.start("SAVE_REQUISITIONS");
+    saveReleasedRequisitions(releasedRequisitions);
+
     profiler.stop().log();
     return releasedRequisitions;
   }
 
+  /**
+   * Saves released requisitions and their notifications with a single flush, so Hibernate can
+   * send the new status changes and the updated requisitions to the database in JDBC batches
+   * (see the {@code hibernate.jdbc.batch_size} property) instead of one by one.
+   */
+  private void saveReleasedRequisitions(List<Requisition> releasedRequisitions) {
+    requisitionRepository.save(releasedRequisitions);
+    statusChangeNotificationService.enqueue(releasedRequisitions,
+        LocaleContextHolder.getLocale());
+    requisitionRepository.flush();
+  }
+
 
   /**
    * Saves status message of a requisition if its draft is not empty.
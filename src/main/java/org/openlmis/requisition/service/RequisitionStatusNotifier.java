@@ -75,12 +75,15 @@ public class RequisitionStatusNotifier extends BaseNotifier {
   private String publicUrl;
 
   /**
-   * Notify user(s) that the requisition's status has changed.
+   * Notify user(s) that the requisition's status has changed. Reference data is resolved through
+   * the given memo. Users who already got the notification are skipped.
    *
    * @param requisition a requisition that has just changed its status
+   * @param memo        reference data resolved while processing the status change
+   * @param delivered   notifications of the status change that have already been delivered
    */
-  public void notifyStatusChanged(Requisition requisition, Locale locale) {
-
+  public void notifyStatusChanged(Requisition requisition, Locale locale,
+      ReferenceDataMemo memo, DeliveredNotifications delivered) {
     List<StatusChange> statusChanges = requisition.getStatusChanges();
     if (statusChanges == null) {
       LOGGER.error("Could not find status changes for requisition {} to "
@@ -88,7 +91,7 @@ public class RequisitionStatusNotifier extends BaseNotifier {
       return;
     }
 
-    UserDto initiator = getInitiator(statusChanges, requisition.getId());
+    UserDto initiator = getInitiator(statusChanges, requisition.getId(), memo);
 
     Optional<StatusChange> submitAuditEntry = getSubmitAuditEntry(requisition, statusChanges);
     if (!submitAuditEntry.isPresent()) {
@@ -106,11 +109,11 @@ public class RequisitionStatusNotifier extends BaseNotifier {
     valuesMap.put("requisitionType", getMessage(getEmergencyKey(requisition), locale));
     valuesMap.put("submittedDate", submitAuditEntry.get().getCreatedDate()
         .format(dateTimeFormatter));
-    valuesMap.put("programName", getProgram(requisition).getName());
-    valuesMap.put("periodName", getPeriod(requisition).getName());
-    valuesMap.put("facilityName", getFacility(requisition).getName());
+    valuesMap.put("programName", getProgram(requisition, memo).getName());
+    valuesMap.put("periodName", getPeriod(requisition, memo).getName());
+    valuesMap.put("facilityName", getFacility(requisition, memo).getName());
     valuesMap.put("requisitionStatus", requisition.getStatus().toString());
-    valuesMap.put("author", getAuthor(currentAuditEntry.get()).getUsername());
+    valuesMap.put("author", getAuthor(currentAuditEntry.get(), memo).getUsername());
     valuesMap.put("changeDate", currentAuditEntry.get().getCreatedDate().format(
         dateTimeFormatter));
     valuesMap.put("requisitionUrl", getRequisitionUrl(requisition));
@@ -121,18 +124,19 @@ public class RequisitionStatusNotifier extends BaseNotifier {
 
     StrSubstitutor sub = new StrSubstitutor(valuesMap);
 
-    notificationService.notify(initiator, subject, sub.replace(emailContent),
-        sub.replace(smsContent), NOTIFICATION_TAG);
+    delivered.send(initiator, NOTIFICATION_TAG, () -> notificationService.notify(initiator,
+        subject, sub.replace(emailContent), sub.replace(smsContent), NOTIFICATION_TAG));
   }
 
-  private UserDto getInitiator(List<StatusChange> statusChanges, UUID requisitionId) {
+  private UserDto getInitiator(List<StatusChange> statusChanges, UUID requisitionId,
+      ReferenceDataMemo memo) {
     UUID initiatorId = getInitiatorId(statusChanges);
     if (initiatorId == null) {
       LOGGER.warn("Could not find initiator for requisition %s to notify "
           + "for requisition status change.", requisitionId);
       return null;
     }
-    return userReferenceDataService.findOne(initiatorId);
+    return memo.get(UserDto.class, initiatorId, userReferenceDataService::findOne);
   }
 
   private UUID getInitiatorId(List<StatusChange> statusChanges) {
@@ -175,20 +179,23 @@ public class RequisitionStatusNotifier extends BaseNotifier {
     return currentAuditEntry;
   }
 
-  private ProgramDto getProgram(Requisition requisition) {
-    return programReferenceDataService.findOne(requisition.getProgramId());
+  private ProgramDto getProgram(Requisition requisition, ReferenceDataMemo memo) {
+    return memo.get(ProgramDto.class, requisition.getProgramId(),
+        programReferenceDataService::findOne);
   }
 
-  private ProcessingPeriodDto getPeriod(Requisition requisition) {
-    return periodReferenceDataService.findOne(
-        requisition.getProcessingPeriodId());
+  private ProcessingPeriodDto getPeriod(Requisition requisition, ReferenceDataMemo memo) {
+    return memo.get(ProcessingPeriodDto.class, requisition.getProcessingPeriodId(),
+        periodReferenceDataService::findOne);
   }
 
-  private FacilityDto getFacility(Requisition requisition) {
-    return facilityReferenceDataService.findOne(requisition.getFacilityId());
+  private FacilityDto getFacility(Requisition requisition, ReferenceDataMemo memo) {
+    return memo.get(FacilityDto.class, requisition.getFacilityId(),
+        facilityReferenceDataService::findOne);
   }
 
-  private UserDto getAuthor(StatusChange currentAuditEntry) {
-    return userReferenceDataService.findOne(currentAuditEntry.getAuthorId());
+  private UserDto getAuthor(StatusChange currentAuditEntry, ReferenceDataMemo memo) {
+    return memo.get(UserDto.class, currentAuditEntry.getAuthorId(),
+        userReferenceDataService::findOne);
   }
 }
@@ -17,15 +17,22 @@ package org.openlmis.requisition.service;
 
 import java.util.Locale;
 import org.openlmis.requisition.domain.requisition.Requisition;
-import org.springframework.scheduling.annotation.Async;
 
 public interface RequisitionStatusProcessor {
 
   /**
-   * Process requisition status change.
+   * Process requisition status change. Reference data needed by notifications is resolved
+   * through the given memo, so resources already retrieved by the caller are not retrieved
+   * again. Users who can approve the requisition are added to the given digest instead of being
+   * notified, so the caller can notify each approver once about all requisitions whose status
+   * changed at the same time. Notifications that have already been delivered, for example by a
+   * previous attempt that failed part way, are not sent again.
    *
    * @param requisition a requisition that has just changed its status
+   * @param memo        reference data resolved while processing the status change
+   * @param digest      requisitions that are ready for review by each approver
+   * @param delivered   notifications of the status change that have already been delivered
    */
-  @Async
-  void statusChange(Requisition requisition, Locale locale);
+  void statusChange(Requisition requisition, Locale locale, ReferenceDataMemo memo,
+      ApprovalDigest digest, DeliveredNotifications delivered);
 }
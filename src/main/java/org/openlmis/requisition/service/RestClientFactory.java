@@ -0,0 +1,173 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestOperations;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Creates rest clients used to call other services. Each service gets its own HTTP client with
+ * a pool of keep-alive connections, so connections are reused between requests and a slow
+ * service cannot take all connections of other services. Pool size, timeouts (in milliseconds)
+ * and response compression are set with the {@code http.client.*} properties.
+ */
+@Component
+public class RestClientFactory {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RestClientFactory.class);
+
+  @Value("${http.client.maxTotal}")
+  private int maxTotal;
+
+  @Value("${http.client.maxPerRoute}")
+  private int maxPerRoute;
+
+  @Value("${http.client.connectTimeout}")
+  private int connectTimeout;
+
+  @Value("${http.client.connectionRequestTimeout}")
+  private int connectionRequestTimeout;
+
+  @Value("${http.client.readTimeout}")
+  private int readTimeout;
+
+  @Value("${http.client.idleTimeout}")
+  private long idleTimeout;
+
+  @Value("${http.client.gzip}")
+  private boolean gzip;
+
+  private final Map<String, PooledClient> clients = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the rest client of the given service. The client is created on the first call and
+   * shared by all callers of the same service.
+   *
+   * @param serviceName name of the service, for example {@code Reference Data}
+   * @return rest client that uses pooled connections
+   */
+  public RestOperations getRestClient(String serviceName) {
+    return clients.computeIfAbsent(serviceName, this::createClient).restTemplate;
+  }
+
+  /**
+   * Returns statistics of the connection pool of each service that was called.
+   */
+  public Map<String, PoolStats> getPoolStats() {
+    Map<String, PoolStats> stats = new TreeMap<>();
+    clients.forEach((name, client) -> stats.put(name, client.connectionManager.getTotalStats()));
+
+    return Collections.unmodifiableMap(stats);
+  }
+
+  /**
+   * Logs statistics of connection pools. Connections leased for a long time or many requests
+   * waiting for a connection mean the pool of a service is too small or the service is slow.
+   */
+  @Scheduled(fixedDelayString = "${http.client.statsLogInterval}")
+  public void logPoolStats() {
+    if (LOGGER.isDebugEnabled()) {
+      getPoolStats().forEach((name, stats) -> LOGGER.debug("{} connection pool: {}", name, stats));
+    }
+  }
+
+  /**
+   * Closes all HTTP clients and their connections.
+   */
+  @PreDestroy
+  public void shutdown() {
+    clients.forEach((name, client) -> {
+      LOGGER.info("Closing {} connection pool: {}", name,
+          client.connectionManager.getTotalStats());
+      client.close();
+    });
+    clients.clear();
+  }
+
+  private PooledClient createClient(String serviceName) {
+    LOGGER.info("Creating {} connection pool with max {} connections ({} per route)",
+        serviceName, maxTotal, maxPerRoute);
+
+    PoolingHttpClientConnectionManager connectionManager =
+        new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(maxTotal);
+    connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+
+    RequestConfig requestConfig = RequestConfig
+        .custom()
+        .setConnectTimeout(connectTimeout)
+        .setConnectionRequestTimeout(connectionRequestTimeout)
+        .setSocketTimeout(readTimeout)
+        .build();
+
+    HttpClientBuilder builder = HttpClientBuilder
+        .create()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(requestConfig)
+        .evictExpiredConnections()
+        .evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS)
+        .useSystemProperties();
+
+    if (!gzip) {
+      builder.disableContentCompression();
+    }
+
+    CloseableHttpClient httpClient = builder.build();
+    RestTemplate restTemplate = new RestTemplate(
+        new HttpComponentsClientHttpRequestFactory(httpClient));
+
+    return new PooledClient(httpClient, connectionManager, restTemplate);
+  }
+
+  private static final class PooledClient {
+    private final CloseableHttpClient httpClient;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final RestTemplate restTemplate;
+
+    PooledClient(CloseableHttpClient httpClient,
+        PoolingHttpClientConnectionManager connectionManager, RestTemplate restTemplate) {
+      this.httpClient = httpClient;
+      this.connectionManager = connectionManager;
+      this.restTemplate = restTemplate;
+    }
+
+    void close() {
+      try {
+        httpClient.close();
+      } catch (IOException exp) {
+        LOGGER.warn("Could not close HTTP client", exp);
+      }
+    }
+  }
+}
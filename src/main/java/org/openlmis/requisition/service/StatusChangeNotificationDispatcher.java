@@ -0,0 +1,223 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.StatusChangeNotification;
+import org.openlmis.requisition.repository.RequisitionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Sends notifications about requisition status changes saved by the
+ * {@link StatusChangeNotificationService}. Entries are taken in batches. Entries of the same
+ * requisition are sent one by one in the order they were created, and different requisitions
+ * are sent concurrently on a bounded thread pool; an entry that repeats the previous entry of
+ * the same requisition is not sent again. All entries of a batch share one
+ * {@link ReferenceDataMemo}, so reference data common to many requisitions, for example after
+ * a batch approval, is retrieved only once per batch, and one {@link ApprovalDigest}, so each
+ * approver gets one notification about all requisitions of the batch they can approve. An entry
+ * is removed only after all of its notifications, including the approver notifications, have
+ * been delivered. When an entry fails, users it was already delivered to are recorded with it
+ * and skipped by the retry.
+ */
+@Component
+public class StatusChangeNotificationDispatcher {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(StatusChangeNotificationDispatcher.class);
+
+  @Autowired
+  private StatusChangeNotificationService statusChangeNotificationService;
+
+  @Autowired
+  private RequisitionStatusProcessor requisitionStatusProcessor;
+
+  @Autowired
+  private ApprovalNotifier approvalNotifier;
+
+  @Autowired
+  private RequisitionRepository requisitionRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  @Qualifier("statusChangeNotificationExecutor")
+  private RemoteCallExecutor statusChangeNotificationExecutor;
+
+  @Value("${statusChangeNotifications.batchSize}")
+  private int batchSize;
+
+  private final LongAdder sentCount = new LongAdder();
+  private final LongAdder outdatedCount = new LongAdder();
+  private final LongAdder failedCount = new LongAdder();
+
+  /**
+   * Sends all entries that should be sent now. Batches are taken until there are no more
+   * entries to send.
+   */
+  @Scheduled(fixedDelayString = "${statusChangeNotifications.pollInterval}")
+  public void dispatch() {
+    List<StatusChangeNotification> batch;
+
+    do {
+      batch = statusChangeNotificationService.claim(batchSize);
+
+      if (!batch.isEmpty()) {
+        send(batch);
+      }
+    } while (batch.size() >= batchSize);
+  }
+
+  /**
+   * Returns the number of entries that have been sent since the service was started.
+   */
+  public long getSentCount() {
+    return sentCount.sum();
+  }
+
+  /**
+   * Returns the number of entries that were not sent because the requisition changed its
+   * status again before they were sent or because the same notifications were just sent.
+   */
+  public long getOutdatedCount() {
+    return outdatedCount.sum();
+  }
+
+  /**
+   * Returns the number of failed attempts to send an entry.
+   */
+  public long getFailedCount() {
+    return failedCount.sum();
+  }
+
+  void send(List<StatusChangeNotification> batch) {
+    long started = System.nanoTime();
+
+    ReferenceDataMemo memo = new ReferenceDataMemo();
+    ApprovalDigest digest = new ApprovalDigest();
+    Queue<UUID> done = new ConcurrentLinkedQueue<>();
+    Map<DeliveredNotifications, StatusChangeNotification> attempted = new ConcurrentHashMap<>();
+    Map<DeliveredNotifications, RuntimeException> failures = new ConcurrentHashMap<>();
+    Map<UUID, List<StatusChangeNotification>> groups = new LinkedHashMap<>();
+    batch.forEach(entry -> groups
+        .computeIfAbsent(entry.getRequisitionId(), id -> new ArrayList<>())
+        .add(entry));
+
+    List<CompletableFuture<Void>> futures = new ArrayList<>(groups.size());
+    groups.forEach((requisitionId, entries) -> futures.add(statusChangeNotificationExecutor
+        .runAsync("status-change-notification-" + requisitionId,
+            () -> sendGroup(entries, memo, digest, done, attempted, failures))));
+
+    futures.forEach(RemoteCallExecutor::join);
+    // an entry is sent only when approvers it added to the digest have been notified too;
+    // otherwise it is retried, and the notifications it already delivered are skipped
+    approvalNotifier.notifyApprovers(digest).forEach((recipient, exp) -> recipient
+        .getDelivered()
+        .forEach(delivered -> failures.putIfAbsent(delivered, exp)));
+
+    attempted.forEach((delivered, entry) -> {
+      RuntimeException failure = failures.get(delivered);
+
+      if (null == failure) {
+        sentCount.increment();
+        done.add(entry.getId());
+      } else {
+        failedCount.increment();
+        statusChangeNotificationService.markFailed(entry, failure, delivered.getKeys());
+      }
+    });
+    statusChangeNotificationService.markSent(done);
+
+    if (LOGGER.isDebugEnabled()) {
+      long time = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+      LOGGER.debug("Sent {} of {} status change notifications of {} requisitions in {} ms "
+              + "({} per second), {} approvers notified, {} reference data calls saved; "
+              + "pending: {}, lag: {} ms",
+          done.size(), batch.size(), groups.size(), time,
+          TimeUnit.SECONDS.toMillis(done.size()) / time, digest.getRecipients().size(),
+          memo.getSavedCallCount(),
+          statusChangeNotificationService.getPendingCount(),
+          statusChangeNotificationService.getLag().toMillis());
+    }
+  }
+
+  private void sendGroup(List<StatusChangeNotification> entries, ReferenceDataMemo memo,
+      ApprovalDigest digest, Queue<UUID> done,
+      Map<DeliveredNotifications, StatusChangeNotification> attempted,
+      Map<DeliveredNotifications, RuntimeException> failures) {
+    StatusChangeNotification previous = null;
+
+    for (StatusChangeNotification entry : entries) {
+      DeliveredNotifications delivered = new DeliveredNotifications(entry.getDeliveredTo());
+
+      try {
+        if (null != previous && entry.isDuplicateOf(previous)) {
+          outdatedCount.increment();
+          done.add(entry.getId());
+        } else if (sendEntry(entry, memo, digest, delivered)) {
+          attempted.put(delivered, entry);
+          previous = entry;
+        } else {
+          outdatedCount.increment();
+          done.add(entry.getId());
+        }
+      } catch (RuntimeException exp) {
+        attempted.put(delivered, entry);
+        failures.put(delivered, exp);
+      }
+    }
+  }
+
+  private boolean sendEntry(StatusChangeNotification entry, ReferenceDataMemo memo,
+      ApprovalDigest digest, DeliveredNotifications delivered) {
+    TransactionTemplate template = new TransactionTemplate(transactionManager);
+    template.setReadOnly(true);
+
+    return template.execute(status -> {
+      Requisition requisition = requisitionRepository.findOne(entry.getRequisitionId());
+
+      if (null == requisition || entry.isOutdated(requisition)) {
+        LOGGER.debug("Skipping outdated {} notification of requisition {}", entry.getStatus(),
+            entry.getRequisitionId());
+        return false;
+      }
+
+      requisitionStatusProcessor.statusChange(requisition, entry.getLocale(), memo, digest,
+          delivered);
+      return true;
+    });
+  }
+}
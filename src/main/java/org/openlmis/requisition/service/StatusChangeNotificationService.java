@@ -0,0 +1,204 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import com.google.common.collect.Lists;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.StatusChangeNotification;
+import org.openlmis.requisition.repository.StatusChangeNotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps notifications about requisition status changes that still have to be sent. Entries
+ * are added in the transaction that changes the status and taken by the
+ * {@link StatusChangeNotificationDispatcher}. Entries are leased while they are being sent, so
+ * entries taken by an instance that was stopped are sent again once the lease expires. Failed
+ * entries are retried with an exponentially growing delay until the max number of attempts is
+ * reached.
+ */
+@Service
+public class StatusChangeNotificationService {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(StatusChangeNotificationService.class);
+
+  private static final int MAX_BACKOFF_SHIFT = 30;
+
+  @Autowired
+  private StatusChangeNotificationRepository statusChangeNotificationRepository;
+
+  @Autowired
+  private Clock clock;
+
+  @Value("${statusChangeNotifications.lease}")
+  private long lease;
+
+  @Value("${statusChangeNotifications.retry.initialDelay}")
+  private long retryInitialDelay;
+
+  @Value("${statusChangeNotifications.retry.maxDelay}")
+  private long retryMaxDelay;
+
+  @Value("${statusChangeNotifications.retry.maxAttempts}")
+  private int retryMaxAttempts;
+
+  /**
+   * Adds notifications about the current status of the given requisition. The entry is saved
+   * in the current transaction, so it is only sent if the status change is committed.
+   *
+   * @param requisition a requisition that has just changed its status
+   * @param locale      locale of the notifications
+   * @return the saved entry
+   */
+  @Transactional
+  public StatusChangeNotification enqueue(Requisition requisition, Locale locale) {
+    return statusChangeNotificationRepository.save(StatusChangeNotification
+        .newStatusChangeNotification(requisition, locale, now()));
+  }
+
+  /**
+   * Adds notifications about the current status of each of the given requisitions. All entries
+   * are saved at once in the current transaction.
+   *
+   * @param requisitions requisitions that have just changed their status
+   * @param locale       locale of the notifications
+   * @return the saved entries
+   */
+  @Transactional
+  public List<StatusChangeNotification> enqueue(Collection<Requisition> requisitions,
+      Locale locale) {
+    ZonedDateTime nextAttemptDate = now();
+    List<StatusChangeNotification> entries = new ArrayList<>(requisitions.size());
+    for (Requisition requisition : requisitions) {
+      entries.add(StatusChangeNotification
+          .newStatusChangeNotification(requisition, locale, nextAttemptDate));
+    }
+
+    return Lists.newArrayList(statusChangeNotificationRepository.save(entries));
+  }
+
+  /**
+   * Takes the oldest entries that should be sent now. The entries are not taken again by any
+   * instance of the service until the lease expires.
+   *
+   * @param limit max number of entries
+   * @return entries that should be sent, oldest first
+   */
+  @Transactional
+  public List<StatusChangeNotification> claim(int limit) {
+    List<StatusChangeNotification> entries = statusChangeNotificationRepository
+        .findDueForUpdate(limit);
+    ZonedDateTime leaseEnd = now().plus(lease, ChronoUnit.MILLIS);
+    entries.forEach(entry -> entry.setNextAttemptDate(leaseEnd));
+
+    return entries;
+  }
+
+  /**
+   * Removes entries that have been sent or do not have to be sent anymore.
+   *
+   * @param ids ids of the entries
+   */
+  @Transactional
+  public void markSent(Collection<UUID> ids) {
+    if (!ids.isEmpty()) {
+      statusChangeNotificationRepository.deleteByIdIn(ids);
+    }
+  }
+
+  /**
+   * Records a failed attempt to send the given entry and schedules the next attempt. The entry
+   * is not sent anymore if it reached the max number of attempts; it is kept with the last
+   * error, so it can be inspected. Notifications delivered before the failure are not sent again
+   * by the next attempt.
+   *
+   * @param entry       the entry that could not be sent
+   * @param cause       the reason of the failure
+   * @param deliveredTo keys of notifications of the entry that have been delivered so far
+   */
+  @Transactional
+  public void markFailed(StatusChangeNotification entry, Exception cause,
+      Collection<String> deliveredTo) {
+    StatusChangeNotification current = statusChangeNotificationRepository
+        .findOne(entry.getId());
+
+    if (null == current) {
+      return;
+    }
+
+    int attempt = current.getAttempts() + 1;
+    ZonedDateTime nextAttemptDate = attempt < retryMaxAttempts
+        ? now().plus(getRetryDelay(attempt), ChronoUnit.MILLIS)
+        : null;
+
+    current.attemptFailed(String.valueOf(cause), nextAttemptDate, deliveredTo);
+    statusChangeNotificationRepository.save(current);
+
+    if (null == nextAttemptDate) {
+      LOGGER.error("Could not send status change notifications of requisition {} after {} "
+          + "attempts, giving up", current.getRequisitionId(), attempt, cause);
+    } else {
+      LOGGER.warn("Could not send status change notifications of requisition {}, attempt {} "
+          + "of {}, next attempt at {}", current.getRequisitionId(), attempt, retryMaxAttempts,
+          nextAttemptDate, cause);
+    }
+  }
+
+  /**
+   * Returns the number of entries that have not been sent yet, including entries that are
+   * being sent and entries waiting for the next attempt.
+   */
+  @Transactional(readOnly = true)
+  public long getPendingCount() {
+    return statusChangeNotificationRepository.countByNextAttemptDateNotNull();
+  }
+
+  /**
+   * Returns how long the oldest entry that has not been sent yet waits.
+   */
+  @Transactional(readOnly = true)
+  public Duration getLag() {
+    StatusChangeNotification oldest = statusChangeNotificationRepository
+        .findFirstByNextAttemptDateNotNullOrderByCreatedDateAsc();
+
+    return null == oldest || null == oldest.getCreatedDate()
+        ? Duration.ZERO
+        : Duration.between(oldest.getCreatedDate(), now());
+  }
+
+  long getRetryDelay(int attempt) {
+    int shift = Math.min(attempt - 1, MAX_BACKOFF_SHIFT);
+    return Math.min(retryMaxDelay, retryInitialDelay << shift);
+  }
+
+  private ZonedDateTime now() {
+    return ZonedDateTime.now(clock);
+  }
+}
@@ -22,6 +22,7 @@ import java.util.HashMap;
 import java.util.Map;
 import org.openlmis.requisition.dto.UserDto;
 import org.openlmis.requisition.service.AuthService;
+import org.openlmis.requisition.service.RestClientFactory;
 import org.openlmis.requisition.utils.RequestHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,6 +35,7 @@ import org.springframework.web.client.RestTemplate;
 
 @Service
 public class NotificationService {
+  private static final String SERVICE_NAME = "Notification";
 
   private final Logger logger = LoggerFactory.getLogger(getClass());
 
@@ -46,14 +48,15 @@ public class NotificationService {
   private RestOperations restTemplate = new RestTemplate();
 
   /**
-   * Send an email notification.
+   * Send an email notification. Failures are not swallowed, so notifications sent from the
+   * status change notification outbox are retried.
    *
    * @param user    receiver of the notification
    * @param subject subject of the email
    * @param emailContent content of the email
-   * @return true if success, false if failed.
+   * @throws HttpStatusCodeException if the notification service responded with an error
    */
-  public boolean notify(UserDto user, String subject, String emailContent, String smsContent,
+  public void notify(UserDto user, String subject, String emailContent, String smsContent,
       String tag) {
     String url = notificationUrl + "/api/notifications";
 
@@ -69,9 +72,13 @@ public class NotificationService {
           "Unable to send notification. Error code: {}, response message: {}",
           ex.getStatusCode(), ex.getResponseBodyAsString()
       );
-      return false;
+      throw ex;
     }
-    return true;
+  }
+
+  @Autowired
+  public void setRestClientFactory(RestClientFactory restClientFactory) {
+    this.restTemplate = restClientFactory.getRestClient(SERVICE_NAME);
   }
 
   void setRestTemplate(RestOperations restTemplate) {
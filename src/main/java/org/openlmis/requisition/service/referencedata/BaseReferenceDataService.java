@@ -15,7 +15,16 @@
 
 package org.openlmis.requisition.service.referencedata;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import org.openlmis.requisition.domain.requisition.VersionEntityReference;
+import org.openlmis.requisition.dto.VersionIdentityDto;
 import org.openlmis.requisition.service.BaseCommunicationService;
+import org.slf4j.profiler.Profiler;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 
 public abstract class BaseReferenceDataService<T> extends BaseCommunicationService<T> {
@@ -23,6 +32,114 @@ public abstract class BaseReferenceDataService<T> extends BaseCommunicationServi
   @Value("${referencedata.url}")
   private String referenceDataUrl;
 
+  private ReferenceDataCache<UUID, T> cache;
+  private ReferenceDataCache<VersionIdentityDto, T> versionedCache;
+
+  /**
+   * Return one object from service. If the service has a cache, the object is taken from it and
+   * retrieved from the reference data service only if it is not cached or has been modified.
+   *
+   * @param id UUID of requesting object.
+   * @return Requesting reference data object.
+   */
+  @Override
+  public T findOne(UUID id) {
+    if (null == cache) {
+      return super.findOne(id);
+    }
+
+    return cache.get(id, etag -> tryFindOne(id.toString(), getResultClass(), etag));
+  }
+
+  /**
+   * Returns name of the cache used by {@link #findOne(UUID)}, or {@code null} if single resources
+   * should not be cached.
+   */
+  protected String getCacheName() {
+    return null;
+  }
+
+  /**
+   * Returns name of the cache used by {@link #findVersioned(Set, Function, Function)}, or
+   * {@code null} if versioned resources should not be cached.
+   */
+  protected String getVersionedCacheName() {
+    return null;
+  }
+
+  /**
+   * Finds versioned resources by their identities. A resource with the given id and version
+   * number never changes, so if the service has a versioned cache, only identities that have not
+   * been retrieved before are passed to the search function.
+   *
+   * @param references identities of the resources
+   * @param search     retrieves resources with the given identities from the service
+   * @param identity   returns identity of the given resource
+   * @return resources with the given identities
+   */
+  protected List<T> findVersioned(Set<VersionEntityReference> references,
+      Function<List<VersionIdentityDto>, List<T>> search,
+      Function<T, VersionIdentityDto> identity) {
+    Profiler profiler = new Profiler("FIND_VERSIONED_" + getResultClass().getSimpleName());
+    profiler.setLogger(logger);
+
+    profiler.start("GET_CACHED");
+    List<T> resources = new ArrayList<>(references.size());
+    List<VersionIdentityDto> notCached = new ArrayList<>();
+
+    for (VersionEntityReference reference : references) {
+      VersionIdentityDto key = new VersionIdentityDto(reference);
+      T resource = null == versionedCache ? null : versionedCache.getIfPresent(key);
+
+      if (null == resource) {
+        notCached.add(key);
+      } else {
+        resources.add(resource);
+      }
+    }
+
+    if (!notCached.isEmpty()) {
+      profiler.start("SEARCH_NOT_CACHED");
+      List<T> found = search.apply(notCached);
+
+      if (null != versionedCache) {
+        profiler.start("ADD_TO_CACHE");
+        found.forEach(resource -> versionedCache.put(identity.apply(resource), resource));
+      }
+
+      resources.addAll(found);
+    }
+
+    logger.debug("Found {} of {} {} in cache", references.size() - notCached.size(),
+        references.size(), getResultClass().getSimpleName());
+    profiler.stop().log();
+
+    return resources;
+  }
+
+  ReferenceDataCache<UUID, T> getCache() {
+    return cache;
+  }
+
+  ReferenceDataCache<VersionIdentityDto, T> getVersionedCache() {
+    return versionedCache;
+  }
+
+  /**
+   * Creates caches of this service, based on the names returned by {@link #getCacheName()} and
+   * {@link #getVersionedCacheName()}.
+   */
+  @Autowired
+  public void setCacheFactory(ReferenceDataCacheFactory cacheFactory) {
+    String cacheName = getCacheName();
+    this.cache = null == cacheName ? null : cacheFactory.create(cacheName);
+
+    String versionedCacheName = getVersionedCacheName();
+    this.versionedCache = null == versionedCacheName
+        ? null
+        : cacheFactory.createVersioned(versionedCacheName);
+  }
+
   @Override
   protected String getServiceName() {
     return "Reference Data";
@@ -35,6 +35,11 @@ public class FacilityReferenceDataService extends BaseReferenceDataService<Facil
     return "/api/facilities/";
   }
 
+  @Override
+  protected String getCacheName() {
+    return "facilities";
+  }
+
   @Override
   protected Class<FacilityDto> getResultClass() {
     return FacilityDto.class;
@@ -18,7 +18,6 @@ package org.openlmis.requisition.service.referencedata;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 import org.apache.commons.collections.CollectionUtils;
 import org.openlmis.requisition.domain.requisition.VersionEntityReference;
 import org.openlmis.requisition.dto.ApprovedProductDto;
@@ -35,6 +34,11 @@ public class FacilityTypeApprovedProductReferenceDataService extends
     return "/api/facilityTypeApprovedProducts";
   }
 
+  @Override
+  protected String getVersionedCacheName() {
+    return "facilityTypeApprovedProducts";
+  }
+
   @Override
   protected Class<ApprovedProductDto> getResultClass() {
     return ApprovedProductDto.class;
@@ -54,11 +58,10 @@ public class FacilityTypeApprovedProductReferenceDataService extends
       return Collections.emptyList();
     }
 
-    List<VersionIdentityDto> identities = references
-        .stream()
-        .map(ref -> new VersionIdentityDto(ref.getId(), ref.getVersionNumber()))
-        .collect(Collectors.toList());
+    return findVersioned(references, this::search, ApprovedProductDto::getIdentity);
+  }
 
+  private List<ApprovedProductDto> search(List<VersionIdentityDto> identities) {
     FacilityTypeApprovedProductSearchParams payload = new FacilityTypeApprovedProductSearchParams(
         null, null, null, identities, 0, identities.size());
 
@@ -26,6 +26,11 @@ public class FacilityTypeReferenceDataService extends BaseReferenceDataService<F
     return "/api/facilityTypes/";
   }
 
+  @Override
+  protected String getCacheName() {
+    return "facilityTypes";
+  }
+
   @Override
   protected Class<FacilityTypeDto> getResultClass() {
     return FacilityTypeDto.class;
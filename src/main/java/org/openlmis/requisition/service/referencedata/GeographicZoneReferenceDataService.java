@@ -32,6 +32,11 @@ public class GeographicZoneReferenceDataService
     return "/api/geographicZones/";
   }
 
+  @Override
+  protected String getCacheName() {
+    return "geographicZones";
+  }
+
   @Override
   protected Class<GeographicZoneDto> getResultClass() {
     return GeographicZoneDto.class;
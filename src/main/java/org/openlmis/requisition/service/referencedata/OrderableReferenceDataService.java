@@ -18,7 +18,6 @@ package org.openlmis.requisition.service.referencedata;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 import org.openlmis.requisition.domain.requisition.VersionEntityReference;
 import org.openlmis.requisition.dto.OrderableDto;
 import org.openlmis.requisition.dto.VersionIdentityDto;
@@ -35,6 +34,11 @@ public class OrderableReferenceDataService
     return "/api/orderables/";
   }
 
+  @Override
+  protected String getVersionedCacheName() {
+    return "orderables";
+  }
+
   @Override
   protected Class<OrderableDto> getResultClass() {
     return OrderableDto.class;
@@ -58,11 +62,10 @@ public class OrderableReferenceDataService
       return Collections.emptyList();
     }
 
-    List<VersionIdentityDto> identities = references
-        .stream()
-        .map(ref -> new VersionIdentityDto(ref.getId(), ref.getVersionNumber()))
-        .collect(Collectors.toList());
+    return findVersioned(references, this::search, OrderableDto::getIdentity);
+  }
 
+  private List<OrderableDto> search(List<VersionIdentityDto> identities) {
     OrderableSearchParams payload = new OrderableSearchParams(
         null, null, null, identities, 0, identities.size());
 
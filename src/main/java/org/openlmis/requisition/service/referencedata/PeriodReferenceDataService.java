@@ -34,6 +34,11 @@ public class PeriodReferenceDataService extends BaseReferenceDataService<Process
     return "/api/processingPeriods/";
   }
 
+  @Override
+  protected String getCacheName() {
+    return "processingPeriods";
+  }
+
   @Override
   protected Class<ProcessingPeriodDto> getResultClass() {
     return ProcessingPeriodDto.class;
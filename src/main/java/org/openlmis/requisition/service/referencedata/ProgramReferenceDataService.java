@@ -31,6 +31,11 @@ public class ProgramReferenceDataService extends BaseReferenceDataService<Progra
     return "/api/programs/";
   }
 
+  @Override
+  protected String getCacheName() {
+    return "programs";
+  }
+
   @Override
   protected Class<ProgramDto> getResultClass() {
     return ProgramDto.class;
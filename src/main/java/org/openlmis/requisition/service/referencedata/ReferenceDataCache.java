@@ -0,0 +1,221 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.referencedata;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.openlmis.requisition.service.ServiceResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps reference data resources in memory, so the same resource is not retrieved from the
+ * reference data service on every request. Each entry is fresh for the configured time to live.
+ * After that the entry is revalidated with its ETag; if the resource has not been modified, the
+ * cached value is used for another time to live period. When the cache is full the least
+ * recently used entry is evicted. Entries of resources that never change, like versioned
+ * orderables, can be cached without time limit by using a negative time to live.
+ *
+ * <p>Cached resources are shared by all callers, so they must not be changed.
+ *
+ * @param <K> type of the resource key
+ * @param <V> type of the resource
+ */
+public class ReferenceDataCache<K, V> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReferenceDataCache.class);
+
+  private final String name;
+  private final Duration timeToLive;
+  private final Clock clock;
+  private final Map<K, CacheEntry> entries;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder revalidations = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Creates a new cache.
+   *
+   * @param name       name of the cached resource, used in logs
+   * @param timeToLive how long an entry is used without revalidation, negative means forever
+   * @param maxSize    max number of entries in the cache
+   * @param clock      clock used to check if an entry is still fresh
+   */
+  public ReferenceDataCache(String name, Duration timeToLive, int maxSize, Clock clock) {
+    this.name = name;
+    this.timeToLive = timeToLive;
+    this.clock = clock;
+    this.entries = new LinkedHashMap<K, CacheEntry>(16, 0.75f, true) {
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, CacheEntry> eldest) {
+        if (size() > maxSize) {
+          evictions.increment();
+          return true;
+        }
+
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Returns the resource with the given key. The loader is called with the ETag of the cached
+   * entry (or {@code null} if there is no entry) when the resource is not cached yet or the
+   * cached entry is no longer fresh. Resources that were not found are not cached.
+   *
+   * @param key    key of the resource
+   * @param loader retrieves the resource, sending the given ETag in the If-None-Match header
+   * @return the resource or {@code null} if it does not exist
+   */
+  public V get(K key, Function<String, ServiceResponse<V>> loader) {
+    CacheEntry entry;
+
+    synchronized (entries) {
+      entry = entries.get(key);
+    }
+
+    Instant now = clock.instant();
+
+    if (null != entry && entry.isFresh(now)) {
+      hits.increment();
+      return entry.value;
+    }
+
+    // the remote call is made outside of the lock; in the worst case the same resource
+    // is retrieved twice by concurrent requests
+    ServiceResponse<V> response = loader.apply(null == entry ? null : entry.etag);
+
+    if (null != entry && !response.isModified()) {
+      LOGGER.debug("{} {} has not been modified", name, key);
+      revalidations.increment();
+      store(key, new CacheEntry(entry.value, entry.etag, now));
+      return entry.value;
+    }
+
+    misses.increment();
+    V value = response.getBody();
+
+    if (null == value) {
+      remove(key);
+    } else {
+      store(key, new CacheEntry(value, response.getETag(), now));
+    }
+
+    return value;
+  }
+
+  /**
+   * Adds the given resource to the cache.
+   *
+   * @param key   key of the resource
+   * @param value the resource
+   */
+  public void put(K key, V value) {
+    store(key, new CacheEntry(value, null, clock.instant()));
+  }
+
+  /**
+   * Returns the resource with the given key if it is cached and fresh.
+   *
+   * @param key key of the resource
+   * @return the resource or {@code null} if it should be retrieved again
+   */
+  public V getIfPresent(K key) {
+    CacheEntry entry;
+
+    synchronized (entries) {
+      entry = entries.get(key);
+    }
+
+    if (null != entry && entry.isFresh(clock.instant())) {
+      hits.increment();
+      return entry.value;
+    }
+
+    misses.increment();
+    return null;
+  }
+
+  /**
+   * Removes all entries from the cache.
+   */
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  /**
+   * Returns the number of entries in the cache, including entries that are no longer fresh.
+   */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  public long getRevalidationCount() {
+    return revalidations.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  private void store(K key, CacheEntry entry) {
+    synchronized (entries) {
+      entries.put(key, entry);
+    }
+  }
+
+  private void remove(K key) {
+    synchronized (entries) {
+      entries.remove(key);
+    }
+  }
+
+  private final class CacheEntry {
+    private final V value;
+    private final String etag;
+    private final Instant loadedAt;
+
+    CacheEntry(V value, String etag, Instant loadedAt) {
+      this.value = value;
+      this.etag = etag;
+      this.loadedAt = loadedAt;
+    }
+
+    boolean isFresh(Instant now) {
+      return timeToLive.isNegative() || now.isBefore(loadedAt.plus(timeToLive));
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.referencedata;
+
+import java.time.Clock;
+import java.time.Duration;
+import org.openlmis.requisition.dto.VersionIdentityDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates reference data caches. The time to live (in seconds) and max size of each cache can be
+ * set with the {@code referencedata.cache.<name>.ttl} and
+ * {@code referencedata.cache.<name>.maxSize} properties; if they are not set the
+ * {@code referencedata.cache.ttl} and {@code referencedata.cache.maxSize} defaults are used.
+ * Caches of versioned resources never expire and their default max size is set with the
+ * {@code referencedata.cache.versioned.maxSize} property.
+ */
+@Component
+public class ReferenceDataCacheFactory {
+
+  private static final String PREFIX = "referencedata.cache.";
+  private static final String TTL = "ttl";
+  private static final String MAX_SIZE = "maxSize";
+  private static final String VERSIONED = "versioned.";
+
+  @Autowired
+  private Environment env;
+
+  @Autowired
+  private Clock clock;
+
+  /**
+   * Creates a new cache for the given resource.
+   *
+   * @param name name of the resource, for example {@code facilities}
+   * @param <K>  type of the resource key
+   * @param <V>  type of the resource
+   * @return new cache or {@code null} if the max size of the cache is set to zero
+   */
+  public <K, V> ReferenceDataCache<K, V> create(String name) {
+    long ttl = getProperty(name, TTL);
+    int maxSize = (int) getProperty(name, MAX_SIZE);
+
+    if (maxSize <= 0) {
+      return null;
+    }
+
+    return new ReferenceDataCache<>(name, Duration.ofSeconds(ttl), maxSize, clock);
+  }
+
+  /**
+   * Creates a new cache for the given versioned resource. Entries of the cache are never
+   * revalidated, because a resource with the given id and version number never changes.
+   *
+   * @param name name of the resource, for example {@code orderables}
+   * @param <V>  type of the resource
+   * @return new cache or {@code null} if the max size of the cache is set to zero
+   */
+  public <V> ReferenceDataCache<VersionIdentityDto, V> createVersioned(String name) {
+    Long defaultMaxSize = env.getRequiredProperty(PREFIX + VERSIONED + MAX_SIZE, Long.class);
+    int maxSize = env.getProperty(PREFIX + name + '.' + MAX_SIZE, Long.class, defaultMaxSize)
+        .intValue();
+
+    if (maxSize <= 0) {
+      return null;
+    }
+
+    return new ReferenceDataCache<>(name, Duration.ofSeconds(-1), maxSize, clock);
+  }
+
+  private long getProperty(String name, String property) {
+    Long defaultValue = env.getRequiredProperty(PREFIX + property, Long.class);
+    return env.getProperty(PREFIX + name + '.' + property, Long.class, defaultValue);
+  }
+}
@@ -29,6 +29,11 @@ public class ScheduleReferenceDataService extends BaseReferenceDataService<Proce
     return "/api/processingSchedules/";
   }
 
+  @Override
+  protected String getCacheName() {
+    return "processingSchedules";
+  }
+
   @Override
   protected Class<ProcessingScheduleDto> getResultClass() {
     return ProcessingScheduleDto.class;
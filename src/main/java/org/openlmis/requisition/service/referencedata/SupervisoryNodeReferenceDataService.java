@@ -33,6 +33,11 @@ public class SupervisoryNodeReferenceDataService
     return "/api/supervisoryNodes/";
   }
 
+  @Override
+  protected String getCacheName() {
+    return "supervisoryNodes";
+  }
+
   @Override
   protected Class<SupervisoryNodeDto> getResultClass() {
     return SupervisoryNodeDto.class;
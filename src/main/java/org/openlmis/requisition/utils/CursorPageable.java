@@ -0,0 +1,128 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.utils;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_INVALID_CURSOR_FORMAT;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+import org.openlmis.requisition.exception.ValidationMessageException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+
+/**
+ * Describes a page of results that starts right after the last element of the previous page,
+ * instead of skipping all elements of the previous pages. Elements are sorted by their created
+ * date and id, so the position of the previous page is passed as an opaque cursor that
+ * contains those two values. An empty cursor means the first page.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public final class CursorPageable {
+
+  public static final String CURSOR = "cursor";
+
+  private static final String CREATED_DATE = "createdDate";
+  private static final String ID = "id";
+
+  private static final String SEPARATOR = "_";
+
+  private final ZonedDateTime createdDate;
+  private final UUID id;
+  private final int pageSize;
+  private final Direction direction;
+
+  private CursorPageable(ZonedDateTime createdDate, UUID id, int pageSize, Direction direction) {
+    this.createdDate = createdDate;
+    this.id = id;
+    this.pageSize = pageSize;
+    this.direction = direction;
+  }
+
+  /**
+   * Creates a new instance based on the given cursor and pageable. Only the page size and the
+   * direction of the created date sort order are taken from the pageable; the page number and
+   * other sort properties are ignored.
+   *
+   * @param cursor   the cursor returned with the previous page, empty for the first page
+   * @param pageable pageable with the page size and created date sort direction
+   * @return new instance of {@link CursorPageable}
+   * @throws ValidationMessageException if the cursor has wrong format
+   */
+  public static CursorPageable of(String cursor, Pageable pageable) {
+    Sort.Order order = null == pageable || null == pageable.getSort()
+        ? null
+        : pageable.getSort().getOrderFor(CREATED_DATE);
+    Direction direction = null == order ? Direction.ASC : order.getDirection();
+    int pageSize = Pagination.getPageSize(pageable);
+
+    if (StringUtils.isBlank(cursor)) {
+      return new CursorPageable(null, null, pageSize, direction);
+    }
+
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), UTF_8);
+      String[] values = decoded.split(SEPARATOR, 2);
+
+      ZonedDateTime createdDate = ZonedDateTime.ofInstant(Instant.parse(values[0]), ZoneOffset.UTC);
+      UUID id = UUID.fromString(values[1]);
+
+      return new CursorPageable(createdDate, id, pageSize, direction);
+    } catch (IllegalArgumentException | DateTimeParseException
+        | ArrayIndexOutOfBoundsException cause) {
+      throw new ValidationMessageException(new Message(ERROR_INVALID_CURSOR_FORMAT, cursor), cause);
+    }
+  }
+
+  /**
+   * Creates a cursor that points to the element with the given created date and id.
+   *
+   * @param createdDate created date of the last element of a page
+   * @param id          id of the last element of a page
+   * @return an opaque cursor that can be sent to get the next page
+   */
+  public static String toCursor(ZonedDateTime createdDate, UUID id) {
+    String value = createdDate.toInstant() + SEPARATOR + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(UTF_8));
+  }
+
+  public boolean isFirst() {
+    return null == createdDate || null == id;
+  }
+
+  public boolean isAscending() {
+    return direction.isAscending();
+  }
+
+  /**
+   * Returns a pageable that describes the size and sort order of pages found with this cursor.
+   */
+  public Pageable toPageable() {
+    return new PageRequest(Pagination.DEFAULT_PAGE_NUMBER, pageSize, direction, CREATED_DATE, ID);
+  }
+}
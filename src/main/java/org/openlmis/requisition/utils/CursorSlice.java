@@ -0,0 +1,49 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.utils;
+
+import java.util.List;
+import org.springframework.data.domain.SliceImpl;
+
+/**
+ * A slice of results found with a {@link CursorPageable}. It does not contain the total number
+ * of elements, so it can be found without counting all matching elements. The cursor of the
+ * next slice is {@code null} if this is the last slice.
+ *
+ * @param <T> type of the content
+ */
+public final class CursorSlice<T> extends SliceImpl<T> {
+
+  private static final long serialVersionUID = -1727430718324512380L;
+
+  private final String nextCursor;
+
+  /**
+   * Creates a new slice.
+   *
+   * @param content    the content of this slice
+   * @param pageable   the cursor pageable used to find the content
+   * @param nextCursor the cursor of the next slice, {@code null} if there are no more elements
+   */
+  public CursorSlice(List<T> content, CursorPageable pageable, String nextCursor) {
+    super(content, pageable.toPageable(), null != nextCursor);
+    this.nextCursor = nextCursor;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+}
@@ -113,11 +113,24 @@ public class RequisitionExportHelper {
     }
 
     profiler.start("CONVERT_LINE_ITEMS_TO_DTOS");
+    // the keys are only used for lookups, so the same instances are reused for all line items
+    VersionIdentityDto orderableKey = new VersionIdentityDto();
+    VersionIdentityDto approvedProductKey = new VersionIdentityDto();
+
     List<RequisitionLineItemDto> requisitionLineItemDtos =
         new ArrayList<>(requisitionLineItems.size());
     for (RequisitionLineItem lineItem : requisitionLineItems) {
-      requisitionLineItemDtos.add(exportToDto(lineItem, orderablesForLines,
-          approvedProductsForLines, batch));
+      OrderableDto orderableDto = get(orderablesForLines, orderableKey,
+          lineItem.getOrderable());
+      ApprovedProductDto approvedProductDto = get(approvedProductsForLines, approvedProductKey,
+          lineItem.getFacilityTypeApprovedProduct());
+
+      RequisitionLineItemDto dto = batch
+          ? new BatchApproveRequisitionLineItemDto()
+          : new RequisitionLineItemDto();
+      lineItem.export(dto, orderableDto, approvedProductDto);
+
+      requisitionLineItemDtos.add(dto);
     }
 
     profiler.stop().log();
@@ -125,36 +138,11 @@ public class RequisitionExportHelper {
     return requisitionLineItemDtos;
   }
 
+  private static <T> T get(Map<VersionIdentityDto, T> values, VersionIdentityDto key,
+      VersionEntityReference reference) {
+    key.setId(reference.getId());
+    key.setVersionNumber(reference.getVersionNumber());
 
-  private RequisitionLineItemDto exportToDto(RequisitionLineItem requisitionLineItem,
-      Map<VersionIdentityDto, OrderableDto> orderables,
-      Map<VersionIdentityDto, ApprovedProductDto> approvedProducts,
-      boolean batch) {
-    XLOGGER.entry(requisitionLineItem, orderables);
-    Profiler profiler = new Profiler("EXPORT_LINE_ITEM_TO_DTO");
-    profiler.setLogger(XLOGGER);
-
-    profiler.start("GET_LINE_ITEM_ORDERABLE_FROM_ORDERABLES");
-    final OrderableDto orderableDto = orderables
-        .get(new VersionIdentityDto(requisitionLineItem.getOrderable()));
-
-    profiler.start("GET_LINE_ITEM_APPROVED_PRODUCT_FROM_APPROVED_PRODUCTS");
-    final ApprovedProductDto approvedProductDto = approvedProducts
-        .get(new VersionIdentityDto(requisitionLineItem.getFacilityTypeApprovedProduct()));
-
-    profiler.start("CONSTRUCT_REQUISITION_LINE_ITEM_DTO");
-    RequisitionLineItemDto dto;
-    if (batch) {
-      dto = new BatchApproveRequisitionLineItemDto();
-    } else {
-      dto = new RequisitionLineItemDto();
-    }
-
-    profiler.start("EXPORT_TO_DTO");
-    requisitionLineItem.export(dto, orderableDto, approvedProductDto);
-
-    profiler.stop().log();
-    XLOGGER.exit(dto);
-    return dto;
+    return values.get(key);
   }
 }
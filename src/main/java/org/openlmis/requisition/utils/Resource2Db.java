@@ -21,7 +21,10 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.charset.Charset;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -34,12 +37,14 @@ import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.apache.commons.io.ByteOrderMark;
 import org.apache.commons.io.input.BOMInputStream;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
-import org.apache.commons.lang3.tuple.MutablePair;
-import org.apache.commons.lang3.tuple.Pair;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
 import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
 import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.util.StreamUtils;
 
@@ -52,6 +57,8 @@ import org.springframework.util.StreamUtils;
 public class Resource2Db {
   private static final XLogger XLOGGER = XLoggerFactory.getXLogger(Resource2Db.class);
 
+  static final int INSERT_BATCH_SIZE = 1000;
+
   private final JdbcTemplate template;
 
   /**
@@ -94,7 +101,10 @@ public class Resource2Db {
   }
 
   /**
-   * Insert into the database (a table) from a Resource with CSV data.
+   * Insert into the database (a table) from a Resource with CSV data. The data is streamed to
+   * the database, so the whole resource is never kept in memory. On PostgreSQL the data is
+   * loaded with the COPY command; on other databases it is inserted in batches of
+   * {@value #INSERT_BATCH_SIZE} rows. Empty values are inserted as {@code null}.
    * @param tableName the name of the table (incl schema) to load the data into.
    * @param resource the Resource as a CSV, with a header, that has the data to load.
    * @throws IOException if the Resource can't be used.
@@ -105,8 +115,20 @@ public class Resource2Db {
     XLOGGER.entry(tableName, resource);
     Validate.notBlank(tableName);
     Validate.notNull(resource);
-    insertToDbFromBatchedPair(tableName, resourceCsvToBatchedPair(resource));
-    XLOGGER.exit();
+
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+        new BOMInputStream(resource.getInputStream(), ByteOrderMark.UTF_8)))) {
+      List<String> columns = readCsvHeader(reader);
+      XLOGGER.info("Read header: " + columns);
+
+      Long copied = template.execute((ConnectionCallback<Long>) connection ->
+          copyToDb(connection, tableName, columns, reader));
+      long inserted = null == copied
+          ? insertToDbInBatches(tableName, columns, reader)
+          : copied;
+
+      XLOGGER.exit("Total " + tableName + " inserts: " + inserted);
+    }
   }
 
   /*
@@ -138,39 +160,75 @@ public class Resource2Db {
   }
 
   /*
-   converts a Resource which is a CSV, into a Pair where Pair.left is the SQL column names,
-   and Pair.right is the rows of data which go into those columns (each row is an array, the array
-   matches the order of the columns
+   reads the header row of a CSV - the reader is left at the beginning of the first data row
    */
-  Pair<List<String>, List<Object[]>> resourceCsvToBatchedPair(final Resource resource)
-      throws IOException {
-    XLOGGER.entry(resource.getDescription());
+  private List<String> readCsvHeader(final BufferedReader reader) throws IOException {
+    String header = reader.readLine();
+
+    if (StringUtils.isBlank(header)) {
+      return Collections.emptyList();
+    }
+
+    try (CSVParser parser = CSVParser.parse(header, CSVFormat.DEFAULT)) {
+      return IteratorUtils.toList(parser.iterator().next().iterator());
+    }
+  }
+
+  /*
+   loads CSV data rows with the PostgreSQL COPY command, returns null if the connection is not
+   a PostgreSQL connection
+   */
+  private Long copyToDb(final Connection connection, final String tableName,
+      final List<String> columns, final Reader reader) throws SQLException {
+    if (columns.isEmpty() || !connection.isWrapperFor(BaseConnection.class)) {
+      return null;
+    }
+
+    String copySql = String.format("COPY %s (%s) FROM STDIN WITH (FORMAT csv)",
+        tableName, String.join(",", columns));
+    XLOGGER.info("Copy SQL: " + copySql);
+
+    try {
+      return new CopyManager(connection.unwrap(BaseConnection.class)).copyIn(copySql, reader);
+    } catch (IOException exp) {
+      throw new SQLException("Could not read data of " + tableName, exp);
+    }
+  }
 
-    // parse CSV
-    try (InputStreamReader isReader = new InputStreamReader(
-        new BOMInputStream(resource.getInputStream(), ByteOrderMark.UTF_8))) {
-      CSVParser parser = CSVFormat.DEFAULT.withHeader().withNullString("").parse(isReader);
-
-      // read header row
-      MutablePair<List<String>, List<Object[]>> readData = new MutablePair<>();
-      readData.setLeft(new ArrayList<>(parser.getHeaderMap().keySet()));
-      XLOGGER.info("Read header: " + readData.getLeft());
-
-      // read data rows
-      List<Object[]> rows = new ArrayList<>();
-      for (CSVRecord record : parser.getRecords()) {
-        if (!record.isConsistent()) {
-          throw new IllegalArgumentException("CSV record inconsistent: " + record);
-        }
-
-        List theRow = IteratorUtils.toList(record.iterator());
-        rows.add(theRow.toArray());
+  /*
+   inserts CSV data rows with batch updates, reading only one batch at a time
+   */
+  private long insertToDbInBatches(final String tableName, final List<String> columns,
+      final Reader reader) throws IOException {
+    if (columns.isEmpty()) {
+      return 0;
+    }
+
+    String insertSql = getInsertSql(tableName, columns);
+    XLOGGER.info("Insert SQL: " + insertSql);
+
+    long inserted = 0;
+    List<Object[]> rows = new ArrayList<>(INSERT_BATCH_SIZE);
+    CSVParser parser = CSVFormat.DEFAULT.withNullString("").parse(reader);
+
+    for (CSVRecord record : parser) {
+      if (record.size() != columns.size()) {
+        throw new IllegalArgumentException("CSV record inconsistent: " + record);
       }
-      readData.setRight(rows);
 
-      XLOGGER.exit("Records read: " + readData.getRight().size());
-      return readData;
+      rows.add(IteratorUtils.toList(record.iterator()).toArray());
+
+      if (rows.size() == INSERT_BATCH_SIZE) {
+        inserted += Arrays.stream(template.batchUpdate(insertSql, rows)).sum();
+        rows.clear();
+      }
     }
+
+    if (!rows.isEmpty()) {
+      inserted += Arrays.stream(template.batchUpdate(insertSql, rows)).sum();
+    }
+
+    return inserted;
   }
 
   /*
@@ -187,35 +245,18 @@ public class Resource2Db {
     XLOGGER.exit("Total db updates: " + Arrays.stream(updateCounts).sum());
   }
 
-  /**
-   * Inserts data into a single table.  Given the columns and a list of data to insert, will
-   * run a batch update to insert it.
-   * @param tableName the name of the table (including schema) to insert into.
-   * @param dataWithHeader a pair where pair.left is an ordered list of column names and pair.right
-   *                       is an array of rows to insert, where each row is similarly ordered as
-   *                       the columns in pair.left.
-   */
-  public void insertToDbFromBatchedPair(String tableName,
-                                        Pair<List<String>, List<Object[]>> dataWithHeader) {
-    XLOGGER.entry(tableName);
-
-    String columnDesc = dataWithHeader.getLeft()
+  private String getInsertSql(String tableName, List<String> columns) {
+    String columnDesc = columns
         .stream()
         .collect(joining(","));
-    String valueDesc = dataWithHeader.getLeft()
+    String valueDesc = columns
         .stream()
         .map(s -> "?")
         .collect((joining(",")));
-    String insertSql = String.format("INSERT INTO %s (%s) VALUES (%s)",
+
+    return String.format("INSERT INTO %s (%s) VALUES (%s)",
         tableName,
         columnDesc,
         valueDesc);
-    XLOGGER.info("Insert SQL: " + insertSql);
-
-    List<Object[]> data = dataWithHeader.getRight();
-    data.forEach(e -> XLOGGER.info(tableName + ": " + Arrays.toString(e)));
-    int[] updateCount = template.batchUpdate(insertSql, data);
-
-    XLOGGER.exit("Total " + tableName + " inserts: " + Arrays.stream(updateCount).sum());
   }
 }
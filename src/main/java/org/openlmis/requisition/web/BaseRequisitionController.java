@@ -81,8 +81,8 @@ import org.openlmis.requisition.repository.custom.ProcessedRequestsRedisReposito
 import org.openlmis.requisition.service.PeriodService;
 import org.openlmis.requisition.service.PermissionService;
 import org.openlmis.requisition.service.RequisitionService;
-import org.openlmis.requisition.service.RequisitionStatusProcessor;
 import org.openlmis.requisition.service.RequisitionTemplateService;
+import org.openlmis.requisition.service.StatusChangeNotificationService;
 import org.openlmis.requisition.service.referencedata.ApproveProductsAggregator;
 import org.openlmis.requisition.service.referencedata.ApprovedProductReferenceDataService;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
@@ -109,6 +109,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 
 @SuppressWarnings("PMD.TooManyMethods")
 public abstract class BaseRequisitionController extends BaseController {
@@ -150,7 +151,7 @@ public abstract class BaseRequisitionController extends BaseController {
   SupplyLineReferenceDataService supplyLineReferenceDataService;
 
   @Autowired
-  private RequisitionStatusProcessor requisitionStatusProcessor;
+  private StatusChangeNotificationService statusChangeNotificationService;
 
   @Autowired
   private StockEventStockManagementService stockEventStockManagementService;
@@ -522,6 +523,27 @@ public abstract class BaseRequisitionController extends BaseController {
     extLogger.exit(exitArgs);
   }
 
+  /**
+   * Sets the eTag of the given requisition in the response. If the eTag matches the
+   * If-None-Match header of the request, the status of the response is set to 304 (Not Modified)
+   * and the requisition does not have to be returned.
+   *
+   * @return true if the client already has the current version of the requisition
+   */
+  boolean checkNotModified(Requisition requisition, HttpServletRequest request,
+      HttpServletResponse response, Profiler profiler) {
+    profiler.start("CHECK_NOT_MODIFIED");
+    response.setHeader(HttpHeaders.ETAG, ETagResource.buildWeakETag(requisition.getVersion()));
+
+    if (ETagResource.matchesVersion(request.getHeader(HttpHeaders.IF_NONE_MATCH),
+        requisition.getVersion())) {
+      response.setStatus(HttpStatus.NOT_MODIFIED.value());
+      return true;
+    }
+
+    return false;
+  }
+
   Requisition findRequisition(UUID requisitionId, Profiler profiler) {
     profiler.start("GET_REQUISITION_BY_ID");
     Requisition requisition = findResource(
@@ -600,7 +622,7 @@ public abstract class BaseRequisitionController extends BaseController {
   void callStatusChangeProcessor(Profiler profiler, Requisition requisition) {
     profiler.start("CALL_STATUS_CHANGE_PROCESSOR");
     assignInitialSupervisoryNode(requisition);
-    requisitionStatusProcessor.statusChange(requisition, LocaleContextHolder.getLocale());
+    statusChangeNotificationService.enqueue(requisition, LocaleContextHolder.getLocale());
   }
 
   private void assignInitialSupervisoryNode(Requisition requisition) {
@@ -15,25 +15,23 @@
 
 package org.openlmis.requisition.web;
 
-import static java.util.concurrent.CompletableFuture.runAsync;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static org.apache.commons.lang3.BooleanUtils.isFalse;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_NO_FOLLOWING_PERMISSION;
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_STOCK_EVENT_SUBMISSION_FAILED;
 
 import com.google.common.collect.Lists;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.beanutils.PropertyUtils;
@@ -64,9 +62,12 @@ import org.openlmis.requisition.dto.UserDto;
 import org.openlmis.requisition.dto.VersionIdentityDto;
 import org.openlmis.requisition.errorhandling.ValidationFailure;
 import org.openlmis.requisition.errorhandling.ValidationResult;
+import org.openlmis.requisition.exception.BaseMessageException;
+import org.openlmis.requisition.exception.ExternalApiException;
 import org.openlmis.requisition.i18n.MessageKeys;
 import org.openlmis.requisition.i18n.MessageService;
 import org.openlmis.requisition.service.PermissionService;
+import org.openlmis.requisition.service.RemoteCallExecutor;
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
 import org.openlmis.requisition.service.referencedata.SupervisoryNodeReferenceDataService;
 import org.openlmis.requisition.service.referencedata.UserReferenceDataService;
@@ -75,6 +76,7 @@ import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -105,6 +107,10 @@ public class BatchRequisitionController extends BaseRequisitionController {
   @Autowired
   private PeriodReferenceDataService periodReferenceDataService;
 
+  @Autowired
+  @Qualifier("stockEventExecutor")
+  private RemoteCallExecutor stockEventExecutor;
+
   /**
    * Attempts to retrieve requisitions with the provided UUIDs.
    */
@@ -208,7 +214,7 @@ public class BatchRequisitionController extends BaseRequisitionController {
           facilities, periods, approveParams, approvedProducts);
     }
 
-    submitStockEvent(profiler, user, requisitions, orderables);
+    submitStockEvents(profiler, user, requisitions, orderables, processingStatus);
 
     ResponseEntity<RequisitionsProcessingStatusDto> response =
         buildResponse(processingStatus, profiler, HttpStatus.OK);
@@ -421,21 +427,38 @@ public class BatchRequisitionController extends BaseRequisitionController {
     return ValidationResult.success();
   }
 
-  private void submitStockEvent(Profiler profiler, UserDto user, List<Requisition> requisitions,
-      Map<VersionIdentityDto, OrderableDto> orderables) {
-    profiler.start("SEND_STOCK_EVENT");
-    ExecutorService executor = Executors.newFixedThreadPool(requisitions.size());
-    List<CompletableFuture<Void>> futures = Lists.newArrayList();
-    try {
-      for (Requisition requisition : requisitions) {
-        CompletableFuture<Void> future = runAsync(
-            () -> submitStockEvent(requisition, user.getId(), orderables), executor);
-        futures.add(future);
+  private void submitStockEvents(Profiler profiler, UserDto user, List<Requisition> requisitions,
+      Map<VersionIdentityDto, OrderableDto> orderables,
+      RequisitionsProcessingStatusDto processingStatus) {
+    profiler.start("SEND_STOCK_EVENTS");
+    Map<UUID, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+    for (Requisition requisition : requisitions) {
+      futures.put(requisition.getId(), stockEventExecutor.runAsync("SUBMIT_STOCK_EVENT",
+          () -> submitStockEvent(requisition, user.getId(), orderables)));
+    }
+
+    profiler.start("JOIN_RESULTS");
+    futures.forEach((requisitionId, future) -> {
+      try {
+        RemoteCallExecutor.join(future);
+      } catch (RuntimeException exp) {
+        XLOGGER.warn("Unable to submit stock event for requisition {}", requisitionId, exp);
+        processingStatus.addProcessingError(new RequisitionErrorMessage(requisitionId,
+            localizeMessage(getStockEventErrorMessage(exp))));
       }
-    } finally {
-      profiler.start("JOIN_RESULTS");
-      futures.forEach(CompletableFuture::join);
+    });
+  }
+
+  private Message getStockEventErrorMessage(RuntimeException exp) {
+    if (exp instanceof BaseMessageException) {
+      return ((BaseMessageException) exp).asMessage();
     }
+
+    String reason = exp instanceof ExternalApiException
+        ? ((ExternalApiException) exp).getMessageLocalized().getMessage()
+        : exp.getMessage();
+
+    return new Message(ERROR_STOCK_EVENT_SUBMISSION_FAILED, reason);
   }
 
   private Requisition buildRequisition(ApproveRequisitionDto dto, Requisition requisitionToUpdate,
@@ -455,13 +478,18 @@ public class BatchRequisitionController extends BaseRequisitionController {
   }
 
   private Requisition updateOne(ApproveRequisitionDto dto, Requisition requisition) {
+    Map<UUID, RequisitionLineItem> originals = new HashMap<>();
+
+    for (RequisitionLineItem original : requisition.getRequisitionLineItems()) {
+      originals.putIfAbsent(original.getId(), original);
+    }
+
     for (ApproveRequisitionLineItemDto line : dto.getRequisitionLineItems()) {
-      requisition
-          .getRequisitionLineItems()
-          .stream()
-          .filter(original -> Objects.equals(original.getId(), line.getId()))
-          .findFirst()
-          .ifPresent(original -> original.setApprovedQuantity(line.getApprovedQuantity()));
+      RequisitionLineItem original = originals.get(line.getId());
+
+      if (null != original) {
+        original.setApprovedQuantity(line.getApprovedQuantity());
+      }
     }
     requisition.setModifiedDate(dto.getModifiedDate());
     setNullForCalculatedFields(requisition);
@@ -488,11 +516,17 @@ public class BatchRequisitionController extends BaseRequisitionController {
   }
 
   private void setNullForCalculatedFields(Requisition requisition) {
+    List<RequisitionTemplateColumn> columns = requisition
+        .getTemplate()
+        .viewColumns()
+        .values()
+        .stream()
+        .filter(this::getColumnDisplayConditions)
+        .collect(toList());
+
     for (RequisitionLineItem lineItem : requisition.getRequisitionLineItems()) {
-      for (RequisitionTemplateColumn column : requisition.getTemplate().viewColumns().values()) {
-        if (getColumnDisplayConditions(column)) {
-          setNullForField(lineItem, column);
-        }
+      for (RequisitionTemplateColumn column : columns) {
+        setNullForField(lineItem, column);
       }
     }
   }
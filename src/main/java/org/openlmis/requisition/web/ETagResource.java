@@ -17,12 +17,14 @@ package org.openlmis.requisition.web;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
 
 @Getter
 @Setter
 public class ETagResource<T> {
 
   private static final String WEAK_E_TAG_PREFIX = "W/";
+  private static final String ANY_E_TAG = "*";
 
   private T resource;
   private String etag;
@@ -61,4 +63,38 @@ public class ETagResource<T> {
       return Long.valueOf(etag);
     }
   }
+
+  /**
+   * Checks if the value of the If-None-Match header contains an eTag of the given version.
+   * Supports both weak and strong eTags, quoted or not, and the "*" wildcard.
+   *
+   * @param ifNoneMatch value of the If-None-Match header, may be null
+   * @param version     current version of the resource
+   * @return true if the client already has the given version of the resource
+   */
+  public static boolean matchesVersion(String ifNoneMatch, Long version) {
+    if (null == ifNoneMatch || null == version) {
+      return false;
+    }
+
+    String expected = version.toString();
+
+    for (String etag : ifNoneMatch.split(",")) {
+      String value = etag.trim();
+
+      if (ANY_E_TAG.equals(value)) {
+        return true;
+      }
+
+      if (value.startsWith(WEAK_E_TAG_PREFIX)) {
+        value = value.substring(WEAK_E_TAG_PREFIX.length());
+      }
+
+      if (expected.equals(StringUtils.strip(value, "\""))) {
+        return true;
+      }
+    }
+
+    return false;
+  }
 }
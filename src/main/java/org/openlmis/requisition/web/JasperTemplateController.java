@@ -26,6 +26,7 @@ import org.openlmis.requisition.exception.JasperReportViewException;
 import org.openlmis.requisition.exception.ReportingException;
 import org.openlmis.requisition.i18n.MessageKeys;
 import org.openlmis.requisition.repository.JasperTemplateRepository;
+import org.openlmis.requisition.service.JasperReportCache;
 import org.openlmis.requisition.service.JasperReportsViewService;
 import org.openlmis.requisition.service.JasperTemplateService;
 import org.openlmis.requisition.service.PermissionService;
@@ -69,6 +70,9 @@ public class JasperTemplateController extends BaseController {
   @Autowired
   private PermissionService permissionService;
 
+  @Autowired
+  private JasperReportCache jasperReportCache;
+
   @Value("${dateTimeFormat}")
   private String dateTimeFormat;
 
@@ -99,6 +103,7 @@ public class JasperTemplateController extends BaseController {
       LOGGER.debug("Template found, updating template");
       jasperTemplateToUpdate.setDescription(description);
       jasperTemplateService.validateFileAndSaveTemplate(jasperTemplateToUpdate, file);
+      jasperReportCache.evict(jasperTemplateToUpdate.getId());
     }
 
     LOGGER.debug("Saved template with id: " + jasperTemplateToUpdate.getId());
@@ -155,6 +160,7 @@ public class JasperTemplateController extends BaseController {
           MessageKeys.ERROR_JASPER_TEMPLATE_NOT_FOUND, templateId));
     } else {
       jasperTemplateRepository.delete(jasperTemplate);
+      jasperReportCache.evict(templateId);
     }
   }
 
@@ -19,15 +19,16 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.openlmis.requisition.domain.requisition.Requisition;
-import org.openlmis.requisition.domain.requisition.RequisitionStatus;
-import org.openlmis.requisition.domain.requisition.StatusChange;
+import org.openlmis.requisition.domain.requisition.RequisitionCompletion;
 import org.openlmis.requisition.dto.GeographicZoneDto;
 import org.openlmis.requisition.dto.MinimalFacilityDto;
 import org.openlmis.requisition.dto.ProcessingPeriodDto;
@@ -45,7 +46,6 @@ import org.springframework.stereotype.Component;
 public class ReportingRateReportDtoBuilder {
   private static int LATEST_PERIODS = 3;
   private static int GEOGRAPHIC_ZONE_LEVEL = 3;
-  private static RequisitionStatus REQUIRED_STATUS = RequisitionStatus.APPROVED;
 
   @Autowired
   private PeriodReferenceDataService periodReferenceDataService;
@@ -73,22 +73,54 @@ public class ReportingRateReportDtoBuilder {
 
     Collection<ProcessingPeriodDto> periods = getLatestPeriods(period, LATEST_PERIODS);
     Collection<GeographicZoneDto> zones = getAvailableGeographicZones(zone);
-    Collection<MinimalFacilityDto> facilities = getAvailableFacilities(zones);
 
-    report.setCompletionByPeriod(getCompletionsByPeriod(program, periods, facilities, dueDays));
-    report.setCompletionByZone(getCompletionsByZone(program, periods, zones, dueDays));
+    Map<GeographicZoneDto, Collection<MinimalFacilityDto>> facilitiesByZone = new LinkedHashMap<>();
+    List<MinimalFacilityDto> facilities = new ArrayList<>();
+    for (GeographicZoneDto availableZone : zones) {
+      Collection<MinimalFacilityDto> zoneFacilities =
+          getAvailableFacilities(Collections.singletonList(availableZone));
+      facilitiesByZone.put(availableZone, zoneFacilities);
+      facilities.addAll(zoneFacilities);
+    }
+
+    Map<UUID, Map<UUID, List<RequisitionCompletion>>> completions =
+        getRequisitionCompletions(program, periods, facilities);
+
+    report.setCompletionByPeriod(
+        getCompletionsByPeriod(periods, facilities, completions, dueDays));
+    report.setCompletionByZone(
+        getCompletionsByZone(periods, facilitiesByZone, completions, dueDays));
 
     return report;
   }
 
-  private List<RequisitionCompletionDto> getCompletionsByPeriod(
+  private Map<UUID, Map<UUID, List<RequisitionCompletion>>> getRequisitionCompletions(
       ProgramDto program, Collection<ProcessingPeriodDto> periods,
-      Collection<MinimalFacilityDto> facilities, Integer dueDays) {
+      Collection<MinimalFacilityDto> facilities) {
+    Set<UUID> periodIds = periods
+        .stream()
+        .map(ProcessingPeriodDto::getId)
+        .collect(Collectors.toSet());
+    Set<UUID> facilityIds = facilities
+        .stream()
+        .map(MinimalFacilityDto::getId)
+        .collect(Collectors.toSet());
+
+    return requisitionRepository
+        .searchRequisitionCompletions(program.getId(), periodIds, facilityIds)
+        .stream()
+        .collect(Collectors.groupingBy(RequisitionCompletion::getPeriodId,
+            Collectors.groupingBy(RequisitionCompletion::getFacilityId)));
+  }
+
+  private List<RequisitionCompletionDto> getCompletionsByPeriod(
+      Collection<ProcessingPeriodDto> periods, Collection<MinimalFacilityDto> facilities,
+      Map<UUID, Map<UUID, List<RequisitionCompletion>>> completions, Integer dueDays) {
     List<RequisitionCompletionDto> completionByPeriod = new ArrayList<>();
 
     for (ProcessingPeriodDto period : periods) {
       RequisitionCompletionDto completion = getCompletionForFacilities(
-          program, Collections.singletonList(period), facilities, dueDays);
+          Collections.singletonList(period), facilities, completions, dueDays);
       completion.setGrouping(period.getName());
       completionByPeriod.add(completion);
     }
@@ -97,18 +129,19 @@ public class ReportingRateReportDtoBuilder {
   }
 
   private List<RequisitionCompletionDto> getCompletionsByZone(
-      ProgramDto program, Collection<ProcessingPeriodDto> periods,
-      Collection<GeographicZoneDto> zones, Integer dueDays) {
+      Collection<ProcessingPeriodDto> periods,
+      Map<GeographicZoneDto, Collection<MinimalFacilityDto>> facilitiesByZone,
+      Map<UUID, Map<UUID, List<RequisitionCompletion>>> completions, Integer dueDays) {
     List<RequisitionCompletionDto> completionByZone = new ArrayList<>();
 
-    for (GeographicZoneDto zone : zones) {
-      Collection<MinimalFacilityDto> facilities =
-          getAvailableFacilities(Collections.singletonList(zone));
+    for (Map.Entry<GeographicZoneDto, Collection<MinimalFacilityDto>> entry
+        : facilitiesByZone.entrySet()) {
+      Collection<MinimalFacilityDto> facilities = entry.getValue();
 
       if (!facilities.isEmpty()) {
         RequisitionCompletionDto completion =
-            getCompletionForFacilities(program, periods, facilities, dueDays);
-        completion.setGrouping(zone.getName());
+            getCompletionForFacilities(periods, facilities, completions, dueDays);
+        completion.setGrouping(entry.getKey().getName());
         completionByZone.add(completion);
       }
     }
@@ -121,16 +154,18 @@ public class ReportingRateReportDtoBuilder {
   }
 
   private RequisitionCompletionDto getCompletionForFacilities(
-      ProgramDto program, Collection<ProcessingPeriodDto> periods,
-      Collection<MinimalFacilityDto> facilities, Integer dueDays) {
+      Collection<ProcessingPeriodDto> periods, Collection<MinimalFacilityDto> facilities,
+      Map<UUID, Map<UUID, List<RequisitionCompletion>>> completionsByPeriod, Integer dueDays) {
     CompletionCounter completions = new CompletionCounter();
 
     for (ProcessingPeriodDto period : periods) {
       LocalDate dueDate = period.getEndDate().plusDays(dueDays);
+      Map<UUID, List<RequisitionCompletion>> completionsByFacility = completionsByPeriod
+          .getOrDefault(period.getId(), Collections.emptyMap());
 
       for (MinimalFacilityDto facility : facilities) {
-        List<Requisition> requisitions = requisitionRepository
-            .searchRequisitions(period.getId(), facility.getId(), program.getId(), false);
+        List<RequisitionCompletion> requisitions = completionsByFacility
+            .getOrDefault(facility.getId(), Collections.emptyList());
 
         updateCompletionsWithRequisitions(completions, requisitions, dueDate);
       }
@@ -157,20 +192,18 @@ public class ReportingRateReportDtoBuilder {
   }
 
   void updateCompletionsWithRequisitions(
-      CompletionCounter completions, List<Requisition> requisitions, LocalDate dueDate) {
+      CompletionCounter completions, List<RequisitionCompletion> requisitions,
+      LocalDate dueDate) {
     int missed = completions.getMissed();
     int late = completions.getLate();
     int onTime = completions.getOnTime();
 
     if (!requisitions.isEmpty()) {
-      for (Requisition requisition : requisitions) {
-        Optional<StatusChange> entry = requisition.getStatusChanges().stream()
-            .filter(statusChange -> statusChange.getStatus() == REQUIRED_STATUS)
-            .findFirst();
-        if (!entry.isPresent()) {
+      for (RequisitionCompletion requisition : requisitions) {
+        if (null == requisition.getApprovedDate()) {
           missed++;
         } else {
-          LocalDate submissionDate = entry.get().getCreatedDate().toLocalDate();
+          LocalDate submissionDate = requisition.getApprovedDate().toLocalDate();
           if (submissionDate.isAfter(dueDate)) {
             late++;
           } else {
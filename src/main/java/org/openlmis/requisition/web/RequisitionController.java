@@ -43,15 +43,22 @@ import org.openlmis.requisition.exception.ValidationMessageException;
 import org.openlmis.requisition.i18n.MessageKeys;
 import org.openlmis.requisition.repository.custom.DefaultRequisitionSearchParams;
 import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
+import org.openlmis.requisition.service.DeliveredNotifications;
+import org.openlmis.requisition.service.ReferenceDataMemo;
 import org.openlmis.requisition.service.RequisitionStatusNotifier;
 import org.openlmis.requisition.service.referencedata.SupervisoryNodeReferenceDataService;
+import org.openlmis.requisition.utils.CursorPageable;
+import org.openlmis.requisition.utils.CursorSlice;
 import org.openlmis.requisition.utils.Message;
 import org.openlmis.requisition.utils.Pagination;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.web.SortDefault;
 import org.springframework.http.HttpHeaders;
@@ -68,12 +75,15 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.client.HttpStatusCodeException;
 
 @SuppressWarnings("PMD.TooManyMethods")
 @Controller
 @Transactional
 public class RequisitionController extends BaseRequisitionController {
 
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(RequisitionController.class);
+
   private static final String BUILD_DTO_LIST = "BUILD_DTO_LIST";
 
   @Autowired
@@ -275,16 +285,21 @@ public class RequisitionController extends BaseRequisitionController {
    * Get chosen requisition.
    *
    * @param requisitionId UUID of requisition whose we want to get
-   * @return Requisition.
+   * @return Requisition or nothing if the client already has its current version.
    */
   @GetMapping(RESOURCE_URL + "/{id}")
-  @ResponseStatus(HttpStatus.OK)
   @ResponseBody
   public RequisitionDto getRequisition(@PathVariable("id") UUID requisitionId,
-      HttpServletResponse response) {
+      HttpServletRequest request, HttpServletResponse response) {
     Profiler profiler = getProfiler("GET_REQUISITION", requisitionId);
     Requisition requisition = findRequisition(requisitionId, profiler);
     checkPermission(profiler, () -> permissionService.canViewRequisition(requisition));
+
+    if (checkNotModified(requisition, request, response, profiler)) {
+      stopProfiler(profiler);
+      return null;
+    }
+
     RequisitionDto requisitionDto = buildDto(
         profiler, requisition,
         findOrderables(profiler, requisition::getAllOrderables),
@@ -296,26 +311,46 @@ public class RequisitionController extends BaseRequisitionController {
 
     stopProfiler(profiler, requisitionDto);
 
-    response.setHeader(HttpHeaders.ETAG, ETagResource.buildWeakETag(requisition.getVersion()));
     return requisitionDto;
   }
 
   /**
-   * Finds requisitions matching all of the provided parameters.
+   * Finds requisitions matching all of the provided parameters. If the cursor parameter is
+   * present, the page starts after the requisition pointed by the cursor and matching
+   * requisitions are not counted.
    */
   @GetMapping(RESOURCE_URL + "/search")
   @ResponseStatus(HttpStatus.OK)
   @ResponseBody
-  public Page<BasicRequisitionDto> searchRequisitions(
+  public Slice<BasicRequisitionDto> searchRequisitions(
       @RequestParam MultiValueMap<String, String> queryParams,
+      @RequestParam(value = CursorPageable.CURSOR, required = false) String cursor,
       Pageable pageable) {
 
     RequisitionSearchParams params = new QueryRequisitionSearchParams(queryParams);
 
     Profiler profiler = getProfiler("REQUISITIONS_SEARCH", params);
 
+    if (null != cursor) {
+      CursorPageable cursorPageable = CursorPageable.of(cursor, pageable);
+
+      profiler.start("REQUISITION_SERVICE_SEARCH_BY_CURSOR");
+      CursorSlice<Requisition> requisitionSlice = requisitionService
+          .searchRequisitionHeaders(params, cursorPageable);
+
+      profiler.start("REQUISITION_DTO_BUILD");
+      CursorSlice<BasicRequisitionDto> requisitionDtoSlice = new CursorSlice<>(
+          basicRequisitionDtoBuilder.build(requisitionSlice.getContent()),
+          cursorPageable,
+          requisitionSlice.getNextCursor());
+
+      stopProfiler(profiler, requisitionDtoSlice);
+      return requisitionDtoSlice;
+    }
+
     profiler.start("REQUISITION_SERVICE_SEARCH");
-    Page<Requisition> requisitionPage = requisitionService.searchRequisitions(params, pageable);
+    Page<Requisition> requisitionPage = requisitionService
+        .searchRequisitionHeaders(params, pageable);
 
     profiler.start("REQUISITION_DTO_BUILD");
     Page<BasicRequisitionDto> requisitionDtoPage = Pagination.getPage(
@@ -390,8 +425,14 @@ public class RequisitionController extends BaseRequisitionController {
     callStatusChangeProcessor(profiler, rejectedRequisition);
 
     profiler.start("NOTIFY_STATUS_CHANGED");
-    requisitionStatusNotifier
-        .notifyStatusChanged(rejectedRequisition, LocaleContextHolder.getLocale());
+    try {
+      requisitionStatusNotifier.notifyStatusChanged(rejectedRequisition,
+          LocaleContextHolder.getLocale(), new ReferenceDataMemo(), new DeliveredNotifications());
+    } catch (HttpStatusCodeException exp) {
+      // the requisition is rejected even if its initiator could not be notified
+      XLOGGER.warn("Could not notify about rejection of requisition {}",
+          rejectedRequisition.getId(), exp);
+    }
 
     BasicRequisitionDto dto = buildBasicDto(profiler, rejectedRequisition);
 
@@ -460,12 +501,30 @@ public class RequisitionController extends BaseRequisitionController {
   @GetMapping(RESOURCE_URL + "/requisitionsForApproval")
   @ResponseStatus(HttpStatus.OK)
   @ResponseBody
-  public Page<BasicRequisitionDto> requisitionsForApproval(
+  public Slice<BasicRequisitionDto> requisitionsForApproval(
       @RequestParam(value = "program", required = false) UUID programId,
+      @RequestParam(value = CursorPageable.CURSOR, required = false) String cursor,
       Pageable pageable) {
     Profiler profiler = getProfiler("REQUISITIONS_FOR_APPROVAL", programId, pageable);
     UserDto user = getCurrentUser(profiler);
 
+    if (null != cursor) {
+      CursorPageable cursorPageable = CursorPageable.of(cursor, pageable);
+
+      profiler.start("REQUISITION_SERVICE_GET_FOR_APPROVAL_BY_CURSOR");
+      CursorSlice<Requisition> approvalRequisitions = requisitionService
+          .getRequisitionsForApproval(user, programId, cursorPageable);
+
+      profiler.start(BUILD_DTO_LIST);
+      CursorSlice<BasicRequisitionDto> dtoSlice = new CursorSlice<>(
+          basicRequisitionDtoBuilder.build(approvalRequisitions.getContent()),
+          cursorPageable,
+          approvalRequisitions.getNextCursor());
+
+      stopProfiler(profiler);
+      return dtoSlice;
+    }
+
     profiler.start("REQUISITION_SERVICE_GET_FOR_APPROVAL");
     Page<Requisition> approvalRequisitions = requisitionService
         .getRequisitionsForApproval(user, programId, pageable);
@@ -249,10 +249,13 @@ public class RequisitionDtoBuilder {
     requisitionDto.setTemplate(
         BasicRequisitionTemplateDto.newInstance(requisition.getTemplate()));
 
+    FacilityDto facilityDto = null;
     if (facility != null) {
-      facility.setSupportedPrograms(null);
+      // the facility can be shared through the reference data cache, so it is not changed
+      facilityDto = FacilityDto.newInstance(facility);
+      facilityDto.setSupportedPrograms(null);
     }
-    requisitionDto.setFacility(facility);
+    requisitionDto.setFacility(facilityDto);
     if (period != null) {
       requisitionDto.setProcessingPeriod(period);
     } else {
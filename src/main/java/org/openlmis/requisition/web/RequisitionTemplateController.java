@@ -28,6 +28,7 @@ import org.openlmis.requisition.i18n.MessageKeys;
 import org.openlmis.requisition.repository.AvailableRequisitionColumnRepository;
 import org.openlmis.requisition.repository.RequisitionRepository;
 import org.openlmis.requisition.repository.RequisitionTemplateRepository;
+import org.openlmis.requisition.service.JasperReportCache;
 import org.openlmis.requisition.service.PermissionService;
 import org.openlmis.requisition.utils.Message;
 import org.openlmis.requisition.validate.RequisitionTemplateDtoValidator;
@@ -69,6 +70,9 @@ public class RequisitionTemplateController extends BaseController {
   @Autowired
   private AvailableRequisitionColumnRepository availableRequisitionColumnRepository;
 
+  @Autowired
+  private JasperReportCache jasperReportCache;
+
   /**
    * Allows creating a new Requisition Template.
    * If the id is specified, it will be ignored.
@@ -161,6 +165,7 @@ public class RequisitionTemplateController extends BaseController {
     }
 
     toSave = requisitionTemplateRepository.save(toSave);
+    jasperReportCache.evict(requisitionTemplateId);
 
     LOGGER.debug("Saved requisitionTemplate with id: " + toSave.getId());
 
@@ -214,6 +219,7 @@ public class RequisitionTemplateController extends BaseController {
     }
 
     requisitionTemplateRepository.delete(template);
+    jasperReportCache.evict(requisitionTemplateId);
   }
 
   private List<String> findColumnNamesWithTagRequired() {
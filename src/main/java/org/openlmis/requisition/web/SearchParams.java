@@ -32,6 +32,7 @@ import lombok.ToString;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.BooleanUtils;
 import org.openlmis.requisition.exception.ValidationMessageException;
+import org.openlmis.requisition.utils.CursorPageable;
 import org.openlmis.requisition.utils.Message;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
@@ -44,6 +45,7 @@ public final class SearchParams {
   private static final String PAGE = "page";
   private static final String SIZE = "size";
   private static final String SORT = "sort";
+  private static final String CURSOR = CursorPageable.CURSOR;
   private static final String ACCESS_TOKEN = "access_token";
 
   private MultiValueMap<String, String> params;
@@ -57,6 +59,7 @@ public final class SearchParams {
       params.remove(PAGE);
       params.remove(SIZE);
       params.remove(SORT);
+      params.remove(CURSOR);
       params.remove(ACCESS_TOKEN);
     } else {
       params = new LinkedMultiValueMap<>();
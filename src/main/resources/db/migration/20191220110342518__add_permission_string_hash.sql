@@ -0,0 +1,15 @@
+-- WHEN COMMITTING OR REVIEWING THIS FILE: Make sure that the timestamp in the file name (that serves as a version) is the latest timestamp, and that no new migration have been added in the meanwhile.
+-- Adding migrations out of order may cause this migration to never execute or behave in an unexpected way.
+-- Migrations should NOT BE EDITED. Add a new migration to apply changes.
+
+ALTER TABLE requisition.requisition_permission_strings
+  ADD COLUMN permissionStringHash uuid;
+
+UPDATE requisition.requisition_permission_strings
+  SET permissionStringHash = md5(permissionString)::uuid;
+
+ALTER TABLE requisition.requisition_permission_strings
+  ALTER COLUMN permissionStringHash SET NOT NULL;
+
+CREATE INDEX req_permission_strings_hash_requisitionid_idx
+  ON requisition.requisition_permission_strings (permissionStringHash, requisitionId);
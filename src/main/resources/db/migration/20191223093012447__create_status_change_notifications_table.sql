@@ -0,0 +1,25 @@
+-- WHEN COMMITTING OR REVIEWING THIS FILE: Make sure that the timestamp in the file name (that serves as a version) is the latest timestamp, and that no new migration have been added in the meanwhile.
+-- Adding migrations out of order may cause this migration to never execute or behave in an unexpected way.
+-- Migrations should NOT BE EDITED. Add a new migration to apply changes.
+
+CREATE TABLE requisition.status_change_notifications (
+    id uuid PRIMARY KEY NOT NULL,
+    createddate timestamp with time zone,
+    modifieddate timestamp with time zone,
+    requisitionid uuid NOT NULL,
+    status character varying(255) NOT NULL,
+    supervisorynodeid uuid,
+    locale character varying(255) NOT NULL,
+    attempts integer NOT NULL DEFAULT 0,
+    nextattemptdate timestamp with time zone,
+    lasterror text,
+    CONSTRAINT status_change_notifications_requisitionid_fkey FOREIGN KEY (requisitionid)
+        REFERENCES requisition.requisitions(id) ON DELETE CASCADE
+);
+
+CREATE INDEX status_change_notifications_nextattemptdate_idx
+  ON requisition.status_change_notifications (nextattemptdate, createddate)
+  WHERE nextattemptdate IS NOT NULL;
+
+CREATE INDEX status_change_notifications_requisitionid_idx
+  ON requisition.status_change_notifications (requisitionid);
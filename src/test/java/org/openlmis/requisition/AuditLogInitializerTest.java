@@ -16,43 +16,44 @@
 package org.openlmis.requisition;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.Lists;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.javers.core.Javers;
-import org.javers.core.metamodel.object.CdoSnapshot;
 import org.javers.repository.jql.JqlQuery;
 import org.javers.spring.annotation.JaversSpringDataAuditable;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
 import org.openlmis.requisition.domain.requisition.Requisition;
 import org.openlmis.requisition.domain.requisition.RequisitionDataBuilder;
 import org.openlmis.requisition.repository.RequisitionRepository;
-import org.powermock.api.mockito.PowerMockito;
-import org.powermock.core.classloader.annotations.PrepareForTest;
-import org.powermock.modules.junit4.PowerMockRunner;
 import org.springframework.context.ApplicationContext;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
-@RunWith(PowerMockRunner.class)
-@PrepareForTest({CdoSnapshot.class})
+@RunWith(MockitoJUnitRunner.class)
 public class AuditLogInitializerTest {
 
+  private static final int BATCH_SIZE = 2;
+
   @Mock
   private ApplicationContext applicationContext;
 
@@ -60,10 +61,10 @@ public class AuditLogInitializerTest {
   private Javers javers;
 
   @Mock
-  private RequisitionRepository requisitionRepository;
+  private PlatformTransactionManager transactionManager;
 
   @Mock
-  private CdoSnapshot snapshot;
+  private RequisitionRepository requisitionRepository;
 
   @Mock
   private TestItemRepository testItemRepository;
@@ -72,9 +73,16 @@ public class AuditLogInitializerTest {
 
   private Map<String, Object> repositoryMap = new HashMap<>();
 
+  private Requisition first = new RequisitionDataBuilder().build();
+  private Requisition second = new RequisitionDataBuilder().build();
+  private Requisition third = new RequisitionDataBuilder().build();
+
   @Before
   public void setUp() {
-    auditLogInitializer = new AuditLogInitializer(applicationContext, javers);
+    auditLogInitializer = new AuditLogInitializer(applicationContext, javers, transactionManager);
+    ReflectionTestUtils.setField(auditLogInitializer, "batchSize", BATCH_SIZE);
+    ReflectionTestUtils.setField(auditLogInitializer, "workers", 1);
+    ReflectionTestUtils.setField(auditLogInitializer, "startAfter", "");
 
     when(applicationContext.getBeansWithAnnotation(JaversSpringDataAuditable.class))
         .thenReturn(repositoryMap);
@@ -93,18 +101,82 @@ public class AuditLogInitializerTest {
   public void shouldNotCreateSecondSnapshot() {
     repositoryMap.put("requisitionRepository", requisitionRepository);
 
-    ArrayList<Requisition> content = Lists.newArrayList(new RequisitionDataBuilder().build());
-    Page<Requisition> page = new PageImpl<>(content);
+    when(requisitionRepository.findIdsWithoutSnapshots(any(UUID.class), anyInt()))
+        .thenReturn(Collections.emptyList());
 
-    when(requisitionRepository.findAllWithoutSnapshots(any(Pageable.class)))
-        .thenReturn(page)
-        .thenReturn(new PageImpl<>(Lists.newArrayList()));
+    auditLogInitializer.run();
 
-    PowerMockito.when(javers.findSnapshots(any(JqlQuery.class)))
-        .thenReturn(Lists.newArrayList(snapshot));
+    verify(javers, never()).commit(anyString(), any());
+    verify(javers, never()).findSnapshots(any(JqlQuery.class));
+  }
+
+  @Test
+  public void shouldCreateSnapshotsInBatches() {
+    repositoryMap.put("requisitionRepository", requisitionRepository);
+    prepareBatches(AuditLogInitializer.FIRST_ID);
 
     auditLogInitializer.run();
-    verify(javers, never()).commit(eq("System: AuditLogInitializer"), any());
+
+    verifySnapshotsCreated();
+    verify(javers, never()).findSnapshots(any(JqlQuery.class));
+  }
+
+  @Test
+  public void shouldCreateSnapshotsConcurrently() {
+    repositoryMap.put("requisitionRepository", requisitionRepository);
+    ReflectionTestUtils.setField(auditLogInitializer, "workers", 2);
+    prepareBatches(AuditLogInitializer.FIRST_ID);
+
+    auditLogInitializer.run();
+
+    verifySnapshotsCreated();
+  }
+
+  @Test
+  public void shouldResumeAfterCheckpoint() {
+    UUID checkpoint = UUID.randomUUID();
+
+    repositoryMap.put("requisitionRepository", requisitionRepository);
+    ReflectionTestUtils.setField(auditLogInitializer, "startAfter", checkpoint.toString());
+    prepareBatches(checkpoint);
+
+    auditLogInitializer.run();
+
+    verify(requisitionRepository).findIdsWithoutSnapshots(checkpoint, BATCH_SIZE);
+    verify(requisitionRepository, never())
+        .findIdsWithoutSnapshots(AuditLogInitializer.FIRST_ID, BATCH_SIZE);
+    verifySnapshotsCreated();
+  }
+
+  private void prepareBatches(UUID startAfter) {
+    when(requisitionRepository.findIdsWithoutSnapshots(startAfter, BATCH_SIZE))
+        .thenReturn(toStrings(first, second));
+    when(requisitionRepository.findIdsWithoutSnapshots(second.getId(), BATCH_SIZE))
+        .thenReturn(toStrings(third));
+    when(requisitionRepository.findIdsWithoutSnapshots(third.getId(), BATCH_SIZE))
+        .thenReturn(Collections.emptyList());
+
+    when(requisitionRepository.findAll(Lists.newArrayList(first.getId(), second.getId())))
+        .thenReturn(Lists.newArrayList(first, second));
+    when(requisitionRepository.findAll(Lists.newArrayList(third.getId())))
+        .thenReturn(Lists.newArrayList(third));
+  }
+
+  private void verifySnapshotsCreated() {
+    verify(javers).commit(AuditLogInitializer.AUTHOR, first);
+    verify(javers).commit(AuditLogInitializer.AUTHOR, second);
+    verify(javers).commit(AuditLogInitializer.AUTHOR, third);
+    verify(javers, times(3)).commit(eq(AuditLogInitializer.AUTHOR), any());
+  }
+
+  private List<String> toStrings(Requisition... requisitions) {
+    List<String> ids = Lists.newArrayList();
+
+    for (Requisition requisition : requisitions) {
+      ids.add(requisition.getId().toString());
+    }
+
+    return ids;
   }
 
   @Getter
@@ -0,0 +1,60 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.domain.requisition;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.util.UUID;
+import org.junit.Test;
+import org.openlmis.requisition.service.PermissionService;
+
+public class RequisitionPermissionStringTest {
+
+  private UUID facilityId = UUID.randomUUID();
+  private UUID programId = UUID.randomUUID();
+
+  @Test
+  public void shouldHashPermissionStringSameAsDatabase() {
+    // md5('abc')::uuid
+    assertThat(RequisitionPermissionString.hash("abc"),
+        is(UUID.fromString("90015098-3cd2-4fb0-d696-3f7d28e17f72")));
+  }
+
+  @Test
+  public void shouldSetPermissionStringHash() {
+    RequisitionPermissionString permissionString = RequisitionPermissionString
+        .newRequisitionPermissionString(new Requisition(), PermissionService.REQUISITION_VIEW,
+            facilityId, programId);
+
+    assertThat(permissionString.getPermissionStringHash(),
+        is(RequisitionPermissionString.hash(permissionString.getPermissionString())));
+  }
+
+  @Test
+  public void shouldUpdateHashWhenPermissionStringChanges() {
+    RequisitionPermissionString permissionString = new RequisitionPermissionString(null,
+        String.join("|", PermissionService.REQUISITION_VIEW, facilityId.toString(),
+            programId.toString()));
+    UUID hash = permissionString.getPermissionStringHash();
+
+    permissionString.setPermissionString(String.join("|", PermissionService.REQUISITION_VIEW,
+        facilityId.toString(), UUID.randomUUID().toString()));
+
+    assertThat(permissionString.getPermissionStringHash(), is(not(hash)));
+  }
+}
@@ -25,6 +25,7 @@ import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -631,6 +632,55 @@ public class RequisitionTest {
         .forEach(line -> assertThat(line.getRequisition().getId(), is(requisition.getId())));
   }
 
+  @Test
+  public void shouldMatchExistingLineItemsByIdWhenUpdatingManyLines() {
+    // given
+    int numberOfLines = 1500;
+    List<RequisitionLineItem> existingLines = new ArrayList<>();
+    List<RequisitionLineItem> newLines = new ArrayList<>();
+
+    for (int i = 0; i < numberOfLines; ++i) {
+      RequisitionLineItem existing = new RequisitionLineItemDataBuilder().build();
+      VersionEntityReference reference = existing.getOrderable();
+
+      existingLines.add(existing);
+      newLines.add(new RequisitionLineItemDataBuilder()
+          .withId(existing.getId())
+          .withOrderable(reference.getId(), reference.getVersionNumber())
+          .withRequestedQuantity(i)
+          .build());
+
+      OrderableDto orderableDto = new OrderableDtoDataBuilder()
+          .withId(reference.getId())
+          .withVersionNumber(reference.getVersionNumber())
+          .withProgramOrderable(requisition.getProgramId(), true)
+          .buildAsDto();
+      orderables.put(orderableDto.getIdentity(), orderableDto);
+    }
+
+    Collections.reverse(newLines);
+
+    Requisition newRequisition = new Requisition();
+    newRequisition.setRequisitionLineItems(newLines);
+
+    requisition.setRequisitionLineItems(new ArrayList<>(existingLines));
+    requisition.setTemplate(template);
+
+    // when
+    requisition.updateFrom(newRequisition, orderables, approvedProducts, true);
+
+    // then
+    List<RequisitionLineItem> updated = requisition.getRequisitionLineItems();
+    assertThat(updated, hasSize(numberOfLines));
+
+    for (int i = 0; i < numberOfLines; ++i) {
+      RequisitionLineItem line = updated.get(numberOfLines - 1 - i);
+
+      assertThat(line, is(sameInstance(existingLines.get(i))));
+      assertThat(line.getRequestedQuantity(), is(i));
+    }
+  }
+
   @Test
   public void shouldSetNullForCalculatedValuesIfColumnIsHidden() {
     requisitionLineItem.setStockOnHand(10);
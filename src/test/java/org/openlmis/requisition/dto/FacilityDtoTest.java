@@ -15,9 +15,16 @@
 
 package org.openlmis.requisition.dto;
 
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
 import java.util.List;
 import nl.jqno.equalsverifier.EqualsVerifier;
+import org.junit.Test;
 import org.openlmis.requisition.testutils.DtoGenerator;
+import org.openlmis.requisition.testutils.FacilityDtoDataBuilder;
 
 public class FacilityDtoTest extends EqualsContractTest<FacilityDto> {
 
@@ -33,4 +40,14 @@ public class FacilityDtoTest extends EqualsContractTest<FacilityDto> {
     verifier.withRedefinedSubclass(TimelinessReportFacilityDto.class);
     verifier.withPrefabValues(GeographicZoneDto.class, zones.get(0), zones.get(1));
   }
+
+  @Test
+  public void shouldCreateCopyOfFacility() {
+    FacilityDto facility = new FacilityDtoDataBuilder().buildAsDto();
+
+    FacilityDto copy = FacilityDto.newInstance(facility);
+
+    assertThat(copy, is(facility));
+    assertThat(copy, is(not(sameInstance(facility))));
+  }
 }
@@ -15,16 +15,21 @@
 
 package org.openlmis.requisition.service;
 
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.contains;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.refEq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.openlmis.requisition.i18n.MessageKeys.REQUISITION_EMAIL_ACTION_REQUIRED_CONTENT;
+import static org.openlmis.requisition.i18n.MessageKeys.REQUISITION_EMAIL_ACTION_REQUIRED_DIGEST_CONTENT;
 import static org.openlmis.requisition.i18n.MessageKeys.REQUISITION_EMAIL_ACTION_REQUIRED_SUBJECT;
 import static org.openlmis.requisition.i18n.MessageKeys.REQUISITION_SMS_ACTION_REQUIRED_CONTENT;
 import static org.openlmis.requisition.i18n.MessageKeys.REQUISITION_TYPE_EMERGENCY;
@@ -36,6 +41,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 import org.junit.Before;
 import org.junit.Test;
@@ -62,6 +68,7 @@ import org.openlmis.requisition.service.referencedata.SupervisingUsersReferenceD
 import org.openlmis.requisition.testutils.DtoGenerator;
 import org.openlmis.requisition.testutils.UserDtoDataBuilder;
 import org.openlmis.requisition.utils.Message;
+import org.springframework.web.client.ResourceAccessException;
 
 @RunWith(MockitoJUnitRunner.class)
 @SuppressWarnings("PMD.TooManyMethods")
@@ -130,7 +137,7 @@ public class ApprovalNotifierTest {
 
     mockChangeDate();
 
-    approvalNotifier.notifyApprovers(requisition, locale);
+    notifyApprovers(requisition);
 
     verify(notificationService).notify(refEq(approver), eq(SUBJECT),
         contains("Dear approver: This email is informing you that the test requisition"),
@@ -149,7 +156,7 @@ public class ApprovalNotifierTest {
 
     mockChangeDate();
 
-    approvalNotifier.notifyApprovers(requisition, locale);
+    notifyApprovers(requisition);
 
     verify(notificationService).notify(refEq(approver), eq(SUBJECT),
         contains("Dear approver: This email is informing you that the emergency requisition"),
@@ -170,7 +177,7 @@ public class ApprovalNotifierTest {
 
     mockChangeDate();
 
-    approvalNotifier.notifyApprovers(requisition, locale);
+    notifyApprovers(requisition);
     ArgumentCaptor<String> argument = ArgumentCaptor.forClass(String.class);
 
     verify(notificationService, times(2))
@@ -193,7 +200,7 @@ public class ApprovalNotifierTest {
     mockRequisition();
     mockMessages();
 
-    approvalNotifier.notifyApprovers(requisition, locale);
+    notifyApprovers(requisition);
 
     verify(notificationService, times(0))
       .notify(any(UserDto.class), any(), any(), any(), eq(ApprovalNotifier.NOTIFICATION_TAG));
@@ -209,12 +216,149 @@ public class ApprovalNotifierTest {
     mockMessages();
     mockChangeDate(RequisitionStatus.REJECTED);
 
-    approvalNotifier.notifyApprovers(requisition, locale);
+    notifyApprovers(requisition);
 
     verify(notificationService, times(0))
       .notify(any(UserDto.class), any(), any(), any(), eq(ApprovalNotifier.NOTIFICATION_TAG));
   }
 
+  @Test
+  public void shouldSendOneNotificationToApproverOfSeveralRequisitions() {
+    UserDto approver = new UserDtoDataBuilder().withUsername(APPROVER_1).buildAsDto();
+
+    when(supervisingUsersReferenceDataService.findAll(supervisoryNodeId, right.getId(), programId))
+        .thenReturn(Collections.singletonList(approver));
+    mockRequisition();
+    mockMessages();
+    mockChangeDate();
+
+    List<StatusChange> statusChanges = requisition.getStatusChanges();
+    Requisition other = mock(Requisition.class);
+    when(other.getSupervisoryNodeId()).thenReturn(supervisoryNodeId);
+    when(other.getProgramId()).thenReturn(programId);
+    when(other.getEmergency()).thenReturn(false);
+    when(other.getStatusChanges()).thenReturn(statusChanges);
+
+    ReferenceDataMemo memo = new ReferenceDataMemo();
+    ApprovalDigest digest = new ApprovalDigest();
+    approvalNotifier.addToDigest(requisition, locale, memo, digest,
+        new DeliveredNotifications());
+    approvalNotifier.addToDigest(other, locale, memo, digest,
+        new DeliveredNotifications());
+    approvalNotifier.notifyApprovers(digest);
+
+    verify(rightReferenceDataService, times(1)).findRight(REQUISITION_APPROVE);
+    verify(supervisingUsersReferenceDataService, times(1))
+        .findAll(supervisoryNodeId, right.getId(), programId);
+    verify(notificationService, times(1)).notify(refEq(approver), any(), any(), any(),
+        eq(ApprovalNotifier.NOTIFICATION_TAG));
+    verify(messageService)
+        .localize(eq(new Message(REQUISITION_EMAIL_ACTION_REQUIRED_DIGEST_CONTENT)), eq(locale));
+  }
+
+  @Test
+  public void shouldResolveApproversOfEachSupervisoryNodeSeparately() {
+    UUID otherSupervisoryNodeId = UUID.randomUUID();
+    UserDto approver = new UserDtoDataBuilder().withUsername(APPROVER_1).buildAsDto();
+    UserDto otherApprover = new UserDtoDataBuilder().withUsername("approver2").buildAsDto();
+
+    when(supervisingUsersReferenceDataService.findAll(supervisoryNodeId, right.getId(), programId))
+        .thenReturn(Collections.singletonList(approver));
+    when(supervisingUsersReferenceDataService
+        .findAll(otherSupervisoryNodeId, right.getId(), programId))
+        .thenReturn(Collections.singletonList(otherApprover));
+    mockRequisition();
+    mockMessages();
+    mockChangeDate();
+
+    List<StatusChange> statusChanges = requisition.getStatusChanges();
+    Requisition other = mock(Requisition.class);
+    when(other.getSupervisoryNodeId()).thenReturn(otherSupervisoryNodeId);
+    when(other.getProgramId()).thenReturn(programId);
+    when(other.getEmergency()).thenReturn(false);
+    when(other.getStatusChanges()).thenReturn(statusChanges);
+
+    ApprovalDigest digest = new ApprovalDigest();
+    approvalNotifier.addToDigest(requisition, locale, new ReferenceDataMemo(), digest,
+        new DeliveredNotifications());
+    approvalNotifier.addToDigest(other, locale, new ReferenceDataMemo(), digest,
+        new DeliveredNotifications());
+    approvalNotifier.notifyApprovers(digest);
+
+    verify(notificationService).notify(refEq(approver), eq(SUBJECT),
+        contains("Dear approver1: This email is informing you that the test requisition"),
+        contains("The test requisition"),
+        eq(ApprovalNotifier.NOTIFICATION_TAG));
+    verify(notificationService).notify(refEq(otherApprover), eq(SUBJECT),
+        contains("Dear approver2: This email is informing you that the test requisition"),
+        contains("The test requisition"),
+        eq(ApprovalNotifier.NOTIFICATION_TAG));
+  }
+
+  @Test
+  public void shouldNotifyOtherApproversIfNotificationOfOneApproverFails() {
+    UUID otherSupervisoryNodeId = UUID.randomUUID();
+    UserDto approver = new UserDtoDataBuilder().withUsername(APPROVER_1).buildAsDto();
+    UserDto otherApprover = new UserDtoDataBuilder().withUsername("approver2").buildAsDto();
+
+    when(supervisingUsersReferenceDataService.findAll(supervisoryNodeId, right.getId(), programId))
+        .thenReturn(Collections.singletonList(approver));
+    when(supervisingUsersReferenceDataService
+        .findAll(otherSupervisoryNodeId, right.getId(), programId))
+        .thenReturn(Collections.singletonList(otherApprover));
+    doThrow(new ResourceAccessException("notification service is down"))
+        .when(notificationService).notify(refEq(approver), any(), any(), any(), any());
+    mockRequisition();
+    mockMessages();
+    mockChangeDate();
+
+    List<StatusChange> statusChanges = requisition.getStatusChanges();
+    Requisition other = mock(Requisition.class);
+    when(other.getSupervisoryNodeId()).thenReturn(otherSupervisoryNodeId);
+    when(other.getProgramId()).thenReturn(programId);
+    when(other.getEmergency()).thenReturn(false);
+    when(other.getStatusChanges()).thenReturn(statusChanges);
+
+    ApprovalDigest digest = new ApprovalDigest();
+    DeliveredNotifications delivered = new DeliveredNotifications();
+    DeliveredNotifications otherDelivered = new DeliveredNotifications();
+    approvalNotifier.addToDigest(requisition, locale, new ReferenceDataMemo(), digest, delivered);
+    approvalNotifier.addToDigest(other, locale, new ReferenceDataMemo(), digest, otherDelivered);
+    Map<ApprovalDigest.Recipient, RuntimeException> failures =
+        approvalNotifier.notifyApprovers(digest);
+
+    verify(notificationService).notify(refEq(otherApprover), eq(SUBJECT),
+        contains("Dear approver2: This email is informing you that the test requisition"),
+        contains("The test requisition"),
+        eq(ApprovalNotifier.NOTIFICATION_TAG));
+    assertThat(failures.size(), is(1));
+    ApprovalDigest.Recipient failed = failures.keySet().iterator().next();
+    assertThat(failed.getUser(), is(approver));
+    assertThat(failed.getDelivered(), is(Collections.singletonList(delivered)));
+    assertFalse(delivered.contains(approver, ApprovalNotifier.NOTIFICATION_TAG));
+    assertTrue(otherDelivered.contains(otherApprover, ApprovalNotifier.NOTIFICATION_TAG));
+  }
+
+  @Test
+  public void shouldNotAddApproversThatWereAlreadyNotifiedToDigest() {
+    UserDto approver = new UserDtoDataBuilder().withUsername(APPROVER_1).buildAsDto();
+    UserDto otherApprover = new UserDtoDataBuilder().withUsername("approver2").buildAsDto();
+
+    when(supervisingUsersReferenceDataService.findAll(supervisoryNodeId, right.getId(), programId))
+        .thenReturn(Arrays.asList(approver, otherApprover));
+    mockRequisition();
+    mockMessages();
+    mockChangeDate();
+
+    DeliveredNotifications delivered = new DeliveredNotifications();
+    delivered.add(approver, ApprovalNotifier.NOTIFICATION_TAG);
+    ApprovalDigest digest = new ApprovalDigest();
+    approvalNotifier.addToDigest(requisition, locale, new ReferenceDataMemo(), digest, delivered);
+
+    assertThat(digest.getRecipients().size(), is(1));
+    assertThat(digest.getRecipients().get(0).getUser(), is(otherApprover));
+  }
+
   private void mockChangeDate() {
     mockChangeDate(RequisitionStatus.SUBMITTED);
   }
@@ -236,6 +380,13 @@ public class ApprovalNotifierTest {
     when(requisition.getEmergency()).thenReturn(emergency);
   }
 
+  private void notifyApprovers(Requisition requisition) {
+    ApprovalDigest digest = new ApprovalDigest();
+    approvalNotifier.addToDigest(requisition, locale, new ReferenceDataMemo(), digest,
+        new DeliveredNotifications());
+    approvalNotifier.notifyApprovers(digest);
+  }
+
   private void mockServices() {
     when(rightReferenceDataService.findRight(REQUISITION_APPROVE)).thenReturn(right);
     when(periodReferenceDataService.findOne(any())).thenReturn(new ProcessingPeriodDto());
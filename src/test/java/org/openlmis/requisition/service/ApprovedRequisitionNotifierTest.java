@@ -15,8 +15,11 @@
 
 package org.openlmis.requisition.service;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -139,7 +142,8 @@ public class ApprovedRequisitionNotifierTest {
 
   @Test
   public void notifyClerksShouldNotifyAllClerksOnce() {
-    approvedRequisitionNotifier.notifyClerks(requisition, locale);
+    approvedRequisitionNotifier.notifyClerks(requisition, locale, new ReferenceDataMemo(),
+        new DeliveredNotifications());
 
     verify(notificationService, times(1))
         .notify(eq(clerkOne), any(), any(), any(),
@@ -157,7 +161,8 @@ public class ApprovedRequisitionNotifierTest {
 
   @Test
   public void notifyClerkShouldNotifyWithCorrectSubject() {
-    approvedRequisitionNotifier.notifyClerks(requisition, locale);
+    approvedRequisitionNotifier.notifyClerks(requisition, locale, new ReferenceDataMemo(),
+        new DeliveredNotifications());
 
     verify(notificationService, times(4))
         .notify(any(), eq(SUBJECT), any(), any(),
@@ -179,7 +184,8 @@ public class ApprovedRequisitionNotifierTest {
         + " and " + program.getName() + " at " + facility.getName() + " is ready to be "
         + "converted to an order.";
 
-    approvedRequisitionNotifier.notifyClerks(requisition, locale);
+    approvedRequisitionNotifier.notifyClerks(requisition, locale, new ReferenceDataMemo(),
+        new DeliveredNotifications());
 
     verify(notificationService).notify(eq(clerkOne), any(), eq(expectedEmailContent),
         eq(expectedSmsContent), eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
@@ -189,7 +195,8 @@ public class ApprovedRequisitionNotifierTest {
   public void notifyClerkShouldIgnoreUsersThatCanNotBeNotified() {
     clerkOne = new UserDtoDataBuilder().denyNotify().buildAsDto();
 
-    approvedRequisitionNotifier.notifyClerks(requisition, locale);
+    approvedRequisitionNotifier.notifyClerks(requisition, locale, new ReferenceDataMemo(),
+        new DeliveredNotifications());
 
     verify(notificationService, never())
         .notify(eq(clerkOne), any(), any(), any(),
@@ -209,7 +216,8 @@ public class ApprovedRequisitionNotifierTest {
   public void notifyClerkShouldIgnoreUsersThatAreNotVerified() {
     clerkOne = new UserDtoDataBuilder().asUnverified().buildAsDto();
 
-    approvedRequisitionNotifier.notifyClerks(requisition, locale);
+    approvedRequisitionNotifier.notifyClerks(requisition, locale, new ReferenceDataMemo(),
+        new DeliveredNotifications());
 
     verify(notificationService, never())
         .notify(eq(clerkOne), any(), any(), any(),
@@ -229,7 +237,8 @@ public class ApprovedRequisitionNotifierTest {
   public void notifyClerkShouldIgnoreUsersWithoutEmail() {
     clerkOne = new UserDtoDataBuilder().withoutEmail().buildAsDto();
 
-    approvedRequisitionNotifier.notifyClerks(requisition, locale);
+    approvedRequisitionNotifier.notifyClerks(requisition, locale, new ReferenceDataMemo(),
+        new DeliveredNotifications());
 
     verify(notificationService, never())
         .notify(eq(clerkOne), any(), any(), any(),
@@ -245,6 +254,50 @@ public class ApprovedRequisitionNotifierTest {
           eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
   }
 
+  @Test
+  public void notifyClerksShouldNotNotifyClerksThatWereAlreadyNotified() {
+    DeliveredNotifications delivered = new DeliveredNotifications();
+    delivered.add(clerkOne, ApprovedRequisitionNotifier.NOTIFICATION_TAG);
+
+    approvedRequisitionNotifier.notifyClerks(requisition, locale, new ReferenceDataMemo(),
+        delivered);
+
+    verify(notificationService, never())
+        .notify(eq(clerkOne), any(), any(), any(),
+          eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
+    verify(notificationService, times(3))
+        .notify(any(), any(), any(), any(), eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
+  }
+
+  @Test
+  public void notifyClerksShouldNotNotifyClerksAgainWhenRetriedAfterFailure() {
+    doThrow(new IllegalStateException()).doNothing()
+        .when(notificationService)
+        .notify(eq(clerkTwo), any(), any(), any(),
+          eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
+    DeliveredNotifications delivered = new DeliveredNotifications();
+
+    try {
+      approvedRequisitionNotifier.notifyClerks(requisition, locale, new ReferenceDataMemo(),
+          delivered);
+      fail("Notification of clerk should fail");
+    } catch (IllegalStateException exp) {
+      assertFalse(delivered.contains(clerkTwo, ApprovedRequisitionNotifier.NOTIFICATION_TAG));
+    }
+
+    approvedRequisitionNotifier.notifyClerks(requisition, locale, new ReferenceDataMemo(),
+        delivered);
+
+    verify(notificationService, times(2))
+        .notify(eq(clerkTwo), any(), any(), any(),
+          eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
+    for (UserDto clerk : Arrays.asList(clerkOne, clerkThree, clerkFour)) {
+      verify(notificationService, times(1))
+          .notify(eq(clerk), any(), any(), any(),
+            eq(ApprovedRequisitionNotifier.NOTIFICATION_TAG));
+    }
+  }
+
   private void mockServices() {
 
     when(facilityReferenceDataService.findOne(facility.getId())).thenReturn(facility);
@@ -15,7 +15,9 @@
 
 package org.openlmis.requisition.service;
 
+import static java.util.stream.Collectors.toList;
 import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.hasSize;
@@ -34,11 +36,15 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
+import java.lang.reflect.Array;
 import java.net.URI;
 import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.utils.URLEncodedUtils;
 import org.junit.After;
@@ -54,6 +60,7 @@ import org.mockito.runners.MockitoJUnitRunner;
 import org.openlmis.requisition.dto.ResultDto;
 import org.openlmis.requisition.utils.DynamicPageTypeReference;
 import org.openlmis.requisition.utils.DynamicResultDtoTypeReference;
+import org.openlmis.requisition.utils.RequestHelper;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -96,6 +103,8 @@ public abstract class BaseCommunicationServiceTest<T> {
 
   private BaseCommunicationService<T> service;
 
+  private RemoteCallExecutor splitRequestExecutor;
+
   @Before
   public void setUp() {
     mockAuth();
@@ -105,6 +114,10 @@ public abstract class BaseCommunicationServiceTest<T> {
   @After
   public void tearDown() {
     checkAuth();
+
+    if (null != splitRequestExecutor) {
+      splitRequestExecutor.shutdown();
+    }
   }
 
   @Test
@@ -211,6 +224,58 @@ public abstract class BaseCommunicationServiceTest<T> {
         .isUriStartsWith(service.getServiceUrl() + service.getUrl());
   }
 
+  @Test
+  public void shouldSendSplitRequestsConcurrentlyAndMergeResponsesInOrder() {
+    // given
+    RequestParameters parameters = prepareSplitRequest();
+    Map<URI, T> responses = new ConcurrentHashMap<>();
+
+    when(restTemplate.exchange(any(URI.class), any(HttpMethod.class), any(HttpEntity.class),
+        any(Class.class)))
+        .thenAnswer(invocation -> {
+          T dto = generateInstance();
+          responses.put((URI) invocation.getArguments()[0], dto);
+
+          Object[] array = (Object[]) Array.newInstance(getService().getResultClass(), 1);
+          array[0] = dto;
+
+          return new ResponseEntity<>(array, HttpStatus.OK);
+        });
+
+    // when
+    List<T> found = service.findAll("", parameters);
+
+    // then
+    URI[] uris = RequestHelper.splitRequest(service.getServiceUrl() + service.getUrl(),
+        parameters, 2000);
+    assertThat(uris.length, is(greaterThan(1)));
+    assertThat(found, is(Stream.of(uris).map(responses::get).distinct().collect(toList())));
+  }
+
+  @Test
+  public void shouldThrowExceptionIfOneOfSplitRequestsFails() {
+    // given
+    disableAuthCheck();
+    RequestParameters parameters = prepareSplitRequest();
+    mockRequestFail(HttpStatus.BAD_REQUEST);
+
+    // then
+    expectedException.expect(DataRetrievalException.class);
+
+    // when
+    service.findAll("", parameters);
+  }
+
+  private RequestParameters prepareSplitRequest() {
+    splitRequestExecutor = new RemoteCallExecutor("test", 4, 10);
+    service.setSplitRequestExecutor(splitRequestExecutor);
+    ReflectionTestUtils.setField(service, "splitRequestParallelism", 2);
+
+    return RequestParameters
+        .init()
+        .set("id", Stream.generate(UUID::randomUUID).limit(150).collect(toList()));
+  }
+
   protected abstract T generateInstance();
 
   protected abstract BaseCommunicationService<T> getService();
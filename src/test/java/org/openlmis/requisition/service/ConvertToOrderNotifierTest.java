@@ -19,7 +19,9 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.refEq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import static org.openlmis.requisition.i18n.MessageKeys.REQUISITION_EMAIL_CONVERT_TO_ORDER_CONTENT;
 import static org.openlmis.requisition.i18n.MessageKeys.REQUISITION_EMAIL_CONVERT_TO_ORDER_SUBJECT;
@@ -87,7 +89,8 @@ public class ConvertToOrderNotifierTest {
     when(initiateAuditEntry.getStatus()).thenReturn(RequisitionStatus.INITIATED);
     when(initiateAuditEntry.getAuthorId()).thenReturn(user.getId());
 
-    convertToOrderNotifier.notifyConvertToOrder(requisition, locale);
+    convertToOrderNotifier.notifyConvertToOrder(requisition, locale, new ReferenceDataMemo(),
+        new DeliveredNotifications());
 
     verify(notificationService).notify(refEq(user),
         eq(REQUISITION_EMAIL_CONVERT_TO_ORDER_SUBJECT),
@@ -96,6 +99,44 @@ public class ConvertToOrderNotifierTest {
         eq(ConvertToOrderNotifier.NOTIFICATION_TAG));
   }
 
+  @Test
+  public void shouldNotRetrieveUserThatIsAlreadyInMemo() {
+    Requisition requisition = mock(Requisition.class);
+    StatusChange initiateAuditEntry = mock(StatusChange.class);
+
+    when(requisition.getStatusChanges()).thenReturn(Collections.singletonList(initiateAuditEntry));
+    when(initiateAuditEntry.getStatus()).thenReturn(RequisitionStatus.INITIATED);
+    when(initiateAuditEntry.getAuthorId()).thenReturn(user.getId());
+
+    ReferenceDataMemo memo = new ReferenceDataMemo().put(UserDto.class, user.getId(), user);
+    convertToOrderNotifier.notifyConvertToOrder(requisition, locale, memo,
+        new DeliveredNotifications());
+
+    verify(userReferenceDataService, never()).findOne(user.getId());
+    verify(notificationService).notify(refEq(user),
+        eq(REQUISITION_EMAIL_CONVERT_TO_ORDER_SUBJECT),
+        eq(REQUISITION_EMAIL_CONVERT_TO_ORDER_CONTENT),
+        eq(REQUISITION_SMS_CONVERT_TO_ORDER_CONTENT),
+        eq(ConvertToOrderNotifier.NOTIFICATION_TAG));
+  }
+
+  @Test
+  public void shouldNotNotifyInitiatorThatWasAlreadyNotified() {
+    Requisition requisition = mock(Requisition.class);
+    StatusChange initiateAuditEntry = mock(StatusChange.class);
+
+    when(requisition.getStatusChanges()).thenReturn(Collections.singletonList(initiateAuditEntry));
+    when(initiateAuditEntry.getStatus()).thenReturn(RequisitionStatus.INITIATED);
+    when(initiateAuditEntry.getAuthorId()).thenReturn(user.getId());
+
+    DeliveredNotifications delivered = new DeliveredNotifications();
+    delivered.add(user, ConvertToOrderNotifier.NOTIFICATION_TAG);
+    convertToOrderNotifier.notifyConvertToOrder(requisition, locale, new ReferenceDataMemo(),
+        delivered);
+
+    verifyZeroInteractions(notificationService);
+  }
+
   private void mockServices() {
     when(programReferenceDataService.findOne(any())).thenReturn(new ProgramDto());
     when(periodReferenceDataService.findOne(any())).thenReturn(new ProcessingPeriodDto());
@@ -0,0 +1,78 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.openlmis.requisition.dto.UserDto;
+import org.openlmis.requisition.testutils.UserDtoDataBuilder;
+
+public class DeliveredNotificationsTest {
+
+  private static final String TAG = "tag";
+  private static final String OTHER_TAG = "other-tag";
+
+  private UserDto user = new UserDtoDataBuilder().buildAsDto();
+  private AtomicInteger sent = new AtomicInteger();
+
+  @Test
+  public void shouldSendNotificationOnlyOnce() {
+    DeliveredNotifications delivered = new DeliveredNotifications();
+
+    delivered.send(user, TAG, sent::incrementAndGet);
+    delivered.send(user, TAG, sent::incrementAndGet);
+
+    assertThat(sent.get(), is(1));
+    assertTrue(delivered.contains(user, TAG));
+    assertFalse(delivered.contains(user, OTHER_TAG));
+  }
+
+  @Test
+  public void shouldNotRememberNotificationThatFailed() {
+    DeliveredNotifications delivered = new DeliveredNotifications();
+
+    try {
+      delivered.send(user, TAG, () -> {
+        throw new IllegalStateException();
+      });
+      fail("Notification should fail");
+    } catch (IllegalStateException exp) {
+      assertFalse(delivered.contains(user, TAG));
+    }
+  }
+
+  @Test
+  public void shouldRestoreNotificationsFromKeys() {
+    UserDto other = new UserDtoDataBuilder().buildAsDto();
+    DeliveredNotifications previous = new DeliveredNotifications();
+    previous.add(user, TAG);
+    previous.add(other, OTHER_TAG);
+
+    DeliveredNotifications delivered = new DeliveredNotifications(previous.getKeys());
+    delivered.send(user, TAG, sent::incrementAndGet);
+    delivered.send(other, OTHER_TAG, sent::incrementAndGet);
+
+    assertThat(sent.get(), is(0));
+    assertThat(delivered.getKeys(), containsInAnyOrder(previous.getKeys().toArray()));
+  }
+}
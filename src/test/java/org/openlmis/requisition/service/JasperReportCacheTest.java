@@ -0,0 +1,88 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.UUID;
+import net.sf.jasperreports.engine.JasperReport;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlmis.requisition.domain.JasperTemplate;
+import org.openlmis.requisition.exception.JasperReportViewException;
+
+public class JasperReportCacheTest {
+
+  private JasperReportCache cache = new JasperReportCache(2);
+
+  private JasperReportCache.Loader loader = mock(JasperReportCache.Loader.class);
+
+  private JasperReport report = mock(JasperReport.class);
+
+  @Before
+  public void setUp() throws JasperReportViewException {
+    when(loader.load()).thenReturn(report);
+  }
+
+  @Test
+  public void shouldLoadReportOnlyOnce() throws JasperReportViewException {
+    assertSame(report, cache.get("id", "version", loader));
+    assertSame(report, cache.get("id", "version", loader));
+
+    verify(loader, times(1)).load();
+  }
+
+  @Test
+  public void shouldLoadReportAgainForNewVersion() throws JasperReportViewException {
+    cache.get("id", "version", loader);
+    cache.get("id", "new-version", loader);
+
+    verify(loader, times(2)).load();
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedReport() throws JasperReportViewException {
+    cache.get("first", "version", loader);
+    cache.get("second", "version", loader);
+    cache.get("first", "version", loader);
+    cache.get("third", "version", loader);
+
+    // first report was used recently so it should be still in cache
+    cache.get("first", "version", loader);
+    verify(loader, times(3)).load();
+
+    // second report should be evicted
+    cache.get("second", "version", loader);
+    verify(loader, times(4)).load();
+  }
+
+  @Test
+  public void shouldEvictAllVersionsOfTemplate() throws JasperReportViewException {
+    JasperTemplate template = mock(JasperTemplate.class);
+    when(template.getId()).thenReturn(UUID.randomUUID());
+    when(template.getData()).thenReturn(new byte[]{ 1 });
+
+    cache.get(template, loader);
+    cache.evict(template.getId());
+    cache.get(template, loader);
+
+    verify(loader, times(2)).load();
+  }
+}
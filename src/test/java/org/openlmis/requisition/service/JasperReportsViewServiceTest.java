@@ -15,12 +15,14 @@
 
 package org.openlmis.requisition.service;
 
-import static java.util.Collections.singletonList;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.openlmis.requisition.domain.requisition.RequisitionStatus.APPROVED;
 import static org.openlmis.requisition.domain.requisition.RequisitionStatus.AUTHORIZED;
@@ -29,28 +31,29 @@ import static org.openlmis.requisition.domain.requisition.RequisitionStatus.RELE
 import static org.openlmis.requisition.domain.requisition.RequisitionStatus.RELEASED_WITHOUT_ORDER;
 import static org.openlmis.requisition.dto.TimelinessReportFacilityDto.DISTRICT_LEVEL;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.text.NumberFormat;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
 import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
+import net.sf.jasperreports.engine.design.JasperDesign;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -76,8 +79,6 @@ import org.openlmis.requisition.dto.RequisitionDto;
 import org.openlmis.requisition.dto.RequisitionReportDto;
 import org.openlmis.requisition.dto.SupervisoryNodeDto;
 import org.openlmis.requisition.repository.RequisitionRepository;
-import org.openlmis.requisition.repository.custom.DefaultRequisitionSearchParams;
-import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
 import org.openlmis.requisition.service.referencedata.GeographicZoneReferenceDataService;
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
@@ -85,7 +86,6 @@ import org.openlmis.requisition.service.referencedata.ProgramReferenceDataServic
 import org.openlmis.requisition.testutils.DtoGenerator;
 import org.openlmis.requisition.web.ReportingRateReportDtoBuilder;
 import org.openlmis.requisition.web.RequisitionReportDtoBuilder;
-import org.springframework.data.domain.Page;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockServletContext;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -123,9 +123,6 @@ public class JasperReportsViewServiceTest {
   @Mock
   private RequisitionService requisitionService;
 
-  @Mock
-  private ByteArrayOutputStream byteArrayOutputStream;
-
   @Mock
   private ObjectInputStream objectInputStream;
 
@@ -147,6 +144,9 @@ public class JasperReportsViewServiceTest {
   @Mock
   private RequisitionLineItem lineItem2;
 
+  @Spy
+  private JasperReportCache jasperReportCache = new JasperReportCache(10);
+
   @InjectMocks
   private JasperReportsViewService service;
 
@@ -165,6 +165,8 @@ public class JasperReportsViewServiceTest {
 
   private Map<String, Object> reportParams = new HashMap<>();
 
+  private Set<UUID> facilityIdsMissingRnR = new HashSet<>();
+
   private JasperTemplate jasperTemplate;
 
   @Before
@@ -183,16 +185,23 @@ public class JasperReportsViewServiceTest {
     byte[] reportByteData = new byte[1];
     when(jasperTemplate.getData()).thenReturn(reportByteData);
 
-    ObjectOutputStream objectOutputStream = createObjectOutputStream();
+    when(jasperTemplate.getId()).thenReturn(UUID.randomUUID());
 
     doReturn(objectInputStream).when(service).createObjectInputStream(jasperTemplate);
-    doReturn(byteArrayOutputStream).when(service).createByteArrayOutputStream();
-    doReturn(objectOutputStream).when(service).createObjectOutputStream(byteArrayOutputStream);
-    doReturn(jasperReportsMultiFormatView).when(service).createJasperMultiFormatView();
+    doReturn(jasperReportsMultiFormatView).when(service)
+        .createJasperMultiFormatView(any(JasperReport.class));
     doReturn(jasperReport).when(service).readReportData(objectInputStream);
-    doReturn(new byte[0]).when(byteArrayOutputStream).toByteArray();
+    doReturn(jasperReport).when(service).compileReport(any(JasperDesign.class));
 
     MockitoAnnotations.initMocks(this);
+
+    when(requisitionService.searchFacilitiesWithoutRequisitions(anyCollectionOf(UUID.class),
+        eq(program.getId()), eq(period.getId()),
+        eq(EnumSet.of(APPROVED, RELEASED, RELEASED_WITHOUT_ORDER))))
+        .thenAnswer(invocation -> ((Collection<UUID>) invocation.getArguments()[0])
+            .stream()
+            .filter(facilityIdsMissingRnR::contains)
+            .collect(Collectors.toList()));
   }
 
   @Test
@@ -392,6 +401,30 @@ public class JasperReportsViewServiceTest {
     Assert.assertEquals(createDecimalFormat(), reportParams.get("decimalFormat"));
   }
 
+  @Test
+  public void shouldReuseCompiledReportForTheSameTemplate() throws Exception {
+    ServletContext servletContext = new MockServletContext("");
+    HttpServletRequest httpServletRequest = new MockHttpServletRequest(servletContext);
+
+    service.getJasperReportsView(jasperTemplate, httpServletRequest);
+    service.getJasperReportsView(jasperTemplate, httpServletRequest);
+
+    verify(service, times(1)).readReportData(any(ObjectInputStream.class));
+    verify(service, times(2)).createJasperMultiFormatView(any(JasperReport.class));
+  }
+
+  @Test
+  public void shouldReadReportAgainIfTemplateDataChanged() throws Exception {
+    ServletContext servletContext = new MockServletContext("");
+    HttpServletRequest httpServletRequest = new MockHttpServletRequest(servletContext);
+
+    service.getJasperReportsView(jasperTemplate, httpServletRequest);
+    when(jasperTemplate.getData()).thenReturn(new byte[]{ 1, 2 });
+    service.getJasperReportsView(jasperTemplate, httpServletRequest);
+
+    verify(service, times(2)).readReportData(any(ObjectInputStream.class));
+  }
+
   @Test
   public void shouldSetParamsForRequisitionReport() throws Exception {
     doReturn(locale).when(service).getLocaleFromService();
@@ -413,6 +446,49 @@ public class JasperReportsViewServiceTest {
         outputParams.get("currencyDecimalFormat"));
   }
 
+  @Test
+  public void shouldReuseCompiledSubreportForTheSameTemplateColumns() throws Exception {
+    doReturn(locale).when(service).getLocaleFromService();
+
+    ServletContext servletContext = new MockServletContext("");
+    HttpServletRequest httpServletRequest = new MockHttpServletRequest(servletContext);
+
+    service.getRequisitionJasperReportView(requisition, httpServletRequest);
+    ModelAndView view = service.getRequisitionJasperReportView(requisition, httpServletRequest);
+
+    // main report and line subreport are compiled once
+    verify(service, times(2)).compileReport(any(JasperDesign.class));
+    Assert.assertNotNull(view.getModel().get("subreport"));
+  }
+
+  @Test
+  public void shouldCompileSubreportAgainIfPrintedColumnsChanged() throws Exception {
+    doReturn(locale).when(service).getLocaleFromService();
+
+    ServletContext servletContext = new MockServletContext("");
+    HttpServletRequest httpServletRequest = new MockHttpServletRequest(servletContext);
+
+    service.getRequisitionJasperReportView(requisition, httpServletRequest);
+    requisition.setStatus(INITIATED);
+    service.getRequisitionJasperReportView(requisition, httpServletRequest);
+
+    verify(service, times(3)).compileReport(any(JasperDesign.class));
+  }
+
+  @Test
+  public void shouldCompileSubreportAgainIfTemplateWasEvicted() throws Exception {
+    doReturn(locale).when(service).getLocaleFromService();
+
+    ServletContext servletContext = new MockServletContext("");
+    HttpServletRequest httpServletRequest = new MockHttpServletRequest(servletContext);
+
+    service.getRequisitionJasperReportView(requisition, httpServletRequest);
+    jasperReportCache.evict(requisition.getTemplate().getId());
+    service.getRequisitionJasperReportView(requisition, httpServletRequest);
+
+    verify(service, times(3)).compileReport(any(JasperDesign.class));
+  }
+
   private List<FacilityDto> extractFacilitiesFromOutputParams(Map<String, Object> outputParams) {
     JRBeanCollectionDataSource datasource =
         (JRBeanCollectionDataSource) outputParams.get("datasource");
@@ -465,17 +541,9 @@ public class JasperReportsViewServiceTest {
     when(geographicZoneDto.getLevel()).thenReturn(geographicLevelDto);
     when(geographicZoneReferenceDataService.findOne(districtId)).thenReturn(geographicZoneDto);
 
-    Requisition mockRequisition = mock(Requisition.class);
-    Page<Requisition> requisitionPage = mock(Page.class);
-    when(requisitionPage.getContent()).thenReturn(
-        (isMissingRnR) ? Collections.emptyList() : singletonList(mockRequisition));
-
-    RequisitionSearchParams params = new DefaultRequisitionSearchParams(
-        facilityId, program.getId(), period.getId(), null, null, null, null,
-        null, null, EnumSet.of(APPROVED, RELEASED, RELEASED_WITHOUT_ORDER));
-
-    when(requisitionService.searchRequisitions(eq(params), any()))
-        .thenReturn(requisitionPage);
+    if (isMissingRnR) {
+      facilityIdsMissingRnR.add(facilityId);
+    }
 
     return geographicZoneDto;
   }
@@ -505,26 +573,4 @@ public class JasperReportsViewServiceTest {
     requisition.setStatus(AUTHORIZED);
     return requisition;
   }
-
-  // We use in the service writeObject method which has the final modifier
-  // and we can't mock the method.
-  private ObjectOutputStream createObjectOutputStream() throws IOException {
-    return new ObjectOutputStream() {
-
-      @Override
-      protected final void writeObjectOverride(Object obj) {
-        // nothing to do here
-      }
-
-      @Override
-      public void flush() {
-        // nothing to do here
-      }
-
-      @Override
-      public void close() {
-        // nothing to do here
-      }
-    };
-  }
 }
@@ -29,7 +29,9 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -47,7 +49,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import org.junit.Before;
@@ -56,8 +60,6 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
-import org.openlmis.requisition.domain.requisition.Requisition;
-import org.openlmis.requisition.domain.requisition.RequisitionDataBuilder;
 import org.openlmis.requisition.domain.requisition.RequisitionPeriod;
 import org.openlmis.requisition.domain.requisition.RequisitionStatus;
 import org.openlmis.requisition.dto.ProcessingPeriodDto;
@@ -102,6 +104,8 @@ public class PeriodServiceTest {
 
   private ProcessingScheduleDto schedule;
 
+  private Map<UUID, List<RequisitionPeriod>> regularRequisitionPeriods = new HashMap<>();
+
   @Before
   public void setUp() throws Exception {
     schedule = new ProcessingScheduleDtoDataBuilder().buildAsDto();
@@ -338,6 +342,115 @@ public class PeriodServiceTest {
     assertNull(periods.iterator().next().getRequisitionId());
   }
 
+  @Test
+  public void shouldReturnRequisitionPeriodsOfLongSchedule() {
+    List<ProcessingPeriodDto> periods = new ArrayList<>();
+    List<RequisitionPeriod> requisitionPeriods = new ArrayList<>();
+
+    for (int i = 0; i < 240; ++i) {
+      ProcessingPeriodDto period = createPeriod(i - 200);
+      periods.add(period);
+
+      if (i < 200) {
+        requisitionPeriods.add(
+            createRequisitionPeriod(UUID.randomUUID(), APPROVED, period.getId()));
+      }
+    }
+
+    requisitionPeriods.add(
+        createRequisitionPeriod(requisitionId, INITIATED, currentPeriod.getId()));
+    periods.set(200, currentPeriod);
+    Collections.shuffle(requisitionPeriods);
+
+    doReturn(periods)
+        .when(periodReferenceDataService)
+        .searchByProgramAndFacility(programId, facilityId);
+    doReturn(requisitionPeriods)
+        .when(requisitionRepository)
+        .searchRequisitionIdAndStatusPairs(facilityId, programId, false);
+
+    List<RequisitionPeriodDto> result =
+        new ArrayList<>(periodService.getPeriods(programId, facilityId, false));
+
+    assertThat(result, hasSize(40));
+    assertEquals(currentPeriod.getId(), result.get(0).getId());
+    assertEquals(requisitionId, result.get(0).getRequisitionId());
+    assertEquals(INITIATED, result.get(0).getRequisitionStatus());
+
+    for (int i = 1; i < result.size(); ++i) {
+      assertEquals(periods.get(200 + i).getId(), result.get(i).getId());
+      assertNull(result.get(i).getRequisitionId());
+    }
+  }
+
+  @Test
+  public void shouldNotReturnPeriodIfAnyOfItsRegularRequisitionsWasAuthorized() {
+    doReturn(Arrays.asList(period1, currentPeriod))
+        .when(periodReferenceDataService)
+        .searchByProgramAndFacility(programId, facilityId);
+    doReturn(Arrays.asList(
+        createRequisitionPeriod(requisitionId, INITIATED, period1.getId()),
+        createRequisitionPeriod(UUID.randomUUID(), APPROVED, period1.getId())))
+        .when(requisitionRepository)
+        .searchRequisitionIdAndStatusPairs(facilityId, programId, false);
+
+    Collection<RequisitionPeriodDto> result =
+        periodService.getPeriods(programId, facilityId, false);
+
+    assertThat(result, hasSize(1));
+    assertEquals(currentPeriod.getId(), result.iterator().next().getId());
+    assertNull(result.iterator().next().getRequisitionId());
+  }
+
+  @Test
+  public void shouldReturnPreAuthorizeEmergencyRequisitionsWithEachCurrentPeriod() {
+    ProcessingPeriodDto otherCurrentPeriod = new ProcessingPeriodDtoDataBuilder()
+        .withStartDate(currentPeriod.getStartDate())
+        .withEndDate(currentPeriod.getEndDate())
+        .buildAsDto();
+
+    doReturn(Arrays.asList(currentPeriod, otherCurrentPeriod))
+        .when(periodReferenceDataService)
+        .searchByProgramAndFacility(programId, facilityId);
+
+    List<RequisitionPeriod> requisitionPeriods = new ArrayList<>();
+    for (int i = 0; i < 100; ++i) {
+      requisitionPeriods.add(createRequisitionPeriod(UUID.randomUUID(),
+          i % 2 == 0 ? INITIATED : APPROVED, currentPeriod.getId()));
+    }
+    requisitionPeriods.add(createRequisitionPeriod(UUID.randomUUID(), SUBMITTED, period1.getId()));
+
+    doReturn(requisitionPeriods)
+        .when(requisitionRepository)
+        .searchRequisitionIdAndStatusPairs(facilityId, programId, true);
+
+    List<RequisitionPeriodDto> result =
+        new ArrayList<>(periodService.getPeriods(programId, facilityId, true));
+
+    List<RequisitionPeriod> preAuthorizeRequisitions = requisitionPeriods.stream()
+        .filter(requisitionPeriod -> requisitionPeriod.getRequisitionStatus().isPreAuthorize())
+        .collect(Collectors.toList());
+
+    assertThat(result, hasSize(2 + 2 * preAuthorizeRequisitions.size()));
+    assertEquals(currentPeriod.getId(), result.get(0).getId());
+    assertNull(result.get(0).getRequisitionId());
+    assertEquals(otherCurrentPeriod.getId(), result.get(1).getId());
+    assertNull(result.get(1).getRequisitionId());
+
+    for (int i = 0; i < preAuthorizeRequisitions.size(); ++i) {
+      RequisitionPeriod requisitionPeriod = preAuthorizeRequisitions.get(i);
+      RequisitionPeriodDto first = result.get(2 + 2 * i);
+      RequisitionPeriodDto second = result.get(3 + 2 * i);
+
+      assertEquals(currentPeriod.getId(), first.getId());
+      assertEquals(otherCurrentPeriod.getId(), second.getId());
+      assertEquals(requisitionPeriod.getRequisitionId(), first.getRequisitionId());
+      assertEquals(requisitionPeriod.getRequisitionId(), second.getRequisitionId());
+      assertEquals(requisitionPeriod.getRequisitionStatus(), first.getRequisitionStatus());
+      assertEquals(requisitionPeriod.getRequisitionStatus(), second.getRequisitionStatus());
+    }
+  }
+
   @Test
   public void shouldReturnPreviousPeriods() throws Exception {
     doReturn(period4)
@@ -439,8 +552,7 @@ public class PeriodServiceTest {
   public void shouldThrowExceptionWhenPreviousReqHasInitiatedStatus() {
     setMockForFindPeriod();
 
-    mockRequisitionFound(buildRequisition(INITIATED), currentPeriod.getId(), facilityId, programId);
-    mockNoRequisitionFound(period1.getId(), facilityId, programId);
+    mockRequisitionFound(INITIATED, currentPeriod.getId(), facilityId, programId);
 
     periodService.findPeriod(programId, facilityId, null, false);
   }
@@ -449,8 +561,7 @@ public class PeriodServiceTest {
   public void shouldThrowExceptionWhenPreviousReqHasSubmittedStatus() {
     setMockForFindPeriod();
 
-    mockRequisitionFound(buildRequisition(SUBMITTED), currentPeriod.getId(), facilityId, programId);
-    mockNoRequisitionFound(period1.getId(), facilityId, programId);
+    mockRequisitionFound(SUBMITTED, currentPeriod.getId(), facilityId, programId);
 
     periodService.findPeriod(programId, facilityId, null, false);
   }
@@ -459,9 +570,7 @@ public class PeriodServiceTest {
   public void shouldSucceedWhenPreviousReqHasAuthorizedStatus() {
     setMockForFindPeriod();
 
-    mockRequisitionFound(buildRequisition(AUTHORIZED), currentPeriod.getId(), facilityId,
-        programId);
-    mockNoRequisitionFound(period1.getId(), facilityId, programId);
+    mockRequisitionFound(AUTHORIZED, currentPeriod.getId(), facilityId, programId);
 
     ProcessingPeriodDto period = periodService.findPeriod(programId, facilityId, null, false);
     assertEquals(period1, period);
@@ -471,8 +580,7 @@ public class PeriodServiceTest {
   public void shouldSucceedWhenPreviousReqHasApprovedStatus() {
     setMockForFindPeriod();
 
-    mockRequisitionFound(buildRequisition(APPROVED), currentPeriod.getId(), facilityId, programId);
-    mockNoRequisitionFound(period1.getId(), facilityId, programId);
+    mockRequisitionFound(APPROVED, currentPeriod.getId(), facilityId, programId);
 
     ProcessingPeriodDto period = periodService.findPeriod(programId, facilityId, null, false);
     assertEquals(period1, period);
@@ -482,8 +590,7 @@ public class PeriodServiceTest {
   public void shouldSucceedWhenPreviousReqHasSkippedStatus() {
     setMockForFindPeriod();
 
-    mockRequisitionFound(buildRequisition(SKIPPED), currentPeriod.getId(), facilityId, programId);
-    mockNoRequisitionFound(period1.getId(), facilityId, programId);
+    mockRequisitionFound(SKIPPED, currentPeriod.getId(), facilityId, programId);
 
     ProcessingPeriodDto period = periodService.findPeriod(programId, facilityId, null, false);
     assertEquals(period1, period);
@@ -493,15 +600,28 @@ public class PeriodServiceTest {
   public void shouldSucceedWhenRequisitionForNextPeriodIsPresent() {
     setMockForFindPeriod();
 
-    mockRequisitionFound(buildRequisition(AUTHORIZED), currentPeriod.getId(), facilityId,
-        programId);
-    mockNoRequisitionFound(period1.getId(), facilityId, programId);
-    mockRequisitionFound(buildRequisition(INITIATED), period2.getId(), facilityId, programId);
+    mockRequisitionFound(AUTHORIZED, currentPeriod.getId(), facilityId, programId);
+    mockRequisitionFound(INITIATED, period2.getId(), facilityId, programId);
 
     ProcessingPeriodDto period = periodService.findPeriod(programId, facilityId, null, false);
     assertEquals(period1, period);
   }
 
+  @Test
+  public void shouldFindStatusesOfRequisitionsOfAllPeriodsWithSingleQuery() {
+    setMockForFindPeriod();
+
+    mockRequisitionFound(APPROVED, currentPeriod.getId(), facilityId, programId);
+    mockRequisitionFound(AUTHORIZED, period1.getId(), facilityId, programId);
+
+    ProcessingPeriodDto period = periodService.findPeriod(programId, facilityId, null, false);
+
+    assertEquals(period2, period);
+    verify(requisitionRepository).searchRequisitionIdAndStatusPairs(facilityId, programId, false);
+    verify(requisitionRepository, never())
+        .searchRequisitions(any(UUID.class), any(UUID.class), any(UUID.class), anyBoolean());
+  }
+
   @Test
   public void shouldUseNextAvailablePeriodWhenOneIsTaken() {
     //given
@@ -509,8 +629,7 @@ public class PeriodServiceTest {
 
     // we mock the requisition search to return a requisition for the first period
     // but not for the second
-    mockRequisitionFound(buildRequisition(APPROVED), currentPeriod.getId(), facilityId, programId);
-    mockNoRequisitionFound(period1.getId(), facilityId, programId);
+    mockRequisitionFound(APPROVED, currentPeriod.getId(), facilityId, programId);
 
     //when
     ProcessingPeriodDto period = periodService.findPeriod(programId, facilityId, null, false);
@@ -526,7 +645,7 @@ public class PeriodServiceTest {
 
     // we mock the requisition search to return a requisition for the first period
     // in facility with ID facilityId
-    mockRequisitionFound(buildRequisition(INITIATED), currentPeriod.getId(), facilityId, programId);
+    mockRequisitionFound(INITIATED, currentPeriod.getId(), facilityId, programId);
 
     //when
     ProcessingPeriodDto period = periodService.findPeriod(programId, facility2Id, null, false);
@@ -544,28 +663,20 @@ public class PeriodServiceTest {
         .buildAsDto();
   }
 
-  private Requisition buildRequisition(RequisitionStatus status) {
-    return new RequisitionDataBuilder()
-        .withStatus(status)
-        .build();
-  }
-
   private RequisitionPeriod createRequisitionPeriod(UUID requisitionId, RequisitionStatus status,
       UUID periodId) {
     return new RequisitionPeriod(requisitionId, status, periodId);
   }
 
   private void mockRequisitionFound(
-      Requisition requisition, UUID periodId, UUID facilityId, UUID programId) {
-    doReturn(singletonList(requisition))
-        .when(requisitionRepository)
-        .searchRequisitions(periodId, facilityId, programId, false);
-  }
+      RequisitionStatus status, UUID periodId, UUID facilityId, UUID programId) {
+    List<RequisitionPeriod> requisitionPeriods = regularRequisitionPeriods
+        .computeIfAbsent(facilityId, id -> new ArrayList<>());
+    requisitionPeriods.add(createRequisitionPeriod(UUID.randomUUID(), status, periodId));
 
-  private void mockNoRequisitionFound(UUID periodId, UUID facilityId, UUID programId) {
-    doReturn(Collections.emptyList())
+    doReturn(requisitionPeriods)
         .when(requisitionRepository)
-        .searchRequisitions(periodId, facilityId, programId, false);
+        .searchRequisitionIdAndStatusPairs(facilityId, programId, false);
   }
 
   private void setMockForFindPeriod() {
@@ -0,0 +1,113 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.UUID;
+import java.util.function.Function;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlmis.requisition.dto.FacilityDto;
+import org.openlmis.requisition.dto.ProgramDto;
+import org.openlmis.requisition.testutils.FacilityDtoDataBuilder;
+import org.openlmis.requisition.testutils.ProgramDtoDataBuilder;
+
+public class ReferenceDataMemoTest {
+
+  private ReferenceDataMemo memo = new ReferenceDataMemo();
+
+  private ProgramDto program = new ProgramDtoDataBuilder().buildAsDto();
+  private FacilityDto facility = new FacilityDtoDataBuilder().buildAsDto();
+
+  private Function<UUID, ProgramDto> programLoader = mock(Function.class);
+  private Function<UUID, FacilityDto> facilityLoader = mock(Function.class);
+
+  @Before
+  public void setUp() {
+    when(programLoader.apply(program.getId())).thenReturn(program);
+    when(facilityLoader.apply(facility.getId())).thenReturn(facility);
+  }
+
+  @Test
+  public void shouldLoadResourceOnlyOnce() {
+    assertThat(memo.get(ProgramDto.class, program.getId(), programLoader), is(program));
+    assertThat(memo.get(ProgramDto.class, program.getId(), programLoader), is(program));
+
+    verify(programLoader, times(1)).apply(program.getId());
+    assertThat(memo.getLookupCount(), is(2L));
+    assertThat(memo.getRemoteCallCount(), is(1L));
+    assertThat(memo.getSavedCallCount(), is(1L));
+  }
+
+  @Test
+  public void shouldNotLoadResourceThatWasAdded() {
+    memo.put(ProgramDto.class, program.getId(), program);
+
+    assertThat(memo.get(ProgramDto.class, program.getId(), programLoader),
+        is(sameInstance(program)));
+
+    verify(programLoader, never()).apply(program.getId());
+    assertThat(memo.getSavedCallCount(), is(1L));
+  }
+
+  @Test
+  public void shouldKeepResourcesOfDifferentTypesSeparately() {
+    UUID id = program.getId();
+    facility.setId(id);
+    when(facilityLoader.apply(id)).thenReturn(facility);
+    memo.put(ProgramDto.class, id, program);
+
+    assertThat(memo.get(FacilityDto.class, id, facilityLoader), is(sameInstance(facility)));
+    verify(facilityLoader).apply(id);
+  }
+
+  @Test
+  public void shouldNotRememberResourceWithoutId() {
+    assertThat(memo.get(ProgramDto.class, null, programLoader), is(nullValue()));
+    assertThat(memo.get(ProgramDto.class, null, programLoader), is(nullValue()));
+
+    verify(programLoader, times(2)).apply(null);
+    assertThat(memo.getLookupCount(), is(0L));
+  }
+
+  @Test
+  public void shouldNotAddNullResource() {
+    memo.put(ProgramDto.class, program.getId(), null);
+
+    assertThat(memo.get(ProgramDto.class, program.getId(), programLoader), is(program));
+    verify(programLoader).apply(program.getId());
+  }
+
+  @Test
+  public void shouldRememberResourceWithKeyOtherThanId() {
+    Function<String, ProgramDto> loader = mock(Function.class);
+    when(loader.apply(program.getCode())).thenReturn(program);
+
+    memo.get(ProgramDto.class, program.getCode(), loader);
+    memo.get(ProgramDto.class, program.getCode(), loader);
+
+    verify(loader, times(1)).apply(program.getCode());
+  }
+}
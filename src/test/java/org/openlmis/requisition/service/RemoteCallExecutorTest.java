@@ -0,0 +1,155 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlmis.requisition.exception.ValidationMessageException;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+public class RemoteCallExecutorTest {
+
+  private RemoteCallExecutor executor = new RemoteCallExecutor("test", 1, 1);
+
+  private Authentication authentication = new TestingAuthenticationToken("user", "password");
+
+  @Before
+  public void setUp() {
+    SecurityContextHolder.getContext().setAuthentication(authentication);
+    LocaleContextHolder.setLocale(Locale.FRENCH);
+  }
+
+  @After
+  public void tearDown() {
+    SecurityContextHolder.clearContext();
+    LocaleContextHolder.resetLocaleContext();
+    executor.shutdown();
+  }
+
+  @Test
+  public void shouldReturnResultOfCall() {
+    CompletableFuture<String> future = executor.supplyAsync("call", () -> "result");
+
+    assertEquals("result", RemoteCallExecutor.join(future));
+  }
+
+  @Test
+  public void shouldPropagateSecurityAndLocaleContext() {
+    CompletableFuture<Authentication> authenticationFuture = executor.supplyAsync("auth",
+        () -> SecurityContextHolder.getContext().getAuthentication());
+    CompletableFuture<Locale> localeFuture = executor.supplyAsync("locale",
+        LocaleContextHolder::getLocale);
+
+    assertSame(authentication, RemoteCallExecutor.join(authenticationFuture));
+    assertEquals(Locale.FRENCH, RemoteCallExecutor.join(localeFuture));
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldRethrowExceptionOfCall() {
+    CompletableFuture<String> future = executor.supplyAsync("call", () -> {
+      throw new ValidationMessageException("error");
+    });
+
+    RemoteCallExecutor.join(future);
+  }
+
+  @Test
+  public void shouldCountCompletedAndFailedCalls() {
+    RemoteCallExecutor.join(executor.runAsync("call", () -> { }));
+
+    try {
+      RemoteCallExecutor.join(executor.runAsync("call", () -> {
+        throw new ValidationMessageException("error");
+      }));
+    } catch (ValidationMessageException exp) {
+      // expected
+    }
+
+    assertEquals(2, executor.getCompletedCount());
+    assertEquals(1, executor.getFailedCount());
+    assertEquals(0, executor.getQueueSize());
+  }
+
+  @Test
+  public void shouldExecuteCallInCallerThreadIfQueueIsFull() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+
+    CompletableFuture<String> blocking = executor.supplyAsync("blocking", () -> {
+      await(latch);
+      return Thread.currentThread().getName();
+    });
+    final CompletableFuture<String> queued = executor.supplyAsync("queued",
+        () -> Thread.currentThread().getName());
+    CompletableFuture<String> rejected = executor.supplyAsync("rejected",
+        () -> Thread.currentThread().getName());
+
+    // the pool is busy and the queue is full, so the last call runs immediately in this thread
+    assertEquals(Thread.currentThread().getName(), RemoteCallExecutor.join(rejected));
+
+    latch.countDown();
+    assertNotEquals(Thread.currentThread().getName(), RemoteCallExecutor.join(blocking));
+    assertNotEquals(Thread.currentThread().getName(), RemoteCallExecutor.join(queued));
+  }
+
+  @Test
+  public void shouldCompleteFutureIfCallThrowsError() {
+    CompletableFuture<String> future = executor.supplyAsync("call", () -> {
+      throw new NoClassDefFoundError("error");
+    });
+
+    try {
+      RemoteCallExecutor.join(future);
+      fail("Expected error was not thrown");
+    } catch (NoClassDefFoundError exp) {
+      // expected
+    }
+
+    assertEquals(1, executor.getFailedCount());
+  }
+
+  @Test(expected = RejectedExecutionException.class)
+  public void shouldFailCallSubmittedAfterShutdown() {
+    executor.shutdown();
+
+    CompletableFuture<String> future = executor.supplyAsync("call", () -> "result");
+
+    assertTrue(future.isCompletedExceptionally());
+    RemoteCallExecutor.join(future);
+  }
+
+  private void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException exp) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -34,10 +34,12 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.anySetOf;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -56,6 +58,7 @@ import static org.openlmis.requisition.domain.requisition.RequisitionStatus.RELE
 import static org.openlmis.requisition.domain.requisition.RequisitionStatus.SKIPPED;
 import static org.openlmis.requisition.domain.requisition.RequisitionStatus.SUBMITTED;
 import static org.openlmis.requisition.service.PermissionService.ORDERS_EDIT;
+import static org.openlmis.requisition.service.PermissionService.REQUISITION_VIEW;
 import static org.openlmis.requisition.utils.Pagination.DEFAULT_PAGE_NUMBER;
 import static org.openlmis.requisition.utils.Pagination.NO_PAGINATION;
 import static org.openlmis.requisition.utils.Pagination.getPage;
@@ -85,6 +88,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
@@ -149,6 +153,7 @@ import org.openlmis.requisition.service.stockmanagement.StockCardSummariesStockM
 import org.openlmis.requisition.service.stockmanagement.StockOnHandRetrieverBuilderFactory;
 import org.openlmis.requisition.testutils.ApprovedProductDtoDataBuilder;
 import org.openlmis.requisition.testutils.BasicRequisitionDtoDataBuilder;
+import org.openlmis.requisition.testutils.DefaultRequisitionSearchParamsDataBuilder;
 import org.openlmis.requisition.testutils.DtoGenerator;
 import org.openlmis.requisition.testutils.FacilityDtoDataBuilder;
 import org.openlmis.requisition.testutils.IdealStockAmountDtoDataBuilder;
@@ -162,9 +167,12 @@ import org.openlmis.requisition.testutils.StockCardRangeSummaryDtoDataBuilder;
 import org.openlmis.requisition.testutils.SupplyLineDtoDataBuilder;
 import org.openlmis.requisition.testutils.UserDtoDataBuilder;
 import org.openlmis.requisition.utils.AuthenticationHelper;
+import org.openlmis.requisition.utils.CursorPageable;
+import org.openlmis.requisition.utils.CursorSlice;
 import org.openlmis.requisition.utils.Pagination;
 import org.openlmis.requisition.web.OrderDtoBuilder;
 import org.openlmis.requisition.web.RequisitionForConvertBuilder;
+import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -236,7 +244,7 @@ public class RequisitionServiceTest {
   private AuthenticationHelper authenticationHelper;
 
   @Mock
-  private RequisitionStatusProcessor requisitionStatusProcessor;
+  private StatusChangeNotificationService statusChangeNotificationService;
 
   @Mock
   private RequisitionForConvertBuilder requisitionForConvertBuilder;
@@ -259,6 +267,9 @@ public class RequisitionServiceTest {
   @Mock
   private SupplyLineReferenceDataService supplyLineReferenceDataService;
 
+  @Spy
+  private RemoteCallExecutor remoteCallExecutor = new RemoteCallExecutor("test", 4, 10);
+
   @InjectMocks
   private RequisitionService requisitionService;
 
@@ -553,6 +564,29 @@ public class RequisitionServiceTest {
     assertTrue(requisitionsForApproval.getContent().contains(requisitions.get(1)));
   }
 
+  @Test
+  public void shouldGetRequisitionsForApprovalByCursor() {
+    // given
+    CursorPageable cursorPageable = CursorPageable.of("", pageRequest);
+    CursorSlice<Requisition> slice = new CursorSlice<>(singletonList(requisition),
+        cursorPageable, "next");
+
+    when(requisitionRepository.searchApprovableRequisitionsByProgramSupervisoryNodePairs(
+        newHashSet(new ImmutablePair<>(program.getId(), supervisoryNode.getId())),
+        cursorPageable))
+        .thenReturn(slice);
+
+    // when
+    CursorSlice<Requisition> requisitionsForApproval =
+        requisitionService.getRequisitionsForApproval(user, null, cursorPageable);
+
+    // then
+    assertEquals(slice, requisitionsForApproval);
+    verify(requisitionRepository, never())
+        .searchApprovableRequisitionsByProgramSupervisoryNodePairs(
+            any(Set.class), any(Pageable.class));
+  }
+
   @Test
   public void shouldNotGetRequisitionsForApprovalWithoutApproveRight() {
     Set<RightDto> rights = new HashSet<>();
@@ -1118,6 +1152,7 @@ public class RequisitionServiceTest {
     List<String> permissionStrings = permissionStringsHandler
         .get()
         .stream()
+        .filter(item -> REQUISITION_VIEW.equals(item.getRightName()))
         .map(PermissionStringDto::toString)
         .collect(toList());
 
@@ -1163,6 +1198,119 @@ public class RequisitionServiceTest {
         requisition.getStatus());
   }
 
+  @Test
+  public void shouldFindRequisitionHeadersWithoutLoadingFullRequisitions() {
+    // given
+    RequisitionSearchParams params = new DefaultRequisitionSearchParamsDataBuilder()
+        .withFacility(requisition.getFacilityId())
+        .withProgram(requisition.getProgramId())
+        .build();
+
+    given(permissionService.getPermissionStrings(user.getId()))
+        .willReturn(permissionStringsHandler);
+
+    List<String> permissionStrings = permissionStringsHandler
+        .get()
+        .stream()
+        .filter(item -> REQUISITION_VIEW.equals(item.getRightName()))
+        .map(PermissionStringDto::toString)
+        .collect(toList());
+
+    given(requisitionRepository
+        .searchRequisitionHeaders(params, permissionStrings,
+            singleton(new ImmutablePair<>(program.getId(), supervisoryNode.getId())),
+            pageRequest))
+        .willReturn(getPage(singletonList(requisition), pageRequest));
+
+    // when
+    List<Requisition> receivedRequisitions = requisitionService
+        .searchRequisitionHeaders(params, pageRequest)
+        .getContent();
+
+    // then
+    assertEquals(singletonList(requisition), receivedRequisitions);
+    verify(requisitionRepository, never())
+        .searchRequisitions(eq(params), eq(permissionStrings), any(), any(Pageable.class));
+  }
+
+  @Test
+  public void shouldSearchRequisitionsOnlyWithRequisitionViewPermissionStrings() {
+    // given
+    RequisitionSearchParams params = new DefaultRequisitionSearchParamsDataBuilder().build();
+    PermissionStringDto viewRight = PermissionStringDto
+        .create(REQUISITION_VIEW, facility.getId(), program.getId());
+
+    given(permissionService.getPermissionStrings(user.getId()))
+        .willReturn(permissionStringsHandler);
+    given(permissionStringsHandler.get())
+        .willReturn(Sets.newHashSet(viewRight,
+            PermissionStringDto.create(ORDERS_EDIT, facility.getId(), program.getId())));
+    given(requisitionRepository
+        .searchRequisitionHeaders(eq(params), anyListOf(String.class), any(),
+            any(Pageable.class)))
+        .willReturn(getPage(singletonList(requisition), pageRequest));
+
+    // when
+    requisitionService.searchRequisitionHeaders(params, pageRequest);
+
+    // then
+    verify(requisitionRepository).searchRequisitionHeaders(params,
+        singletonList(viewRight.toString()),
+        singleton(new ImmutablePair<>(program.getId(), supervisoryNode.getId())), pageRequest);
+  }
+
+  @Test
+  public void shouldFindRequisitionHeadersByCursor() {
+    // given
+    RequisitionSearchParams params = new DefaultRequisitionSearchParamsDataBuilder().build();
+    CursorPageable cursorPageable = CursorPageable.of("", pageRequest);
+    CursorSlice<Requisition> slice = new CursorSlice<>(singletonList(requisition),
+        cursorPageable, null);
+
+    given(permissionService.getPermissionStrings(user.getId()))
+        .willReturn(permissionStringsHandler);
+
+    List<String> permissionStrings = permissionStringsHandler
+        .get()
+        .stream()
+        .filter(item -> REQUISITION_VIEW.equals(item.getRightName()))
+        .map(PermissionStringDto::toString)
+        .collect(toList());
+
+    given(requisitionRepository
+        .searchRequisitionHeaders(params, permissionStrings,
+            singleton(new ImmutablePair<>(program.getId(), supervisoryNode.getId())),
+            cursorPageable))
+        .willReturn(slice);
+
+    // when
+    CursorSlice<Requisition> result = requisitionService
+        .searchRequisitionHeaders(params, cursorPageable);
+
+    // then
+    assertEquals(slice, result);
+  }
+
+  @Test
+  public void searchByCursorShouldReturnEmptySliceIfUserHasNoRights() {
+    // given
+    final RequisitionSearchParams params = new DefaultRequisitionSearchParamsDataBuilder().build();
+    final CursorPageable cursorPageable = CursorPageable.of("", pageRequest);
+
+    given(authenticationHelper.getCurrentUser()).willReturn(user);
+    given(permissionStringsHandler.get()).willReturn(emptySet());
+
+    user.setRoleAssignments(Sets.newHashSet());
+
+    // when
+    CursorSlice<Requisition> result = requisitionService
+        .searchRequisitionHeaders(params, cursorPageable);
+
+    // then
+    assertEquals(0, result.getNumberOfElements());
+    assertFalse(result.hasNext());
+  }
+
   @Test
   public void searchShouldReturnEmptyListIfPermissionStringsIsEmptyAndUserHasNoRoleAssignments() {
     // given
@@ -1188,6 +1336,56 @@ public class RequisitionServiceTest {
     assertEquals(0, receivedRequisitions.size());
   }
 
+  @Test
+  public void shouldSearchFacilitiesWithoutRequisitionsVisibleToUser() {
+    // given
+    final List<UUID> facilities = singletonList(facility.getId());
+    final Set<RequisitionStatus> statuses = EnumSet.of(RequisitionStatus.APPROVED);
+    final PermissionStringDto viewRight = PermissionStringDto
+        .create(REQUISITION_VIEW, facility.getId(), program.getId());
+
+    given(permissionService.getPermissionStrings(user.getId()))
+        .willReturn(permissionStringsHandler);
+    given(permissionStringsHandler.get())
+        .willReturn(Sets.newHashSet(viewRight,
+            PermissionStringDto.create(ORDERS_EDIT, facility.getId(), program.getId())));
+    given(requisitionRepository.searchFacilitiesWithoutRequisitions(eq(facilities),
+        eq(program.getId()), eq(processingPeriod.getId()), eq(statuses),
+        anyListOf(String.class), any()))
+        .willReturn(facilities);
+
+    // when
+    List<UUID> result = requisitionService.searchFacilitiesWithoutRequisitions(facilities,
+        program.getId(), processingPeriod.getId(), statuses);
+
+    // then
+    assertEquals(facilities, result);
+    verify(requisitionRepository).searchFacilitiesWithoutRequisitions(facilities,
+        program.getId(), processingPeriod.getId(), statuses, singletonList(viewRight.toString()),
+        singleton(new ImmutablePair<>(program.getId(), supervisoryNode.getId())));
+  }
+
+  @Test
+  public void shouldReturnAllFacilitiesAsWithoutRequisitionsIfUserHasNoRights() {
+    // given
+    final List<UUID> facilities = singletonList(facility.getId());
+    final Set<RequisitionStatus> statuses = EnumSet.of(RequisitionStatus.APPROVED);
+
+    given(authenticationHelper.getCurrentUser()).willReturn(user);
+    given(permissionStringsHandler.get()).willReturn(emptySet());
+
+    user.setRoleAssignments(Sets.newHashSet());
+
+    // when
+    List<UUID> result = requisitionService.searchFacilitiesWithoutRequisitions(facilities,
+        program.getId(), processingPeriod.getId(), statuses);
+
+    // then
+    assertEquals(facilities, result);
+    verify(requisitionRepository, never()).searchFacilitiesWithoutRequisitions(any(), any(),
+        any(), any(), any(), any());
+  }
+
   @Test
   public void shouldFilterRequisitionsForConvertByFacilityIdAndProgramId() {
     // given
@@ -1324,9 +1522,59 @@ public class RequisitionServiceTest {
     when(requisitionForConvertBuilder.getAvailableSupplyingDepots(any(UUID.class)))
         .thenReturn(facilities);
 
+    List<Requisition> released = requisitionService.convertToOrder(list, user);
+
+    verify(statusChangeNotificationService).enqueue(released, LocaleContextHolder.getLocale());
+    verify(statusChangeNotificationService, never())
+        .enqueue(any(Requisition.class), any(Locale.class));
+  }
+
+  @Test
+  public void shouldSaveRequisitionsConvertedToOrdersWithSingleFlush() {
+    List<ReleasableRequisitionDto> list = setUpReleaseRequisitionsAsOrder(5, APPROVED);
+
+    List<FacilityDto> facilities = list.stream()
+        .map(r -> facilityReferenceDataService.findOne(r.getSupplyingDepotId()))
+        .collect(toList());
+
+    when(fulfillmentFacilitiesReferenceDataService.getFulfillmentFacilities(user.getId(),
+        convertToOrderRight.getId())).thenReturn(facilities);
+    when(requisitionForConvertBuilder.getAvailableSupplyingDepots(any(UUID.class)))
+        .thenReturn(facilities);
+
+    List<Requisition> released = requisitionService.convertToOrder(list, user);
+
+    InOrder order = inOrder(requisitionRepository, orderFulfillmentService);
+    order.verify(requisitionRepository).save(released);
+    order.verify(requisitionRepository).flush();
+    order.verify(orderFulfillmentService).create(anyListOf(OrderDto.class));
+    verify(requisitionRepository, never()).save(any(Requisition.class));
+  }
+
+  @Test
+  public void shouldGetSupplyingDepotsOncePerProgramAndSupervisoryNode() {
+    List<ReleasableRequisitionDto> list = setUpReleaseRequisitionsAsOrder(5, APPROVED);
+
+    List<FacilityDto> facilities = list.stream()
+        .map(r -> facilityReferenceDataService.findOne(r.getSupplyingDepotId()))
+        .collect(toList());
+    UUID programId = UUID.randomUUID();
+    UUID supervisoryNodeId = UUID.randomUUID();
+    list.stream()
+        .map(r -> requisitionRepository.findOne(r.getRequisitionId()))
+        .forEach(r -> {
+          r.setProgramId(programId);
+          r.setSupervisoryNodeId(supervisoryNodeId);
+        });
+
+    when(fulfillmentFacilitiesReferenceDataService.getFulfillmentFacilities(user.getId(),
+        convertToOrderRight.getId())).thenReturn(facilities);
+    when(requisitionForConvertBuilder.getAvailableSupplyingDepots(any(UUID.class)))
+        .thenReturn(facilities);
+
     requisitionService.convertToOrder(list, user);
 
-    verify(requisitionStatusProcessor).statusChange(any(Requisition.class), any(Locale.class));
+    verify(requisitionForConvertBuilder).getAvailableSupplyingDepots(any(UUID.class));
   }
 
   @Test
@@ -1414,6 +1662,21 @@ public class RequisitionServiceTest {
     }
   }
 
+  @Test
+  public void shouldSaveRequisitionsReleasedWithoutOrderWithSingleFlush() {
+    List<ReleasableRequisitionDto> requisitions = setUpReleaseRequisitionsAsOrder(5,
+        APPROVED);
+
+    List<Requisition> released = requisitionService.releaseWithoutOrder(requisitions);
+
+    InOrder order = inOrder(requisitionRepository, statusChangeNotificationService);
+    order.verify(requisitionRepository).save(released);
+    order.verify(statusChangeNotificationService)
+        .enqueue(released, LocaleContextHolder.getLocale());
+    order.verify(requisitionRepository).flush();
+    verify(requisitionRepository, never()).save(any(Requisition.class));
+  }
+
   @Test
   public void shouldReleaseRequisitionsWithoutOrderIfApprovedQtyDisabled() {
     // given
@@ -112,7 +112,8 @@ public class RequisitionStatusNotifierTest {
     when(authorizeAuditEntry.getAuthorId()).thenReturn(user.getId());
     when(authorizeAuditEntry.getCreatedDate()).thenReturn(ZonedDateTime.now());
 
-    requisitionStatusNotifier.notifyStatusChanged(requisition, locale);
+    requisitionStatusNotifier.notifyStatusChanged(requisition, locale, new ReferenceDataMemo(),
+        new DeliveredNotifications());
 
     verify(notificationService).notify(refEq(user),
         eq(REQUISITION_EMAIL_STATUS_UPDATE_SUBJECT),
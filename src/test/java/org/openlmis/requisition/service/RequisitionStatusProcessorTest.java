@@ -58,6 +58,9 @@ public class RequisitionStatusProcessorTest {
 
   private SupervisoryNodeDto supervisoryNodeDto;
   private Locale locale = Locale.ENGLISH;
+  private ReferenceDataMemo memo = new ReferenceDataMemo();
+  private ApprovalDigest digest = new ApprovalDigest();
+  private DeliveredNotifications delivered = new DeliveredNotifications();
 
 
   @InjectMocks
@@ -76,9 +79,10 @@ public class RequisitionStatusProcessorTest {
     Requisition requisition = mock(Requisition.class);
     when(requisition.getStatus()).thenReturn(RequisitionStatus.RELEASED);
 
-    requisitionStatusProcessor.statusChange(requisition, locale);
+    requisitionStatusProcessor.statusChange(requisition, locale, memo, digest, delivered);
 
-    verify(convertToOrderNotifier).notifyConvertToOrder(eq(requisition), eq(locale));
+    verify(convertToOrderNotifier).notifyConvertToOrder(eq(requisition), eq(locale),
+        any(ReferenceDataMemo.class), any(DeliveredNotifications.class));
   }
 
   @Test
@@ -86,9 +90,10 @@ public class RequisitionStatusProcessorTest {
     Requisition requisition = mock(Requisition.class);
     when(requisition.isPreAuthorize()).thenReturn(true);
 
-    requisitionStatusProcessor.statusChange(requisition, locale);
+    requisitionStatusProcessor.statusChange(requisition, locale, memo, digest, delivered);
 
-    verify(requisitionStatusNotifier, never()).notifyStatusChanged(eq(requisition), eq(locale));
+    verify(requisitionStatusNotifier, never()).notifyStatusChanged(eq(requisition), eq(locale),
+        any(ReferenceDataMemo.class), any(DeliveredNotifications.class));
   }
 
   @Test
@@ -96,9 +101,10 @@ public class RequisitionStatusProcessorTest {
     Requisition requisition = mock(Requisition.class);
     when(requisition.isPreAuthorize()).thenReturn(false);
 
-    requisitionStatusProcessor.statusChange(requisition, locale);
+    requisitionStatusProcessor.statusChange(requisition, locale, memo, digest, delivered);
 
-    verify(requisitionStatusNotifier).notifyStatusChanged(eq(requisition), eq(locale));
+    verify(requisitionStatusNotifier).notifyStatusChanged(eq(requisition), eq(locale),
+        any(ReferenceDataMemo.class), any(DeliveredNotifications.class));
   }
 
   @Test
@@ -106,9 +112,9 @@ public class RequisitionStatusProcessorTest {
     Requisition requisition = mock(Requisition.class);
     when(requisition.isApprovable()).thenReturn(true);
 
-    requisitionStatusProcessor.statusChange(requisition, locale);
+    requisitionStatusProcessor.statusChange(requisition, locale, memo, digest, delivered);
 
-    verify(approvalNotifier).notifyApprovers(eq(requisition), eq(locale));
+    verify(approvalNotifier).addToDigest(requisition, locale, memo, digest, delivered);
   }
 
   @Test
@@ -116,8 +122,49 @@ public class RequisitionStatusProcessorTest {
     Requisition requisition = mock(Requisition.class);
     when(requisition.getStatus()).thenReturn(RequisitionStatus.APPROVED);
 
-    requisitionStatusProcessor.statusChange(requisition, locale);
+    requisitionStatusProcessor.statusChange(requisition, locale, memo, digest, delivered);
 
-    verify(approvedRequisitionNotifier).notifyClerks(eq(requisition), eq(locale));
+    verify(approvedRequisitionNotifier).notifyClerks(eq(requisition), eq(locale),
+        any(ReferenceDataMemo.class), any(DeliveredNotifications.class));
+  }
+
+  @Test
+  public void shouldPassGivenMemoToNotifiers() {
+    Requisition requisition = mock(Requisition.class);
+    when(requisition.getStatus()).thenReturn(RequisitionStatus.APPROVED);
+    when(requisition.isApprovable()).thenReturn(true);
+
+    requisitionStatusProcessor.statusChange(requisition, locale, memo, digest, delivered);
+
+    verify(requisitionStatusNotifier).notifyStatusChanged(eq(requisition), eq(locale), eq(memo),
+        any(DeliveredNotifications.class));
+    verify(approvalNotifier).addToDigest(eq(requisition), eq(locale), eq(memo),
+        any(ApprovalDigest.class), any(DeliveredNotifications.class));
+    verify(approvedRequisitionNotifier).notifyClerks(eq(requisition), eq(locale), eq(memo),
+        any(DeliveredNotifications.class));
+  }
+
+  @Test
+  public void shouldPassGivenDeliveredNotificationsToNotifiers() {
+    Requisition requisition = mock(Requisition.class);
+    when(requisition.getStatus()).thenReturn(RequisitionStatus.APPROVED);
+    when(requisition.isApprovable()).thenReturn(true);
+
+    requisitionStatusProcessor.statusChange(requisition, locale, memo, digest, delivered);
+
+    verify(requisitionStatusNotifier).notifyStatusChanged(requisition, locale, memo, delivered);
+    verify(approvalNotifier).addToDigest(requisition, locale, memo, digest, delivered);
+    verify(approvedRequisitionNotifier).notifyClerks(requisition, locale, memo, delivered);
+  }
+
+  @Test
+  public void shouldAddApproversToGivenDigestWithoutNotifyingThem() {
+    Requisition requisition = mock(Requisition.class);
+    when(requisition.isApprovable()).thenReturn(true);
+
+    requisitionStatusProcessor.statusChange(requisition, locale, memo, digest, delivered);
+
+    verify(approvalNotifier).addToDigest(requisition, locale, memo, digest, delivered);
+    verify(approvalNotifier, never()).notifyApprovers(any(ApprovalDigest.class));
   }
 }
@@ -0,0 +1,87 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Map;
+import org.apache.http.pool.PoolStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestOperations;
+import org.springframework.web.client.RestTemplate;
+
+public class RestClientFactoryTest {
+
+  private static final String REFERENCE_DATA = "Reference Data";
+  private static final String FULFILLMENT = "Fulfillment";
+
+  private RestClientFactory factory = new RestClientFactory();
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(factory, "maxTotal", 10);
+    ReflectionTestUtils.setField(factory, "maxPerRoute", 5);
+    ReflectionTestUtils.setField(factory, "connectTimeout", 1000);
+    ReflectionTestUtils.setField(factory, "connectionRequestTimeout", 1000);
+    ReflectionTestUtils.setField(factory, "readTimeout", 1000);
+    ReflectionTestUtils.setField(factory, "idleTimeout", 1000L);
+    ReflectionTestUtils.setField(factory, "gzip", true);
+  }
+
+  @After
+  public void tearDown() {
+    factory.shutdown();
+  }
+
+  @Test
+  public void shouldCreatePooledRestClient() {
+    RestOperations client = factory.getRestClient(REFERENCE_DATA);
+
+    assertThat(client, is(instanceOf(RestTemplate.class)));
+    assertThat(((RestTemplate) client).getRequestFactory(),
+        is(instanceOf(HttpComponentsClientHttpRequestFactory.class)));
+  }
+
+  @Test
+  public void shouldShareRestClientOfTheSameService() {
+    RestOperations client = factory.getRestClient(REFERENCE_DATA);
+
+    assertThat(factory.getRestClient(REFERENCE_DATA), is(sameInstance(client)));
+    assertThat(factory.getRestClient(FULFILLMENT), is(not(sameInstance(client))));
+  }
+
+  @Test
+  public void shouldReturnPoolStatsOfEachService() {
+    factory.getRestClient(REFERENCE_DATA);
+    factory.getRestClient(FULFILLMENT);
+
+    Map<String, PoolStats> stats = factory.getPoolStats();
+
+    assertThat(stats, hasKey(REFERENCE_DATA));
+    assertThat(stats, hasKey(FULFILLMENT));
+    assertThat(stats.get(REFERENCE_DATA).getMax(), is(10));
+    assertThat(stats.get(REFERENCE_DATA).getLeased(), is(0));
+  }
+}
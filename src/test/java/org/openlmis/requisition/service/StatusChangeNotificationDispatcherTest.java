@@ -0,0 +1,328 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionDataBuilder;
+import org.openlmis.requisition.domain.requisition.RequisitionStatus;
+import org.openlmis.requisition.domain.requisition.StatusChangeNotification;
+import org.openlmis.requisition.dto.UserDto;
+import org.openlmis.requisition.repository.RequisitionRepository;
+import org.openlmis.requisition.testutils.UserDtoDataBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StatusChangeNotificationDispatcherTest {
+
+  private static final int BATCH_SIZE = 2;
+  private static final String NOTIFICATION_TAG = "tag";
+
+  @Mock
+  private StatusChangeNotificationService statusChangeNotificationService;
+
+  @Mock
+  private RequisitionStatusProcessor requisitionStatusProcessor;
+
+  @Mock
+  private ApprovalNotifier approvalNotifier;
+
+  @Mock
+  private RequisitionRepository requisitionRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @InjectMocks
+  private StatusChangeNotificationDispatcher dispatcher;
+
+  private RemoteCallExecutor executor = new RemoteCallExecutor("test", 2, 10);
+
+  private Requisition approved = new RequisitionDataBuilder()
+      .withStatus(RequisitionStatus.APPROVED)
+      .build();
+  private Requisition authorized = new RequisitionDataBuilder()
+      .withStatus(RequisitionStatus.AUTHORIZED)
+      .build();
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(dispatcher, "statusChangeNotificationExecutor", executor);
+    ReflectionTestUtils.setField(dispatcher, "batchSize", BATCH_SIZE);
+
+    when(requisitionRepository.findOne(approved.getId())).thenReturn(approved);
+    when(requisitionRepository.findOne(authorized.getId())).thenReturn(authorized);
+    when(statusChangeNotificationService.getLag()).thenReturn(Duration.ZERO);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Test
+  public void shouldSendAllRequisitionsOfBatchWithSharedMemo() {
+    StatusChangeNotification first = newEntry(approved);
+    StatusChangeNotification second = newEntry(authorized);
+
+    dispatcher.send(Arrays.asList(first, second));
+
+    ArgumentCaptor<ReferenceDataMemo> memos = ArgumentCaptor.forClass(ReferenceDataMemo.class);
+    ArgumentCaptor<ApprovalDigest> digests = ArgumentCaptor.forClass(ApprovalDigest.class);
+    verify(requisitionStatusProcessor)
+        .statusChange(eq(approved), eq(Locale.ENGLISH), memos.capture(), digests.capture(),
+            any(DeliveredNotifications.class));
+    verify(requisitionStatusProcessor)
+        .statusChange(eq(authorized), eq(Locale.ENGLISH), memos.capture(), digests.capture(),
+            any(DeliveredNotifications.class));
+    assertThat(memos.getAllValues().get(0), is(memos.getAllValues().get(1)));
+    assertThat(digests.getAllValues().get(0), is(digests.getAllValues().get(1)));
+    verify(approvalNotifier).notifyApprovers(digests.getValue());
+
+    assertThat(captureSentIds(), containsInAnyOrder(first.getId(), second.getId()));
+    assertThat(dispatcher.getSentCount(), is(2L));
+  }
+
+  @Test
+  public void shouldSkipOutdatedEntries() {
+    StatusChangeNotification outdated = newEntry(approved);
+    approved.setStatus(RequisitionStatus.RELEASED);
+
+    dispatcher.send(Collections.singletonList(outdated));
+
+    verify(requisitionStatusProcessor, never())
+        .statusChange(any(Requisition.class), any(Locale.class), any(ReferenceDataMemo.class),
+            any(ApprovalDigest.class), any(DeliveredNotifications.class));
+    assertThat(captureSentIds(), containsInAnyOrder(outdated.getId()));
+    assertThat(dispatcher.getOutdatedCount(), is(1L));
+  }
+
+  @Test
+  public void shouldSendDuplicatedEntriesOfRequisitionOnlyOnce() {
+    StatusChangeNotification first = newEntry(approved);
+    StatusChangeNotification duplicate = newEntry(approved);
+
+    dispatcher.send(Arrays.asList(first, duplicate));
+
+    verify(requisitionStatusProcessor, times(1))
+        .statusChange(eq(approved), eq(Locale.ENGLISH), any(ReferenceDataMemo.class),
+            any(ApprovalDigest.class), any(DeliveredNotifications.class));
+    assertThat(captureSentIds(), containsInAnyOrder(first.getId(), duplicate.getId()));
+  }
+
+  @Test
+  public void shouldRetryEntriesThatCouldNotBeSent() {
+    StatusChangeNotification failing = newEntry(approved);
+    StatusChangeNotification other = newEntry(authorized);
+    IllegalStateException exception = new IllegalStateException("notification failed");
+    doThrow(exception).when(requisitionStatusProcessor)
+        .statusChange(eq(approved), any(Locale.class), any(ReferenceDataMemo.class),
+            any(ApprovalDigest.class), any(DeliveredNotifications.class));
+
+    dispatcher.send(Arrays.asList(failing, other));
+
+    verify(statusChangeNotificationService).markFailed(same(failing), same(exception),
+        eq(Collections.emptySet()));
+    assertThat(captureSentIds(), containsInAnyOrder(other.getId()));
+    assertThat(dispatcher.getFailedCount(), is(1L));
+  }
+
+  @Test
+  public void shouldRetryEntriesIfNotificationServiceIsUnavailable() {
+    StatusChangeNotification entry = newEntry(approved);
+    HttpServerErrorException exception =
+        new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+    doThrow(exception).when(requisitionStatusProcessor)
+        .statusChange(eq(approved), any(Locale.class), any(ReferenceDataMemo.class),
+            any(ApprovalDigest.class), any(DeliveredNotifications.class));
+
+    dispatcher.send(Collections.singletonList(entry));
+
+    verify(statusChangeNotificationService).markFailed(same(entry), same(exception),
+        eq(Collections.emptySet()));
+    assertThat(captureSentIds(), is(empty()));
+  }
+
+  @Test
+  public void shouldRecordNotificationsDeliveredBeforeFailure() {
+    StatusChangeNotification entry = newEntry(approved);
+    IllegalStateException exception = new IllegalStateException("notification failed");
+    UserDto user = new UserDtoDataBuilder().buildAsDto();
+    doAnswer(invocation -> {
+      invocation.getArgumentAt(4, DeliveredNotifications.class).add(user, NOTIFICATION_TAG);
+      throw exception;
+    }).when(requisitionStatusProcessor)
+        .statusChange(eq(approved), any(Locale.class), any(ReferenceDataMemo.class),
+            any(ApprovalDigest.class), any(DeliveredNotifications.class));
+
+    dispatcher.send(Collections.singletonList(entry));
+
+    verify(statusChangeNotificationService).markFailed(same(entry), same(exception),
+        eq(Collections.singleton(NOTIFICATION_TAG + "|" + user.getId())));
+  }
+
+  @Test
+  public void shouldNotSendAgainNotificationsDeliveredByPreviousAttempts() {
+    StatusChangeNotification entry = newEntry(approved);
+    UserDto user = new UserDtoDataBuilder().buildAsDto();
+    entry.attemptFailed("failed", ZonedDateTime.now(),
+        Collections.singleton(NOTIFICATION_TAG + "|" + user.getId()));
+
+    dispatcher.send(Collections.singletonList(entry));
+
+    ArgumentCaptor<DeliveredNotifications> delivered =
+        ArgumentCaptor.forClass(DeliveredNotifications.class);
+    verify(requisitionStatusProcessor)
+        .statusChange(eq(approved), eq(Locale.ENGLISH), any(ReferenceDataMemo.class),
+            any(ApprovalDigest.class), delivered.capture());
+    assertTrue(delivered.getValue().contains(user, NOTIFICATION_TAG));
+  }
+
+  @Test
+  public void shouldNotifyApproversBeforeMarkingEntriesAsSent() {
+    StatusChangeNotification entry = newEntry(authorized);
+
+    dispatcher.send(Collections.singletonList(entry));
+
+    InOrder order = inOrder(statusChangeNotificationService, approvalNotifier);
+    order.verify(approvalNotifier).notifyApprovers(any(ApprovalDigest.class));
+    order.verify(statusChangeNotificationService).markSent(any());
+  }
+
+  @Test
+  public void shouldRetryEntriesWhoseApproversCouldNotBeNotified() {
+    StatusChangeNotification entry = newEntry(authorized);
+    StatusChangeNotification other = newEntry(approved);
+    ResourceAccessException exception = new ResourceAccessException("notification failed");
+    UserDto approver = new UserDtoDataBuilder().buildAsDto();
+    addToDigest(authorized, approver);
+    when(approvalNotifier.notifyApprovers(any(ApprovalDigest.class)))
+        .thenAnswer(invocation -> invocation.getArgumentAt(0, ApprovalDigest.class)
+            .getRecipients()
+            .stream()
+            .collect(Collectors.toMap(Function.identity(), recipient -> exception)));
+
+    dispatcher.send(Arrays.asList(entry, other));
+
+    verify(statusChangeNotificationService).markFailed(same(entry), same(exception),
+        eq(Collections.emptySet()));
+    assertThat(captureSentIds(), containsInAnyOrder(other.getId()));
+    assertThat(dispatcher.getFailedCount(), is(1L));
+  }
+
+  @Test
+  public void shouldRecordNotifiedApproversOfEntriesThatFailed() {
+    StatusChangeNotification entry = newEntry(approved);
+    IllegalStateException exception = new IllegalStateException("notification failed");
+    UserDto approver = new UserDtoDataBuilder().buildAsDto();
+    doAnswer(invocation -> {
+      invocation.getArgumentAt(3, ApprovalDigest.class).add(approver, Locale.ENGLISH,
+          Collections.emptyMap(), invocation.getArgumentAt(4, DeliveredNotifications.class));
+      throw exception;
+    }).when(requisitionStatusProcessor)
+        .statusChange(eq(approved), any(Locale.class), any(ReferenceDataMemo.class),
+            any(ApprovalDigest.class), any(DeliveredNotifications.class));
+    when(approvalNotifier.notifyApprovers(any(ApprovalDigest.class)))
+        .thenAnswer(invocation -> {
+          invocation.getArgumentAt(0, ApprovalDigest.class).getRecipients()
+              .forEach(recipient -> recipient.getDelivered().forEach(delivered -> delivered
+                  .add(recipient.getUser(), NOTIFICATION_TAG)));
+          return Collections.emptyMap();
+        });
+
+    dispatcher.send(Collections.singletonList(entry));
+
+    verify(statusChangeNotificationService).markFailed(same(entry), same(exception),
+        eq(Collections.singleton(NOTIFICATION_TAG + "|" + approver.getId())));
+    assertThat(captureSentIds(), is(empty()));
+  }
+
+  @Test
+  public void shouldTakeBatchesUntilThereAreNoMoreEntries() {
+    List<StatusChangeNotification> full = Arrays.asList(newEntry(approved),
+        newEntry(authorized));
+    when(statusChangeNotificationService.claim(BATCH_SIZE))
+        .thenReturn(full)
+        .thenReturn(Collections.emptyList());
+
+    dispatcher.dispatch();
+
+    verify(statusChangeNotificationService, times(2)).claim(BATCH_SIZE);
+    verify(statusChangeNotificationService, times(1)).markSent(any());
+  }
+
+  private void addToDigest(Requisition requisition, UserDto approver) {
+    doAnswer(invocation -> {
+      invocation.getArgumentAt(3, ApprovalDigest.class).add(approver, Locale.ENGLISH,
+          Collections.emptyMap(), invocation.getArgumentAt(4, DeliveredNotifications.class));
+      return null;
+    }).when(requisitionStatusProcessor)
+        .statusChange(eq(requisition), any(Locale.class), any(ReferenceDataMemo.class),
+            any(ApprovalDigest.class), any(DeliveredNotifications.class));
+  }
+
+  private StatusChangeNotification newEntry(Requisition requisition) {
+    StatusChangeNotification entry = StatusChangeNotification
+        .newStatusChangeNotification(requisition, Locale.ENGLISH, null);
+    entry.setId(UUID.randomUUID());
+    return entry;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Collection<UUID> captureSentIds() {
+    ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+    verify(statusChangeNotificationService).markSent(captor.capture());
+    return captor.getValue();
+  }
+}
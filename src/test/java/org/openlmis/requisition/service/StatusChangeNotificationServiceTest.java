@@ -0,0 +1,230 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionDataBuilder;
+import org.openlmis.requisition.domain.requisition.RequisitionStatus;
+import org.openlmis.requisition.domain.requisition.StatusChangeNotification;
+import org.openlmis.requisition.repository.StatusChangeNotificationRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StatusChangeNotificationServiceTest {
+
+  private static final long LEASE = 60_000;
+  private static final long INITIAL_DELAY = 1_000;
+  private static final long MAX_DELAY = 5_000;
+  private static final int MAX_ATTEMPTS = 3;
+
+  @Mock
+  private StatusChangeNotificationRepository statusChangeNotificationRepository;
+
+  @InjectMocks
+  private StatusChangeNotificationService statusChangeNotificationService;
+
+  private ZonedDateTime now = ZonedDateTime.of(2019, 12, 23, 10, 0, 0, 0, ZoneOffset.UTC);
+
+  private Requisition requisition = new RequisitionDataBuilder()
+      .withStatus(RequisitionStatus.AUTHORIZED)
+      .withSupervisoryNodeId(UUID.randomUUID())
+      .build();
+
+  private StatusChangeNotification entry;
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(statusChangeNotificationService, "clock",
+        Clock.fixed(Instant.from(now), ZoneOffset.UTC));
+    ReflectionTestUtils.setField(statusChangeNotificationService, "lease", LEASE);
+    ReflectionTestUtils.setField(statusChangeNotificationService, "retryInitialDelay",
+        INITIAL_DELAY);
+    ReflectionTestUtils.setField(statusChangeNotificationService, "retryMaxDelay", MAX_DELAY);
+    ReflectionTestUtils.setField(statusChangeNotificationService, "retryMaxAttempts",
+        MAX_ATTEMPTS);
+
+    entry = StatusChangeNotification
+        .newStatusChangeNotification(requisition, Locale.FRENCH, now);
+    entry.setId(UUID.randomUUID());
+
+    when(statusChangeNotificationRepository.save(any(StatusChangeNotification.class)))
+        .thenAnswer(invocation -> invocation.getArguments()[0]);
+    when(statusChangeNotificationRepository.findOne(entry.getId())).thenReturn(entry);
+  }
+
+  @Test
+  public void shouldEnqueueCurrentStatusOfRequisition() {
+    ArgumentCaptor<StatusChangeNotification> captor =
+        ArgumentCaptor.forClass(StatusChangeNotification.class);
+
+    statusChangeNotificationService.enqueue(requisition, Locale.FRENCH);
+
+    verify(statusChangeNotificationRepository).save(captor.capture());
+    StatusChangeNotification saved = captor.getValue();
+    assertThat(saved.getRequisitionId(), is(requisition.getId()));
+    assertThat(saved.getStatus(), is(RequisitionStatus.AUTHORIZED));
+    assertThat(saved.getSupervisoryNodeId(), is(requisition.getSupervisoryNodeId()));
+    assertThat(saved.getLocale(), is(Locale.FRENCH));
+    assertThat(saved.getNextAttemptDate(), is(now));
+  }
+
+  @Test
+  public void shouldEnqueueCurrentStatusOfManyRequisitionsAtOnce() {
+    Requisition other = new RequisitionDataBuilder()
+        .withStatus(RequisitionStatus.RELEASED)
+        .build();
+    when(statusChangeNotificationRepository.save(anyListOf(StatusChangeNotification.class)))
+        .thenAnswer(invocation -> invocation.getArguments()[0]);
+
+    List<StatusChangeNotification> saved = statusChangeNotificationService
+        .enqueue(Arrays.asList(requisition, other), Locale.FRENCH);
+
+    assertThat(saved, hasSize(2));
+    assertThat(saved.get(0).getRequisitionId(), is(requisition.getId()));
+    assertThat(saved.get(1).getRequisitionId(), is(other.getId()));
+    assertThat(saved.get(1).getStatus(), is(RequisitionStatus.RELEASED));
+    assertThat(saved.get(1).getNextAttemptDate(), is(now));
+    verify(statusChangeNotificationRepository, never()).save(any(StatusChangeNotification.class));
+  }
+
+  @Test
+  public void shouldLeaseClaimedEntries() {
+    when(statusChangeNotificationRepository.findDueForUpdate(10))
+        .thenReturn(Collections.singletonList(entry));
+
+    List<StatusChangeNotification> claimed = statusChangeNotificationService.claim(10);
+
+    assertThat(claimed, contains(entry));
+    assertThat(entry.getNextAttemptDate(), is(now.plusSeconds(60)));
+  }
+
+  @Test
+  public void shouldDeleteSentEntries() {
+    List<UUID> ids = Collections.singletonList(entry.getId());
+
+    statusChangeNotificationService.markSent(ids);
+
+    verify(statusChangeNotificationRepository).deleteByIdIn(ids);
+  }
+
+  @Test
+  public void shouldNotDeleteAnythingIfNoEntriesWereSent() {
+    statusChangeNotificationService.markSent(Collections.emptyList());
+
+    verify(statusChangeNotificationRepository, never()).deleteByIdIn(anyCollectionOf(UUID.class));
+  }
+
+  @Test
+  public void shouldScheduleNextAttemptWithExponentialBackoff() {
+    statusChangeNotificationService.markFailed(entry, new IllegalStateException("first"),
+        Collections.emptySet());
+
+    assertThat(entry.getAttempts(), is(1));
+    assertThat(entry.getNextAttemptDate(), is(now.plusSeconds(1)));
+    assertThat(entry.getLastError(), is(new IllegalStateException("first").toString()));
+
+    statusChangeNotificationService.markFailed(entry, new IllegalStateException("second"),
+        Collections.emptySet());
+
+    assertThat(entry.getAttempts(), is(2));
+    assertThat(entry.getNextAttemptDate(), is(now.plusSeconds(2)));
+  }
+
+  @Test
+  public void shouldKeepNotificationsDeliveredBeforeFailure() {
+    statusChangeNotificationService.markFailed(entry, new IllegalStateException(),
+        Collections.singleton("tag|first"));
+
+    assertThat(entry.getDeliveredTo(), contains("tag|first"));
+
+    statusChangeNotificationService.markFailed(entry, new IllegalStateException(),
+        Arrays.asList("tag|first", "tag|second"));
+
+    assertThat(entry.getDeliveredTo(), contains("tag|first", "tag|second"));
+  }
+
+  @Test
+  public void shouldNotRetryAfterMaxNumberOfAttempts() {
+    for (int attempt = 0; attempt < MAX_ATTEMPTS; ++attempt) {
+      statusChangeNotificationService.markFailed(entry, new IllegalStateException(),
+          Collections.emptySet());
+    }
+
+    assertThat(entry.getAttempts(), is(MAX_ATTEMPTS));
+    assertThat(entry.getNextAttemptDate(), is(nullValue()));
+  }
+
+  @Test
+  public void shouldIgnoreFailureOfEntryThatWasRemoved() {
+    when(statusChangeNotificationRepository.findOne(entry.getId())).thenReturn(null);
+
+    statusChangeNotificationService.markFailed(entry, new IllegalStateException(),
+        Collections.emptySet());
+
+    verify(statusChangeNotificationRepository, never()).save(any(StatusChangeNotification.class));
+  }
+
+  @Test
+  public void shouldLimitRetryDelay() {
+    assertThat(statusChangeNotificationService.getRetryDelay(1), is(INITIAL_DELAY));
+    assertThat(statusChangeNotificationService.getRetryDelay(3), is(4 * INITIAL_DELAY));
+    assertThat(statusChangeNotificationService.getRetryDelay(4), is(MAX_DELAY));
+    assertThat(statusChangeNotificationService.getRetryDelay(100), is(MAX_DELAY));
+  }
+
+  @Test
+  public void shouldReturnAgeOfOldestPendingEntryAsLag() {
+    entry.setCreatedDate(now.minusMinutes(5));
+    when(statusChangeNotificationRepository
+        .findFirstByNextAttemptDateNotNullOrderByCreatedDateAsc()).thenReturn(entry);
+
+    assertThat(statusChangeNotificationService.getLag(), is(Duration.ofMinutes(5)));
+  }
+
+  @Test
+  public void shouldReturnNoLagIfThereAreNoPendingEntries() {
+    assertThat(statusChangeNotificationService.getLag(), is(Duration.ZERO));
+  }
+}
@@ -17,6 +17,7 @@ package org.openlmis.requisition.service.notification;
 
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -34,7 +35,9 @@ import org.openlmis.requisition.service.AuthService;
 import org.openlmis.requisition.testutils.DtoGenerator;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -78,4 +81,14 @@ public class NotificationServiceTest {
     assertEquals(singletonList("Bearer " + ACCESS_TOKEN), captor.getValue().getHeaders()
             .get(HttpHeaders.AUTHORIZATION));
   }
+
+  @Test(expected = HttpServerErrorException.class)
+  public void shouldThrowExceptionIfNotificationServiceIsUnavailable() throws Exception {
+    UserDto user = DtoGenerator.of(UserDto.class);
+    when(restTemplate.postForObject(eq(new URI(BASE_URL + "/api/notifications")),
+        any(HttpEntity.class), eq(Object.class)))
+        .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+    notificationService.notify(user, MAIL_SUBJECT, MAIL_CONTENT, SMS_CONTENT, MAIL_TAG);
+  }
 }
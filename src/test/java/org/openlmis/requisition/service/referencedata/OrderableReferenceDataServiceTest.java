@@ -16,11 +16,18 @@
 package org.openlmis.requisition.service.referencedata;
 
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
@@ -103,4 +110,59 @@ public class OrderableReferenceDataServiceTest extends BaseReferenceDataServiceT
         .hasEmptyBody()
         .isUriStartsWith(service.getServiceUrl() + service.getUrl());
   }
+
+  @Test
+  public void shouldSearchOnlyOrderablesThatAreNotCached() {
+    // given
+    enableVersionedCache();
+
+    OrderableDto cached = new OrderableDtoDataBuilder().withVersionNumber(2L).buildAsDto();
+    service.getVersionedCache().put(cached.getIdentity(), cached);
+
+    VersionEntityReference cachedReference = new VersionEntityReference(cached.getId(), 2L);
+    VersionEntityReference reference = new VersionEntityReference(UUID.randomUUID(), 1L);
+
+    final OrderableSearchParams searchParams = new OrderableSearchParams(null, null, null,
+        Lists.newArrayList(new VersionIdentityDto(reference)), 0, 1);
+
+    // when
+    OrderableDto product = mockPageResponseEntityAndGetDto();
+    List<OrderableDto> response = service
+        .findByIdentities(Sets.newHashSet(cachedReference, reference));
+
+    // then
+    assertThat(response, hasSize(2));
+    assertThat(response, hasItems(cached, product));
+    assertThat(service.getVersionedCache().getIfPresent(product.getIdentity()), is(product));
+
+    verifyPageRequest()
+        .isPostRequest()
+        .hasAuthHeader()
+        .hasBody(searchParams);
+  }
+
+  @Test
+  public void shouldNotSearchOrderablesIfAllAreCached() {
+    // given
+    disableAuthCheck();
+    enableVersionedCache();
+
+    OrderableDto cached = new OrderableDtoDataBuilder().buildAsDto();
+    service.getVersionedCache().put(cached.getIdentity(), cached);
+
+    // when
+    List<OrderableDto> response = service.findByIdentities(Collections.singleton(
+        new VersionEntityReference(cached.getId(), cached.getVersionNumber())));
+
+    // then
+    assertThat(response, hasSize(1));
+    assertThat(response, hasItem(cached));
+  }
+
+  private void enableVersionedCache() {
+    ReferenceDataCacheFactory cacheFactory = mock(ReferenceDataCacheFactory.class);
+    when(cacheFactory.createVersioned("orderables")).thenReturn(new ReferenceDataCache<>(
+        "orderables", Duration.ofSeconds(-1), 10, Clock.systemUTC()));
+    service.setCacheFactory(cacheFactory);
+  }
 }
@@ -15,11 +15,24 @@
 
 package org.openlmis.requisition.service.referencedata;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import com.google.common.collect.Sets;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
@@ -29,6 +42,11 @@ import org.junit.Test;
 import org.openlmis.requisition.dto.ProgramDto;
 import org.openlmis.requisition.service.BaseCommunicationService;
 import org.openlmis.requisition.testutils.ProgramDtoDataBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 
 public class ProgramReferenceDataServiceTest extends BaseReferenceDataServiceTest<ProgramDto> {
 
@@ -91,4 +109,77 @@ public class ProgramReferenceDataServiceTest extends BaseReferenceDataServiceTes
         .hasAuthHeader()
         .hasEmptyBody();
   }
+
+  @Test
+  public void shouldTakeProgramFromCacheIfItIsFresh() {
+    // given
+    enableCache(Duration.ofMinutes(1));
+    UUID programId = UUID.randomUUID();
+    ProgramDto program = new ProgramDtoDataBuilder().buildAsDto();
+
+    when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET), any(HttpEntity.class),
+        eq(ProgramDto.class)))
+        .thenReturn(new ResponseEntity<>(program, HttpStatus.OK));
+
+    // when
+    ProgramDto first = service.findOne(programId);
+    ProgramDto second = service.findOne(programId);
+
+    // then
+    assertThat(first, is(sameInstance(program)));
+    assertThat(second, is(sameInstance(program)));
+    verify(restTemplate, times(1)).exchange(any(URI.class), eq(HttpMethod.GET),
+        any(HttpEntity.class), eq(ProgramDto.class));
+  }
+
+  @Test
+  public void shouldRevalidateCachedProgramWithEtag() {
+    // given
+    enableCache(Duration.ZERO);
+    UUID programId = UUID.randomUUID();
+    ProgramDto program = new ProgramDtoDataBuilder().buildAsDto();
+    HttpHeaders headers = new HttpHeaders();
+    headers.setETag("\"1\"");
+
+    when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET), any(HttpEntity.class),
+        eq(ProgramDto.class)))
+        .thenReturn(new ResponseEntity<>(program, headers, HttpStatus.OK))
+        .thenReturn(new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED));
+
+    // when
+    service.findOne(programId);
+    ProgramDto revalidated = service.findOne(programId);
+
+    // then
+    assertThat(revalidated, is(sameInstance(program)));
+    assertThat(service.getCache().getRevalidationCount(), is(1L));
+
+    verify(restTemplate, times(2)).exchange(uriCaptor.capture(), eq(HttpMethod.GET),
+        entityCaptor.capture(), eq(ProgramDto.class));
+    assertThat(entityCaptor.getAllValues().get(0).getHeaders().getIfNoneMatch(), hasSize(0));
+    assertThat(entityCaptor.getAllValues().get(1).getHeaders().getIfNoneMatch(),
+        contains("\"1\""));
+  }
+
+  @Test
+  public void shouldNotCacheProgramThatDoesNotExist() {
+    // given
+    enableCache(Duration.ofMinutes(1));
+    UUID programId = UUID.randomUUID();
+    mockRequestFail(HttpStatus.NOT_FOUND);
+
+    // when
+    ProgramDto found = service.findOne(programId);
+
+    // then
+    assertThat(found, is(nullValue()));
+    assertThat(service.getCache().size(), is(0));
+  }
+
+  private void enableCache(Duration timeToLive) {
+    ReferenceDataCacheFactory cacheFactory = mock(ReferenceDataCacheFactory.class);
+    when(cacheFactory.create("programs"))
+        .thenReturn(new ReferenceDataCache<>("programs", timeToLive, 10, Clock.systemUTC()));
+    service.setCacheFactory(cacheFactory);
+  }
 }
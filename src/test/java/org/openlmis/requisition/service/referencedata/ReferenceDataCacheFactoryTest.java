@@ -0,0 +1,59 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.referencedata;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.time.Clock;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ReferenceDataCacheFactoryTest {
+
+  private ReferenceDataCacheFactory cacheFactory = new ReferenceDataCacheFactory();
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(cacheFactory, "clock", Clock.systemUTC());
+  }
+
+  @Test
+  public void shouldCreateCaches() {
+    ReflectionTestUtils.setField(cacheFactory, "env", new MockEnvironment()
+        .withProperty("referencedata.cache.ttl", "60")
+        .withProperty("referencedata.cache.maxSize", "10")
+        .withProperty("referencedata.cache.versioned.maxSize", "10"));
+
+    assertThat(cacheFactory.create("facilities"), is(notNullValue()));
+    assertThat(cacheFactory.createVersioned("orderables"), is(notNullValue()));
+  }
+
+  @Test
+  public void shouldNotCreateCacheIfMaxSizeIsZero() {
+    ReflectionTestUtils.setField(cacheFactory, "env", new MockEnvironment()
+        .withProperty("referencedata.cache.ttl", "60")
+        .withProperty("referencedata.cache.maxSize", "0")
+        .withProperty("referencedata.cache.versioned.maxSize", "0"));
+
+    assertThat(cacheFactory.create("facilities"), is(nullValue()));
+    assertThat(cacheFactory.createVersioned("orderables"), is(nullValue()));
+  }
+}
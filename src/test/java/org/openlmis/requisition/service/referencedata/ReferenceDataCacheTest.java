@@ -0,0 +1,143 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.referencedata;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.requisition.service.ServiceResponse;
+import org.springframework.http.HttpHeaders;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReferenceDataCacheTest {
+
+  private static final String KEY = "key";
+  private static final String ETAG = "\"1\"";
+
+  @Mock
+  private Clock clock;
+
+  private Instant now = Instant.parse("2019-12-20T10:00:00Z");
+
+  private List<String> sentEtags = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    when(clock.instant()).thenAnswer(invocation -> now);
+  }
+
+  @Test
+  public void shouldLoadValueOnlyOnceIfItIsFresh() {
+    ReferenceDataCache<String, String> cache = createCache(Duration.ofMinutes(1), 10);
+
+    assertThat(cache.get(KEY, etag -> load("value", etag)), is("value"));
+    now = now.plusSeconds(30);
+    assertThat(cache.get(KEY, etag -> load("other", etag)), is("value"));
+
+    assertThat(sentEtags.size(), is(1));
+    assertThat(cache.getHitCount(), is(1L));
+    assertThat(cache.getMissCount(), is(1L));
+  }
+
+  @Test
+  public void shouldKeepValueIfItWasNotModified() {
+    ReferenceDataCache<String, String> cache = createCache(Duration.ofMinutes(1), 10);
+
+    cache.get(KEY, etag -> load("value", etag));
+    now = now.plusSeconds(90);
+    String value = cache.get(KEY, this::notModified);
+    now = now.plusSeconds(30);
+    cache.get(KEY, etag -> load("other", etag));
+
+    assertThat(value, is("value"));
+    assertThat(sentEtags.get(1), is(ETAG));
+    assertThat(sentEtags.size(), is(2));
+    assertThat(cache.getRevalidationCount(), is(1L));
+  }
+
+  @Test
+  public void shouldReplaceValueIfItWasModified() {
+    ReferenceDataCache<String, String> cache = createCache(Duration.ofMinutes(1), 10);
+
+    cache.get(KEY, etag -> load("value", etag));
+    now = now.plusSeconds(90);
+
+    assertThat(cache.get(KEY, etag -> load("other", etag)), is("other"));
+    assertThat(cache.getMissCount(), is(2L));
+  }
+
+  @Test
+  public void shouldNeverExpireValuesIfTimeToLiveIsNegative() {
+    ReferenceDataCache<String, String> cache = createCache(Duration.ofSeconds(-1), 10);
+
+    cache.get(KEY, etag -> load("value", etag));
+    now = now.plus(Duration.ofDays(365));
+
+    assertThat(cache.get(KEY, etag -> load("other", etag)), is("value"));
+    assertThat(cache.getIfPresent(KEY), is("value"));
+  }
+
+  @Test
+  public void shouldNotCacheValuesThatDoNotExist() {
+    ReferenceDataCache<String, String> cache = createCache(Duration.ofMinutes(1), 10);
+
+    assertThat(cache.get(KEY, etag -> load(null, etag)), is(nullValue()));
+    assertThat(cache.size(), is(0));
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedValue() {
+    ReferenceDataCache<String, String> cache = createCache(Duration.ofMinutes(1), 2);
+
+    cache.put("a", "1");
+    cache.put("b", "2");
+    cache.getIfPresent("a");
+    cache.put("c", "3");
+
+    assertThat(cache.size(), is(2));
+    assertThat(cache.getIfPresent("a"), is("1"));
+    assertThat(cache.getIfPresent("b"), is(nullValue()));
+    assertThat(cache.getEvictionCount(), is(1L));
+  }
+
+  private ReferenceDataCache<String, String> createCache(Duration timeToLive, int maxSize) {
+    return new ReferenceDataCache<>("test", timeToLive, maxSize, clock);
+  }
+
+  private ServiceResponse<String> load(String value, String etag) {
+    sentEtags.add(etag);
+    HttpHeaders headers = new HttpHeaders();
+    headers.setETag(ETAG);
+    return new ServiceResponse<>(value, headers, true);
+  }
+
+  private ServiceResponse<String> notModified(String etag) {
+    sentEtags.add(etag);
+    return new ServiceResponse<>(null, new HttpHeaders(), false);
+  }
+}
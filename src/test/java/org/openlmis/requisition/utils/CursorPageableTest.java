@@ -0,0 +1,87 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.utils;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.UUID;
+import org.junit.Test;
+import org.openlmis.requisition.exception.ValidationMessageException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+
+public class CursorPageableTest {
+
+  private static final String CREATED_DATE = "createdDate";
+
+  private ZonedDateTime createdDate = ZonedDateTime.parse("2019-12-20T10:15:30.123+01:00");
+  private UUID id = UUID.randomUUID();
+
+  @Test
+  public void shouldCreateFirstPageForEmptyCursor() {
+    CursorPageable pageable = CursorPageable.of("", new PageRequest(0, 10));
+
+    assertThat(pageable.isFirst(), is(true));
+    assertThat(pageable.isAscending(), is(true));
+    assertThat(pageable.getPageSize(), is(10));
+  }
+
+  @Test
+  public void shouldDecodeCreatedDateAndIdFromCursor() {
+    String cursor = CursorPageable.toCursor(createdDate, id);
+
+    CursorPageable pageable = CursorPageable.of(cursor, new PageRequest(3, 10));
+
+    assertThat(pageable.isFirst(), is(false));
+    assertThat(pageable.getCreatedDate().isEqual(createdDate), is(true));
+    assertThat(pageable.getId(), is(id));
+  }
+
+  @Test
+  public void shouldUseDirectionOfCreatedDateSort() {
+    CursorPageable pageable = CursorPageable.of("",
+        new PageRequest(0, 10, Direction.DESC, "emergency", CREATED_DATE));
+
+    assertThat(pageable.isAscending(), is(false));
+    assertThat(pageable.toPageable().getSort().getOrderFor(CREATED_DATE).getDirection(),
+        is(Direction.DESC));
+    assertThat(pageable.toPageable().getSort().getOrderFor("emergency"), is(nullValue()));
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldThrowExceptionIfCursorIsNotBase64() {
+    CursorPageable.of("%%%", new PageRequest(0, 10));
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldThrowExceptionIfCursorHasWrongContent() {
+    CursorPageable.of("bm90LWEtY3Vyc29y", new PageRequest(0, 10));
+  }
+
+  @Test
+  public void shouldReturnSliceWithoutNextCursorIfThereAreNoMoreElements() {
+    CursorPageable pageable = CursorPageable.of("", new PageRequest(0, 10));
+    CursorSlice<String> slice = new CursorSlice<>(Collections.singletonList("a"), pageable, null);
+
+    assertThat(slice.hasNext(), is(false));
+    assertThat(slice.isLast(), is(true));
+    assertThat(slice.getNextCursor(), is(nullValue()));
+  }
+}
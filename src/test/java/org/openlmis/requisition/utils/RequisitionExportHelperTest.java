@@ -18,6 +18,9 @@ package org.openlmis.requisition.utils;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
@@ -25,12 +28,15 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import org.javers.common.collections.Sets;
@@ -49,12 +55,14 @@ import org.openlmis.requisition.domain.requisition.RequisitionLineItemDataBuilde
 import org.openlmis.requisition.domain.requisition.RequisitionStatus;
 import org.openlmis.requisition.domain.requisition.VersionEntityReference;
 import org.openlmis.requisition.dto.ApprovedProductDto;
+import org.openlmis.requisition.dto.BatchApproveRequisitionLineItemDto;
 import org.openlmis.requisition.dto.OrderableDto;
 import org.openlmis.requisition.dto.ProcessingPeriodDto;
 import org.openlmis.requisition.dto.ProcessingScheduleDto;
 import org.openlmis.requisition.dto.ProgramDto;
 import org.openlmis.requisition.dto.ProgramOrderableDto;
 import org.openlmis.requisition.dto.RequisitionLineItemDto;
+import org.openlmis.requisition.dto.VersionIdentityDto;
 import org.openlmis.requisition.service.referencedata.FacilityTypeApprovedProductReferenceDataService;
 import org.openlmis.requisition.service.referencedata.OrderableReferenceDataService;
 import org.openlmis.requisition.service.referencedata.ProgramReferenceDataService;
@@ -179,6 +187,57 @@ public class RequisitionExportHelperTest {
             approvedProductDto.getVersionNumber()))));
   }
 
+  @Test
+  public void shouldExportManyLinesWithVersionsOfGivenOrderablesAndApprovedProducts() {
+    Map<VersionIdentityDto, OrderableDto> orderables = new HashMap<>();
+    Map<VersionIdentityDto, ApprovedProductDto> approvedProducts = new HashMap<>();
+    List<RequisitionLineItem> lineItems = new ArrayList<>();
+
+    for (int i = 0; i < 250; i++) {
+      UUID orderableId = UUID.randomUUID();
+      UUID approvedProductId = UUID.randomUUID();
+
+      for (long version = 1; version <= 2; version++) {
+        OrderableDto orderable = new OrderableDtoDataBuilder()
+            .withId(orderableId)
+            .withVersionNumber(version)
+            .buildAsDto();
+        ApprovedProductDto approvedProduct = new ApprovedProductDtoDataBuilder()
+            .withId(approvedProductId)
+            .withVersionNumber(version)
+            .withMaxPeriodsOfStock(i * 2 + version)
+            .buildAsDto();
+        orderables.put(orderable.getIdentity(), orderable);
+        approvedProducts.put(approvedProduct.getIdentity(), approvedProduct);
+
+        lineItems.add(new RequisitionLineItemDataBuilder()
+            .withRequisition(requisition)
+            .withOrderable(orderableId, version)
+            .withFacilityTypeApprovedProduct(approvedProductId, version)
+            .build());
+      }
+    }
+
+    List<RequisitionLineItemDto> items = requisitionExportHelper
+        .exportToDtos(lineItems, orderables, approvedProducts, true);
+
+    assertThat(items, hasSize(lineItems.size()));
+    for (int i = 0; i < items.size(); i++) {
+      RequisitionLineItem lineItem = lineItems.get(i);
+      RequisitionLineItemDto item = items.get(i);
+
+      assertThat(item, is(instanceOf(BatchApproveRequisitionLineItemDto.class)));
+      assertThat(item.getOrderable(), is(sameInstance(
+          orderables.get(new VersionIdentityDto(lineItem.getOrderable())))));
+      assertEquals(new BigDecimal(approvedProducts
+              .get(new VersionIdentityDto(lineItem.getFacilityTypeApprovedProduct()))
+              .getMaxPeriodsOfStock()),
+          item.getMaxPeriodsOfStock());
+    }
+    assertThat(orderables.size(), is(lineItems.size()));
+    assertThat(approvedProducts.size(), is(lineItems.size()));
+  }
+
   private RequisitionLineItem generateRequisitionLineItemToExport(UUID orderableDtoUuid,
       UUID approvedProductDtoId) {
     ProgramOrderableDto programOrderableDto = new ProgramOrderableDtoDataBuilder()
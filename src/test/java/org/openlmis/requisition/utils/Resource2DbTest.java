@@ -15,9 +15,11 @@
 
 package org.openlmis.requisition.utils;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -27,16 +29,20 @@ import static org.mockito.Mockito.when;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.Collections;
 import java.util.List;
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.tuple.Pair;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.postgresql.core.BaseConnection;
 import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -131,39 +137,52 @@ public class Resource2DbTest {
   }
 
   @Test
-  public void resourceCsvToBatchedPairShouldReturnListPair() throws IOException {
+  public void insertToDbFromCsvShouldInsertRowsIfDatabaseIsNotPostgres() throws Exception {
     // given
-    Resource resource = mock(Resource.class);
-    InputStream inputStream = spy(IOUtils.toInputStream("Col1,Col2\na,b", CHARSET));
-    when(resource.getInputStream()).thenReturn(inputStream);
+    Resource resource = mockResource("Col1,Col2\na,\nc,d");
+    mockConnection();
+    when(template.batchUpdate(any(String.class), any(List.class))).thenReturn(new int[]{1, 1});
 
     // when
-    Pair<List<String>, List<Object[]>> batchedPair = resource2Db.resourceCsvToBatchedPair(resource);
+    resource2Db.insertToDbFromCsv("test", resource);
 
     // then
-    List headers = batchedPair.getLeft();
-    assertEquals(2, headers.size());
-    assertEquals("Col1", headers.get(0));
-    assertEquals("Col2", headers.get(1));
+    ArgumentCaptor<List> rows = ArgumentCaptor.forClass(List.class);
+    verify(template).batchUpdate(eq("INSERT INTO test (Col1,Col2) VALUES (?,?)"), rows.capture());
 
-    List rows = batchedPair.getRight();
-    assertEquals(1, rows.size());
-    Object[] rowData = batchedPair.getRight().get(0);
-    assertEquals(2, rowData.length);
-    assertEquals("a", rowData[0]);
-    assertEquals("b", rowData[1]);
+    List<Object[]> rowData = rows.getValue();
+    assertEquals(2, rowData.size());
+    assertArrayEquals(new Object[]{"a", null}, rowData.get(0));
+    assertArrayEquals(new Object[]{"c", "d"}, rowData.get(1));
+  }
+
+  @Test
+  public void insertToDbFromCsvShouldInsertRowsInBatches() throws Exception {
+    // given
+    StringBuilder csv = new StringBuilder("Col1,Col2");
+    for (int i = 0; i <= Resource2Db.INSERT_BATCH_SIZE; ++i) {
+      csv.append("\na,b");
+    }
+
+    Resource resource = mockResource(csv.toString());
+    mockConnection();
+    when(template.batchUpdate(any(String.class), any(List.class))).thenReturn(new int[]{1});
+
+    // when
+    resource2Db.insertToDbFromCsv("test", resource);
+
+    // then
+    verify(template, times(2)).batchUpdate(any(String.class), any(List.class));
   }
 
   @Test(expected = IllegalArgumentException.class)
-  public void resourceCsvToBatchedPairShouldThrowExceptionIfRecordIsInconsistent()
-      throws IOException {
+  public void insertToDbFromCsvShouldThrowExceptionIfRecordIsInconsistent() throws Exception {
     // given
-    Resource resource = mock(Resource.class);
-    InputStream inputStream = spy(IOUtils.toInputStream("Col1,Col2\na,b,c", CHARSET));
-    when(resource.getInputStream()).thenReturn(inputStream);
+    Resource resource = mockResource("Col1,Col2\na,b,c");
+    mockConnection();
 
     // when
-    resource2Db.resourceCsvToBatchedPair(resource);
+    resource2Db.insertToDbFromCsv("test", resource);
   }
 
   @Test
@@ -180,4 +199,17 @@ public class Resource2DbTest {
     new Resource2Db(null);
   }
 
+  private Resource mockResource(String data) throws IOException {
+    Resource resource = mock(Resource.class);
+    when(resource.getInputStream()).thenReturn(IOUtils.toInputStream(data, CHARSET));
+
+    return resource;
+  }
+
+  private void mockConnection() throws SQLException {
+    Connection connection = mock(Connection.class);
+    when(connection.isWrapperFor(BaseConnection.class)).thenReturn(false);
+    when(template.execute(any(ConnectionCallback.class))).thenAnswer(invocation ->
+        ((ConnectionCallback) invocation.getArguments()[0]).doInConnection(connection));
+  }
 }
@@ -18,7 +18,10 @@ package org.openlmis.requisition.web;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
@@ -41,14 +44,16 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
-import org.openlmis.requisition.domain.requisition.Requisition;
-import org.openlmis.requisition.domain.requisition.RequisitionStatus;
-import org.openlmis.requisition.domain.requisition.StatusChange;
+import org.openlmis.requisition.domain.requisition.RequisitionCompletion;
 import org.openlmis.requisition.dto.BasicProcessingPeriodDto;
 import org.openlmis.requisition.dto.GeographicZoneDto;
 import org.openlmis.requisition.dto.MinimalFacilityDto;
 import org.openlmis.requisition.dto.ProcessingPeriodDto;
 import org.openlmis.requisition.dto.ProcessingScheduleDto;
+import org.openlmis.requisition.dto.ProgramDto;
+import org.openlmis.requisition.dto.ReportingRateReportDto;
+import org.openlmis.requisition.dto.RequisitionCompletionDto;
+import org.openlmis.requisition.repository.RequisitionRepository;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
 import org.openlmis.requisition.service.referencedata.GeographicZoneReferenceDataService;
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
@@ -70,6 +75,9 @@ public class ReportingRateDtoBuilderTest {
   @Mock
   private GeographicZoneReferenceDataService geographicZoneReferenceDataService;
 
+  @Mock
+  private RequisitionRepository requisitionRepository;
+
   @Test
   public void shouldGetLatestPeriods() {
     // given
@@ -192,19 +200,16 @@ public class ReportingRateDtoBuilderTest {
     LocalDateTime dueDate = LocalDate.of(1994, 8, 10).atStartOfDay();
     ZoneId zoneId = ZoneId.systemDefault();
 
-    List<Requisition> requisitions = new ArrayList<>();
+    List<RequisitionCompletion> requisitions = new ArrayList<>();
 
     // on-time requisition
-    requisitions.add(mockRequisitionWithStatusChanges(
-        RequisitionStatus.APPROVED, ZonedDateTime.of(dueDate, zoneId)));
+    requisitions.add(generateCompletion(ZonedDateTime.of(dueDate, zoneId)));
 
     // late requisition
-    requisitions.add(mockRequisitionWithStatusChanges(
-        RequisitionStatus.APPROVED, ZonedDateTime.of(dueDate.plusDays(5), zoneId)));
+    requisitions.add(generateCompletion(ZonedDateTime.of(dueDate.plusDays(5), zoneId)));
 
     // missed requisition
-    requisitions.add(mockRequisitionWithStatusChanges(
-        RequisitionStatus.SUBMITTED, ZonedDateTime.of(dueDate.minusDays(5), zoneId)));
+    requisitions.add(generateCompletion(null));
 
     // when
     ReportingRateReportDtoBuilder.CompletionCounter counter = builder.new CompletionCounter();
@@ -219,7 +224,7 @@ public class ReportingRateDtoBuilderTest {
   @Test
   public void shouldUpdateCompletionsWithMissedIfNoRequisitionsProvided() {
     // given
-    List<Requisition> requisitions = new ArrayList<>();
+    List<RequisitionCompletion> requisitions = new ArrayList<>();
 
     // when
     ReportingRateReportDtoBuilder.CompletionCounter counter = builder.new CompletionCounter();
@@ -231,6 +236,92 @@ public class ReportingRateDtoBuilderTest {
     assertEquals(1, counter.getMissed());
   }
 
+  @Test
+  public void shouldBuildReportFromSingleCompletionSearch() {
+    // given
+    ProcessingPeriodDto period = generateProcessingPeriods(1, null).get(0);
+    period.setName("period");
+    when(periodReferenceDataService.search(any(UUID.class), any(LocalDate.class)))
+        .thenReturn(Collections.singletonList(period));
+
+    GeographicZoneDto zone1 = mockGeographicZoneWithFacility(true);
+    when(zone1.getName()).thenReturn("zone1");
+    GeographicZoneDto zone2 = mockGeographicZoneWithFacility(true);
+    when(zone2.getName()).thenReturn("zone2");
+    when(geographicZoneReferenceDataService.search(GEOGRAPHIC_LEVEL_NUMBER, null))
+        .thenReturn(Arrays.asList(zone2, zone1));
+
+    UUID facility1 = getFacilityId(zone1);
+    UUID facility2 = getFacilityId(zone2);
+    ZonedDateTime dueDate = period.getEndDate().atStartOfDay(ZoneId.systemDefault());
+
+    ProgramDto program = new ProgramDto();
+    program.setId(UUID.randomUUID());
+
+    when(requisitionRepository.searchRequisitionCompletions(eq(program.getId()),
+        eq(Collections.singleton(period.getId())),
+        eq(new HashSet<>(Arrays.asList(facility1, facility2)))))
+        .thenReturn(Arrays.asList(
+            generateCompletion(period.getId(), facility1, dueDate),
+            generateCompletion(period.getId(), facility1, dueDate.plusDays(1)),
+            generateCompletion(period.getId(), facility2, null)));
+
+    // when
+    ReportingRateReportDto report = builder.build(program, period, null, 0);
+
+    // then
+    verify(requisitionRepository).searchRequisitionCompletions(any(UUID.class),
+        anyCollectionOf(UUID.class), anyCollectionOf(UUID.class));
+
+    assertEquals(1, report.getCompletionByPeriod().size());
+    assertCompletion(report.getCompletionByPeriod().get(0), "period", 1, 1, 1);
+
+    assertEquals(2, report.getCompletionByZone().size());
+    assertCompletion(report.getCompletionByZone().get(0), "zone1", 1, 1, 0);
+    assertCompletion(report.getCompletionByZone().get(1), "zone2", 0, 0, 1);
+  }
+
+  @Test
+  public void shouldCountMissedCompletionWhenFacilityHasNoRequisitions() {
+    // given
+    ProcessingPeriodDto period = generateProcessingPeriods(1, null).get(0);
+    when(periodReferenceDataService.search(any(UUID.class), any(LocalDate.class)))
+        .thenReturn(Collections.singletonList(period));
+
+    GeographicZoneDto zone = mockGeographicZoneWithFacility(true);
+    when(zone.getName()).thenReturn("zone");
+    when(geographicZoneReferenceDataService.search(GEOGRAPHIC_LEVEL_NUMBER, zone.getId()))
+        .thenReturn(Collections.singletonList(zone));
+
+    ProgramDto program = new ProgramDto();
+    program.setId(UUID.randomUUID());
+
+    when(requisitionRepository.searchRequisitionCompletions(any(UUID.class),
+        anyCollectionOf(UUID.class), anyCollectionOf(UUID.class)))
+        .thenReturn(Collections.emptyList());
+
+    // when
+    ReportingRateReportDto report = builder.build(program, period, zone, 0);
+
+    // then
+    assertCompletion(report.getCompletionByPeriod().get(0), null, 0, 0, 1);
+    assertCompletion(report.getCompletionByZone().get(0), "zone", 0, 0, 1);
+  }
+
+  private void assertCompletion(RequisitionCompletionDto completion, String grouping,
+      int onTime, int late, int missed) {
+    assertEquals(grouping, completion.getGrouping());
+    assertEquals(onTime, completion.getOnTime());
+    assertEquals(late, completion.getLate());
+    assertEquals(missed, completion.getMissed());
+    assertEquals(onTime + late, completion.getCompleted());
+    assertEquals(onTime + late + missed, completion.getTotal());
+  }
+
+  private UUID getFacilityId(GeographicZoneDto zone) {
+    return facilityReferenceDataService.search(null, null, zone.getId(), true).get(0).getId();
+  }
+
   private GeographicZoneDto mockGeographicZoneWithFacility(boolean facilityActive) {
     GeographicZoneDto zone = mock(GeographicZoneDto.class);
     UUID zoneId = UUID.randomUUID();
@@ -251,17 +342,13 @@ public class ReportingRateDtoBuilderTest {
     return zone;
   }
 
-  private Requisition mockRequisitionWithStatusChanges(
-      RequisitionStatus status, ZonedDateTime date) {
-    StatusChange entry = mock(StatusChange.class);
-    when(entry.getStatus()).thenReturn(status);
-    when(entry.getCreatedDate()).thenReturn(date);
-    List<StatusChange> changes = Collections.singletonList(entry);
-
-    Requisition requisition = mock(Requisition.class);
-    when(requisition.getStatusChanges()).thenReturn(changes);
+  private RequisitionCompletion generateCompletion(ZonedDateTime approvedDate) {
+    return generateCompletion(UUID.randomUUID(), UUID.randomUUID(), approvedDate);
+  }
 
-    return requisition;
+  private RequisitionCompletion generateCompletion(UUID periodId, UUID facilityId,
+      ZonedDateTime approvedDate) {
+    return new RequisitionCompletion(UUID.randomUUID(), periodId, facilityId, approvedDate);
   }
 
   private List<ProcessingPeriodDto> generateProcessingPeriods(
@@ -106,12 +106,14 @@ import org.openlmis.requisition.exception.VersionMismatchException;
 import org.openlmis.requisition.repository.RequisitionRepository;
 import org.openlmis.requisition.repository.RequisitionTemplateRepository;
 import org.openlmis.requisition.repository.custom.ProcessedRequestsRedisRepository;
+import org.openlmis.requisition.service.DeliveredNotifications;
 import org.openlmis.requisition.service.PeriodService;
 import org.openlmis.requisition.service.PermissionService;
+import org.openlmis.requisition.service.ReferenceDataMemo;
 import org.openlmis.requisition.service.RequisitionService;
 import org.openlmis.requisition.service.RequisitionStatusNotifier;
-import org.openlmis.requisition.service.RequisitionStatusProcessor;
 import org.openlmis.requisition.service.RequisitionTemplateService;
+import org.openlmis.requisition.service.StatusChangeNotificationService;
 import org.openlmis.requisition.service.referencedata.ApproveProductsAggregator;
 import org.openlmis.requisition.service.referencedata.ApprovedProductReferenceDataService;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
@@ -142,7 +144,9 @@ import org.openlmis.requisition.validate.RequisitionVersionValidator;
 import org.slf4j.profiler.Profiler;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpServerErrorException;
 
 @SuppressWarnings({"PMD.TooManyMethods", "PMD.UnusedPrivateField"})
 public class RequisitionControllerTest {
@@ -207,7 +211,7 @@ public class RequisitionControllerTest {
   private RequisitionVersionValidator requisitionVersionValidator;
 
   @Mock
-  private RequisitionStatusProcessor requisitionStatusProcessor;
+  private StatusChangeNotificationService statusChangeNotificationService;
 
   @Mock
   private RequisitionStatusNotifier requisitionStatusNotifier;
@@ -1129,7 +1133,25 @@ public class RequisitionControllerTest {
     requisitionController.rejectRequisition(authorizedRequsition.getId(), request, response);
 
     verify(requisitionStatusNotifier)
-        .notifyStatusChanged(initiatedRequsition, LocaleContextHolder.getLocale());
+        .notifyStatusChanged(eq(initiatedRequsition), eq(LocaleContextHolder.getLocale()),
+            any(ReferenceDataMemo.class), any(DeliveredNotifications.class));
+  }
+
+  @Test
+  public void shouldRejectRequisitionIfInitiatorCouldNotBeNotified() {
+    when(permissionService.canApproveRequisition(authorizedRequsition))
+        .thenReturn(ValidationResult.success());
+    when(requisitionService.reject(authorizedRequsition, Collections.emptyMap()))
+        .thenReturn(initiatedRequsition);
+    doThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE))
+        .when(requisitionStatusNotifier)
+        .notifyStatusChanged(eq(initiatedRequsition), eq(LocaleContextHolder.getLocale()),
+            any(ReferenceDataMemo.class), any(DeliveredNotifications.class));
+
+    BasicRequisitionDto rejected = requisitionController
+        .rejectRequisition(authorizedRequsition.getId(), request, response);
+
+    assertNotNull(rejected);
   }
 
   @Test
@@ -1144,8 +1166,8 @@ public class RequisitionControllerTest {
         any(Requisition.class),
         any(UUID.class));
 
-    verify(requisitionStatusProcessor)
-        .statusChange(authorizedRequsition, LocaleContextHolder.getLocale());
+    verify(statusChangeNotificationService)
+        .enqueue(authorizedRequsition, LocaleContextHolder.getLocale());
   }
 
   @Test
@@ -1190,8 +1212,8 @@ public class RequisitionControllerTest {
 
     requisitionController.authorizeRequisition(submittedRequsition.getId(), request, response);
 
-    verify(requisitionStatusProcessor)
-        .statusChange(submittedRequsition, LocaleContextHolder.getLocale());
+    verify(statusChangeNotificationService)
+        .enqueue(submittedRequsition, LocaleContextHolder.getLocale());
   }
 
   @Test
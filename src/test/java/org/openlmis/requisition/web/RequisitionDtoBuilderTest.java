@@ -58,6 +58,7 @@ import org.openlmis.requisition.dto.ReasonDto;
 import org.openlmis.requisition.dto.ReasonType;
 import org.openlmis.requisition.dto.RequisitionDto;
 import org.openlmis.requisition.dto.RequisitionLineItemDto;
+import org.openlmis.requisition.dto.SupportedProgramDto;
 import org.openlmis.requisition.dto.VersionIdentityDto;
 import org.openlmis.requisition.service.PeriodService;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
@@ -68,6 +69,7 @@ import org.openlmis.requisition.testutils.ApprovedProductDtoDataBuilder;
 import org.openlmis.requisition.testutils.DtoGenerator;
 import org.openlmis.requisition.testutils.OrderableDtoDataBuilder;
 import org.openlmis.requisition.testutils.StockAdjustmentReasonDataBuilder;
+import org.openlmis.requisition.testutils.SupportedProgramDtoDataBuilder;
 import org.openlmis.requisition.utils.RequisitionExportHelper;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -246,6 +248,24 @@ public class RequisitionDtoBuilderTest {
     assertTrue(requisitionDto.getAvailableNonFullSupplyProducts().isEmpty());
   }
 
+  @Test
+  public void shouldNotChangeFacilityRetrievedFromReferenceData() {
+    List<SupportedProgramDto> supportedPrograms =
+        Collections.singletonList(new SupportedProgramDtoDataBuilder().buildAsDto());
+    facility.setSupportedPrograms(supportedPrograms);
+    when(facilityReferenceDataService.findOne(facility.getId())).thenReturn(facility);
+
+    RequisitionDto requisitionDto = requisitionDtoBuilder.build(requisition);
+    final RequisitionDto batchDto = requisitionDtoBuilder.buildBatch(requisition, facility,
+        Collections.emptyMap(), Collections.emptyMap(), processingPeriod);
+
+    assertEquals(supportedPrograms, facility.getSupportedPrograms());
+    assertEquals(facility.getId(), requisitionDto.getFacility().getId());
+    assertEquals(facility.getName(), requisitionDto.getFacility().getName());
+    assertNull(requisitionDto.getFacility().getSupportedPrograms());
+    assertNull(batchDto.getFacility().getSupportedPrograms());
+  }
+
   @Test
   public void shouldBuildDtoFromRequisitionWhenReferenceDataInstancesDoNotExist() {
     when(facilityReferenceDataService.findOne(facility.getId())).thenReturn(null);
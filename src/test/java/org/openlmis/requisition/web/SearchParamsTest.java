@@ -224,7 +224,7 @@ public class SearchParamsTest extends ToStringContractTest<SearchParams> {
 
   @Override
   protected void prepare(ToStringVerifier<SearchParams> verifier) {
-    verifier.ignore("PAGE", "SIZE", "SORT", "ZONE_ID", "ACCESS_TOKEN");
+    verifier.ignore("PAGE", "SIZE", "SORT", "CURSOR", "ZONE_ID", "ACCESS_TOKEN");
   }
 
 }